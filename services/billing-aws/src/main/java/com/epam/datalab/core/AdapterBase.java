@@ -26,6 +26,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.MoreObjects.ToStringHelper;
 import org.bson.Document;
 
+import java.io.BufferedReader;
 import java.util.List;
 
 /**
@@ -134,6 +135,45 @@ public abstract class AdapterBase extends ModuleBase {
      */
     public abstract void close() throws AdapterException;
 
+    /**
+     * Open the adapter for the concurrent reading of entries and return the names of entries or
+     * <b>null</b> if the adapter does not support the concurrent reading.
+     *
+     * @throws AdapterException
+     */
+    public List<String> openEntries() throws AdapterException {
+        return null;
+    }
+
+    /**
+     * Open the reader of the entry. May be called concurrently for the different entries.
+     *
+     * @param entryName the name of entry.
+     * @throws AdapterException
+     */
+    public BufferedReader openEntry(String entryName) throws AdapterException {
+        throw new AdapterException("Unimplemented method called.");
+    }
+
+    /**
+     * Mark the entry as processed when all its data has been parsed.
+     *
+     * @param entryName the name of entry.
+     * @throws AdapterException
+     */
+    public void commitEntry(String entryName) throws AdapterException {
+        // Nothing to do
+    }
+
+    /**
+     * Complete the writing of data when all rows have been written successfully.
+     *
+     * @throws AdapterException
+     */
+    public void commit() throws AdapterException {
+        // Nothing to do
+    }
+
     /**
      * Return the current processed entry name.
      */
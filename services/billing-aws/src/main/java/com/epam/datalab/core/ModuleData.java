@@ -24,7 +24,10 @@ import com.epam.datalab.mongo.MongoConstants;
 import com.epam.datalab.mongo.MongoDbConnection;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.MoreObjects.ToStringHelper;
-import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
 import com.mongodb.client.model.UpdateOptions;
 import org.apache.commons.lang3.StringUtils;
 import org.bson.Document;
@@ -32,16 +35,17 @@ import org.bson.conversions.Bson;
 
 import java.io.IOException;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 
-import static com.mongodb.client.model.Filters.and;
 import static com.mongodb.client.model.Filters.eq;
-import static com.mongodb.client.model.Filters.gte;
-import static com.mongodb.client.model.Filters.or;
-import static com.mongodb.client.model.Filters.regex;
 
 /**
  * Provides loading and storing the working data of modules.
@@ -51,10 +55,13 @@ public class ModuleData {
     public static final String ENTRIES_FIELD = "entries";
     private static final String ID_FIELD = "_id";
     private static final String MODIFICATION_DATE = "lastModificationDate";
+    private static final String MANIFEST_INDEX = "BillingData_ModificationDateIdx";
     /**
-     * Date formatter.
+     * Date formatter. The formatter is immutable and thread-safe.
      */
-    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter
+            .ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSXXX")
+            .withZone(ZoneId.systemDefault());
     private final MongoDbConnection connection;
 
     private String id;
@@ -112,7 +119,14 @@ public class ModuleData {
      */
     public Date getDate(String key) throws ParseException {
         String value = entries.get(key);
-        return (value == null ? null : dateFormat.parse(value));
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Date.from(ZonedDateTime.parse(value, DATE_FORMAT).toInstant());
+        } catch (DateTimeParseException e) {
+            throw new ParseException(e.getMessage(), e.getErrorIndex());
+        }
     }
 
     /**
@@ -139,7 +153,7 @@ public class ModuleData {
      * @param value the date.
      */
     public void set(String key, Date value) {
-        set(key, dateFormat.format(value));
+        set(key, DATE_FORMAT.format(value.toInstant()));
     }
 
     public void store() {
@@ -149,14 +163,54 @@ public class ModuleData {
         modified = false;
     }
 
-    public boolean wasProcessed(String fileName, Date modificationDate, String datePrefix) {
-        final Bson filePerBillingPeriodCondition = and(regex(ID_FIELD, "^" + datePrefix), gte(MODIFICATION_DATE,
-                modificationDate));
-        final Bson fileWithExactNameCondition = and(eq(ID_FIELD, fileName), gte(MODIFICATION_DATE, modificationDate));
-        final FindIterable<Document> documents = connection.getCollection(MongoConstants.BILLING_DATA_COLLECTION)
-                .find(or(fileWithExactNameCondition, filePerBillingPeriodCondition))
-                .limit(1);
-        return documents.iterator().hasNext();
+    /**
+     * Load and return the modification dates of the processed files sorted by the name of file. The files
+     * are read in one query which is covered by the index on the name and the modification date.
+     */
+    public NavigableMap<String, Date> getProcessedFiles() {
+        final MongoCollection<Document> collection = connection.getCollection(MongoConstants.BILLING_DATA_COLLECTION);
+        final Bson index = Indexes.ascending(ID_FIELD, MODIFICATION_DATE);
+        collection.createIndex(index, new IndexOptions().name(MANIFEST_INDEX));
+
+        final NavigableMap<String, Date> files = new TreeMap<>();
+        for (Document document : collection.find()
+                .projection(Projections.include(ID_FIELD, MODIFICATION_DATE))
+                .hint(index)) {
+            final Object fileName = document.get(ID_FIELD);
+            final Date date = document.getDate(MODIFICATION_DATE);
+            if (fileName instanceof String && date != null) {
+                files.put((String) fileName, date);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Return <b>true</b> if the file with given name or any file of the same billing period has been
+     * processed and is not older than the given modification date.
+     *
+     * @param processedFiles   the processed files returned by {@link #getProcessedFiles()}.
+     * @param fileName         the name of file.
+     * @param modificationDate the modification date of file.
+     * @param datePrefix       the prefix of files of the same billing period.
+     */
+    public static boolean wasProcessed(NavigableMap<String, Date> processedFiles, String fileName,
+                                       Date modificationDate, String datePrefix) {
+        if (isNotOlder(processedFiles.get(fileName), modificationDate)) {
+            return true;
+        }
+        for (Map.Entry<String, Date> file : processedFiles.tailMap(datePrefix, true).entrySet()) {
+            if (!file.getKey().startsWith(datePrefix)) {
+                break;
+            } else if (isNotOlder(file.getValue(), modificationDate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isNotOlder(Date date, Date modificationDate) {
+        return (date != null && !date.before(modificationDate));
     }
 
     public void closeMongoConnection() throws IOException {
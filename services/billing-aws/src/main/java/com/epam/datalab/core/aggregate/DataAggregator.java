@@ -17,28 +17,42 @@
  * under the License.
  */
 
+
 package com.epam.datalab.core.aggregate;
 
 import com.epam.datalab.model.aws.ReportLine;
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.Vector;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 /**
- * Aggregate billing report and summarizes column usage and cost.
+ * Aggregate billing report and summarizes column usage and cost.<br>
+ * The report lines are aggregated in the hash map by the resource id, usage type, truncated usage date,
+ * product, user and datalab id. The lines are sorted by these columns only once, when they are requested
+ * after the aggregation.<br>
+ * This aggregator is not thread-safe, use the {@link ConcurrentDataAggregator} for the concurrent
+ * aggregation or aggregate the lines by the thread and {@link #merge(DataAggregator)} the aggregators.
  */
 public class DataAggregator {
     /**
-     * List of the report lines.
+     * Aggregated values by the aggregation keys.
+     */
+    private final Map<AggregateKey, AggregateValue> values;
+
+    /**
+     * Interned strings of the aggregation keys.
      */
-    private final Vector<ReportLine> reportLines = new Vector<>(1000);
+    private final Map<String, String> strings;
 
     /**
-     * Comparator for aggregation.
+     * Sorted list of the aggregated report lines, <b>null</b> if the lines have been changed.
      */
-    private final Comparator<ReportLine> aggComparator = new AggComparator();
+    private volatile List<ReportLine> reportLines;
 
     /**
      * Granularity for aggregation.
@@ -52,6 +66,18 @@ public class DataAggregator {
 
 
     public DataAggregator(AggregateGranularity granularity) {
+        this(granularity, new HashMap<>(), new HashMap<>());
+    }
+
+    /**
+     * Instantiate the aggregator with the given maps.
+     *
+     * @param granularity the granularity for aggregation.
+     * @param values      the map for aggregated values.
+     * @param strings     the map for interned strings.
+     */
+    protected DataAggregator(AggregateGranularity granularity, Map<AggregateKey, AggregateValue> values,
+                             Map<String, String> strings) {
         switch (granularity) {
             case DAY:
                 truncateDateLength = 10;
@@ -64,6 +90,8 @@ public class DataAggregator {
                         "actual is " + granularity);
         }
         this.granularity = granularity;
+        this.values = values;
+        this.strings = strings;
     }
 
     /**
@@ -74,32 +102,45 @@ public class DataAggregator {
     }
 
     /**
-     * Appends the report line to the list and returns it.
+     * Appends the report line to the aggregator. The first line appended for the key becomes the aggregated
+     * line, its usage date, usage and cost are set when the lines are requested.
      *
      * @param row the line of report.
-     * @return Instance of the aggregated report line.
-     */
-    public ReportLine append(ReportLine row) {
-        synchronized (this) {
-            String usageInterval = truncDate(row.getUsageDate());
-            row.setUsageDate(usageInterval);
-            int index = Collections.binarySearch(reportLines, row, aggComparator);
-            if (index < 0) {
-                index = -index;
-                if (index > reportLines.size()) {
-                    reportLines.add(row);
-                } else {
-                    reportLines.add(index - 1, row);
-                }
-            } else {
-                ReportLine found = reportLines.get(index);
-                found.setUsage(found.getUsage() + row.getUsage());
-                found.setCost(found.getCost() + row.getCost());
-                return found;
-            }
+     */
+    public void append(ReportLine row) {
+        final AggregateKey key = new AggregateKey(intern(row.getResourceId()), intern(row.getUsageType()),
+                intern(truncDate(row.getUsageDate())), intern(row.getProduct()), intern(row.getUser()),
+                intern(row.getDatalabId()));
+        values.computeIfAbsent(key, k -> new AggregateValue(row))
+                .add(row.getUsage(), row.getCost());
+        reportLines = null;
+    }
+
+    /**
+     * Appends the aggregated lines of other aggregator to this aggregator.
+     *
+     * @param other the aggregator with the same granularity.
+     */
+    public void merge(DataAggregator other) {
+        if (other.granularity != granularity) {
+            throw new IllegalArgumentException("Invalid granularity of aggregator: expected " + granularity +
+                    ", actual is " + other.granularity);
+        }
+        for (Map.Entry<AggregateKey, AggregateValue> entry : other.values.entrySet()) {
+            final AggregateValue value = entry.getValue();
+            values.computeIfAbsent(entry.getKey(), k -> new AggregateValue(value.reportLine))
+                    .add(value.getUsage(), value.getCost());
         }
+        reportLines = null;
+    }
 
-        return row;
+    /**
+     * Return the interned instance of string.
+     *
+     * @param value the string.
+     */
+    private String intern(String value) {
+        return (value == null ? null : strings.computeIfAbsent(value, v -> v));
     }
 
     /**
@@ -116,51 +157,110 @@ public class DataAggregator {
     }
 
     /**
-     * Returns the number of the report lines in list.
+     * Return the sorted list of the aggregated report lines.
+     */
+    private List<ReportLine> getReportLines() {
+        List<ReportLine> lines = reportLines;
+        if (lines == null) {
+            final List<Map.Entry<AggregateKey, AggregateValue>> entries = new ArrayList<>(values.entrySet());
+            entries.sort(Map.Entry.comparingByKey());
+            lines = new ArrayList<>(entries.size());
+            for (Map.Entry<AggregateKey, AggregateValue> entry : entries) {
+                final ReportLine line = entry.getValue().reportLine;
+                line.setUsageDate(entry.getKey().usageDate);
+                line.setUsage(entry.getValue().getUsage());
+                line.setCost(entry.getValue().getCost());
+                lines.add(line);
+            }
+            reportLines = lines = Collections.unmodifiableList(lines);
+        }
+        return lines;
+    }
+
+    /**
+     * Returns the number of the aggregated report lines.
      */
     public int size() {
-        return reportLines.size();
+        return values.size();
     }
 
     /**
-     * Returns the report line.
+     * Returns the aggregated report line in the order of aggregation columns.
      *
      * @param index index of the report line.
      */
     public ReportLine get(int index) {
-        return reportLines.get(index);
+        return getReportLines().get(index);
     }
 
     /**
-     * Removes all of the elements from list.
+     * Removes all of the elements from aggregator.
      */
     public void clear() {
-        reportLines.clear();
+        values.clear();
+        strings.clear();
+        reportLines = null;
     }
 
     /**
-     * Comparator for aggregation.
+     * Key for aggregation.
      */
-    private class AggComparator implements Comparator<ReportLine> {
+    protected static final class AggregateKey implements Comparable<AggregateKey> {
+        private final String resourceId;
+        private final String usageType;
+        private final String usageDate;
+        private final String product;
+        private final String user;
+        private final String datalabId;
+        private final int hash;
+
+        private AggregateKey(String resourceId, String usageType, String usageDate, String product, String user,
+                             String datalabId) {
+            this.resourceId = resourceId;
+            this.usageType = usageType;
+            this.usageDate = usageDate;
+            this.product = product;
+            this.user = user;
+            this.datalabId = datalabId;
+            this.hash = Objects.hash(resourceId, usageType, usageDate, product, user, datalabId);
+        }
+
         @Override
-        public int compare(ReportLine o1, ReportLine o2) {
-            if (o1 == null) {
-                return (o2 == null ? 0 : -1);
-            } else if (o2 == null) {
-                return 1;
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
             }
+            if (!(obj instanceof AggregateKey)) {
+                return false;
+            }
+            final AggregateKey key = (AggregateKey) obj;
+            return hash == key.hash &&
+                    Objects.equals(resourceId, key.resourceId) &&
+                    Objects.equals(usageType, key.usageType) &&
+                    Objects.equals(usageDate, key.usageDate) &&
+                    Objects.equals(product, key.product) &&
+                    Objects.equals(user, key.user) &&
+                    Objects.equals(datalabId, key.datalabId);
+        }
 
-            int result = StringUtils.compare(o1.getResourceId(), o2.getResourceId());
+        @Override
+        public int compareTo(AggregateKey o) {
+            int result = StringUtils.compare(resourceId, o.resourceId);
             if (result == 0) {
-                result = StringUtils.compare(o1.getUsageType(), o2.getUsageType());
+                result = StringUtils.compare(usageType, o.usageType);
                 if (result == 0) {
-                    result = StringUtils.compare(o1.getUsageDate(), o2.getUsageDate());
+                    result = StringUtils.compare(usageDate, o.usageDate);
                     if (result == 0) {
-                        result = StringUtils.compare(o1.getProduct(), o2.getProduct());
+                        result = StringUtils.compare(product, o.product);
                         if (result == 0) {
-                            result = StringUtils.compare(o1.getUser(), o2.getUser());
+                            result = StringUtils.compare(user, o.user);
                             if (result == 0) {
-                                return StringUtils.compare(o1.getDatalabId(), o2.getDatalabId());
+                                return StringUtils.compare(datalabId, o.datalabId);
                             }
                         }
                     }
@@ -169,4 +269,30 @@ public class DataAggregator {
             return result;
         }
     }
+
+    /**
+     * Aggregated usage and cost.
+     */
+    protected static final class AggregateValue {
+        private final ReportLine reportLine;
+        private double usage;
+        private double cost;
+
+        private AggregateValue(ReportLine reportLine) {
+            this.reportLine = reportLine;
+        }
+
+        private synchronized void add(double usage, double cost) {
+            this.usage += usage;
+            this.cost += cost;
+        }
+
+        private synchronized double getUsage() {
+            return usage;
+        }
+
+        private synchronized double getCost() {
+            return cost;
+        }
+    }
 }
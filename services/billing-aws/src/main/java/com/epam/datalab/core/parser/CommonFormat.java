@@ -25,7 +25,7 @@ import org.apache.commons.lang3.StringUtils;
 
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.LinkedHashMap;
 import java.util.List;
 
@@ -72,18 +72,18 @@ public class CommonFormat {
             .toString();
 
     /**
-     * Formatter for convert decimal numbers to string.
+     * Formatter for convert decimal numbers to string. The decimal format is not thread-safe so each thread
+     * has own instance.
      */
-    private static final DecimalFormat DECIMAL_TO_STRING_FORMAT;
-
-    static {
-        DECIMAL_TO_STRING_FORMAT = new DecimalFormat();
+    private static final ThreadLocal<DecimalFormat> DECIMAL_TO_STRING_FORMAT = ThreadLocal.withInitial(() -> {
+        DecimalFormat df = new DecimalFormat();
         DecimalFormatSymbols symbols = new DecimalFormatSymbols();
         symbols.setDecimalSeparator(DECIMAL_SEPARATOR_DEFAULT);
-        DECIMAL_TO_STRING_FORMAT.setDecimalFormatSymbols(symbols);
-        DECIMAL_TO_STRING_FORMAT.setGroupingUsed(false);
-        DECIMAL_TO_STRING_FORMAT.setMaximumFractionDigits(100);
-    }
+        df.setDecimalFormatSymbols(symbols);
+        df.setGroupingUsed(false);
+        df.setMaximumFractionDigits(100);
+        return df;
+    });
 
 
     /**
@@ -92,9 +92,20 @@ public class CommonFormat {
     private final ColumnMeta columnMeta;
 
     /**
-     * Formatter for parse of decimal number .
+     * The character used for decimal sign in source data.
+     */
+    private final char sourceDecimalSeparator;
+
+    /**
+     * The character used for thousands separator in source data.
+     */
+    private final char sourceGroupingSeparator;
+
+    /**
+     * Formatter for parse of decimal number which are not in plain format. The decimal format is not
+     * thread-safe so each thread has own instance.
      */
-    private final DecimalFormat sourceDecimalFormat;
+    private final ThreadLocal<DecimalFormat> sourceDecimalFormat;
 
 
     /**
@@ -115,7 +126,10 @@ public class CommonFormat {
      */
     public CommonFormat(ColumnMeta columnMeta, char sourceDecimalSeparator, char sourceGroupingSeparator) {
         this.columnMeta = columnMeta;
-        this.sourceDecimalFormat = getDecimalFormat(sourceDecimalSeparator, sourceGroupingSeparator);
+        this.sourceDecimalSeparator = sourceDecimalSeparator;
+        this.sourceGroupingSeparator = sourceGroupingSeparator;
+        this.sourceDecimalFormat = ThreadLocal.withInitial(() ->
+                getDecimalFormat(sourceDecimalSeparator, sourceGroupingSeparator));
     }
 
 
@@ -131,12 +145,19 @@ public class CommonFormat {
             return toReportLine(sourceRow);
         }
 
-        List<String> targetRow = new ArrayList<>();
-        for (ColumnInfo columnInfo : columnMeta.getColumnMapping()) {
-            targetRow.add((columnInfo.sourceIndex < 0 ? "" :
-                    (columnInfo.sourceIndex < sourceRow.size() ? sourceRow.get(columnInfo.sourceIndex) : null)));
-        }
-        return toReportLine(targetRow);
+        final List<ColumnInfo> columnMapping = columnMeta.getColumnMapping();
+        return toReportLine(new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                final int sourceIndex = columnMapping.get(index).sourceIndex;
+                return (sourceIndex < 0 ? "" : (sourceIndex < sourceRow.size() ? sourceRow.get(sourceIndex) : null));
+            }
+
+            @Override
+            public int size() {
+                return columnMapping.size();
+            }
+        });
     }
 
     /**
@@ -214,7 +235,7 @@ public class CommonFormat {
     }
 
     /**
-     * Parse and return double value. If value is <b>null</b> or empty return zero.
+     * Parse and return double value. If value is <b>null</b> or empty return zero. This method is thread-safe.
      *
      * @param columnName the name of column.
      * @param value      the value.
@@ -225,20 +246,97 @@ public class CommonFormat {
             return 0;
         }
         try {
-            return sourceDecimalFormat.parse(value).doubleValue();
+            final String plainValue = toPlainNumber(value);
+            return (plainValue != null ?
+                    Double.parseDouble(plainValue) :
+                    sourceDecimalFormat.get().parse(value).doubleValue());
         } catch (Exception e) {
             throw new ParseException("Cannot cast column " + columnName + " value \"" + value + "\" to double: " + e
                     .getLocalizedMessage(), e);
         }
     }
 
+    /**
+     * Converts the decimal number in the source format to the format of {@link Double#parseDouble(String)}.
+     * The value should have optional minus sign, digits with optional thousands separators, optional
+     * decimal part and optional exponent. Returns <b>null</b> if the value is not in such format, the
+     * value then is parsed by the decimal format.
+     *
+     * @param value the value.
+     */
+    private String toPlainNumber(String value) {
+        final int length = value.length();
+        final char[] chars = new char[length];
+        int count = 0;
+        int i = 0;
+        boolean sawDigit = false;
+        boolean sawDecimal = false;
+
+        if (value.charAt(i) == '-') {
+            chars[count++] = '-';
+            i++;
+        }
+        for (; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                chars[count++] = c;
+                sawDigit = true;
+            } else if (c == sourceDecimalSeparator && !sawDecimal) {
+                chars[count++] = '.';
+                sawDecimal = true;
+            } else if (c == sourceGroupingSeparator && sawDigit && !sawDecimal && isDigit(value, i + 1)) {
+                continue;
+            } else {
+                break;
+            }
+        }
+        if (!sawDigit) {
+            return null;
+        }
+
+        if (i < length) {
+            if (value.charAt(i) != 'E') {
+                return null;
+            }
+            chars[count++] = 'E';
+            if (++i < length && value.charAt(i) == '-') {
+                chars[count++] = '-';
+                i++;
+            }
+            if (!isDigit(value, i)) {
+                return null;
+            }
+            while (isDigit(value, i)) {
+                chars[count++] = value.charAt(i++);
+            }
+            if (i < length) {
+                return null;
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    /**
+     * Return <b>true</b> if the character at given position is a digit.
+     *
+     * @param value the value.
+     * @param index the position of character.
+     */
+    private static boolean isDigit(String value, int index) {
+        if (index >= value.length()) {
+            return false;
+        }
+        final char c = value.charAt(index);
+        return (c >= '0' && c <= '9');
+    }
+
     /**
      * Return the string representation of double value.
      *
      * @param value the value.
      */
     public static String doubleToString(double value) {
-        return DECIMAL_TO_STRING_FORMAT.format(value);
+        return DECIMAL_TO_STRING_FORMAT.get().format(value);
     }
 
     /**
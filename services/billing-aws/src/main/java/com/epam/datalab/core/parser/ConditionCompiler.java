@@ -0,0 +1,466 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package com.epam.datalab.core.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compiles the where condition to the predicate over the row of source data. The compiler supports the
+ * subset of JEXL syntax: comparison of the column with the string or number literal by the operators
+ * <b>== != &lt; &lt;= &gt; &gt;=</b> (or <b>eq ne lt le gt ge</b>), the logical operators <b>&amp;&amp; || !</b>
+ * (or <b>and or not</b>) and parentheses. For other expressions the condition cannot be compiled and
+ * should be evaluated by JEXL.<br>
+ * The compiled predicate compares the values in the same way as JEXL does: the strings are compared
+ * lexicographically, the column is converted to number for comparison with the number literal. If the
+ * value cannot be compared in the same way, for example the column contains a value that is not a number,
+ * the predicate returns <b>null</b> and the row should be evaluated by JEXL.
+ */
+final class ConditionCompiler {
+
+    /**
+     * Predicate over the row of source data.
+     */
+    @FunctionalInterface
+    interface RowPredicate {
+        /**
+         * Evaluate the condition for given row. Return <b>null</b> if the row should be evaluated by JEXL.
+         *
+         * @param row the row to evaluate.
+         */
+        Boolean test(List<String> row);
+    }
+
+    /**
+     * The reserved words of JEXL which are not supported by compiler.
+     */
+    private static final Set<String> RESERVED_WORDS = new HashSet<>(Arrays.asList(
+            "div", "mod", "null", "true", "false", "new", "var", "return", "empty", "size", "if", "else",
+            "for", "while", "function", "NaN"));
+
+    /**
+     * The maximum number of digits of integer value which fits into long.
+     */
+    private static final int LONG_MAX_DIGITS = 18;
+
+    /**
+     * The relative tolerance of comparison with the decimal literal. The values which are closer to the
+     * literal are evaluated by JEXL, because the result depends on the type of literal in JEXL.
+     */
+    private static final double DECIMAL_TOLERANCE = 1e-6;
+
+    private final String condition;
+    private final List<String> columnNames;
+    private final List<String> tokens = new ArrayList<>();
+    private int position;
+
+    private ConditionCompiler(String condition, List<String> columnNames) {
+        this.condition = condition;
+        this.columnNames = columnNames;
+    }
+
+    /**
+     * Compile the condition and return the predicate or <b>null</b> if the condition cannot be compiled.
+     *
+     * @param condition   the condition.
+     * @param columnNames the list of column names.
+     */
+    static RowPredicate compile(String condition, List<String> columnNames) {
+        final ConditionCompiler compiler = new ConditionCompiler(condition, columnNames);
+        try {
+            compiler.tokenize();
+            final RowPredicate predicate = compiler.parseOr();
+            return (compiler.position == compiler.tokens.size() ? predicate : null);
+        } catch (CannotCompileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Split the condition to tokens. The string literals are kept with the opening quote and unescaped.
+     */
+    private void tokenize() throws CannotCompileException {
+        int i = 0;
+        final int length = condition.length();
+        while (i < length) {
+            final char c = condition.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '\'' || c == '"') {
+                final StringBuilder literal = new StringBuilder().append(c);
+                i++;
+                while (i < length && condition.charAt(i) != c) {
+                    if (condition.charAt(i) == '\\') {
+                        if (++i >= length || condition.charAt(i) == 'u') {
+                            throw new CannotCompileException();
+                        }
+                    }
+                    literal.append(condition.charAt(i++));
+                }
+                if (i++ >= length) {
+                    throw new CannotCompileException();
+                }
+                tokens.add(literal.toString());
+            } else if (Character.isDigit(c)) {
+                final int start = i;
+                while (i < length && (Character.isDigit(condition.charAt(i)) || condition.charAt(i) == '.')) {
+                    i++;
+                }
+                if (i < length && Character.isJavaIdentifierPart(condition.charAt(i))) {
+                    throw new CannotCompileException();
+                }
+                tokens.add(condition.substring(start, i));
+            } else if (Character.isJavaIdentifierStart(c)) {
+                final int start = i;
+                while (i < length && (Character.isJavaIdentifierPart(condition.charAt(i)) ||
+                        (condition.charAt(i) == '.' && i + 1 < length &&
+                                Character.isJavaIdentifierStart(condition.charAt(i + 1))))) {
+                    i++;
+                }
+                tokens.add(condition.substring(start, i));
+            } else {
+                final String operator = condition.substring(i, Math.min(i + 2, length));
+                if (operator.equals("&&") || operator.equals("||") || operator.equals("==") ||
+                        operator.equals("!=") || operator.equals("<=") || operator.equals(">=")) {
+                    tokens.add(operator);
+                    i += 2;
+                } else if (c == '<' || c == '>' || c == '!' || c == '(' || c == ')' || c == '-') {
+                    tokens.add(String.valueOf(c));
+                    i++;
+                } else {
+                    throw new CannotCompileException();
+                }
+            }
+        }
+    }
+
+    private String peek() {
+        return (position < tokens.size() ? tokens.get(position) : null);
+    }
+
+    private String next() throws CannotCompileException {
+        if (position >= tokens.size()) {
+            throw new CannotCompileException();
+        }
+        return tokens.get(position++);
+    }
+
+    private boolean accept(String operator, String word) {
+        final String token = peek();
+        if (operator.equals(token) || word.equals(token)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private RowPredicate parseOr() throws CannotCompileException {
+        RowPredicate predicate = parseAnd();
+        while (accept("||", "or")) {
+            final RowPredicate left = predicate;
+            final RowPredicate right = parseAnd();
+            predicate = row -> {
+                final Boolean value = left.test(row);
+                return (value == null || value ? value : right.test(row));
+            };
+        }
+        return predicate;
+    }
+
+    private RowPredicate parseAnd() throws CannotCompileException {
+        RowPredicate predicate = parseNot();
+        while (accept("&&", "and")) {
+            final RowPredicate left = predicate;
+            final RowPredicate right = parseNot();
+            predicate = row -> {
+                final Boolean value = left.test(row);
+                return (value == null || !value ? value : right.test(row));
+            };
+        }
+        return predicate;
+    }
+
+    private RowPredicate parseNot() throws CannotCompileException {
+        if (accept("!", "not")) {
+            final RowPredicate predicate = parseNot();
+            return row -> {
+                final Boolean value = predicate.test(row);
+                return (value == null ? null : !value);
+            };
+        }
+        if (accept("(", "(")) {
+            final RowPredicate predicate = parseOr();
+            if (!accept(")", ")")) {
+                throw new CannotCompileException();
+            }
+            return predicate;
+        }
+        return parseComparison();
+    }
+
+    private RowPredicate parseComparison() throws CannotCompileException {
+        final Operand left = parseOperand();
+        final Operator operator = Operator.of(next());
+        final Operand right = parseOperand();
+        if (left.columnIndex >= 0 && right.columnIndex < 0) {
+            return compare(left.columnIndex, operator, right);
+        } else if (left.columnIndex < 0 && right.columnIndex >= 0) {
+            return compare(right.columnIndex, operator.reverse(), left);
+        }
+        throw new CannotCompileException();
+    }
+
+    private Operand parseOperand() throws CannotCompileException {
+        String token = next();
+        final boolean negative = token.equals("-");
+        if (negative) {
+            token = next();
+        }
+        final char c = token.charAt(0);
+        if (Character.isDigit(c)) {
+            return Operand.number(negative ? "-" + token : token);
+        } else if (negative) {
+            throw new CannotCompileException();
+        } else if (c == '\'' || c == '"') {
+            return Operand.string(token.substring(1));
+        } else if (Character.isJavaIdentifierStart(c) && !RESERVED_WORDS.contains(token) &&
+                Operator.find(token) == null) {
+            final int index = columnNames.indexOf(token);
+            if (index >= 0) {
+                return Operand.column(index);
+            }
+        }
+        throw new CannotCompileException();
+    }
+
+    /**
+     * Return the predicate for comparison of the column with the literal.
+     *
+     * @param columnIndex the index of column.
+     * @param operator    the comparison operator.
+     * @param literal     the literal.
+     */
+    private static RowPredicate compare(int columnIndex, Operator operator, Operand literal) {
+        if (literal.string != null) {
+            final String string = literal.string;
+            return row -> {
+                final String value = row.get(columnIndex);
+                return (value == null ? null : operator.test(value.compareTo(string)));
+            };
+        } else if (literal.isInteger) {
+            final long number = literal.longValue;
+            return row -> {
+                final String value = row.get(columnIndex);
+                return (isInteger(value) ? operator.test(Long.compare(Long.parseLong(value), number)) : null);
+            };
+        } else {
+            final double number = literal.doubleValue;
+            final double tolerance = Math.max(1.0, Math.abs(number)) * DECIMAL_TOLERANCE;
+            return row -> {
+                final String value = row.get(columnIndex);
+                if (!isDecimal(value)) {
+                    return null;
+                }
+                final double decimal = Double.parseDouble(value);
+                if (Math.abs(decimal - number) <= tolerance) {
+                    return null;
+                }
+                return operator.test(decimal < number ? -1 : 1);
+            };
+        }
+    }
+
+    /**
+     * Return <b>true</b> if the value is the integer number which fits into long.
+     *
+     * @param value the value.
+     */
+    private static boolean isInteger(String value) {
+        if (value == null) {
+            return false;
+        }
+        final int start = (value.startsWith("-") ? 1 : 0);
+        final int length = value.length();
+        if (length == start || length - start > LONG_MAX_DIGITS) {
+            return false;
+        }
+        for (int i = start; i < length; i++) {
+            if (!isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return <b>true</b> if the value is the decimal number without exponent.
+     *
+     * @param value the value.
+     */
+    private static boolean isDecimal(String value) {
+        if (value == null) {
+            return false;
+        }
+        int i = (value.startsWith("-") ? 1 : 0);
+        final int length = value.length();
+        final int start = i;
+        while (i < length && isDigit(value.charAt(i))) {
+            i++;
+        }
+        if (i == start) {
+            return false;
+        }
+        if (i < length && value.charAt(i) == '.') {
+            final int fraction = ++i;
+            while (i < length && isDigit(value.charAt(i))) {
+                i++;
+            }
+            if (i == fraction) {
+                return false;
+            }
+        }
+        return i == length;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Comparison operators.
+     */
+    private enum Operator {
+        EQ("==", "eq"), NE("!=", "ne"), LT("<", "lt"), LE("<=", "le"), GT(">", "gt"), GE(">=", "ge");
+
+        private final String symbol;
+        private final String word;
+
+        Operator(String symbol, String word) {
+            this.symbol = symbol;
+            this.word = word;
+        }
+
+        private static Operator find(String token) {
+            for (Operator operator : values()) {
+                if (operator.symbol.equals(token) || operator.word.equals(token)) {
+                    return operator;
+                }
+            }
+            return null;
+        }
+
+        private static Operator of(String token) throws CannotCompileException {
+            final Operator operator = find(token);
+            if (operator == null) {
+                throw new CannotCompileException();
+            }
+            return operator;
+        }
+
+        /**
+         * Return the operator for swapped operands.
+         */
+        private Operator reverse() {
+            switch (this) {
+                case LT:
+                    return GT;
+                case LE:
+                    return GE;
+                case GT:
+                    return LT;
+                case GE:
+                    return LE;
+                default:
+                    return this;
+            }
+        }
+
+        /**
+         * Return the result of operator for the result of comparison.
+         *
+         * @param comparison the result of comparison.
+         */
+        private boolean test(int comparison) {
+            switch (this) {
+                case EQ:
+                    return comparison == 0;
+                case NE:
+                    return comparison != 0;
+                case LT:
+                    return comparison < 0;
+                case LE:
+                    return comparison <= 0;
+                case GT:
+                    return comparison > 0;
+                default:
+                    return comparison >= 0;
+            }
+        }
+    }
+
+    /**
+     * Operand of comparison: the column or the literal.
+     */
+    private static final class Operand {
+        private int columnIndex = -1;
+        private String string;
+        private boolean isInteger;
+        private long longValue;
+        private double doubleValue;
+
+        private static Operand column(int index) {
+            final Operand operand = new Operand();
+            operand.columnIndex = index;
+            return operand;
+        }
+
+        private static Operand string(String value) {
+            final Operand operand = new Operand();
+            operand.string = value;
+            return operand;
+        }
+
+        private static Operand number(String value) throws CannotCompileException {
+            final Operand operand = new Operand();
+            if (isInteger(value)) {
+                operand.isInteger = true;
+                operand.longValue = Long.parseLong(value);
+            } else if (isDecimal(value)) {
+                operand.doubleValue = Double.parseDouble(value);
+            } else {
+                throw new CannotCompileException();
+            }
+            return operand;
+        }
+    }
+
+    /**
+     * Thrown when the condition cannot be compiled and should be evaluated by JEXL.
+     */
+    private static final class CannotCompileException extends Exception {
+        private CannotCompileException() {
+            super(null, null, false, false);
+        }
+    }
+}
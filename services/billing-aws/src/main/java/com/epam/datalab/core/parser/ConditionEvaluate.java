@@ -34,7 +34,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Evaluate condition for filtering source data.
+ * Evaluate condition for filtering source data. The condition is compiled to the predicate if possible,
+ * otherwise the condition is evaluated by JEXL.
  */
 public class ConditionEvaluate {
 
@@ -58,6 +59,11 @@ public class ConditionEvaluate {
      */
     private final JexlContext jexlContext;
 
+    /**
+     * Compiled condition or <b>null</b> if the condition cannot be compiled.
+     */
+    private final ConditionCompiler.RowPredicate predicate;
+
     /**
      * Instantiate the engine to evaluate condition.
      *
@@ -108,6 +114,8 @@ public class ConditionEvaluate {
             this.columnNames[i] = names.get(i);
             this.columnIndexes[i] = indexes.get(i);
         }
+
+        predicate = ConditionCompiler.compile(condition, colNames);
     }
 
     /**
@@ -133,6 +141,13 @@ public class ConditionEvaluate {
      * @throws ParseException if condition is not return boolean type.
      */
     public boolean evaluate(List<String> row) throws ParseException {
+        if (predicate != null) {
+            final Boolean value = predicate.test(row);
+            if (value != null) {
+                return value;
+            }
+        }
+
         for (int i = 0; i < columnNames.length; i++) {
             jexlContext.set(columnNames[i], row.get(columnIndexes[i]));
         }
@@ -158,7 +173,8 @@ public class ConditionEvaluate {
     public ToStringHelper toStringHelper(Object self) {
         return MoreObjects.toStringHelper(self)
                 .add("columnNames", columnNames)
-                .add("columnIndexes", columnIndexes);
+                .add("columnIndexes", columnIndexes)
+                .add("compiled", predicate != null);
     }
 
     @Override
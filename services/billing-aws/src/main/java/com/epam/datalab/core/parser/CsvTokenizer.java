@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package com.epam.datalab.core.parser;
+
+import com.epam.datalab.exceptions.ParseException;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+
+/**
+ * Splits the lines in CSV format to fields. The line is scanned once in the reusable buffer, the escape
+ * chars and field terminators are removed in place and only the offsets of fields are recorded. The
+ * tokenizer is the list view of the last tokenized line, the value of field is created on the first
+ * access to it. The view is valid until the next line is tokenized.
+ */
+public class CsvTokenizer extends AbstractList<String> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CsvTokenizer.class);
+
+    /**
+     * Initial capacity of the buffer for line.
+     */
+    private static final int INITIAL_LINE_CAPACITY = 4096;
+
+    /**
+     * Initial capacity of the field offsets.
+     */
+    private static final int INITIAL_FIELD_CAPACITY = 128;
+
+    /**
+     * Character for separate field names and values.
+     */
+    private final char fieldSeparator;
+
+    /**
+     * Character for termination field names and values.
+     */
+    private final char fieldTerminator;
+
+    /**
+     * Escape character.
+     */
+    private final char escapeChar;
+
+    /**
+     * Buffer with the unescaped fields of the last line.
+     */
+    private char[] buffer = new char[INITIAL_LINE_CAPACITY];
+
+    /**
+     * Begin and end offsets of fields in the buffer.
+     */
+    private int[] offsets = new int[INITIAL_FIELD_CAPACITY * 2];
+
+    /**
+     * Values of the fields which have been accessed.
+     */
+    private String[] values = new String[INITIAL_FIELD_CAPACITY];
+
+    /**
+     * The number of fields in the last line.
+     */
+    private int fieldCount = 0;
+
+    /**
+     * Instantiate the tokenizer.
+     *
+     * @param fieldSeparator  the character for separate field names and values.
+     * @param fieldTerminator the character for termination field names and values.
+     * @param escapeChar      the escape character.
+     */
+    public CsvTokenizer(char fieldSeparator, char fieldTerminator, char escapeChar) {
+        this.fieldSeparator = fieldSeparator;
+        this.fieldTerminator = fieldTerminator;
+        this.escapeChar = escapeChar;
+    }
+
+    /**
+     * Split the line to fields and return the view of fields.
+     *
+     * @param line the source line.
+     * @return the view of fields which is valid until the next call.
+     * @throws ParseException
+     */
+    public CsvTokenizer tokenize(String line) throws ParseException {
+        final int length = line.length();
+        if (buffer.length < length) {
+            buffer = new char[Math.max(length, buffer.length * 2)];
+        }
+        line.getChars(0, length, buffer, 0);
+        Arrays.fill(values, 0, fieldCount, null);
+        fieldCount = 0;
+
+        int read = 0;
+        int write = 0;
+        int begin = 0;
+        boolean isDelimiter = false;
+        while (read < length) {
+            char c = buffer[read++];
+            if (c == escapeChar) {
+                if (read == length) {
+                    throw getParseException("Invalid escape char", read, line);
+                }
+                buffer[write++] = buffer[read++];
+            } else if (c == fieldTerminator) {
+                if (isDelimiter) {
+                    if (read == length) {
+                        break;
+                    }
+                    if (buffer[read] == fieldSeparator) {
+                        read++;
+                        addField(begin, write);
+                        begin = write;
+                        isDelimiter = false;
+                        continue;
+                    }
+                    throw getParseException("Invalid field delimiter", read + 1, line);
+                }
+                if (write != begin) {
+                    throw getParseException("Unterminated field", read, line);
+                }
+                isDelimiter = true;
+            } else if (c == fieldSeparator && !isDelimiter) {
+                addField(begin, write);
+                begin = write;
+            } else {
+                buffer[write++] = c;
+            }
+        }
+        addField(begin, write);
+
+        return this;
+    }
+
+    private void addField(int begin, int end) {
+        if (fieldCount == values.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        offsets[fieldCount * 2] = begin;
+        offsets[fieldCount * 2 + 1] = end;
+        fieldCount++;
+    }
+
+    /**
+     * Construct the exception.
+     *
+     * @param message    the error message.
+     * @param pos        the position in the parsed line.
+     * @param sourceLine the parsed line.
+     * @return ParseException
+     */
+    private ParseException getParseException(String message, int pos, String sourceLine) {
+        String s = String.format("%s at pos %d in line: ", message, pos);
+        LOGGER.error(s + sourceLine);
+        LOGGER.error(StringUtils.repeat(' ', s.length() + pos - 1) + '^');
+        return new ParseException(s + sourceLine);
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= fieldCount) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + fieldCount);
+        }
+        if (values[index] == null) {
+            final int begin = offsets[index * 2];
+            values[index] = new String(buffer, begin, offsets[index * 2 + 1] - begin);
+        }
+        return values[index];
+    }
+
+    @Override
+    public int size() {
+        return fieldCount;
+    }
+}
@@ -0,0 +1,358 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package com.epam.datalab.core.parser;
+
+import com.epam.datalab.core.aggregate.AggregateGranularity;
+import com.epam.datalab.core.aggregate.ConcurrentDataAggregator;
+import com.epam.datalab.core.aggregate.DataAggregator;
+import com.epam.datalab.exceptions.AdapterException;
+import com.epam.datalab.exceptions.InitializationException;
+import com.epam.datalab.exceptions.ParseException;
+import com.epam.datalab.model.aws.ReportLine;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Parses the entries of source data concurrently. The entries are read by the pool of readers and split
+ * to the chunks of lines, the chunks are parsed by the pool of workers. Each chunk is parsed with its own
+ * row parser, condition, common format and aggregator. The aggregated chunks are merged by the workers to
+ * the concurrent aggregator, the lines of not aggregated chunks are written in the order of entries and
+ * lines. The entry is committed to the adapter when all its chunks have been parsed.<br>
+ * The chunks of the entry are passed to the main thread by the bounded queue, so the reader waits while the
+ * main thread has not consumed the parsed chunks of the entry. At most <b>parallelism</b> entries are read
+ * at once, which limits the number of chunks in memory.<br>
+ * The header of the first entry is used for initialization of the parser. The entries which have a
+ * different header are not parsed and will be parsed by the next run.
+ */
+final class ParallelLineParser {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelLineParser.class);
+
+    /**
+     * The number of chunks of the entry which may wait for parsing or consuming per worker.
+     */
+    private static final int CHUNKS_PER_WORKER = 2;
+
+    /**
+     * The marker of the end of entry in the queue of chunks.
+     */
+    private static final Future<ChunkResult> END_OF_ENTRY = CompletableFuture.completedFuture(null);
+
+    private final ParserByLine parser;
+    private final List<String> entries;
+    private final int parallelism;
+    private final int chunkSize;
+
+    /**
+     * The aggregator of all entries or <b>null</b> if the data is not aggregated.
+     */
+    private final DataAggregator aggregator;
+
+    /**
+     * The header of the first entry.
+     */
+    private List<String> header;
+    private ExecutorService workers;
+
+    /**
+     * Instantiate the parallel parser.
+     *
+     * @param parser  the parser.
+     * @param entries the names of entries.
+     */
+    ParallelLineParser(ParserByLine parser, List<String> entries) {
+        this.parser = parser;
+        this.entries = entries;
+        this.parallelism = Math.max(1, parser.getParallelism());
+        this.chunkSize = Math.max(1, parser.getChunkSize());
+        this.aggregator = (parser.getAggregate() != AggregateGranularity.NONE ?
+                new ConcurrentDataAggregator(parser.getAggregate()) : null);
+    }
+
+    /**
+     * Parse the entries to common format and write them to output adapter.
+     *
+     * @return list of billing data.
+     * @throws InitializationException
+     * @throws AdapterException
+     * @throws ParseException
+     * @throws InterruptedException
+     */
+    List<Document> parse() throws InitializationException, AdapterException, ParseException, InterruptedException {
+        final List<Document> billingData = new ArrayList<>();
+        if (entries.isEmpty()) {
+            return billingData;
+        }
+        final List<ParserStatistics> statistics = new ArrayList<>(entries.size());
+        for (String entryName : entries) {
+            statistics.add(parser.addStatistics(entryName));
+        }
+
+        final BufferedReader firstReader = parser.getAdapterIn().openEntry(entries.get(0));
+        try {
+            statistics.get(0).start();
+            header = parser.parseHeader(lineSource(firstReader, statistics.get(0)), statistics.get(0));
+            parser.init(header);
+            parser.initialize();
+            if (parser.getFilter() != null) {
+                parser.getFilter().initialize();
+            }
+            parser.getAdapterOut().open();
+        } catch (InitializationException | AdapterException | ParseException e) {
+            closeReader(entries.get(0), firstReader);
+            throw e;
+        }
+        LOGGER.info("Parsing {} entries by {} threads", entries.size(), parallelism);
+
+        final ExecutorService readers = Executors.newFixedThreadPool(Math.min(parallelism, entries.size()),
+                new ThreadFactoryBuilder().setNameFormat("billing-reader-%d").setDaemon(true).build());
+        workers = Executors.newFixedThreadPool(parallelism,
+                new ThreadFactoryBuilder().setNameFormat("billing-parser-%d").setDaemon(true).build());
+        try {
+            final List<BlockingQueue<Future<ChunkResult>>> entryChunks = new ArrayList<>(entries.size());
+            final List<Future<Boolean>> entryFutures = new ArrayList<>(entries.size());
+            for (int i = 0; i < entries.size(); i++) {
+                final String entryName = entries.get(i);
+                final ParserStatistics entryStatistics = statistics.get(i);
+                final BufferedReader reader = (i == 0 ? firstReader : null);
+                final BlockingQueue<Future<ChunkResult>> chunks =
+                        new ArrayBlockingQueue<>(parallelism * CHUNKS_PER_WORKER);
+                entryChunks.add(chunks);
+                entryFutures.add(readers.submit(() -> readEntry(entryName, reader, entryStatistics, chunks)));
+            }
+
+            for (int i = 0; i < entries.size(); i++) {
+                final BlockingQueue<Future<ChunkResult>> chunks = entryChunks.get(i);
+                final ParserStatistics entryStatistics = statistics.get(i);
+                Future<ChunkResult> chunk;
+                while ((chunk = chunks.take()) != END_OF_ENTRY) {
+                    final ChunkResult result = get(chunk);
+                    entryStatistics.add(result.statistics);
+                    for (ReportLine reportLine : result.reportLines) {
+                        billingData.add(parser.getAdapterOut().writeRow(reportLine));
+                        entryStatistics.incrRowWritten();
+                    }
+                }
+                if (!get(entryFutures.get(i))) {
+                    LOGGER.info("Entry {} has the different header and will be parsed by the next run",
+                            entries.get(i));
+                    entryStatistics.stop();
+                    continue;
+                }
+                parser.getAdapterIn().commitEntry(entries.get(i));
+                entryStatistics.stop();
+            }
+
+            if (aggregator != null) {
+                for (int i = 0; i < aggregator.size(); i++) {
+                    billingData.add(parser.getAdapterOut().writeRow(aggregator.get(i)));
+                    parser.getCurrentStatistics().incrRowWritten();
+                }
+            }
+            parser.getAdapterOut().commit();
+        } finally {
+            readers.shutdownNow();
+            workers.shutdownNow();
+        }
+        return billingData;
+    }
+
+    /**
+     * Read the entry and submit its chunks for parsing to the queue of chunks. The queue is finished by
+     * {@link #END_OF_ENTRY} unless the reader has been interrupted. Return <b>false</b> if the entry has the
+     * different header.
+     *
+     * @param entryName  the name of entry.
+     * @param reader     the reader of entry with parsed header or <b>null</b> to open the entry.
+     * @param statistics the statistics of entry.
+     * @param chunks     the queue of chunks.
+     * @throws AdapterException
+     * @throws ParseException
+     * @throws InterruptedException
+     */
+    private boolean readEntry(String entryName, BufferedReader reader, ParserStatistics statistics,
+                              BlockingQueue<Future<ChunkResult>> chunks)
+            throws AdapterException, ParseException, InterruptedException {
+        final boolean isSameHeader;
+        try {
+            isSameHeader = readChunks(entryName, reader, statistics, chunks);
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            chunks.put(END_OF_ENTRY);
+            throw e;
+        }
+        chunks.put(END_OF_ENTRY);
+        return isSameHeader;
+    }
+
+    private boolean readChunks(String entryName, BufferedReader reader, ParserStatistics statistics,
+                               BlockingQueue<Future<ChunkResult>> chunks)
+            throws AdapterException, ParseException, InterruptedException {
+        final boolean isHeaderParsed = (reader != null);
+        final BufferedReader entryReader = (isHeaderParsed ? reader : parser.getAdapterIn().openEntry(entryName));
+        try {
+            final ParserByLine.LineSource source = lineSource(entryReader, statistics);
+            if (!isHeaderParsed) {
+                statistics.start();
+                if (!Objects.equals(header, parser.parseHeader(source, statistics))) {
+                    return false;
+                }
+            }
+
+            List<String> lines = new ArrayList<>(chunkSize);
+            long firstLineNo = statistics.getRowReaded() + 1;
+            String line;
+            while ((line = source.readLine()) != null) {
+                lines.add(line);
+                if (lines.size() == chunkSize) {
+                    chunks.put(submitChunk(entryName, lines, firstLineNo));
+                    lines = new ArrayList<>(chunkSize);
+                    firstLineNo = statistics.getRowReaded() + 1;
+                }
+            }
+            if (!lines.isEmpty()) {
+                chunks.put(submitChunk(entryName, lines, firstLineNo));
+            }
+            return true;
+        } finally {
+            closeReader(entryName, entryReader);
+        }
+    }
+
+    private Future<ChunkResult> submitChunk(String entryName, List<String> lines, long firstLineNo) {
+        return workers.submit(() -> parseChunk(entryName, lines, firstLineNo));
+    }
+
+    /**
+     * Parse the chunk of lines of entry.
+     *
+     * @param entryName   the name of entry.
+     * @param lines       the lines.
+     * @param firstLineNo the number of the first line in entry.
+     * @throws InitializationException
+     * @throws ParseException
+     */
+    private ChunkResult parseChunk(String entryName, List<String> lines, long firstLineNo)
+            throws InitializationException, ParseException {
+        final ParserStatistics statistics = new ParserStatistics(entryName);
+        final ParserByLine.RowParser rowParser = parser.createRowParser();
+        final ConditionEvaluate condition = (parser.getWhereCondition() == null ? null :
+                new ConditionEvaluate(parser.getColumnMeta().getSourceColumnNames(), parser.getWhereCondition()));
+        final CommonFormat commonFormat = parser.getCommonFormat();
+        final DataAggregator chunkAggregator = (aggregator != null ?
+                new DataAggregator(aggregator.getGranularity()) : null);
+        final List<ReportLine> reportLines = new ArrayList<>();
+
+        for (int i = 0; i < lines.size(); i++) {
+            final ReportLine reportLine = parser.parseLine(lines.get(i), rowParser, condition, commonFormat,
+                    statistics, firstLineNo + i);
+            if (reportLine == null) {
+                continue;
+            }
+            statistics.incrRowParsed();
+            if (chunkAggregator != null) {
+                chunkAggregator.append(reportLine);
+            } else {
+                reportLines.add(reportLine);
+            }
+        }
+        if (chunkAggregator != null) {
+            aggregator.merge(chunkAggregator);
+        }
+        return new ChunkResult(statistics, reportLines);
+    }
+
+    private ParserByLine.LineSource lineSource(BufferedReader reader, ParserStatistics statistics) {
+        return () -> {
+            try {
+                final String line = reader.readLine();
+                if (line != null) {
+                    statistics.incrRowReaded();
+                }
+                return line;
+            } catch (IOException e) {
+                throw new AdapterException("Cannot read entry " + statistics.getEntryName() + ". " +
+                        e.getLocalizedMessage(), e);
+            }
+        };
+    }
+
+    private void closeReader(String entryName, BufferedReader reader) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            LOGGER.warn("Cannot close entry {}. {}", entryName, e.getLocalizedMessage(), e);
+        }
+    }
+
+    /**
+     * Wait for the result of task and return it.
+     *
+     * @param future the result of task.
+     * @throws InitializationException
+     * @throws AdapterException
+     * @throws ParseException
+     * @throws InterruptedException
+     */
+    private <T> T get(Future<T> future) throws InitializationException, AdapterException, ParseException,
+            InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof InitializationException) {
+                throw (InitializationException) e.getCause();
+            } else if (e.getCause() instanceof AdapterException) {
+                throw (AdapterException) e.getCause();
+            } else if (e.getCause() instanceof ParseException) {
+                throw (ParseException) e.getCause();
+            }
+            throw new ParseException("Parallel parsing failed. " + e.getCause().getLocalizedMessage(), e);
+        }
+    }
+
+    /**
+     * Result of the parsing of chunk.
+     */
+    private static final class ChunkResult {
+        private final ParserStatistics statistics;
+        private final List<ReportLine> reportLines;
+
+        private ChunkResult(ParserStatistics statistics, List<ReportLine> reportLines) {
+            this.statistics = statistics;
+            this.reportLines = reportLines;
+        }
+    }
+}
@@ -27,6 +27,8 @@ import com.epam.datalab.exceptions.InitializationException;
 import com.epam.datalab.exceptions.ParseException;
 import com.epam.datalab.model.aws.ReportLine;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.MoreObjects.ToStringHelper;
 import org.bson.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,6 +46,75 @@ public abstract class ParserByLine extends ParserBase {
     private static final String ENTRY_NAME = "\nEntry name: ";
     private static final String SOURCE_LINE = "\nSource line[";
 
+    /**
+     * Parser of the source lines to rows.
+     */
+    @FunctionalInterface
+    public interface RowParser {
+        /**
+         * Parse the row from source line and return result row.
+         *
+         * @param line the source line.
+         * @return the parsed row.
+         * @throws ParseException
+         */
+        List<String> parseRow(String line) throws ParseException;
+    }
+
+    /**
+     * Source of the lines of entry.
+     */
+    @FunctionalInterface
+    public interface LineSource {
+        /**
+         * Read the next line and return it or <b>null</b> if the end of entry has been reached.
+         *
+         * @throws AdapterException
+         */
+        String readLine() throws AdapterException;
+    }
+
+    /**
+     * The number of threads for parsing. If greater than one and the adapter supports the concurrent
+     * reading the entries are read concurrently and their lines are parsed by chunks.
+     */
+    @JsonProperty
+    private int parallelism = 1;
+
+    /**
+     * The number of lines in the chunk for parallel parsing.
+     */
+    @JsonProperty
+    private int chunkSize = 10000;
+
+    /**
+     * Return the number of threads for parsing.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Set the number of threads for parsing.
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Return the number of lines in the chunk for parallel parsing.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Set the number of lines in the chunk for parallel parsing.
+     */
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
     /**
      * Parse the header of source data and return it.
      *
@@ -51,7 +122,21 @@ public abstract class ParserByLine extends ParserBase {
      * @throws AdapterException
      * @throws ParseException
      */
-    public abstract List<String> parseHeader() throws AdapterException, ParseException;
+    public List<String> parseHeader() throws AdapterException, ParseException {
+        return parseHeader(this::getNextRow, getCurrentStatistics());
+    }
+
+    /**
+     * Parse the header of entry and return it.
+     *
+     * @param source     the source of lines of entry.
+     * @param statistics the statistics of entry.
+     * @return the header of entry.
+     * @throws AdapterException
+     * @throws ParseException
+     */
+    public abstract List<String> parseHeader(LineSource source, ParserStatistics statistics) throws AdapterException,
+            ParseException;
 
     /**
      * Parse the row from source line and return result row.
@@ -62,6 +147,15 @@ public abstract class ParserByLine extends ParserBase {
      */
     public abstract List<String> parseRow(String line) throws ParseException;
 
+    /**
+     * Create the parser of rows for one thread. The row returned by the parser may be reused for the next
+     * line, so it must not be kept after the line has been processed. By default returns
+     * {@link #parseRow(String)}.
+     */
+    protected RowParser createRowParser() {
+        return this::parseRow;
+    }
+
     /**
      * Read the line from adapter and return it.
      *
@@ -156,6 +250,59 @@ public abstract class ParserByLine extends ParserBase {
         }
     }
 
+    /**
+     * Filter the source line and convert it to common format. Return <b>null</b> if the line has been filtered.
+     *
+     * @param line         the source line.
+     * @param rowParser    the parser of rows.
+     * @param condition    the condition for filtering or <b>null</b>.
+     * @param commonFormat the helper for common format.
+     * @param statistics   the statistics of entry.
+     * @param lineNo       the number of line in entry.
+     * @return the line in common format.
+     * @throws ParseException
+     */
+    ReportLine parseLine(String line, RowParser rowParser, ConditionEvaluate condition, CommonFormat commonFormat,
+                         ParserStatistics statistics, long lineNo) throws ParseException {
+        if (getFilter() != null && (line = getFilter().canParse(line)) == null) {
+            statistics.incrRowFiltered();
+            return null;
+        }
+
+        List<String> row = rowParser.parseRow(line);
+        if ((getFilter() != null && (row = getFilter().canTransform(row)) == null)) {
+            statistics.incrRowFiltered();
+            return null;
+        }
+        try {
+            if (condition != null && !condition.evaluate(row)) {
+                statistics.incrRowFiltered();
+                return null;
+            }
+        } catch (ParseException e) {
+            throw new ParseException(e.getLocalizedMessage() + ENTRY_NAME + statistics.getEntryName() +
+                    SOURCE_LINE + lineNo + "]: " + line, e);
+        } catch (Exception e) {
+            throw new ParseException("Cannot evaluate condition " + getWhereCondition() + ". " +
+                    e.getLocalizedMessage() + ENTRY_NAME + statistics.getEntryName() +
+                    SOURCE_LINE + lineNo + "]: " + line, e);
+        }
+
+        ReportLine reportLine;
+        try {
+            reportLine = commonFormat.toCommonFormat(row);
+        } catch (ParseException e) {
+            throw new ParseException("Cannot cast row to common format. " +
+                    e.getLocalizedMessage() + ENTRY_NAME + statistics.getEntryName() +
+                    SOURCE_LINE + lineNo + "]: " + line, e);
+        }
+        if (getFilter() != null && (reportLine = getFilter().canAccept(reportLine)) == null) {
+            statistics.incrRowFiltered();
+            return null;
+        }
+        return reportLine;
+    }
+
     /**
      * Parse the source data to common format and write it to output adapter.
      *
@@ -167,46 +314,19 @@ public abstract class ParserByLine extends ParserBase {
     public List<Document> parse() throws InitializationException, AdapterException, ParseException {
         List<Document> billingData = new ArrayList<>();
         try {
-            if (init()) {
+            final List<String> entries = (parallelism > 1 ? getAdapterIn().openEntries() : null);
+            if (entries != null) {
+                billingData.addAll(new ParallelLineParser(this, entries).parse());
+            } else if (init()) {
                 String line;
-                List<String> row;
                 ReportLine reportLine;
+                final RowParser rowParser = createRowParser();
                 LOGGER.info("Parsing {}", getAdapterIn().getEntryName());
 
                 while ((line = getNextRow()) != null) {
-                    if (getFilter() != null && (line = getFilter().canParse(line)) == null) {
-                        getCurrentStatistics().incrRowFiltered();
-                        continue;
-                    }
-
-                    row = parseRow(line);
-                    if ((getFilter() != null && (row = getFilter().canTransform(row)) == null)) {
-                        getCurrentStatistics().incrRowFiltered();
-                        continue;
-                    }
-                    try {
-                        if (getCondition() != null && !getCondition().evaluate(row)) {
-                            getCurrentStatistics().incrRowFiltered();
-                            continue;
-                        }
-                    } catch (ParseException e) {
-                        throw new ParseException(e.getLocalizedMessage() + ENTRY_NAME + getCurrentStatistics().getEntryName() +
-                                SOURCE_LINE + getCurrentStatistics().getRowReaded() + "]: " + line, e);
-                    } catch (Exception e) {
-                        throw new ParseException("Cannot evaluate condition " + getWhereCondition() + ". " +
-                                e.getLocalizedMessage() + ENTRY_NAME + getCurrentStatistics().getEntryName() +
-                                SOURCE_LINE + getCurrentStatistics().getRowReaded() + "]: " + line, e);
-                    }
-
-                    try {
-                        reportLine = getCommonFormat().toCommonFormat(row);
-                    } catch (ParseException e) {
-                        throw new ParseException("Cannot cast row to common format. " +
-                                e.getLocalizedMessage() + ENTRY_NAME + getCurrentStatistics().getEntryName() +
-                                SOURCE_LINE + getCurrentStatistics().getRowReaded() + "]: " + line, e);
-                    }
-                    if (getFilter() != null && (reportLine = getFilter().canAccept(reportLine)) == null) {
-                        getCurrentStatistics().incrRowFiltered();
+                    reportLine = parseLine(line, rowParser, getCondition(), getCommonFormat(), getCurrentStatistics(),
+                            getCurrentStatistics().getRowReaded());
+                    if (reportLine == null) {
                         continue;
                     }
 
@@ -225,6 +345,7 @@ public abstract class ParserByLine extends ParserBase {
                         getCurrentStatistics().incrRowWritten();
                     }
                 }
+                getAdapterOut().commit();
             }
         } catch (GenericException e) {
             close(true);
@@ -246,4 +367,11 @@ public abstract class ParserByLine extends ParserBase {
         }
         return billingData;
     }
+
+    @Override
+    public ToStringHelper toStringHelper(Object self) {
+        return super.toStringHelper(self)
+                .add("parallelism", parallelism)
+                .add("chunkSize", chunkSize);
+    }
 }
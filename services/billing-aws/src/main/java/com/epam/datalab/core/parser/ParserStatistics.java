@@ -175,6 +175,19 @@ public class ParserStatistics {
         rowWritten++;
     }
 
+    /**
+     * Add the numbers of rows from the statistics of the part of entry.
+     *
+     * @param other the statistics of the part of entry.
+     */
+    public void add(ParserStatistics other) {
+        rowReaded += other.rowReaded;
+        rowSkipped += other.rowSkipped;
+        rowFiltered += other.rowFiltered;
+        rowParsed += other.rowParsed;
+        rowWritten += other.rowWritten;
+    }
+
 
     public ToStringHelper toStringHelper(Object self) {
         return MoreObjects.toStringHelper(self)
@@ -19,7 +19,9 @@
 
 package com.epam.datalab.module;
 
+import com.epam.datalab.core.parser.CsvTokenizer;
 import com.epam.datalab.core.parser.ParserByLine;
+import com.epam.datalab.core.parser.ParserStatistics;
 import com.epam.datalab.exceptions.AdapterException;
 import com.epam.datalab.exceptions.InitializationException;
 import com.epam.datalab.exceptions.ParseException;
@@ -27,9 +29,6 @@ import com.fasterxml.jackson.annotation.JsonClassDescription;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import com.google.common.base.MoreObjects.ToStringHelper;
-import org.apache.commons.lang3.StringUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import javax.validation.constraints.NotNull;
 import java.util.ArrayList;
@@ -66,10 +65,13 @@ import java.util.List;
                 "    [fieldTerminator: <char>]         - char for terminate field names and values.\n" +
                 "    [escapeChar: <char>]              - escape char.\n" +
                 "    [decimalSeparator: <char>]        - char for decimal sign.\n" +
-                "    [groupingSeparator: <char>]       - char for thousands separator.\n"
+                "    [groupingSeparator: <char>]       - char for thousands separator.\n" +
+                "    [parallelism: <number>]           - the number of threads for parsing, the source\n" +
+                "                                        files are read and parsed concurrently.\n" +
+                "    [chunkSize: <number>]             - the number of lines in the chunk for parallel\n" +
+                "                                        parsing.\n"
 )
 public class ParserCsv extends ParserByLine {
-    private static final Logger LOGGER = LoggerFactory.getLogger(ParserCsv.class);
 
     /**
      * Character for separate field names and values.
@@ -197,106 +199,40 @@ public class ParserCsv extends ParserByLine {
     }
 
     @Override
-    public List<String> parseHeader() throws AdapterException, ParseException {
+    public List<String> parseHeader(LineSource source, ParserStatistics statistics) throws AdapterException,
+            ParseException {
         String line = null;
         List<String> header = null;
 
         if (headerLineNo > 0) {
-            while (getCurrentStatistics().getRowReaded() < headerLineNo) {
-                if ((line = getNextRow()) == null) {
+            while (statistics.getRowReaded() < headerLineNo) {
+                if ((line = source.readLine()) == null) {
                     return null;
                 }
-                getCurrentStatistics().incrRowSkipped();
+                statistics.incrRowSkipped();
             }
             header = parseRow(line);
         }
 
-        while (getCurrentStatistics().getRowReaded() < skipLines) {
-            if (getNextRow() == null) {
+        while (statistics.getRowReaded() < skipLines) {
+            if (source.readLine() == null) {
                 break;
             }
-            getCurrentStatistics().incrRowSkipped();
+            statistics.incrRowSkipped();
         }
 
         return header;
     }
 
 
-    /**
-     * Construct the exception.
-     *
-     * @param message    the error message.
-     * @param pos        the position in the parsed line.
-     * @param sourceLine the parsed line.
-     * @return ParseException
-     */
-    private ParseException getParseException(String message, int pos, String sourceLine) {
-        String s = String.format("%s at pos %d in line: ", message, pos);
-        LOGGER.error(s + sourceLine);
-        LOGGER.error(StringUtils.repeat(' ', s.length() + pos - 1) + '^');
-        return new ParseException(s + sourceLine);
-    }
-
     @Override
     public List<String> parseRow(String line) throws ParseException {
-        int realPos = 0;
-        int pos = 0;
-        boolean isDelimiter = false;
-        StringBuilder sb = new StringBuilder(line);
-        List<String> row = new ArrayList<>();
-
-        while (pos < sb.length()) {
-            char c = sb.charAt(pos);
-            if (c == escapeChar) {
-                realPos++;
-                pos++;
-                if (pos == sb.length()) {
-                    throw getParseException("Invalid escape char", realPos, line);
-                }
-                sb.delete(pos - 1, pos);
-                realPos++;
-            } else if (c == fieldTerminator) {
-                realPos++;
-                if (isDelimiter) {
-                    realPos++;
-                    pos++;
-                    if (pos == sb.length()) {
-                        sb.delete(pos - 1, pos);
-                        break;
-                    }
-                    if (sb.charAt(pos) == fieldSeparator) {
-                        row.add(sb.substring(0, pos - 1));
-                        sb.delete(0, pos + 1);
-                        pos = 0;
-                        isDelimiter = false;
-                        continue;
-                    }
-                    throw getParseException("Invalid field delimiter", realPos, line);
-                }
-
-                if (pos != 0) {
-                    throw getParseException("Unterminated field", realPos, line);
-                }
-                sb.delete(0, 1);
-                isDelimiter = true;
-                continue;
-            } else if (c == fieldSeparator) {
-                realPos++;
-                if (isDelimiter) {
-                    pos++;
-                    continue;
-                }
-                row.add(sb.substring(0, pos));
-                sb.delete(0, pos + 1);
-                pos = 0;
-            } else {
-                realPos++;
-                pos++;
-            }
-        }
-        row.add(sb.toString());
+        return new ArrayList<>(new CsvTokenizer(fieldSeparator, fieldTerminator, escapeChar).tokenize(line));
+    }
 
-        return row;
+    @Override
+    protected RowParser createRowParser() {
+        return new CsvTokenizer(fieldSeparator, fieldTerminator, escapeChar)::tokenize;
     }
 
 
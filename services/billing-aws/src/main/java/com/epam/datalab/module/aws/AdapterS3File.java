@@ -42,8 +42,11 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The adapter for S3 file system of Amazon.
@@ -135,6 +138,11 @@ public class AdapterS3File extends AdapterBase {
      */
     @JsonIgnore
     private Date lastModificationDate = null;
+    /**
+     * Modification dates of the entries opened for the concurrent reading.
+     */
+    @JsonIgnore
+    private final Map<String, Date> entryModificationDates = new ConcurrentHashMap<>();
     /**
      * File input stream.
      */
@@ -237,6 +245,50 @@ public class AdapterS3File extends AdapterBase {
         }
     }
 
+    @Override
+    public List<String> openEntries() throws AdapterException {
+        if (getMode() != Mode.READ) {
+            throw new AdapterException("Mode of adapter may be " + Mode.READ + " only.");
+        }
+        clientS3 = getAmazonClient();
+        S3FileList s3files = new S3FileList(awsJobEnabled, bucket, getModuleData());
+        filelist = s3files.getFiles(clientS3);
+        currentFileIndex = -1;
+        entryModificationDates.clear();
+        if (filelist.isEmpty()) {
+            final String reportPath = path == null ? bucket : bucket + DELIMITER + path;
+            LOGGER.debug("New report files in bucket folder {} not found", reportPath);
+        }
+        return new ArrayList<>(filelist);
+    }
+
+    @Override
+    public BufferedReader openEntry(String entryName) throws AdapterException {
+        LOGGER.debug("Open entry in file {}", entryName);
+        try {
+            S3Object object = clientS3.getObject(new GetObjectRequest(bucket, entryName));
+            entryModificationDates.put(entryName, object.getObjectMetadata().getLastModified());
+            return new BufferedReader(new InputStreamReader(object.getObjectContent()));
+        } catch (Exception e) {
+            throw new AdapterException("Cannot open file " + bucket + DELIMITER + entryName + ". " + e
+                    .getLocalizedMessage(), e);
+        }
+    }
+
+    @Override
+    public void commitEntry(String entryName) throws AdapterException {
+        final Date modificationDate = entryModificationDates.get(entryName);
+        try {
+            getModuleData().setId(entryName);
+            getModuleData().setModificationDate(modificationDate);
+            getModuleData().set(DATA_KEY_LAST_LOADED_FILE, entryName);
+            getModuleData().set(DATA_KEY_LAST_MODIFICATION_DATE, modificationDate);
+            getModuleData().store();
+        } catch (Exception e) {
+            throw new AdapterException(e.getLocalizedMessage(), e);
+        }
+    }
+
     @Override
     public boolean hasMultyEntry() {
         return true;
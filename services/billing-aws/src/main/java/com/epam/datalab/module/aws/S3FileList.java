@@ -29,8 +29,10 @@ import org.apache.commons.lang3.StringUtils;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -99,6 +101,12 @@ public class S3FileList {
     }
 
     private List<S3ObjectSummary> reportFilesInBillingBucket(AmazonS3 s3Client) throws AdapterException {
+        final NavigableMap<String, Date> processedFiles;
+        try {
+            processedFiles = moduleData.getProcessedFiles();
+        } catch (Exception e) {
+            throw new AdapterException("Cannot load the list of processed files. " + e.getLocalizedMessage(), e);
+        }
         ListObjectsV2Request request = new ListObjectsV2Request()
                 .withBucketName(bucket);
         ListObjectsV2Result result;
@@ -106,7 +114,7 @@ public class S3FileList {
         try {
             do {
                 result = s3Client.listObjectsV2(request);
-                objectSummaries.addAll(notProcessedFiles(result));
+                objectSummaries.addAll(notProcessedFiles(result, processedFiles));
             } while (result.isTruncated());
         } catch (Exception e) {
             throw new AdapterException("Cannot get the file listing of bucket \"" + bucket + "*\". " +
@@ -115,16 +123,17 @@ public class S3FileList {
         return objectSummaries;
     }
 
-    private List<S3ObjectSummary> notProcessedFiles(ListObjectsV2Result result) {
+    private List<S3ObjectSummary> notProcessedFiles(ListObjectsV2Result result,
+                                                    NavigableMap<String, Date> processedFiles) {
         return result.getObjectSummaries()
                 .stream()
-                .filter(this::matchBillingRegexAndWasNotProcessed)
+                .filter(o -> matchBillingRegexAndWasNotProcessed(o, processedFiles))
                 .collect(toList());
     }
 
-    private boolean matchBillingRegexAndWasNotProcessed(S3ObjectSummary o) {
+    private boolean matchBillingRegexAndWasNotProcessed(S3ObjectSummary o, NavigableMap<String, Date> processedFiles) {
         return reportPattern.matcher(o.getKey()).matches()
-                && !moduleData.wasProcessed(o.getKey(), o.getLastModified(),
+                && !ModuleData.wasProcessed(processedFiles, o.getKey(), o.getLastModified(),
                 extractDatePrefix(reportPattern, o));
     }
 
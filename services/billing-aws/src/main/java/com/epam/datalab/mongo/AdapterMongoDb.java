@@ -20,7 +20,6 @@
 package com.epam.datalab.mongo;
 
 import com.epam.datalab.core.DBAdapterBase;
-import com.epam.datalab.core.aggregate.UsageDataList;
 import com.epam.datalab.exceptions.AdapterException;
 import com.epam.datalab.exceptions.InitializationException;
 import com.epam.datalab.exceptions.ParseException;
@@ -30,11 +29,9 @@ import com.fasterxml.jackson.annotation.JsonClassDescription;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import com.google.common.base.MoreObjects.ToStringHelper;
-import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.UpdateOptions;
 import org.bson.Document;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import static com.epam.datalab.mongo.MongoConstants.COLLECTION_SETTINGS;
@@ -54,13 +51,21 @@ import static com.mongodb.client.model.Filters.eq;
                 "    database: <database>     - the name of database.\n" +
                 "    username: <username>     - the name of user.\n" +
                 "    password: <password>     - the password of user.\n" +
+                "    [billingCollection: <collection>] - the name of collection to store the billing data,\n" +
+                "                               if not set the data is not stored.\n" +
                 "    [bufferSize: <number>]   - the size of buffer, default is 10000 records.\n" +
                 "    [upsert: <false | true>] - if true then upsert is enabled."
 )
 public class AdapterMongoDb extends DBAdapterBase {
 
     /**
-     * The size of buffer for bulk insert. Not applicable for upsert mode.
+     * The name of collection to store the billing data. If not set the billing data is not stored.
+     */
+    @JsonProperty
+    private String billingCollection;
+
+    /**
+     * The size of buffer for bulk write.
      */
     @JsonProperty
     private int bufferSize = 10000;
@@ -77,22 +82,14 @@ public class AdapterMongoDb extends DBAdapterBase {
      * Custom connection to Mongo database.
      */
     private MongoDbConnection connection;
-    /**
-     * Mongo collection.
-     */
-    private MongoCollection<Document> collection;
     /**
      * DAO of DataLab's resource type.
      */
     private DatalabResourceTypeDAO resourceTypeDAO;
     /**
-     * Buffer for insert operations.
+     * Writer of the billing data or <b>null</b> if the data is not stored.
      */
-    private List<Document> buffer;
-    /**
-     * List of dates for delete from MongoDB.
-     */
-    private UsageDataList usageDateList;
+    private BillingWriter writer;
 
     public String getServiceBaseName() {
         return serviceBaseName;
@@ -103,14 +100,28 @@ public class AdapterMongoDb extends DBAdapterBase {
     }
 
     /**
-     * Return the size of buffer for bulk insert.
+     * Return the name of collection to store the billing data.
+     */
+    public String getBillingCollection() {
+        return billingCollection;
+    }
+
+    /**
+     * Set the name of collection to store the billing data.
+     */
+    public void setBillingCollection(String billingCollection) {
+        this.billingCollection = billingCollection;
+    }
+
+    /**
+     * Return the size of buffer for bulk write.
      */
     public int getBufferSize() {
         return bufferSize;
     }
 
     /**
-     * Set the size of buffer for bulk insert.
+     * Set the size of buffer for bulk write.
      *
      * @throws InitializationException
      */
@@ -151,7 +162,6 @@ public class AdapterMongoDb extends DBAdapterBase {
             }
             connection = new MongoDbConnection(getHost(), getPort(), getDatabase(), getUsername(), getPassword());
             setServiceBaseName();
-            collection = connection.getCollection(MongoConstants.COLLECTION_BILLING);
             try {
                 resourceTypeDAO = new DatalabResourceTypeDAO(connection);
             } catch (InitializationException e) {
@@ -159,8 +169,9 @@ public class AdapterMongoDb extends DBAdapterBase {
             }
 
             connection.createBillingIndexes();
-            usageDateList = new UsageDataList();
-            buffer = (upsert || bufferSize > 0 ? new ArrayList<>(bufferSize) : null);
+            if (billingCollection != null) {
+                writer = new BillingWriter(connection.getCollection(billingCollection), bufferSize, upsert);
+            }
         } else {
             throw new AdapterException("Connection is already opened");
         }
@@ -172,16 +183,17 @@ public class AdapterMongoDb extends DBAdapterBase {
                         new UpdateOptions().upsert(true));
     }
 
+    @Override
+    public void commit() throws AdapterException {
+        if (writer != null) {
+            writer.complete();
+        }
+    }
+
     @Override
     public void close() throws AdapterException {
         if (connection != null) {
-            if (upsert) {
-                connection.upsertRows(collection, buffer, usageDateList);
-            } else if (bufferSize > 0) {
-                connection.insertRows(collection, buffer);
-            }
-            buffer = null;
-
+            writer = null;
             try {
                 connection.close();
             } catch (Exception e) {
@@ -217,12 +229,16 @@ public class AdapterMongoDb extends DBAdapterBase {
             throw new AdapterException("Cannot transform report line. " + e.getLocalizedMessage(), e);
         }
 
+        if (writer != null) {
+            writer.write(document);
+        }
         return document;
     }
 
     @Override
     public ToStringHelper toStringHelper(Object self) {
         return super.toStringHelper(self)
+                .add("billingCollection", billingCollection)
                 .add("bufferSize", bufferSize)
                 .add("upsert", upsert);
     }
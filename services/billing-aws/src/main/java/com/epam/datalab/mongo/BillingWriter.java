@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package com.epam.datalab.mongo;
+
+import com.epam.datalab.core.aggregate.UsageDataList;
+import com.epam.datalab.exceptions.AdapterException;
+import com.epam.datalab.model.aws.ReportLine;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.result.DeleteResult;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.in;
+import static com.mongodb.client.model.Filters.ne;
+
+/**
+ * Writes the billing documents to Mongo collection by the chunks of the given size. Each chunk is written
+ * by one ordered bulk write.<br>
+ * In upsert mode the documents replace the documents with the same line id, which is built from the
+ * columns of the billing line, and are marked with the generation of the load. When the load has been
+ * completed the documents of the loaded usage dates which have been written by the previous loads are
+ * removed. So the collection keeps the old data of usage date until the new data has been written.<br>
+ * Otherwise the documents are inserted.
+ */
+public class BillingWriter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BillingWriter.class);
+
+    /**
+     * The name of field for the generation of load.
+     */
+    public static final String FIELD_GENERATION = "generation";
+
+    /**
+     * Separator of the columns in the key of billing line.
+     */
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    /**
+     * Mongo collection.
+     */
+    private final MongoCollection<Document> collection;
+
+    /**
+     * The size of chunk.
+     */
+    private final int bufferSize;
+
+    /**
+     * The upsert mode if set to <b>true</b>.
+     */
+    private final boolean upsert;
+
+    /**
+     * The generation of load.
+     */
+    private final String generation = UUID.randomUUID().toString();
+
+    /**
+     * The write operations of the current chunk.
+     */
+    private final List<WriteModel<Document>> buffer;
+
+    /**
+     * The number of the billing lines with the same key in the load.
+     */
+    private final Map<String, Integer> keyCounts = new HashMap<>();
+
+    /**
+     * List of the loaded usage dates.
+     */
+    private final UsageDataList usageDateList = new UsageDataList();
+
+    /**
+     * The number of the written documents.
+     */
+    private long rowCount;
+
+    /**
+     * Instantiate the writer.
+     *
+     * @param collection Mongo collection.
+     * @param bufferSize the size of chunk.
+     * @param upsert     the upsert mode.
+     */
+    public BillingWriter(MongoCollection<Document> collection, int bufferSize, boolean upsert) {
+        this.collection = collection;
+        this.bufferSize = Math.max(1, bufferSize);
+        this.upsert = upsert;
+        this.buffer = new ArrayList<>(this.bufferSize);
+        if (upsert) {
+            createIndex();
+        }
+    }
+
+    /**
+     * Create index on collection for fast removing of the old documents.
+     */
+    private void createIndex() {
+        final IndexOptions options = new IndexOptions().name(MongoConstants.COLLECTION_BILLING + "_GenerationIdx");
+        try {
+            collection.createIndex(Indexes.ascending(ReportLine.FIELD_USAGE_DATE, FIELD_GENERATION), options);
+        } catch (Exception e) {
+            LOGGER.warn("Cannot create index {} on collection {}. {}", options.getName(),
+                    collection.getNamespace(), e.getLocalizedMessage(), e);
+        }
+    }
+
+    /**
+     * Return the generation of load.
+     */
+    public String getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Add the document to the chunk and write the chunk if it is full.
+     *
+     * @param document the billing document.
+     * @throws AdapterException
+     */
+    public void write(Document document) throws AdapterException {
+        if (upsert) {
+            final String usageDate = document.getString(ReportLine.FIELD_USAGE_DATE);
+            final String id = getLineId(document);
+            final Document replacement = new Document(document)
+                    .append(MongoConstants.FIELD_ID, id)
+                    .append(FIELD_GENERATION, generation);
+            buffer.add(new ReplaceOneModel<>(eq(MongoConstants.FIELD_ID, id), replacement,
+                    new UpdateOptions().upsert(true)));
+            usageDateList.append(usageDate);
+        } else {
+            buffer.add(new InsertOneModel<>(document));
+        }
+        if (buffer.size() >= bufferSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Write the current chunk.
+     *
+     * @throws AdapterException
+     */
+    public void flush() throws AdapterException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        try {
+            final BulkWriteResult result = collection.bulkWrite(buffer, new BulkWriteOptions().ordered(true));
+            rowCount += buffer.size();
+            LOGGER.debug("{} documents has been written into collection {}: {} inserted, {} modified, {} upserted",
+                    buffer.size(), collection.getNamespace(), result.getInsertedCount(), result.getModifiedCount(),
+                    result.getUpserts().size());
+            buffer.clear();
+        } catch (Exception e) {
+            throw new AdapterException("Cannot write documents into collection " +
+                    collection.getNamespace() + ": " + e.getLocalizedMessage(), e);
+        }
+    }
+
+    /**
+     * Write the current chunk and in upsert mode remove the documents of the loaded usage dates which have
+     * been written by the previous loads.
+     *
+     * @throws AdapterException
+     */
+    public void complete() throws AdapterException {
+        flush();
+        if (!upsert || usageDateList.size() == 0) {
+            return;
+        }
+        final List<String> usageDates = new ArrayList<>(usageDateList.size());
+        for (String usageDate : usageDateList) {
+            usageDates.add(usageDate);
+        }
+        try {
+            final DeleteResult result = collection.deleteMany(and(in(ReportLine.FIELD_USAGE_DATE, usageDates),
+                    ne(FIELD_GENERATION, generation)));
+            LOGGER.debug("{} documents has been written into collection {}, {} old documents has been deleted",
+                    rowCount, collection.getNamespace(), result.getDeletedCount());
+        } catch (Exception e) {
+            throw new AdapterException("Cannot delete old rows from collection " +
+                    collection.getNamespace() + ": " + e.getLocalizedMessage(), e);
+        }
+        usageDateList.clear();
+        keyCounts.clear();
+    }
+
+    /**
+     * Return the id of billing line. The id is built from the datalab id, usage date, product, usage type and
+     * resource id. If the load has several lines with the same columns the number of line is added to the id.
+     *
+     * @param document the billing document.
+     */
+    String getLineId(Document document) {
+        final String key = new StringBuilder()
+                .append(document.getString(ReportLine.FIELD_DATALAB_ID)).append(KEY_SEPARATOR)
+                .append(document.getString(ReportLine.FIELD_USAGE_DATE)).append(KEY_SEPARATOR)
+                .append(document.getString(ReportLine.FIELD_PRODUCT)).append(KEY_SEPARATOR)
+                .append(document.getString(ReportLine.FIELD_USAGE_TYPE)).append(KEY_SEPARATOR)
+                .append(document.getString(ReportLine.FIELD_RESOURCE_ID))
+                .toString();
+        final int count = keyCounts.merge(key, 1, Integer::sum);
+        final String id = UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString();
+        return (count == 1 ? id : id + "-" + count);
+    }
+}
@@ -19,7 +19,6 @@
 
 package com.epam.datalab.mongo;
 
-import com.epam.datalab.core.aggregate.UsageDataList;
 import com.epam.datalab.exceptions.AdapterException;
 import com.epam.datalab.model.aws.ReportLine;
 import com.mongodb.BasicDBObject;
@@ -30,7 +29,6 @@ import com.mongodb.WriteConcern;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.model.IndexOptions;
-import com.mongodb.client.result.DeleteResult;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 import org.slf4j.Logger;
@@ -39,9 +37,6 @@ import org.slf4j.LoggerFactory;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.Collections;
-import java.util.List;
-
-import static com.mongodb.client.model.Filters.eq;
 
 /**
  * Provides operation with Mongo database and billing report.
@@ -157,67 +152,4 @@ public class MongoDbConnection implements Closeable {
                     collection.getNamespace() + ": " + e.getLocalizedMessage(), e);
         }
     }
-
-    /**
-     * Insert documents from list to Mongo collection and clear list.
-     *
-     * @param collection Mongo collection.
-     * @param documents  the list of documents.
-     * @throws AdapterException
-     */
-    public void insertRows(MongoCollection<Document> collection, List<Document> documents) throws AdapterException {
-        try {
-            if (!documents.isEmpty()) {
-                collection.insertMany(documents);
-                LOGGER.debug("{} documents has been inserted into collection {}",
-                        documents.size(), collection.getNamespace());
-                documents.clear();
-            }
-        } catch (Exception e) {
-            throw new AdapterException("Cannot insert new documents into collection " +
-                    collection.getNamespace() + ": " + e.getLocalizedMessage(), e);
-        }
-    }
-
-    /**
-     * Insert documents from list to Mongo collection and clear list.
-     *
-     * @param collection    Mongo collection.
-     * @param documents     the list of documents.
-     * @param usageDateList list of the data interval to deletion old data from Mongo.
-     * @throws AdapterException
-     */
-    public void upsertRows(MongoCollection<Document> collection, List<Document> documents, UsageDataList usageDateList)
-            throws AdapterException {
-        deleteRows(collection, usageDateList);
-        insertRows(collection, documents);
-    }
-
-    /**
-     * Delete the documents from Mongo collection.
-     *
-     * @param collection    Mongo collection.
-     * @param usageDateList list of the data interval to deletion data from Mongo.
-     * @throws AdapterException
-     */
-    public void deleteRows(MongoCollection<Document> collection, UsageDataList usageDateList)
-            throws AdapterException {
-        try {
-            long rowCount = 0;
-            for (String date : usageDateList) {
-                if (!usageDateList.get(date)) {
-                    DeleteResult result = collection.deleteMany(eq(ReportLine.FIELD_USAGE_DATE, date));
-                    rowCount += result.getDeletedCount();
-                    usageDateList.set(date, true);
-                }
-            }
-            if (rowCount > 0) {
-                LOGGER.debug("{} documents has been deleted from collection {}",
-                        rowCount, collection.getNamespace());
-            }
-        } catch (Exception e) {
-            throw new AdapterException("Cannot delete old rows from collection " +
-                    collection.getNamespace() + ": " + e.getLocalizedMessage(), e);
-        }
-    }
 }
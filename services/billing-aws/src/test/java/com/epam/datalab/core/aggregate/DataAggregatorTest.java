@@ -19,6 +19,7 @@
 
 package com.epam.datalab.core.aggregate;
 
+import com.epam.datalab.model.aws.ReportLine;
 import org.junit.Test;
 
 import static junit.framework.TestCase.assertEquals;
@@ -44,4 +45,57 @@ public class DataAggregatorTest {
         list.clear();
         assertEquals(0, list.size());
     }
+
+    @Test
+    public void aggregate() {
+        DataAggregator aggregator = new DataAggregator(AggregateGranularity.DAY);
+        ReportLine first = getLine("user2", "2017-04-12T10:00:00Z", 1, 2.5);
+
+        aggregator.append(first);
+        aggregator.append(getLine("user1", "2017-04-12T11:00:00Z", 1, 1.5));
+        aggregator.append(getLine("user2", "2017-04-12T12:00:00Z", 2, 3.0));
+        aggregator.append(getLine("user2", "2017-04-13T12:00:00Z", 1, 1.0));
+
+        assertEquals("2017-04-12T10:00:00Z", first.getUsageDate());
+        assertEquals(3, aggregator.size());
+        assertLine(aggregator.get(0), "user1", "2017-04-12", 1, 1.5);
+        assertLine(aggregator.get(1), "user2", "2017-04-12", 3, 5.5);
+        assertLine(aggregator.get(2), "user2", "2017-04-13", 1, 1.0);
+
+        aggregator.clear();
+        assertEquals(0, aggregator.size());
+    }
+
+    @Test
+    public void merge() {
+        DataAggregator aggregator = new ConcurrentDataAggregator(AggregateGranularity.MONTH);
+        DataAggregator other = new DataAggregator(AggregateGranularity.MONTH);
+
+        aggregator.append(getLine("user1", "2017-04-12", 1, 1.5));
+        other.append(getLine("user1", "2017-04-20", 2, 2.0));
+        other.append(getLine("user1", "2017-05-01", 1, 1.0));
+        aggregator.merge(other);
+
+        assertEquals(2, aggregator.size());
+        assertLine(aggregator.get(0), "user1", "2017-04", 3, 3.5);
+        assertLine(aggregator.get(1), "user1", "2017-05", 1, 1.0);
+    }
+
+    private ReportLine getLine(String user, String usageDate, double usage, double cost) {
+        ReportLine line = new ReportLine();
+        line.setDatalabId("datalab");
+        line.setUser(user);
+        line.setUsageDate(usageDate);
+        line.setProduct("Amazon Elastic Compute Cloud");
+        line.setUsage(usage);
+        line.setCost(cost);
+        return line;
+    }
+
+    private void assertLine(ReportLine line, String user, String usageDate, double usage, double cost) {
+        assertEquals(user, line.getUser());
+        assertEquals(usageDate, line.getUsageDate());
+        assertEquals(usage, line.getUsage(), 0.0001);
+        assertEquals(cost, line.getCost(), 0.0001);
+    }
 }
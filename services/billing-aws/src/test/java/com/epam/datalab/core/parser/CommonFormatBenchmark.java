@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.epam.datalab.core.parser;
+
+import com.epam.datalab.exceptions.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the parsing of decimal values by {@link CommonFormat#parseDouble(String, String)} with the
+ * parsing by {@link DecimalFormat} which was used before. Run by {@link #main(String[])} or by the JMH
+ * runner from the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommonFormatBenchmark {
+    private static final int VALUES = 1000;
+
+    private final String[] values = new String[VALUES];
+    private CommonFormat commonFormat;
+    private DecimalFormat decimalFormat;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        for (int i = 0; i < VALUES; i++) {
+            final String integerPart = (i % 10 == 0 ?
+                    (1 + random.nextInt(999)) + " " + String.format("%03d", random.nextInt(1000)) :
+                    String.valueOf(random.nextInt(100)));
+            values[i] = integerPart + "." + String.format("%010d", random.nextInt(Integer.MAX_VALUE));
+        }
+        commonFormat = new CommonFormat(null, '.', ' ');
+
+        decimalFormat = new DecimalFormat();
+        DecimalFormatSymbols symbols = new DecimalFormatSymbols();
+        symbols.setDecimalSeparator('.');
+        symbols.setGroupingSeparator(' ');
+        decimalFormat.setDecimalFormatSymbols(symbols);
+    }
+
+    @Benchmark
+    public void parseDouble(Blackhole blackhole) throws ParseException {
+        for (String value : values) {
+            blackhole.consume(commonFormat.parseDouble("cost", value));
+        }
+    }
+
+    @Benchmark
+    public void decimalFormat(Blackhole blackhole) throws java.text.ParseException {
+        for (String value : values) {
+            blackhole.consume(decimalFormat.parse(value).doubleValue());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CommonFormatBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
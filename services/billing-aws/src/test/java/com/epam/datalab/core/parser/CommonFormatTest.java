@@ -58,6 +58,26 @@ public class CommonFormatTest {
         assertEquals("12345.678", CommonFormat.doubleToString(12345.678));
     }
 
+    @Test
+    public void parseDouble() throws InitializationException, ParseException {
+        final CommonFormat format = getInstance();
+        assertEquals(0.0, format.parseDouble("column1", " "));
+        assertEquals(0.0000012, format.parseDouble("column1", "0.0000012"));
+        assertEquals(-1234567.5, format.parseDouble("column1", "-1 234 567.5"));
+        assertEquals(0.5, format.parseDouble("column1", ".5"));
+        assertEquals(1.5E-3, format.parseDouble("column1", "1.5E-3"));
+        assertEquals(12.0, format.parseDouble("column1", "12abc"));
+        assertEquals(1.2, format.parseDouble("column1", "1.2.3"));
+
+        final CommonFormat commaFormat = new CommonFormat(null, ',', '.');
+        assertEquals(1234.56, commaFormat.parseDouble("column1", "1.234,56"));
+    }
+
+    @Test(expected = ParseException.class)
+    public void parseDoubleInvalid() throws InitializationException, ParseException {
+        getInstance().parseDouble("column1", "abc");
+    }
+
     @Test
     public void rowToString() throws ParseException {
         final List<String> values = Lists.newArrayList("val\"ue1", "\"val,;ue2\"", "value3", "value4");
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package com.epam.datalab.core.parser;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertNull;
+
+public class ConditionCompilerTest {
+    private static final List<String> columnNames = Lists.newArrayList("column1", "column2", "line.item");
+
+    private Boolean test(String condition, String... values) {
+        ConditionCompiler.RowPredicate predicate = ConditionCompiler.compile(condition, columnNames);
+        assertNotNull(predicate);
+        return predicate.test(Lists.newArrayList(values));
+    }
+
+    @Test
+    public void compare() {
+        assertEquals(Boolean.TRUE, test("column1 == 123 && column2 == '456' && line.item > 0.2", "123", "456", "0.5"));
+        assertEquals(Boolean.FALSE, test("column1 == 123 && column2 == '456' && line.item > 0.2", "123", "456", "-5"));
+        assertEquals(Boolean.TRUE, test("(column1 == 123 || column2 == 321) && !(line.item < 5)", "1", "321", "5"));
+        assertEquals(Boolean.TRUE, test("column1 ge '2017-04-12' and column2 ne 'abc'", "2017-04-13", "abd"));
+        assertEquals(Boolean.FALSE, test("-10 >= column1", "-9"));
+        assertEquals(Boolean.TRUE, test("column1 < \"a\\\"b\"", "a"));
+    }
+
+    @Test
+    public void evaluateByJexl() {
+        assertNull(test("column1 == 123", "123.0"));
+        assertNull(test("column1 > 0.2", "abc"));
+        assertNull(test("column1 == 0.2", "0.2"));
+        assertEquals(Boolean.FALSE, test("column1 == '1.50'", "1.5"));
+        assertNull(test("column1 == 123 && column2 == 1", "123", "x"));
+        assertEquals(Boolean.FALSE, test("column1 == 123 && column2 == 1", "124", "x"));
+        assertEquals(Boolean.TRUE, test("column1 == 123 || column2 == 1", "123", "x"));
+    }
+
+    @Test
+    public void notCompiled() {
+        assertNull(ConditionCompiler.compile("column1 + 1 > 2", columnNames));
+        assertNull(ConditionCompiler.compile("column1 == column2", columnNames));
+        assertNull(ConditionCompiler.compile("column1 =~ 'a.*'", columnNames));
+        assertNull(ConditionCompiler.compile("column1 == null", columnNames));
+        assertNull(ConditionCompiler.compile("column3 == 1", columnNames));
+        assertNull(ConditionCompiler.compile("(column1 == 1", columnNames));
+        assertNull(ConditionCompiler.compile("column1 == 1 column2", columnNames));
+    }
+}
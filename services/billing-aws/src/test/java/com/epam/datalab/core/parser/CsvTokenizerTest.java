@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package com.epam.datalab.core.parser;
+
+import com.epam.datalab.exceptions.ParseException;
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class CsvTokenizerTest {
+
+    private final CsvTokenizer tokenizer = new CsvTokenizer(',', '"', '\\');
+
+    @Test
+    public void tokenize() throws ParseException {
+        List<String> row = tokenizer.tokenize("\"qwe\",rty,\"a,b\",,\"\\\"uio\\\"\",");
+        assertEquals(Lists.newArrayList("qwe", "rty", "a,b", "", "\"uio\"", ""), new ArrayList<>(row));
+
+        row = tokenizer.tokenize("\"last\"");
+        assertEquals(1, row.size());
+        assertEquals("last", row.get(0));
+
+        row = tokenizer.tokenize("");
+        assertEquals(1, row.size());
+        assertEquals("", row.get(0));
+    }
+
+    @Test
+    public void tokenizeWideLine() throws ParseException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append(i == 0 ? "" : ",").append("\"value").append(i).append('"');
+        }
+        final List<String> row = tokenizer.tokenize(sb.toString());
+
+        assertEquals(1000, row.size());
+        assertEquals("value0", row.get(0));
+        assertEquals("value999", row.get(999));
+    }
+
+    @Test(expected = ParseException.class)
+    public void tokenizeInvalidEscapeChar() throws ParseException {
+        tokenizer.tokenize("qwe\\");
+    }
+
+    @Test(expected = ParseException.class)
+    public void tokenizeInvalidFieldDelimiter() throws ParseException {
+        tokenizer.tokenize("\"qwe\"rty,asd");
+    }
+
+    @Test(expected = ParseException.class)
+    public void tokenizeUnterminatedField() throws ParseException {
+        tokenizer.tokenize("qwe\"rty\",asd");
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.epam.datalab.core.parser;
+
+import com.epam.datalab.core.AdapterBase;
+import com.epam.datalab.core.ModuleData;
+import com.epam.datalab.core.aggregate.AggregateGranularity;
+import com.epam.datalab.exceptions.AdapterException;
+import com.epam.datalab.exceptions.InitializationException;
+import com.epam.datalab.exceptions.ParseException;
+import com.epam.datalab.model.aws.ReportLine;
+import com.epam.datalab.module.ParserCsv;
+import com.google.common.collect.Lists;
+import org.bson.Document;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
+
+public class ParallelLineParserTest {
+    private static final String HEADER = "\"id\",\"user\",\"date\",\"product\",\"type\",\"usage\",\"cost\",\"currency\"," +
+            "\"resource\"";
+    private static final String COLUMN_MAPPING = "datalab_id=id;user=user;usage_date=date;product=product;" +
+            "usage_type=type;usage=usage;cost=cost;currency_code=currency;resource_id=resource";
+
+    private static List<String> entry(int first, int count) {
+        List<String> lines = new ArrayList<>();
+        for (int i = first; i < first + count; i++) {
+            lines.add("\"id" + (i % 3) + "\",\"user" + (i % 2) + "\",\"2020-01-" + (10 + i % 5) +
+                    "\",\"Amazon S3\",\"Storage\",\"" + i + "\",\"" + (i / 4.0) + "\",\"USD\",\"bucket" + (i % 4) +
+                    "\"");
+        }
+        return lines;
+    }
+
+    private static List<String> withHeader(String header, List<String> lines) {
+        List<String> entry = Lists.newArrayList(header);
+        entry.addAll(lines);
+        return entry;
+    }
+
+    private static List<String> parse(Map<String, List<String>> entries, int parallelism,
+                                      AggregateGranularity aggregate, List<String> committed)
+            throws InitializationException, AdapterException, ParseException {
+        ParserCsv parser = new ParserCsv();
+        parser.setHeaderLineNo(1);
+        parser.setColumnMapping(COLUMN_MAPPING);
+        parser.setParallelism(parallelism);
+        parser.setChunkSize(7);
+        parser.setAggregate(aggregate.toString());
+        EntriesAdapter adapterIn = new EntriesAdapter(entries, committed);
+        RowsAdapter adapterOut = new RowsAdapter();
+        parser.build(adapterIn, adapterOut, null);
+        parser.setModuleData(new ModuleData(null) {
+            @Override
+            public void closeMongoConnection() {
+            }
+        });
+        parser.parse();
+        return adapterOut.rows;
+    }
+
+    private static List<String> parseSerial(List<String> lines, AggregateGranularity aggregate)
+            throws InitializationException, AdapterException, ParseException {
+        Map<String, List<String>> entries = new LinkedHashMap<>();
+        entries.put("serial", withHeader(HEADER, lines));
+        return parse(entries, 1, aggregate, new ArrayList<>());
+    }
+
+    @Test
+    public void parseEntriesInOrder() throws InitializationException, AdapterException, ParseException {
+        Map<String, List<String>> entries = new LinkedHashMap<>();
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            List<String> entryLines = entry(i * 40, 20 + i * 5);
+            entries.put("entry" + i, withHeader(HEADER, entryLines));
+            lines.addAll(entryLines);
+        }
+        List<String> committed = new ArrayList<>();
+
+        List<String> rows = parse(entries, 4, AggregateGranularity.NONE, committed);
+
+        assertEquals(lines.size(), rows.size());
+        assertEquals(parseSerial(lines, AggregateGranularity.NONE), rows);
+        assertEquals(new ArrayList<>(entries.keySet()), committed);
+    }
+
+    @Test
+    public void skipEntryWithDifferentHeader() throws InitializationException, AdapterException, ParseException {
+        Map<String, List<String>> entries = new LinkedHashMap<>();
+        entries.put("a", withHeader(HEADER, entry(0, 30)));
+        entries.put("b", withHeader(HEADER + ",\"extra\"", entry(30, 30)));
+        entries.put("c", withHeader(HEADER, entry(60, 30)));
+        List<String> committed = new ArrayList<>();
+
+        List<String> rows = parse(entries, 3, AggregateGranularity.NONE, committed);
+
+        List<String> lines = entry(0, 30);
+        lines.addAll(entry(60, 30));
+        assertEquals(parseSerial(lines, AggregateGranularity.NONE), rows);
+        assertEquals(Lists.newArrayList("a", "c"), committed);
+    }
+
+    @Test
+    public void parseAggregated() throws InitializationException, AdapterException, ParseException {
+        Map<String, List<String>> entries = new LinkedHashMap<>();
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            List<String> entryLines = entry(i * 50, 50);
+            entries.put("entry" + i, withHeader(HEADER, entryLines));
+            lines.addAll(entryLines);
+        }
+
+        List<String> rows = parse(entries, 4, AggregateGranularity.DAY, new ArrayList<>());
+
+        List<String> expected = parseSerial(lines, AggregateGranularity.DAY);
+        assertTrue(expected.size() < lines.size());
+        assertEquals(expected, rows);
+    }
+
+    @Test
+    public void parseExceptionInWorker() throws InitializationException, AdapterException {
+        Map<String, List<String>> entries = new LinkedHashMap<>();
+        List<String> invalid = entry(100, 30);
+        invalid.set(17, invalid.get(17).replace("\"29.25\"", "\"invalid\""));
+        entries.put("a", withHeader(HEADER, entry(0, 30)));
+        entries.put("b", withHeader(HEADER, invalid));
+        entries.put("c", withHeader(HEADER, entry(200, 30)));
+        List<String> committed = new ArrayList<>();
+
+        try {
+            parse(entries, 4, AggregateGranularity.NONE, committed);
+            fail("ParseException expected");
+        } catch (ParseException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Entry name: b"));
+            assertTrue(e.getMessage(), e.getMessage().contains("Source line[19]"));
+        }
+        assertEquals(Lists.newArrayList("a"), committed);
+    }
+
+    /**
+     * The adapter for reading of entries from memory.
+     */
+    private static class EntriesAdapter extends AdapterBase {
+        private final Map<String, List<String>> entries;
+        private final List<String> committed;
+        private Iterator<String> lines;
+
+        private EntriesAdapter(Map<String, List<String>> entries, List<String> committed) {
+            super(Mode.READ);
+            this.entries = entries;
+            this.committed = committed;
+        }
+
+        @Override
+        public void open() {
+            lines = entries.values().iterator().next().iterator();
+        }
+
+        @Override
+        public void close() {
+            lines = null;
+        }
+
+        @Override
+        public List<String> openEntries() {
+            return new ArrayList<>(entries.keySet());
+        }
+
+        @Override
+        public BufferedReader openEntry(String entryName) {
+            return new BufferedReader(new StringReader(String.join("\n", entries.get(entryName))));
+        }
+
+        @Override
+        public void commitEntry(String entryName) {
+            committed.add(entryName);
+        }
+
+        @Override
+        public String getEntryName() {
+            return entries.keySet().iterator().next();
+        }
+
+        @Override
+        public String readLine() {
+            return (lines.hasNext() ? lines.next() : null);
+        }
+
+        @Override
+        public void writeHeader(List<String> header) throws AdapterException {
+            throw new AdapterException("Unimplemented method.");
+        }
+
+        @Override
+        public Document writeRow(ReportLine row) throws AdapterException {
+            throw new AdapterException("Unimplemented method.");
+        }
+    }
+
+    /**
+     * The adapter for writing of rows to memory.
+     */
+    private static class RowsAdapter extends AdapterBase {
+        private final List<String> rows = new ArrayList<>();
+
+        private RowsAdapter() {
+            super(Mode.WRITE);
+        }
+
+        @Override
+        public void open() {
+            // Nothing to do
+        }
+
+        @Override
+        public void close() {
+            // Nothing to do
+        }
+
+        @Override
+        public String getEntryName() {
+            return "rows";
+        }
+
+        @Override
+        public String readLine() throws AdapterException {
+            throw new AdapterException("Unimplemented method.");
+        }
+
+        @Override
+        public void writeHeader(List<String> header) {
+            // Nothing to do
+        }
+
+        @Override
+        public Document writeRow(ReportLine row) {
+            rows.add(CommonFormat.rowToString(row));
+            return null;
+        }
+    }
+}
@@ -40,6 +40,7 @@ public class AdapterMongoDBTest {
         adapter.setPassword("password");
         adapter.setBufferSize(321);
         adapter.setUpsert(true);
+        adapter.setBillingCollection("billing");
 
         assertEquals(ModuleName.ADAPTER_MONGO_DATALAB, adapter.getType());
         assertEquals(Mode.WRITE, adapter.getMode());
@@ -51,5 +52,6 @@ public class AdapterMongoDBTest {
         assertEquals("password", adapter.getPassword());
         assertEquals(321, adapter.getBufferSize());
         assertEquals(true, adapter.isUpsert());
+        assertEquals("billing", adapter.getBillingCollection());
     }
 }
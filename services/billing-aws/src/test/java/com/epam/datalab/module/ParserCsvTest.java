@@ -20,6 +20,8 @@
 package com.epam.datalab.module;
 
 import com.epam.datalab.core.aggregate.AggregateGranularity;
+import com.epam.datalab.core.parser.ParserStatistics;
+import com.epam.datalab.exceptions.AdapterException;
 import com.epam.datalab.exceptions.InitializationException;
 import com.epam.datalab.exceptions.ParseException;
 import com.epam.datalab.module.aws.FilterAWS;
@@ -27,6 +29,7 @@ import com.google.common.base.MoreObjects;
 import com.google.common.collect.Lists;
 import org.junit.Test;
 
+import java.util.Iterator;
 import java.util.List;
 
 import static junit.framework.TestCase.assertEquals;
@@ -46,6 +49,8 @@ public class ParserCsvTest {
         parser.setColumnMapping("ColumnMapping");
         parser.setHeaderLineNo(123);
         parser.setSkipLines(321);
+        parser.setParallelism(4);
+        parser.setChunkSize(1000);
 
         assertEquals(ModuleName.PARSER_CSV, parser.getType());
         assertEquals('a', parser.getFieldSeparator());
@@ -57,6 +62,8 @@ public class ParserCsvTest {
         assertEquals("ColumnMapping", parser.getColumnMapping());
         assertEquals(123, parser.getHeaderLineNo());
         assertEquals(321, parser.getSkipLines());
+        assertEquals(4, parser.getParallelism());
+        assertEquals(1000, parser.getChunkSize());
 
         AdapterConsole adapterIn = new AdapterConsole();
         AdapterConsole adapterOut = new AdapterConsole();
@@ -78,4 +85,26 @@ public class ParserCsvTest {
         List<String> rowParsed = parser.parseRow(line);
         assertEquals(MoreObjects.toStringHelper(this).add("row", row).toString(), MoreObjects.toStringHelper(this).add("row", rowParsed).toString());
     }
+
+    @Test
+    public void parseHeader() throws AdapterException, ParseException {
+        ParserCsv parser = new ParserCsv();
+        parser.setHeaderLineNo(2);
+        parser.setSkipLines(3);
+        final Iterator<String> lines = Lists.newArrayList("comment", "\"a\",\"b\"", "skipped", "\"1\",\"2\"").iterator();
+        final ParserStatistics statistics = new ParserStatistics("entry");
+
+        List<String> header = parser.parseHeader(() -> {
+            if (!lines.hasNext()) {
+                return null;
+            }
+            statistics.incrRowReaded();
+            return lines.next();
+        }, statistics);
+
+        assertEquals(Lists.newArrayList("a", "b"), header);
+        assertEquals(3L, statistics.getRowReaded());
+        assertEquals(3L, statistics.getRowSkipped());
+        assertEquals("\"1\",\"2\"", lines.next());
+    }
 }
@@ -34,11 +34,11 @@ import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.Arrays;
 import java.util.List;
+import java.util.TreeMap;
 
 import static junit.framework.Assert.assertTrue;
 import static junit.framework.TestCase.assertEquals;
 import static org.mockito.Matchers.any;
-import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -75,7 +75,7 @@ public class S3FileListTest {
         );
         when(s3Client.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(result);
         when(result.getObjectSummaries()).thenReturn(objectSummaries);
-        when(moduleData.wasProcessed(any(), any(), anyString())).thenReturn(false);
+        when(moduleData.getProcessedFiles()).thenReturn(new TreeMap<>());
 
         S3FileList s3list = new S3FileList(false, "test", moduleData);
         final List<String> list = s3list.getFiles(s3Client);
@@ -116,10 +116,43 @@ public class S3FileListTest {
 
     }
 
+    @Test
+    public void skipProcessedFiles() throws AdapterException {
+        final AmazonS3Client s3Client = mock(AmazonS3Client.class);
+        final ListObjectsV2Result result = mock(ListObjectsV2Result.class);
+        final ModuleData moduleData = mock(ModuleData.class);
+        final List<S3ObjectSummary> objectSummaries = Arrays.asList(
+                getObjectSummary("DATALAB-billing/reportName/20180101-20180201/guid1/test-1.csv",
+                        LocalDate.of(2018, 4, 1)),
+                getObjectSummary("DATALAB-billing/reportName/20180201-20180301/guid1/test-1.csv",
+                        LocalDate.of(2018, 4, 1)),
+                getObjectSummary("DATALAB-billing/reportName/20180301-20180401/guid1/test-1.csv",
+                        LocalDate.of(2018, 4, 1))
+        );
+        final TreeMap<String, java.util.Date> processedFiles = new TreeMap<>();
+        processedFiles.put("DATALAB-billing/reportName/20180101-20180201/guid0/test-1.csv",
+                toDate(LocalDate.of(2018, 4, 2)));
+        processedFiles.put("DATALAB-billing/reportName/20180201-20180301/guid0/test-1.csv",
+                toDate(LocalDate.of(2018, 3, 1)));
+        when(s3Client.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(result);
+        when(result.getObjectSummaries()).thenReturn(objectSummaries);
+        when(moduleData.getProcessedFiles()).thenReturn(processedFiles);
+
+        final List<String> files = new S3FileList(true, "test", moduleData).getFiles(s3Client);
+
+        assertEquals(2, files.size());
+        assertEquals("DATALAB-billing/reportName/20180201-20180301/guid1/test-1.csv", files.get(0));
+        assertEquals("DATALAB-billing/reportName/20180301-20180401/guid1/test-1.csv", files.get(1));
+    }
+
     private S3ObjectSummary getObjectSummary(String key, LocalDate modificationDate) {
         final S3ObjectSummary objectSummary = new S3ObjectSummary();
         objectSummary.setKey(key);
-        objectSummary.setLastModified(Date.from(modificationDate.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        objectSummary.setLastModified(toDate(modificationDate));
         return objectSummary;
     }
+
+    private java.util.Date toDate(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
 }
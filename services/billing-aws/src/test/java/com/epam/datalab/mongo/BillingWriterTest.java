@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package com.epam.datalab.mongo;
+
+import com.epam.datalab.exceptions.AdapterException;
+import com.epam.datalab.model.aws.ReportLine;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.result.DeleteResult;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BillingWriterTest {
+
+    @Test
+    public void getLineId() {
+        BillingWriter writer = new BillingWriter(null, 10, false);
+        BillingWriter otherWriter = new BillingWriter(null, 10, false);
+
+        final String id = writer.getLineId(getDocument("2017-04-12", "product1"));
+        assertEquals(id, otherWriter.getLineId(getDocument("2017-04-12", "product1")));
+        assertEquals(id + "-2", writer.getLineId(getDocument("2017-04-12", "product1")));
+        assertFalse(id.equals(writer.getLineId(getDocument("2017-04-12", "product2"))));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void writeByChunks() throws AdapterException {
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        BulkWriteResult bulkWriteResult = mock(BulkWriteResult.class);
+        DeleteResult deleteResult = mock(DeleteResult.class);
+        when(collection.bulkWrite(anyList(), any(BulkWriteOptions.class))).thenReturn(bulkWriteResult);
+        when(collection.deleteMany(any(Bson.class))).thenReturn(deleteResult);
+
+        BillingWriter writer = new BillingWriter(collection, 2, true);
+        writer.write(getDocument("2017-04-12", "product1"));
+        writer.write(getDocument("2017-04-12", "product2"));
+        writer.write(getDocument("2017-04-13", "product1"));
+
+        verify(collection, times(1)).bulkWrite(anyList(), any(BulkWriteOptions.class));
+        verify(collection, never()).deleteMany(any(Bson.class));
+
+        writer.complete();
+
+        verify(collection, times(2)).bulkWrite(anyList(), any(BulkWriteOptions.class));
+        verify(collection).deleteMany(any(Bson.class));
+    }
+
+    private Document getDocument(String usageDate, String product) {
+        return new Document(ReportLine.FIELD_DATALAB_ID, "datalab")
+                .append(ReportLine.FIELD_USAGE_DATE, usageDate)
+                .append(ReportLine.FIELD_PRODUCT, product)
+                .append(ReportLine.FIELD_USAGE_TYPE, "usage")
+                .append(ReportLine.FIELD_RESOURCE_ID, "i-123");
+    }
+}
@@ -23,8 +23,7 @@ import com.epam.datalab.billing.BillingCalculationUtils;
 import com.epam.datalab.billing.azure.config.BillingConfigurationAzure;
 import com.epam.datalab.billing.azure.model.AzureDailyResourceInvoice;
 import com.epam.datalab.billing.azure.rate.AzureRateCardClient;
-import com.epam.datalab.billing.azure.rate.Meter;
-import com.epam.datalab.billing.azure.rate.RateCardResponse;
+import com.epam.datalab.billing.azure.rate.RateCardCache;
 import com.epam.datalab.billing.azure.usage.AzureUsageAggregateClient;
 import com.epam.datalab.billing.azure.usage.UsageAggregateRecord;
 import com.epam.datalab.billing.azure.usage.UsageAggregateResponse;
@@ -37,9 +36,12 @@ import org.apache.commons.lang3.StringUtils;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /**
@@ -57,6 +59,7 @@ public class AzureInvoiceCalculationService {
     private static final long MAX_AUTH_TOKEN_TTL_MILLIS = 9L * 60L * 1000L;
 
     private BillingConfigurationAzure billingConfigurationAzure;
+    private RateCardCache rateCardCache;
 
     /**
      * Constructs service class
@@ -65,10 +68,12 @@ public class AzureInvoiceCalculationService {
      */
     public AzureInvoiceCalculationService(BillingConfigurationAzure billingConfigurationAzure) {
         this.billingConfigurationAzure = billingConfigurationAzure;
+        this.rateCardCache = new RateCardCache(billingConfigurationAzure);
     }
 
     /**
-     * Prepares invoice records aggregated by day
+     * Prepares invoice records aggregated by day. The next page of usage aggregates is requested in
+     * background while the current page is being processed.
      *
      * @param from start usage period
      * @param to   end usage period
@@ -81,51 +86,73 @@ public class AzureInvoiceCalculationService {
         String authenticationToken = getNewToken();
         AzureRateCardClient azureRateCardClient = new AzureRateCardClient(billingConfigurationAzure,
                 authenticationToken);
-        AzureUsageAggregateClient azureUsageAggregateClient = new AzureUsageAggregateClient(billingConfigurationAzure,
-                authenticationToken);
 
         List<AzureDailyResourceInvoice> invoiceData = new ArrayList<>();
+        ExecutorService pageLoader = Executors.newSingleThreadExecutor();
 
-        try {
+        try (AzureUsageAggregateClient azureUsageAggregateClient =
+                     new AzureUsageAggregateClient(billingConfigurationAzure, authenticationToken)) {
 
-            UsageAggregateResponse usageAggregateResponse = null;
-            Map<String, Meter> rates = transformRates(azureRateCardClient.getRateCard());
-
-            do {
-
-                if (usageAggregateResponse != null && StringUtils.isNotEmpty(usageAggregateResponse.getNextLink())) {
-                    log.info("Get usage of resources using link {}", usageAggregateResponse.getNextLink());
-                    usageAggregateResponse = azureUsageAggregateClient.getUsageAggregateResponse
-                            (usageAggregateResponse.getNextLink());
-                    log.info("Received usage of resources. Items {} ", usageAggregateResponse.getValue() != null ?
-                            usageAggregateResponse.getValue().size() : 0);
-                    log.info("Next link is {}", usageAggregateResponse.getNextLink());
-                } else if (usageAggregateResponse == null) {
-                    log.info("Get usage of resources from {} to {}", from, to);
-                    usageAggregateResponse = azureUsageAggregateClient.getUsageAggregateResponse(from, to);
-                    log.info("Received usage of resources. Items {} ", usageAggregateResponse.getValue() != null ?
-                            usageAggregateResponse.getValue().size() : 0);
-                    log.info("Next link is {}", usageAggregateResponse.getNextLink());
-                }
+            Map<String, Double> rates = rateCardCache.getRates(azureRateCardClient);
 
-                invoiceData.addAll(generateBillingInfo(rates, usageAggregateResponse));
+            log.info("Get usage of resources from {} to {}", from, to);
+            Future<UsageAggregateResponse> nextPage = pageLoader.submit(() ->
+                    azureUsageAggregateClient.getUsageAggregateResponse(from, to));
+
+            while (nextPage != null) {
+                UsageAggregateResponse usageAggregateResponse = getPage(nextPage);
+                log.info("Received usage of resources. Items {} ", usageAggregateResponse.getValue() != null ?
+                        usageAggregateResponse.getValue().size() : 0);
+                log.info("Next link is {}", usageAggregateResponse.getNextLink());
 
                 if (System.currentTimeMillis() > refreshTokenTime) {
                     authenticationToken = getNewToken();
                     azureUsageAggregateClient.setAuthToken(authenticationToken);
+                    refreshTokenTime = System.currentTimeMillis() + MAX_AUTH_TOKEN_TTL_MILLIS;
                 }
 
-            } while (StringUtils.isNotEmpty(usageAggregateResponse.getNextLink()));
+                final String nextLink = usageAggregateResponse.getNextLink();
+                if (StringUtils.isNotEmpty(nextLink)) {
+                    log.info("Get usage of resources using link {}", nextLink);
+                    nextPage = pageLoader.submit(() -> azureUsageAggregateClient.getUsageAggregateResponse(nextLink));
+                } else {
+                    nextPage = null;
+                }
+
+                invoiceData.addAll(generateBillingInfo(rates, usageAggregateResponse));
+            }
 
         } catch (IOException | RuntimeException | URISyntaxException e) {
             log.error("Cannot calculate billing information", e);
             throw new DatalabException("Cannot prepare invoice data", e);
+        } finally {
+            pageLoader.shutdownNow();
         }
 
         return invoiceData;
     }
 
-    private List<AzureDailyResourceInvoice> generateBillingInfo(Map<String, Meter> rates, UsageAggregateResponse
+    private UsageAggregateResponse getPage(Future<UsageAggregateResponse> page) throws IOException,
+            URISyntaxException {
+        try {
+            return page.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatalabException("Loading of usage aggregates has been interrupted", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof URISyntaxException) {
+                throw (URISyntaxException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new DatalabException("Cannot load usage aggregates", e);
+        }
+    }
+
+    private List<AzureDailyResourceInvoice> generateBillingInfo(Map<String, Double> rates, UsageAggregateResponse
             usageAggregateResponse) {
         List<UsageAggregateRecord> usageAggregateRecordList = usageAggregateResponse.getValue();
         List<AzureDailyResourceInvoice> invoices = new ArrayList<>();
@@ -149,15 +176,6 @@ public class AzureInvoiceCalculationService {
         return invoices;
     }
 
-    private Map<String, Meter> transformRates(RateCardResponse rateCardResponse) {
-        Map<String, Meter> rates = new HashMap<>();
-        for (Meter meter : rateCardResponse.getMeters()) {
-            rates.put(meter.getMeterId(), meter);
-        }
-
-        return rates;
-    }
-
     private boolean matchProperStructure(UsageAggregateRecord record) {
         if (record.getProperties() == null) {
             return false;
@@ -178,34 +196,24 @@ public class AzureInvoiceCalculationService {
         return datalabId != null && !datalabId.isEmpty() && datalabId.startsWith(billingConfigurationAzure.getSbn());
     }
 
-    private AzureDailyResourceInvoice calculateInvoice(Map<String, Meter> rates, UsageAggregateRecord record, String datalabId) {
+    private AzureDailyResourceInvoice calculateInvoice(Map<String, Double> rates, UsageAggregateRecord record,
+                                                       String datalabId) {
         String meterId = record.getProperties().getMeterId();
-        Meter rateCard = rates.get(meterId);
-
-        if (rateCard != null) {
-            Map<String, Double> meterRates = rateCard.getMeterRates();
-            if (meterRates != null) {
-                Double rate = meterRates.get(AzureRateCardClient.MAIN_RATE_KEY);
-                if (rate != null) {
-                    return AzureDailyResourceInvoice.builder()
-                            .datalabId(datalabId)
-                            .usageStartDate(getDay(record.getProperties().getUsageStartTime()))
-                            .usageEndDate(getDay(record.getProperties().getUsageEndTime()))
-                            .meterCategory(record.getProperties().getMeterCategory())
-                            .cost(BillingCalculationUtils.round(rate * record.getProperties().getQuantity(), 3))
-                            .day(getDay(record.getProperties().getUsageStartTime()))
-                            .currencyCode(billingConfigurationAzure.getCurrency())
-                            .build();
-                } else {
-                    log.error("Rate Card {} has no rate for meter id {} and rate id {}. Skip record {}.",
-                            rateCard, meterId, AzureRateCardClient.MAIN_RATE_KEY, record);
-                }
-            } else {
-                log.error("Rate Card {} has no meter rates fro meter id {}. Skip record {}",
-                        rateCard, meterId, record);
-            }
+        Double rate = rates.get(meterId);
+
+        if (rate != null) {
+            return AzureDailyResourceInvoice.builder()
+                    .datalabId(datalabId)
+                    .usageStartDate(getDay(record.getProperties().getUsageStartTime()))
+                    .usageEndDate(getDay(record.getProperties().getUsageEndTime()))
+                    .meterCategory(record.getProperties().getMeterCategory())
+                    .cost(BillingCalculationUtils.round(rate * record.getProperties().getQuantity(), 3))
+                    .day(getDay(record.getProperties().getUsageStartTime()))
+                    .currencyCode(billingConfigurationAzure.getCurrency())
+                    .build();
         } else {
-            log.error("Meter rate {} form usage aggregate is not found in rate card. Skip record {}.", meterId, record);
+            log.error("Meter rate {} with rate id {} from usage aggregate is not found in rate card. Skip record {}.",
+                    meterId, AzureRateCardClient.MAIN_RATE_KEY, record);
         }
 
         return null;
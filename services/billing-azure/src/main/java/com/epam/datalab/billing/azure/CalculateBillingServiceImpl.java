@@ -59,6 +59,7 @@ public class CalculateBillingServiceImpl implements CalculateBillingService {
     private static final String SCHEDULER_ID = "azureBillingScheduler";
     private final BillingConfigurationAzure billingConfigurationAzure;
     private final MongoDbBillingClient mongoDbBillingClient;
+    private final AzureInvoiceCalculationService azureInvoiceCalculationService;
     private ObjectMapper objectMapper;
 
     @Autowired
@@ -90,6 +91,7 @@ public class CalculateBillingServiceImpl implements CalculateBillingService {
                         billingConfigurationAzure.getAggregationOutputMongoDataSource().getDatabase(),
                         billingConfigurationAzure.getAggregationOutputMongoDataSource().getUsername(),
                         billingConfigurationAzure.getAggregationOutputMongoDataSource().getPassword());
+        this.azureInvoiceCalculationService = new AzureInvoiceCalculationService(billingConfigurationAzure);
     }
 
     @Override
@@ -146,9 +148,6 @@ public class CalculateBillingServiceImpl implements CalculateBillingService {
     }
 
     private List<BillingData> getBillingData(BillingPeriod billingPeriod) {
-        AzureInvoiceCalculationService azureInvoiceCalculationService
-                = new AzureInvoiceCalculationService(billingConfigurationAzure);
-
         List<AzureDailyResourceInvoice> dailyInvoices = azureInvoiceCalculationService.generateInvoiceData(
                 DATE_TIME_FORMATTER.print(new DateTime(billingPeriod.getFrom()).withZone(DateTimeZone.UTC)),
                 DATE_TIME_FORMATTER.print(new DateTime(billingPeriod.getTo()).withZone(DateTimeZone.UTC)));
@@ -42,6 +42,8 @@ public class BillingConfigurationAzure {
     private String currency;
     private String locale;
     private String regionInfo;
+    private long rateCardTtl = 1440;
+    private String rateCardCacheFile;
     private boolean billingEnabled;
 
     private String ssnStorageAccountTagName;
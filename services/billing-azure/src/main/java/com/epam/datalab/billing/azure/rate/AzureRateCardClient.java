@@ -26,7 +26,9 @@ import org.apache.http.Header;
 import org.apache.http.HttpHeaders;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
 import org.apache.http.ProtocolException;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.utils.URIBuilder;
@@ -34,9 +36,9 @@ import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.DefaultRedirectStrategy;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.protocol.HttpContext;
-import org.apache.http.util.EntityUtils;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.util.Arrays;
 import java.util.function.Predicate;
@@ -54,6 +56,15 @@ public class AzureRateCardClient {
     }
 
     public RateCardResponse getRateCard() throws IOException, URISyntaxException {
+        return getRateCard(null);
+    }
+
+    /**
+     * Returns the rate card or <b>null</b> if the rate card has the same entity tag as given.
+     *
+     * @param entityTag entity tag of the cached rate card or <b>null</b>
+     */
+    public RateCardResponse getRateCard(String entityTag) throws IOException, URISyntaxException {
 
         try (CloseableHttpClient httpClient = HttpClients.custom()
                 .setRedirectStrategy(new CustomRedirectWithoutAuthorizationStrategy())
@@ -69,8 +80,21 @@ public class AzureRateCardClient {
             final HttpGet request = new HttpGet(uriBuilder.build());
             request.addHeader("Authorization", String.format("Bearer %s", authToken));
             request.addHeader(HttpHeaders.ACCEPT, "application/json");
-            return objectMapper.readValue(EntityUtils.toString
-                    (httpClient.execute(request).getEntity()), RateCardResponse.class);
+            if (entityTag != null) {
+                request.addHeader(HttpHeaders.IF_NONE_MATCH, entityTag);
+            }
+            try (CloseableHttpResponse response = httpClient.execute(request)) {
+                if (response.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+                    return null;
+                }
+                final RateCardResponse rateCard;
+                try (InputStream content = response.getEntity().getContent()) {
+                    rateCard = objectMapper.readValue(content, RateCardResponse.class);
+                }
+                final Header entityTagHeader = response.getFirstHeader(HttpHeaders.ETAG);
+                rateCard.setEntityTag(entityTagHeader != null ? entityTagHeader.getValue() : null);
+                return rateCard;
+            }
         } catch (IOException | URISyntaxException e) {
             log.error("Cannot retrieve rate card due to ", e);
             throw e;
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package com.epam.datalab.billing.azure.rate;
+
+import com.epam.datalab.billing.azure.config.BillingConfigurationAzure;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps the main rates of the rate card by meter id between billing runs. The rates are kept in memory and,
+ * if the snapshot file is configured, on disk, so they survive the restart of the service. The rate card is
+ * downloaded again only when the rates are older than <code>rateCardTtl</code> minutes and the request is
+ * conditional on the entity tag of the cached rate card.
+ */
+@Slf4j
+public class RateCardCache {
+    private static final long MILLIS_IN_MINUTE = 60L * 1000L;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BillingConfigurationAzure billingConfigurationAzure;
+    private Snapshot snapshot;
+
+    public RateCardCache(BillingConfigurationAzure billingConfigurationAzure) {
+        this.billingConfigurationAzure = billingConfigurationAzure;
+    }
+
+    /**
+     * Returns the main rates by meter id. The expired rates are refreshed using the given client.
+     *
+     * @param azureRateCardClient client of Azure RateCard API
+     * @return unmodifiable map of rates by meter id
+     */
+    public synchronized Map<String, Double> getRates(AzureRateCardClient azureRateCardClient) throws IOException,
+            URISyntaxException {
+        final String filter = getFilter();
+        if (snapshot == null || !filter.equals(snapshot.getFilter())) {
+            snapshot = readSnapshot(filter);
+        }
+        if (snapshot != null && !isExpired(snapshot)) {
+            log.debug("Use cached rate card with {} rates", snapshot.getRates().size());
+            return snapshot.getRates();
+        }
+
+        final RateCardResponse rateCard = azureRateCardClient.getRateCard(snapshot != null ?
+                snapshot.getEntityTag() : null);
+        if (rateCard == null) {
+            log.info("Rate card has not been modified, use cached {} rates", snapshot.getRates().size());
+            snapshot = new Snapshot(filter, snapshot.getEntityTag(), System.currentTimeMillis(), snapshot.getRates());
+        } else {
+            snapshot = new Snapshot(filter, rateCard.getEntityTag(), System.currentTimeMillis(), toRates(rateCard));
+            log.info("Rate card has been loaded with {} rates", snapshot.getRates().size());
+        }
+        writeSnapshot(snapshot);
+        return snapshot.getRates();
+    }
+
+    private boolean isExpired(Snapshot snapshot) {
+        return System.currentTimeMillis() - snapshot.getLoadedTime() >=
+                billingConfigurationAzure.getRateCardTtl() * MILLIS_IN_MINUTE;
+    }
+
+    private Map<String, Double> toRates(RateCardResponse rateCard) {
+        final Map<String, Double> rates = new HashMap<>();
+        if (rateCard.getMeters() != null) {
+            for (Meter meter : rateCard.getMeters()) {
+                final Double rate = (meter.getMeterRates() != null ?
+                        meter.getMeterRates().get(AzureRateCardClient.MAIN_RATE_KEY) : null);
+                if (meter.getMeterId() != null && rate != null) {
+                    rates.put(meter.getMeterId(), rate);
+                }
+            }
+        }
+        return Collections.unmodifiableMap(rates);
+    }
+
+    /**
+     * Returns the parameters of rate card request. The cached rates are not used if the parameters have
+     * been changed.
+     */
+    private String getFilter() {
+        return String.join("|", billingConfigurationAzure.getSubscriptionId(),
+                billingConfigurationAzure.getOfferNumber(), billingConfigurationAzure.getCurrency(),
+                billingConfigurationAzure.getLocale(), billingConfigurationAzure.getRegionInfo());
+    }
+
+    private Snapshot readSnapshot(String filter) {
+        final Path path = getSnapshotPath();
+        if (path == null || !Files.exists(path)) {
+            return null;
+        }
+        try {
+            final Snapshot fileSnapshot = objectMapper.readValue(path.toFile(), Snapshot.class);
+            if (filter.equals(fileSnapshot.getFilter()) && fileSnapshot.getRates() != null) {
+                log.info("Rate card snapshot {} with {} rates has been read", path, fileSnapshot.getRates().size());
+                return new Snapshot(filter, fileSnapshot.getEntityTag(), fileSnapshot.getLoadedTime(),
+                        Collections.unmodifiableMap(fileSnapshot.getRates()));
+            }
+        } catch (IOException e) {
+            log.warn("Cannot read rate card snapshot {} due to: {}", path, e.getMessage());
+        }
+        return null;
+    }
+
+    private void writeSnapshot(Snapshot snapshot) {
+        final Path path = getSnapshotPath();
+        if (path == null) {
+            return;
+        }
+        try {
+            final Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            objectMapper.writeValue(tmp.toFile(), snapshot);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Cannot write rate card snapshot {} due to: {}", path, e.getMessage());
+        }
+    }
+
+    private Path getSnapshotPath() {
+        final String file = billingConfigurationAzure.getRateCardCacheFile();
+        return StringUtils.isNotEmpty(file) ? Paths.get(file) : null;
+    }
+
+    @Getter
+    static class Snapshot {
+        @JsonProperty
+        private final String filter;
+        @JsonProperty
+        private final String entityTag;
+        @JsonProperty
+        private final long loadedTime;
+        @JsonProperty
+        private final Map<String, Double> rates;
+
+        @JsonCreator
+        Snapshot(@JsonProperty("filter") String filter, @JsonProperty("entityTag") String entityTag,
+                 @JsonProperty("loadedTime") long loadedTime, @JsonProperty("rates") Map<String, Double> rates) {
+            this.filter = filter;
+            this.entityTag = entityTag;
+            this.loadedTime = loadedTime;
+            this.rates = rates;
+        }
+    }
+}
@@ -19,6 +19,7 @@
 
 package com.epam.datalab.billing.azure.rate;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 import lombok.ToString;
@@ -38,4 +39,6 @@ public class RateCardResponse {
     private String locale;
     @JsonProperty("IsTaxIncluded")
     private boolean taxIncluded;
+    @JsonIgnore
+    private String entityTag;
 }
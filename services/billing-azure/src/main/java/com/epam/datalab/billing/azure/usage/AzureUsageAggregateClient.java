@@ -21,24 +21,49 @@ package com.epam.datalab.billing.azure.usage;
 
 import com.epam.datalab.billing.azure.config.BillingConfigurationAzure;
 import com.epam.datalab.exceptions.DatalabException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.util.EntityUtils;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URISyntaxException;
-import java.util.Objects;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Reads the pages of usage aggregates. All the requests are sent by one pooled HTTP client, so the
+ * connection to Azure is reused between the pages. The page is decoded from the response stream record by
+ * record, so only one record is kept as JSON tree at a time. The instance data of record is parsed once and
+ * only the records of DataLab resources, i.e. with the <code>Name</code> tag starting with the service base
+ * name, are bound to {@link UsageAggregateRecord}.
+ */
 @Slf4j
-public class AzureUsageAggregateClient {
+public class AzureUsageAggregateClient implements Closeable {
+    private static final String RESOURCES_FIELD = "Microsoft.Resources";
+    private static final String TAGS_FIELD = "tags";
+    private static final String NAME_TAG = "Name";
+
     private ObjectMapper objectMapper = new ObjectMapper();
     private BillingConfigurationAzure billingConfigurationAzure;
-    private String authToken;
+    private volatile String authToken;
+    private final CloseableHttpClient httpClient = HttpClients.custom()
+            .setConnectionManager(new PoolingHttpClientConnectionManager())
+            .build();
 
     public AzureUsageAggregateClient(BillingConfigurationAzure billingConfigurationAzure, String authToken) {
         this.billingConfigurationAzure = billingConfigurationAzure;
@@ -47,8 +72,7 @@ public class AzureUsageAggregateClient {
 
     public UsageAggregateResponse getUsageAggregateResponse(String from, String to) throws IOException,
             URISyntaxException {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-
+        try {
             final URIBuilder uriBuilder = new URIBuilder("https://management.azure.com/subscriptions/" +
                     billingConfigurationAzure.getSubscriptionId() + "/providers/Microsoft" +
                     ".Commerce/UsageAggregates")
@@ -57,12 +81,7 @@ public class AzureUsageAggregateClient {
                     .addParameter("reportedEndTime", to)
                     .addParameter("aggregationGranularity", "daily")
                     .addParameter("showDetails", "false");
-            final HttpGet request = new HttpGet(uriBuilder.build());
-            request.addHeader("Authorization", String.format("Bearer %s", authToken));
-            request.addHeader(HttpHeaders.ACCEPT, "application/json");
-            final UsageAggregateResponse usageAggregateResponse = objectMapper.readValue(EntityUtils.toString
-                    (httpClient.execute(request).getEntity()), UsageAggregateResponse.class);
-            return postProcess(usageAggregateResponse);
+            return execute(new HttpGet(uriBuilder.build()));
         } catch (URISyntaxException e) {
             log.error("Cannot retrieve usage detail due to ", e);
             throw e;
@@ -71,31 +90,91 @@ public class AzureUsageAggregateClient {
 
 
     public UsageAggregateResponse getUsageAggregateResponse(String nextUrl) throws IOException {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-            final HttpGet request = new HttpGet(nextUrl);
-            request.addHeader("Authorization", String.format("Bearer %s", authToken));
-            request.addHeader(HttpHeaders.ACCEPT, "application/json");
-            final UsageAggregateResponse usageAggregateResponse = objectMapper.readValue(EntityUtils.toString
-                    (httpClient.execute(request).getEntity()), UsageAggregateResponse.class);
-            return postProcess(usageAggregateResponse);
-        }
+        return execute(new HttpGet(nextUrl));
     }
 
     public void setAuthToken(String authToken) {
         this.authToken = authToken;
     }
 
-    private UsageAggregateResponse postProcess(UsageAggregateResponse usageAggregateResponse) {
-        usageAggregateResponse.getValue()
-                .stream()
-                .filter(r -> Objects.nonNull(r.getProperties().getInstanceData()))
-                .forEach(r -> r.getProperties().setParsedInstanceData(toInstanceData(r)));
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    private UsageAggregateResponse execute(HttpGet request) throws IOException {
+        request.addHeader("Authorization", String.format("Bearer %s", authToken));
+        request.addHeader(HttpHeaders.ACCEPT, "application/json");
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            final HttpEntity entity = response.getEntity();
+            if (response.getStatusLine().getStatusCode() != HttpStatus.SC_OK) {
+                throw new IOException("Cannot retrieve usage aggregates. Status " +
+                        response.getStatusLine() + ": " + (entity != null ? EntityUtils.toString(entity) : ""));
+            }
+            try (InputStream content = entity.getContent()) {
+                return readResponse(content);
+            }
+        }
+    }
+
+    private UsageAggregateResponse readResponse(InputStream content) throws IOException {
+        final UsageAggregateResponse usageAggregateResponse = new UsageAggregateResponse();
+        final List<UsageAggregateRecord> records = new ArrayList<>();
+        int skipped = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(content)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new DatalabException("Can not parse usage aggregates: JSON object is expected");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.getCurrentName();
+                final JsonToken token = parser.nextToken();
+                if ("value".equals(field) && token == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        final UsageAggregateRecord record = readRecord(parser);
+                        if (record != null) {
+                            records.add(record);
+                        } else {
+                            skipped++;
+                        }
+                    }
+                } else if ("nextLink".equals(field)) {
+                    usageAggregateResponse.setNextLink(token == JsonToken.VALUE_NULL ? null : parser.getText());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        log.debug("Skipped {} usage records of not DataLab resources", skipped);
+        usageAggregateResponse.setValue(records);
         return usageAggregateResponse;
     }
 
-    private InstanceData toInstanceData(UsageAggregateRecord r) {
+    /**
+     * Reads the record from parser and returns it or <b>null</b> if the record does not belong to
+     * DataLab resource.
+     */
+    private UsageAggregateRecord readRecord(JsonParser parser) throws IOException {
+        final JsonNode node = objectMapper.readTree(parser);
+        final String instanceData = node.path("properties").path("instanceData").asText(null);
+        if (instanceData == null) {
+            return null;
+        }
+        final JsonNode instanceDataNode = readInstanceData(instanceData);
+        if (!isDatalabResource(instanceDataNode.path(RESOURCES_FIELD).path(TAGS_FIELD).path(NAME_TAG).asText(null))) {
+            return null;
+        }
+        final UsageAggregateRecord record = objectMapper.treeToValue(node, UsageAggregateRecord.class);
+        record.getProperties().setParsedInstanceData(objectMapper.treeToValue(instanceDataNode, InstanceData.class));
+        return record;
+    }
+
+    private boolean isDatalabResource(String datalabId) {
+        return StringUtils.isNotEmpty(datalabId) && datalabId.startsWith(billingConfigurationAzure.getSbn());
+    }
+
+    private JsonNode readInstanceData(String instanceData) {
         try {
-            return objectMapper.readValue(r.getProperties().getInstanceData(), InstanceData.class);
+            return objectMapper.readTree(instanceData);
         } catch (IOException e) {
             throw new DatalabException("Can not parse instance data", e);
         }
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.epam.datalab.billing.azure.usage;
+
+import com.epam.datalab.billing.azure.config.BillingConfigurationAzure;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AzureUsageAggregateClientTest {
+    private static final String SBN = "sbn";
+    private static final String TOKEN = "token";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<String> authorizations = Collections.synchronizedList(new ArrayList<>());
+    private HttpServer server;
+    private String baseUrl;
+    private AzureUsageAggregateClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+        server.createContext("/page1", exchange -> respond(exchange, 200,
+                page(baseUrl + "/page2", record("1", "sbn-edge"), record("2", "other-vm"), record("3", null))));
+        server.createContext("/page2", exchange -> respond(exchange, 200,
+                page(null, record("4", "sbn-notebook"))));
+        server.createContext("/error", exchange -> respond(exchange, 401, "Token is expired"));
+        server.start();
+
+        final BillingConfigurationAzure configuration = new BillingConfigurationAzure();
+        configuration.setSbn(SBN);
+        client = new AzureUsageAggregateClient(configuration, TOKEN);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void readPages() throws IOException {
+        final UsageAggregateResponse firstPage = client.getUsageAggregateResponse(baseUrl + "/page1");
+
+        assertEquals(Collections.singletonList("1"), ids(firstPage));
+        assertEquals(baseUrl + "/page2", firstPage.getNextLink());
+        assertEquals("sbn-edge", firstPage.getValue().get(0).getProperties().getParsedInstanceData()
+                .getMicrosoftResources().getTags().get("Name"));
+
+        final UsageAggregateResponse secondPage = client.getUsageAggregateResponse(firstPage.getNextLink());
+
+        assertEquals(Collections.singletonList("4"), ids(secondPage));
+        assertNull(secondPage.getNextLink());
+    }
+
+    @Test
+    public void sendBearerToken() throws IOException {
+        client.getUsageAggregateResponse(baseUrl + "/page1");
+        client.setAuthToken("newToken");
+        client.getUsageAggregateResponse(baseUrl + "/page2");
+
+        assertEquals(Arrays.asList("Bearer " + TOKEN, "Bearer newToken"), authorizations);
+    }
+
+    @Test
+    public void failOnErrorStatus() {
+        try {
+            client.getUsageAggregateResponse(baseUrl + "/error");
+            fail("IOException is expected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("401"));
+            assertTrue(e.getMessage(), e.getMessage().contains("Token is expired"));
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+        final byte[] content = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, content.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(content);
+        }
+    }
+
+    private String page(String nextLink, ObjectNode... records) throws IOException {
+        final ObjectNode page = objectMapper.createObjectNode();
+        final ArrayNode value = page.putArray("value");
+        Arrays.stream(records).forEach(value::add);
+        page.put("nextLink", nextLink);
+        return objectMapper.writeValueAsString(page);
+    }
+
+    private ObjectNode record(String id, String name) throws IOException {
+        final ObjectNode instanceData = objectMapper.createObjectNode();
+        final ObjectNode resources = instanceData.putObject("Microsoft.Resources");
+        resources.put("resourceUri", "/subscriptions/id/resourceGroups/group/" + id);
+        resources.put("location", "eastus");
+        if (name != null) {
+            resources.putObject("tags").put("Name", name);
+        }
+
+        final ObjectNode record = objectMapper.createObjectNode();
+        record.put("id", id);
+        record.put("name", "usage" + id);
+        record.put("type", "Microsoft.Commerce/UsageAggregate");
+        final ObjectNode properties = record.putObject("properties");
+        properties.put("meterId", "meter");
+        properties.put("quantity", 1.5);
+        properties.put("instanceData", objectMapper.writeValueAsString(instanceData));
+        return record;
+    }
+
+    private List<String> ids(UsageAggregateResponse response) {
+        return response.getValue().stream()
+                .map(UsageAggregateRecord::getId)
+                .collect(Collectors.toList());
+    }
+}
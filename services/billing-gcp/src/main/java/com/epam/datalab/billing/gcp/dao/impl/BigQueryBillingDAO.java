@@ -29,8 +29,13 @@ import com.google.cloud.bigquery.BigQuery;
 import com.google.cloud.bigquery.FieldValueList;
 import com.google.cloud.bigquery.QueryJobConfiguration;
 import com.google.cloud.bigquery.QueryParameterValue;
+import com.google.cloud.bigquery.StandardTableDefinition;
 import com.google.cloud.bigquery.Table;
+import com.google.cloud.bigquery.TableDefinition;
+import com.google.cloud.bigquery.TableId;
 import com.google.cloud.bigquery.TableInfo;
+import com.google.cloud.bigquery.TableResult;
+import com.google.cloud.bigquery.TimePartitioning;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -39,24 +44,51 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
+/**
+ * Extracts the billing data from the tables of BigQuery billing export incrementally. For each table the
+ * latest processed <code>export_time</code> is kept in the billing history. Only the usage days which have
+ * rows exported after that time are aggregated again, and the partitions of ingestion-time partitioned
+ * tables which can not contain such rows are pruned. The tables are processed in parallel.
+ */
 @Component
 @Slf4j
 public class BigQueryBillingDAO implements BillingDAO {
     private static final String DATE_FORMAT = "yyyy-MM-dd";
     private static final String SBN_PARAM = "sbn";
-    private static final String DATASET_PARAM = "dataset";
+    private static final String EXPORT_TIME_PARAM = "exportTime";
+    private static final String USAGE_DAY_PARAM = "usageDay";
+    private static final String PARTITION_TIME_PARAM = "partitionTime";
+    private static final String USAGE_START_TIME_FIELD = "usage_start_time";
+    private static final String EXPORT_TIME_FIELD = "export_time";
+    private static final int TABLE_PARALLELISM = 4;
+    private static final long PAGE_SIZE = 10000;
+    private static final long MICROS_IN_DAY = TimeUnit.DAYS.toMicros(1);
 
     private final BillingHistoryRepository billingHistoryRepo;
     private final BigQuery service;
     private final String dataset;
     private final String sbn;
 
+    private static final String PARTITION_CONDITION = "\nand (_PARTITIONTIME >= @" + PARTITION_TIME_PARAM +
+            " or _PARTITIONTIME is null)";
+
+    private static final String GET_NEW_DATA_QUERY = "SELECT MIN(usage_start_time) usage_start_time, " +
+            "MAX(export_time) export_time\n" +
+            "FROM `%s`\n" +
+            "where export_time > @" + EXPORT_TIME_PARAM + "%s";
+
     private static final String GET_BILLING_DATA_QUERY = "SELECT b.sku.description usageType," +
             "TIMESTAMP_TRUNC(usage_start_time, DAY, 'UTC') usage_date_from, TIMESTAMP_TRUNC(usage_end_time, DAY, " +
             "'UTC')" +
@@ -64,6 +96,7 @@ public class BigQueryBillingDAO implements BillingDAO {
             "FROM `%s` b\n" +
             "CROSS JOIN UNNEST(b.labels) as label\n" +
             "where label.key = 'name' and cost != 0 and label.value like @sbn\n" +
+            "and usage_start_time >= @" + USAGE_DAY_PARAM + "%s\n" +
             "group by usageType, usage_date_from, usage_date_to, product, value, currency";
 
     @Autowired
@@ -76,41 +109,125 @@ public class BigQueryBillingDAO implements BillingDAO {
     }
 
     @Override
-    public List<BillingData> getBillingData() {
-        final Map<String, Long> processedBillingTables = billingHistoryRepo.findAll()
+    public List<BillingData> getBillingData() throws InterruptedException {
+        final Map<String, BillingHistory> processedBillingTables = billingHistoryRepo.findAll()
                 .stream()
-                .collect(Collectors.toMap(BillingHistory::getTableName, BillingHistory::getLastModified));
+                .collect(Collectors.toMap(BillingHistory::getTableName, h -> h));
         log.debug("Already processed billing data: {}", processedBillingTables);
 
-        return StreamSupport.stream(service.listTables(dataset).iterateAll().spliterator(), false)
+        final List<TableId> tableIds = StreamSupport.stream(service.listTables(dataset).iterateAll().spliterator(),
+                false)
                 .map(TableInfo::getTableId)
-                .map(service::getTable)
-                .filter(t -> processedBillingTables.getOrDefault(t.getTableId().getTable(), 0L) < t.getLastModifiedTime())
-                .peek(t -> log.info("Processing table {}", t.getTableId().getTable()))
-                .flatMap(this::bigQueryResultSetStream)
                 .collect(Collectors.toList());
+        if (tableIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(TABLE_PARALLELISM, tableIds.size()));
+        try {
+            final List<Future<TableBillingData>> futures = tableIds.stream()
+                    .map(id -> executor.submit(() -> getBillingData(id, processedBillingTables.get(id.getTable()))))
+                    .collect(Collectors.toList());
+            final List<TableBillingData> tables = new ArrayList<>();
+            for (Future<TableBillingData> future : futures) {
+                final TableBillingData table = getResult(future);
+                if (table != null) {
+                    tables.add(table);
+                }
+            }
+            final List<BillingData> billingData = new ArrayList<>();
+            for (TableBillingData table : tables) {
+                billingData.addAll(table.billingData);
+                billingHistoryRepo.save(table.history);
+            }
+            return billingData;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private TableBillingData getResult(Future<TableBillingData> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DatalabException) {
+                throw (DatalabException) e.getCause();
+            }
+            throw new DatalabException("Can not get billing info from BigQuery due to: " + e.getMessage(), e);
+        }
     }
 
-    private Stream<? extends BillingData> bigQueryResultSetStream(Table table) {
+    /**
+     * Returns the billing data of the usage days which have new rows in the table or <b>null</b> if the
+     * table has not been modified since the last processing.
+     *
+     * @param tableId the id of table.
+     * @param history the billing history of table or <b>null</b> if the table has not been processed yet.
+     */
+    private TableBillingData getBillingData(TableId tableId, BillingHistory history) {
         try {
-            final String tableName = table.getTableId().getTable();
-            final String tableId = table.getTableId().getDataset() + "." + tableName;
-            QueryJobConfiguration queryConfig = QueryJobConfiguration
-                    .newBuilder(String.format(GET_BILLING_DATA_QUERY, tableId))
+            final Table table = service.getTable(tableId);
+            final String tableName = tableId.getTable();
+            if (history != null && history.getLastModified() >= table.getLastModifiedTime()) {
+                return null;
+            }
+            log.info("Processing table {}", tableName);
+
+            final String tableRef = tableId.getDataset() + "." + tableName;
+            final boolean partitioned = isPartitionedByIngestionTime(table);
+            final long exportTime = (history != null ? history.getExportTime() : 0L);
+            final QueryJobConfiguration newDataQuery = QueryJobConfiguration
+                    .newBuilder(String.format(GET_NEW_DATA_QUERY, tableRef, partitioned ? PARTITION_CONDITION : ""))
+                    .addNamedParameter(EXPORT_TIME_PARAM, QueryParameterValue.timestamp(exportTime))
+                    .addNamedParameter(PARTITION_TIME_PARAM,
+                            QueryParameterValue.timestamp(Math.max(0L, toDay(exportTime) - MICROS_IN_DAY)))
+                    .build();
+            final FieldValueList newData = service.query(newDataQuery).iterateAll().iterator().next();
+            if (newData.get(EXPORT_TIME_FIELD).isNull()) {
+                log.info("Table {} has no billing data exported after {}", tableName, exportTime);
+                return new TableBillingData(new BillingHistory(tableName, table.getLastModifiedTime(), exportTime),
+                        Collections.emptyList());
+            }
+
+            final long usageDay = toDay(newData.get(USAGE_START_TIME_FIELD).getTimestampValue());
+            log.info("Table {} has billing data exported after {}, aggregate usage from {}", tableName, exportTime,
+                    usageDay);
+            final QueryJobConfiguration billingDataQuery = QueryJobConfiguration
+                    .newBuilder(String.format(GET_BILLING_DATA_QUERY, tableRef, partitioned ? PARTITION_CONDITION : ""))
                     .addNamedParameter(SBN_PARAM, QueryParameterValue.string(sbn + "%"))
-                    .addNamedParameter(DATASET_PARAM, QueryParameterValue.string(tableId))
+                    .addNamedParameter(USAGE_DAY_PARAM, QueryParameterValue.timestamp(usageDay))
+                    .addNamedParameter(PARTITION_TIME_PARAM, QueryParameterValue.timestamp(usageDay))
                     .build();
-            final Stream<BillingData> gcpBillingDataStream =
-                    StreamSupport.stream(service.query(queryConfig).getValues().spliterator(), false)
-                            .map(this::toGcpBillingData);
-            billingHistoryRepo.save(new BillingHistory(tableName, table.getLastModifiedTime()));
-            return gcpBillingDataStream;
+            final TableResult result = service.query(billingDataQuery, BigQuery.QueryResultsOption.pageSize(PAGE_SIZE));
+            final List<BillingData> billingData = StreamSupport.stream(result.iterateAll().spliterator(), false)
+                    .map(this::toGcpBillingData)
+                    .collect(Collectors.toList());
+            return new TableBillingData(new BillingHistory(tableName, table.getLastModifiedTime(),
+                    newData.get(EXPORT_TIME_FIELD).getTimestampValue()), billingData);
         } catch (Exception e) {
             log.error("Can not get billing info from BigQuery due to {}", e.getMessage(), e);
             throw new DatalabException("Can not get billing info from BigQuery due to: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Returns <b>true</b> if the table is partitioned by ingestion time, i.e. has the pseudo column
+     * <code>_PARTITIONTIME</code>. The rows are ingested after their usage, so the partitions before the
+     * usage day can be skipped.
+     */
+    private boolean isPartitionedByIngestionTime(Table table) {
+        final TableDefinition definition = table.getDefinition();
+        if (!(definition instanceof StandardTableDefinition)) {
+            return false;
+        }
+        final TimePartitioning partitioning = ((StandardTableDefinition) definition).getTimePartitioning();
+        return partitioning != null && partitioning.getField() == null;
+    }
+
+    private static long toDay(long timestampMicros) {
+        return timestampMicros / MICROS_IN_DAY * MICROS_IN_DAY;
+    }
+
     private BillingData toGcpBillingData(FieldValueList fields) {
         return BillingData.builder()
                 .usageDateFrom(toLocalDate(fields, "usage_date_from"))
@@ -128,4 +245,17 @@ public class BigQueryBillingDAO implements BillingDAO {
         return LocalDate.from(Instant.ofEpochMilli(fieldValues.get(timestampFieldName).getTimestampValue() / 1000)
                 .atZone(ZoneId.systemDefault()));
     }
+
+    /**
+     * Billing data of one table with the billing history to be saved when the data has been retrieved.
+     */
+    private static class TableBillingData {
+        private final BillingHistory history;
+        private final List<BillingData> billingData;
+
+        private TableBillingData(BillingHistory history, List<BillingData> billingData) {
+            this.history = history;
+            this.billingData = billingData;
+        }
+    }
 }
@@ -29,4 +29,8 @@ public class BillingHistory {
     @Id
     private String tableName;
     private final long lastModified;
+    /**
+     * The latest export time of the processed rows in microseconds.
+     */
+    private final long exportTime;
 }
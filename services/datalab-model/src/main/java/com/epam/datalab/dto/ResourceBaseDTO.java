@@ -20,6 +20,7 @@
 package com.epam.datalab.dto;
 
 import com.epam.datalab.dto.base.CloudSettings;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.google.common.base.MoreObjects;
@@ -34,6 +35,12 @@ public abstract class ResourceBaseDTO<T extends ResourceBaseDTO<?>> {
     private String edgeUserName;
     @JsonProperty
     private CloudSettings cloudSettings;
+    /**
+     * The action is requested by the scheduler and not by the user.
+     */
+    @JsonProperty
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private boolean scheduled;
 
     public String getEdgeUserName() {
         return edgeUserName;
@@ -61,10 +68,24 @@ public abstract class ResourceBaseDTO<T extends ResourceBaseDTO<?>> {
         return self;
     }
 
+    public boolean isScheduled() {
+        return scheduled;
+    }
+
+    public void setScheduled(boolean scheduled) {
+        this.scheduled = scheduled;
+    }
+
+    public T withScheduled(boolean scheduled) {
+        setScheduled(scheduled);
+        return self;
+    }
+
     public ToStringHelper toStringHelper(Object self) {
         return MoreObjects.toStringHelper(self)
                 .add("edgeUserName", edgeUserName)
-                .add("cloudSettings", cloudSettings);
+                .add("cloudSettings", cloudSettings)
+                .add("scheduled", scheduled);
     }
 
     @Override
@@ -20,6 +20,7 @@
 package com.epam.datalab.auth;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonSetter;
@@ -50,6 +51,11 @@ public class UserInfo implements Principal {
     private String remoteIp;
     @JsonProperty
     private boolean awsUser = false;
+    /**
+     * The user is impersonated by the scheduler.
+     */
+    @JsonIgnore
+    private boolean scheduled = false;
 
     @JsonCreator
     public UserInfo(@JsonProperty("username") String username,
@@ -133,6 +139,7 @@ public class UserInfo implements Principal {
         newInfo.lastName = this.lastName;
         newInfo.remoteIp = this.remoteIp;
         newInfo.awsUser = this.awsUser;
+        newInfo.scheduled = this.scheduled;
         newInfo.setKeys(this.getKeys());
         return newInfo;
     }
@@ -145,6 +152,15 @@ public class UserInfo implements Principal {
         this.awsUser = awsUser;
     }
 
+    @JsonIgnore
+    public boolean isScheduled() {
+        return scheduled;
+    }
+
+    public void setScheduled(boolean scheduled) {
+        this.scheduled = scheduled;
+    }
+
     public Map<String, String> getKeys() {
         return keys;
     }
@@ -217,6 +233,7 @@ public class UserInfo implements Principal {
                 ", lastName='" + lastName + '\'' +
                 ", remoteIp='" + remoteIp + '\'' +
                 ", awsUser=" + awsUser +
+                ", scheduled=" + scheduled +
                 '}';
     }
 }
@@ -22,7 +22,9 @@ package com.epam.datalab.backendapi;
 import com.epam.datalab.auth.UserInfo;
 import com.epam.datalab.backendapi.core.DirectoriesCreator;
 import com.epam.datalab.backendapi.core.DockerWarmuper;
+import com.epam.datalab.backendapi.core.response.folderlistener.FolderListener;
 import com.epam.datalab.backendapi.core.response.handlers.ComputationalConfigure;
+import com.epam.datalab.backendapi.core.response.handlers.dao.JournalCallbackHandlerDao;
 import com.epam.datalab.backendapi.modules.CloudModuleConfigurator;
 import com.epam.datalab.backendapi.modules.ModuleFactory;
 import com.epam.datalab.backendapi.resources.*;
@@ -112,6 +114,15 @@ public class ProvisioningServiceApplication extends Application<ProvisioningServ
         DatalabProcess.getInstance().setProcessTimeout(configuration.getProcessTimeout());
         DatalabProcess.getInstance().setMaxProcessesPerBox(configuration.getProcessMaxThreadsPerJvm());
         DatalabProcess.getInstance().setMaxProcessesPerUser(configuration.getProcessMaxThreadsPerUser());
+        DatalabProcess.getInstance().setAsyncLaunchEnabled(configuration.isProcessAsyncLaunchEnabled());
+        DatalabProcess.getInstance().getProcessScheduler().setMaxQueueSize(configuration.getProcessMaxQueueSize());
+        DatalabProcess.getInstance().getProcessScheduler().setUserWeights(configuration.getProcessUserWeights());
+        DatalabProcess.getInstance().getProcessScheduler().registerMetrics(environment.metrics());
+        if (configuration.getProcessOutputBufferSize() != null) {
+            DatalabProcess.getInstance().setOutputCapture((int) configuration.getProcessOutputBufferSize().toBytes(),
+                    configuration.getProcessOutputDirectory());
+        }
+        FolderListener.setWatchServiceEnabled(configuration.isResponseWatchServiceEnabled());
 
         CloudModule cloudModule = CloudModuleConfigurator.getCloudModule(configuration);
         Injector injector = Guice.createInjector(ModuleFactory.getModule(configuration, environment), cloudModule);
@@ -126,6 +137,9 @@ public class ProvisioningServiceApplication extends Application<ProvisioningServ
 
         environment.lifecycle().manage(injector.getInstance(DirectoriesCreator.class));
         if (configuration.isHandlersPersistenceEnabled()) {
+            if (configuration.isHandlersJournalEnabled()) {
+                environment.lifecycle().manage(injector.getInstance(JournalCallbackHandlerDao.class));
+            }
             environment.lifecycle().manage(injector.getInstance(RestoreCallbackHandlerServiceImpl.class));
         }
         environment.lifecycle().manage(injector.getInstance(DockerWarmuper.class));
@@ -27,9 +27,13 @@ import com.epam.datalab.validation.AwsValidation;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import de.ahus1.keycloak.dropwizard.KeycloakConfiguration;
 import io.dropwizard.util.Duration;
+import io.dropwizard.util.Size;
 import org.hibernate.validator.constraints.NotEmpty;
 import org.hibernate.validator.group.GroupSequenceProvider;
 
+import java.util.Collections;
+import java.util.Map;
+
 @GroupSequenceProvider(ProvisioningServiceCloudConfigurationSequenceProvider.class)
 public class ProvisioningServiceApplicationConfiguration extends ServiceConfiguration implements Directories {
 
@@ -89,11 +93,25 @@ public class ProvisioningServiceApplicationConfiguration extends ServiceConfigur
     @JsonProperty
     private Duration processTimeout = Duration.hours(3);
     @JsonProperty
+    private boolean processAsyncLaunchEnabled;
+    @JsonProperty
+    private int processMaxQueueSize = 1000;
+    @JsonProperty
+    private Map<String, Integer> processUserWeights = Collections.emptyMap();
+    @JsonProperty
+    private Size processOutputBufferSize;
+    @JsonProperty
+    private String processOutputDirectory;
+    @JsonProperty
     private String backupScriptPath;
     @JsonProperty
     private String backupDirectory;
     @JsonProperty
     private boolean handlersPersistenceEnabled;
+    @JsonProperty
+    private boolean handlersJournalEnabled;
+    @JsonProperty
+    private boolean responseWatchServiceEnabled = true;
 
     private KeycloakConfiguration keycloakConfiguration = new KeycloakConfiguration();
 
@@ -104,6 +122,20 @@ public class ProvisioningServiceApplicationConfiguration extends ServiceConfigur
         return handlersPersistenceEnabled;
     }
 
+    /**
+     * Returns <b>true</b> if the callback handlers are persisted to the journal instead of the file per handler.
+     */
+    public boolean isHandlersJournalEnabled() {
+        return handlersJournalEnabled;
+    }
+
+    /**
+     * Returns <b>true</b> if the response directories are watched for the file events instead of polling.
+     */
+    public boolean isResponseWatchServiceEnabled() {
+        return responseWatchServiceEnabled;
+    }
+
     public String getKeyDirectory() {
         return keyDirectory;
     }
@@ -175,6 +207,41 @@ public class ProvisioningServiceApplicationConfiguration extends ServiceConfigur
         return processTimeout;
     }
 
+    /**
+     * Returns <b>true</b> if the OS commands are launched by the shared non-blocking launcher.
+     */
+    public boolean isProcessAsyncLaunchEnabled() {
+        return processAsyncLaunchEnabled;
+    }
+
+    /**
+     * Returns the maximum number of queued processes per priority class.
+     */
+    public int getProcessMaxQueueSize() {
+        return processMaxQueueSize;
+    }
+
+    /**
+     * Returns the weights of users for the fair sharing of the process slots.
+     */
+    public Map<String, Integer> getProcessUserWeights() {
+        return processUserWeights;
+    }
+
+    /**
+     * Returns the size of the process output kept in memory or <b>null</b> if the whole output is kept.
+     */
+    public Size getProcessOutputBufferSize() {
+        return processOutputBufferSize;
+    }
+
+    /**
+     * Returns the directory for the files with the whole process output or <b>null</b>.
+     */
+    public String getProcessOutputDirectory() {
+        return processOutputDirectory;
+    }
+
     public String getBackupScriptPath() {
         return backupScriptPath;
     }
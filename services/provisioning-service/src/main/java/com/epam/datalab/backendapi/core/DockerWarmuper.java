@@ -29,6 +29,7 @@ import com.epam.datalab.dto.imagemetadata.ExploratoryMetadataDTO;
 import com.epam.datalab.dto.imagemetadata.ImageMetadataDTO;
 import com.epam.datalab.dto.imagemetadata.ImageType;
 import com.epam.datalab.process.model.ProcessInfo;
+import com.epam.datalab.process.model.ProcessPriority;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -66,8 +67,7 @@ public class DockerWarmuper implements Managed, DockerCommands, MetadataHolder {
         LOGGER.debug("warming up docker");
         final ProcessInfo processInfo = commandExecutor.executeSync("warmup", DockerCommands.generateUUID(),
                 GET_IMAGES);
-        String[] images = processInfo.getStdOut().split("\n");
-        for (String image : images) {
+        for (String image : processInfo.readStdOutLines()) {
             String uuid = UUID.randomUUID().toString();
             LOGGER.debug("warming up image: {} with uid {}", image, uuid);
             imageList.put(uuid, image);
@@ -82,7 +82,7 @@ public class DockerWarmuper implements Managed, DockerCommands, MetadataHolder {
                     .withRequestId(uuid)
                     .withActionDescribe(image)
                     .toCMD();
-            commandExecutor.executeAsync("warmup", uuid, command);
+            commandExecutor.executeAsync("warmup", uuid, command, ProcessPriority.SCHEDULER);
         }
     }
 
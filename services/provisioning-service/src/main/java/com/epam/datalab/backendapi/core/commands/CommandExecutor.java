@@ -22,6 +22,7 @@ package com.epam.datalab.backendapi.core.commands;
 import com.epam.datalab.process.model.DatalabProcess;
 import com.epam.datalab.process.model.ProcessId;
 import com.epam.datalab.process.model.ProcessInfo;
+import com.epam.datalab.process.model.ProcessPriority;
 import com.google.inject.Singleton;
 
 @Singleton
@@ -33,6 +34,11 @@ public class CommandExecutor implements ICommandExecutor {
     }
 
     public void executeAsync(final String username, final String uuid, final String command) {
-        DatalabProcess.getInstance().start(new ProcessId(username, uuid), "bash", "-c", command);
+        executeAsync(username, uuid, command, ProcessPriority.INTERACTIVE);
+    }
+
+    public void executeAsync(final String username, final String uuid, final String command,
+                             final ProcessPriority priority) {
+        DatalabProcess.getInstance().start(new ProcessId(username, uuid), priority, "bash", "-c", command);
     }
 }
\ No newline at end of file
@@ -23,6 +23,7 @@ import com.epam.datalab.cloud.CloudProvider;
 import com.epam.datalab.process.builder.ProcessInfoBuilder;
 import com.epam.datalab.process.model.ProcessId;
 import com.epam.datalab.process.model.ProcessInfo;
+import com.epam.datalab.process.model.ProcessPriority;
 import com.google.common.collect.Lists;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,6 +40,7 @@ public class CommandExecutorMock implements ICommandExecutor {
 
     private CommandExecutorMockAsync execAsync = null;
     private CompletableFuture<Boolean> future;
+    private ProcessPriority priority;
 
     private CloudProvider cloudProvider;
 
@@ -70,6 +72,13 @@ public class CommandExecutorMock implements ICommandExecutor {
         return (execAsync == null ? null : execAsync.getResponseFileName());
     }
 
+    /**
+     * Priority of the last asynchronous command.
+     */
+    public ProcessPriority getPriority() {
+        return priority;
+    }
+
     @Override
     public ProcessInfo executeSync(String user, String uuid, String command) {
         LOGGER.debug("Run OS command for user {} with UUID {}: {}", user, uuid, command);
@@ -96,6 +105,12 @@ public class CommandExecutorMock implements ICommandExecutor {
 
     @Override
     public void executeAsync(String user, String uuid, String command) {
+        executeAsync(user, uuid, command, ProcessPriority.INTERACTIVE);
+    }
+
+    @Override
+    public void executeAsync(String user, String uuid, String command, ProcessPriority priority) {
+        this.priority = priority;
         execAsync = new CommandExecutorMockAsync(user, uuid, command, cloudProvider);
         future = CompletableFuture.supplyAsync(execAsync);
     }
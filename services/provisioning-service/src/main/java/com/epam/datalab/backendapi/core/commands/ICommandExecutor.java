@@ -20,9 +20,12 @@
 package com.epam.datalab.backendapi.core.commands;
 
 import com.epam.datalab.process.model.ProcessInfo;
+import com.epam.datalab.process.model.ProcessPriority;
 
 public interface ICommandExecutor {
     ProcessInfo executeSync(String username, String uuid, String command) throws Exception;
 
     void executeAsync(String username, String uuid, String command);
+
+    void executeAsync(String username, String uuid, String command, ProcessPriority priority);
 }
@@ -22,20 +22,31 @@ package com.epam.datalab.backendapi.core.response.folderlistener;
 import com.epam.datalab.backendapi.core.FileHandlerCallback;
 import com.epam.datalab.backendapi.core.response.folderlistener.WatchItem.ItemStatus;
 import com.epam.datalab.backendapi.core.response.handlers.dao.CallbackHandlerDao;
-import com.epam.datalab.exceptions.DatalabException;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import static com.epam.datalab.backendapi.core.Constants.JSON_EXTENSION;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
 
 /**
  * Listen the directories for the files creation and runs the file processing by {@link AsyncFileHandler}.
+ * All the folder listeners are run by one shared scheduler, the file events are delivered by {@link FolderWatcher}.
  */
-public class FolderListener implements Runnable {
+public class FolderListener {
     private static final Logger LOGGER = LoggerFactory.getLogger(FolderListener.class);
     /**
      * Timeout of the check the file creation in milliseconds.
@@ -46,18 +57,35 @@ public class FolderListener implements Runnable {
      */
     public static final long LISTENER_IDLE_TIMEOUT_MILLLIS = 600L * 1000L;
     /**
-     * Timeout of waiting for the directory creation in milliseconds.
+     * Number of threads of the scheduler for all the folder listeners.
      */
-    private static final long WAIT_DIR_TIMEOUT_MILLIS = 500;
+    private static final int LISTENER_THREAD_COUNT = 2;
 
     /**
-     * List of the folder listeners.
+     * Folder listeners by directory name.
      */
-    private static final List<FolderListener> listeners = new ArrayList<>();
+    private static final Map<String, FolderListener> listeners = new ConcurrentHashMap<>();
     /**
-     * Thread of the folder listener.
+     * Scheduler shared by all the folder listeners.
      */
-    private Thread thread;
+    private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(LISTENER_THREAD_COUNT,
+            new ThreadFactoryBuilder()
+                    .setNameFormat(FolderListener.class.getSimpleName() + "-%d")
+                    .setDaemon(true)
+                    .build());
+    /**
+     * Flag of using the {@link WatchService} for the file creation events instead of polling the directory.
+     * Enabled by default as in the configuration of the provisioning service.
+     */
+    private static volatile boolean watchServiceEnabled = true;
+    /**
+     * Scheduled task of the folder listener.
+     */
+    private ScheduledFuture<?> future;
+    /**
+     * Watch key of the directory or <b>null</b> if the directory is polled.
+     */
+    private volatile WatchKey watchKey;
     /**
      * List of the file handles.
      */
@@ -65,18 +93,26 @@ public class FolderListener implements Runnable {
     /**
      * Flag of listening status.
      */
-    private boolean isListen = false;
+    private volatile boolean isListen = false;
     /**
      * Time when expired of idle for folder listener in milliseconds.
      */
-    private long expiredIdleMillis = 0;
+    private volatile long expiredIdleMillis = 0;
+    /**
+     * Flag of the full directory scan is required for the file handlers appended to the running listener.
+     */
+    private volatile boolean rescanRequired = false;
+    /**
+     * Flag of the folder listener has been removed from the pool.
+     */
+    private volatile boolean terminated = false;
 
 
     private FolderListener() {
     }
 
     /**
-     * Creates thread of the folder listener
+     * Creates the folder listener
      *
      * @param directoryName Name of directory.
      * @param dao
@@ -118,33 +154,31 @@ public class FolderListener implements Runnable {
      */
     public static WatchItem listen(String directoryName, FileHandlerCallback fileHandlerCallback, long timeoutMillis,
                                    long fileLengthCheckDelay, String fileName, CallbackHandlerDao callbackHandlerDao) {
-        FolderListener listener;
-        WatchItem item;
+        final FolderListener[] created = new FolderListener[1];
 
         LOGGER.trace("Looking for folder listener to folder \"{}\" ...", directoryName);
-        synchronized (listeners) {
-            for (int i = 0; i < listeners.size(); i++) {
-                listener = listeners.get(i);
-                if (listener.itemList.getDirectoryName().equals(directoryName)) {
-                    if (listener.isAlive()) {
-                        LOGGER.debug("Folder listener \"{}\" found. Append file handler for UUID {}",
-                                directoryName, fileHandlerCallback.getUUID());
-                        item = listener.itemList.append(fileHandlerCallback, timeoutMillis, fileLengthCheckDelay,
-                                fileName);
-                        return item;
-                    } else {
-                        LOGGER.warn("Folder listener \"{}\" is dead and will be removed", directoryName);
-                        listeners.remove(i);
-                        break;
-                    }
-                }
+        final FolderListener folderListener = listeners.compute(directoryName, (dir, listener) -> {
+            if (listener != null && listener.isAlive()) {
+                LOGGER.debug("Folder listener \"{}\" found. Append file handler for UUID {}",
+                        directoryName, fileHandlerCallback.getUUID());
+                listener.expiredIdleMillis = 0;
+                return listener;
+            }
+            if (listener != null) {
+                LOGGER.warn("Folder listener \"{}\" is dead and will be removed", directoryName);
+                listener.stop();
             }
             LOGGER.debug("Folder listener \"{}\" not found. Create new listener and append file handler for UUID {}",
                     directoryName, fileHandlerCallback.getUUID());
-            listener = new FolderListener(directoryName, callbackHandlerDao);
-            item = listener.itemList.append(fileHandlerCallback, timeoutMillis, fileLengthCheckDelay, fileName);
-            listeners.add(listener);
-            listener.start();
+            created[0] = new FolderListener(directoryName, callbackHandlerDao);
+            return created[0];
+        });
+        final WatchItem item = folderListener.itemList.append(fileHandlerCallback, timeoutMillis,
+                fileLengthCheckDelay, fileName);
+        if (created[0] != null) {
+            created[0].start();
+        } else {
+            folderListener.rescanRequired = true;
         }
         return item;
     }
@@ -153,12 +187,8 @@ public class FolderListener implements Runnable {
      * Terminates all the folder listeners.
      */
     public static void terminateAll() {
-        FolderListener[] array;
-        synchronized (listeners) {
-            array = listeners.toArray(new FolderListener[listeners.size()]);
-        }
-        for (int i = 0; i < array.length; i++) {
-            array[i].terminate();
+        for (FolderListener listener : getListeners()) {
+            listener.terminate();
         }
     }
 
@@ -166,32 +196,64 @@ public class FolderListener implements Runnable {
      * Returns the list of folder listeners.
      */
     public static List<FolderListener> getListeners() {
-        return listeners;
+        return new ArrayList<>(listeners.values());
     }
 
     /**
-     * Starts the thread of the folder listener.
+     * Sets the flag of using the {@link WatchService} for the file creation events. If the flag is <b>false</b>
+     * or the file system does not support watching the directory is polled each
+     * {@link #LISTENER_TIMEOUT_MILLLIS} milliseconds.
+     *
+     * @param enabled flag of using the watch service.
      */
-    protected void start() {
-        thread = new Thread(this, getClass().getSimpleName() + "-" + listeners.size());
-        thread.start();
+    public static void setWatchServiceEnabled(boolean enabled) {
+        watchServiceEnabled = enabled;
     }
 
     /**
-     * Terminates the thread of the folder listener.
+     * Returns <b>true</b> if the {@link WatchService} is used for the file creation events.
+     */
+    public static boolean isWatchServiceEnabled() {
+        return watchServiceEnabled;
+    }
+
+    /**
+     * Schedules the folder listener in the shared scheduler.
+     */
+    protected synchronized void start() {
+        if (!terminated) {
+            future = scheduler.scheduleWithFixedDelay(this::run, 0, LISTENER_TIMEOUT_MILLLIS,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Terminates the folder listener.
      */
     protected void terminate() {
-        if (thread != null) {
-            LOGGER.debug("Folder listener \"{}\" will be terminate", getDirectoryName());
-            thread.interrupt();
+        LOGGER.debug("Folder listener \"{}\" will be terminate", getDirectoryName());
+        removeListener(true);
+    }
+
+    /**
+     * Stops the scheduled task of the folder listener and cancels watching of the directory.
+     */
+    private synchronized void stop() {
+        terminated = true;
+        isListen = false;
+        FolderWatcher.cancel(watchKey);
+        watchKey = null;
+        if (future != null) {
+            future.cancel(false);
         }
     }
 
     /**
-     * Returns <b>true</b> if the folder listener thread is running and is alive, otherwise <b>false</b>.
+     * Returns <b>true</b> if the folder listener has not been terminated and its task is alive,
+     * otherwise <b>false</b>.
      */
     public boolean isAlive() {
-        return (thread != null && thread.isAlive());
+        return (!terminated && (future == null || !future.isDone()));
     }
 
     /**
@@ -217,52 +279,42 @@ public class FolderListener implements Runnable {
     }
 
     /**
-     * Waiting for the directory creation and returns <b>true</b> if it exists or created.
-     * If timeout has expired and directory was not created returns <b>false</b>
+     * Checks the directory creation and returns <b>true</b> if it exists. If the directory does not exist
+     * the expired file handlers are removed and when no one left it returns <b>false</b> and the folder
+     * listener will be removed.
      */
-    private boolean waitForDirectory() throws InterruptedException {
-        File file = new File(getDirectoryName());
-        if (file.exists()) {
+    private boolean checkDirectory() {
+        if (new File(getDirectoryName()).exists()) {
             return true;
-        } else {
-            LOGGER.trace("Folder listener \"{}\" waiting for the directory creation", getDirectoryName());
         }
-
-        long expiredTimeMillis = itemList.get(0).getExpiredTimeMillis();
-        while (expiredTimeMillis >= System.currentTimeMillis()) {
-            Thread.sleep(WAIT_DIR_TIMEOUT_MILLIS);
-            if (file.exists()) {
-                return true;
-            }
+        processStatusItems();
+        if (itemList.size() > 0) {
+            LOGGER.trace("Folder listener \"{}\" waiting for the directory creation", getDirectoryName());
+        } else {
+            LOGGER.error("Folder listener \"{}\" error. Timeout has expired and directory does not exist",
+                    getDirectoryName());
+            LOGGER.warn("Folder listener has not been initialized for \"{}\"", getDirectoryName());
+            removeListener(true);
         }
-        LOGGER.error("Folder listener \"{}\" error. Timeout has expired and directory does not exist",
-                getDirectoryName());
         return false;
     }
 
     /**
-     * Initializes the thread of the folder listener. Returns <b>true</b> if the initialization
-     * completed successfully. Returns <b>false</b> if all the file handlers has been processed
-     * or initialization fails.
+     * Initializes the folder listener when the directory is created. Returns <b>true</b> if the
+     * initialization completed successfully.
      */
     private boolean init() {
         LOGGER.trace("Folder listener initializing for \"{}\" ...", getDirectoryName());
-
-        try {
-            if (!waitForDirectory()) {
-                return false;
-            }
-        } catch (InterruptedException e) {
-            LOGGER.debug("Folder listener \"{}\" has been interrupted", getDirectoryName());
-            Thread.currentThread().interrupt();
+        if (!checkDirectory()) {
             return false;
         }
 
-        processStatusItems();
-        if (itemList.size() == 0) {
-            LOGGER.debug("Folder listener \"{}\" have no files and will be finished", getDirectoryName());
-            return false;
+        if (watchServiceEnabled) {
+            watchKey = FolderWatcher.register(this);
         }
+        isListen = true;
+        rescanRequired = false;
+        processNewFiles();
 
         LOGGER.trace("Folder listener has been initialized for \"{}\" ...", getDirectoryName());
         return true;
@@ -273,62 +325,56 @@ public class FolderListener implements Runnable {
      * the file handlers from the list of the file handlers.
      */
     private void processStatusItems() {
-        int i = 0;
-
         if (itemList.size() > 0) {
             expiredIdleMillis = 0;
         }
         itemList.processItemAll();
 
-        synchronized (itemList) {
-            while (i < itemList.size()) {
-                final WatchItem item = itemList.get(i);
-                final ItemStatus status = item.getStatus();
-                final String uuid = item.getFileHandlerCallback().getUUID();
-
-                switch (status) {
-                    case WAIT_FOR_FILE:
-                    case FILE_CAPTURED:
-                    case INPROGRESS:
-                        // Skip
-                        i++;
-                        continue;
-                    case TIMEOUT_EXPIRED:
-                        LOGGER.warn("Folder listener \"{}\" remove expired file handler for UUID {}", getDirectoryName
-                                (), uuid);
-                        try {
-                            item.getFileHandlerCallback().handleError("Request timeout expired");
-                        } catch (Exception e) {
-                            LOGGER.error("Folder listener \"{}\" caused exception for UUID {}", getDirectoryName(),
-                                    uuid, e);
-                        }
-                        break;
-                    case IS_DONE:
-                        if (item.getFutureResult()) {
-                            LOGGER.trace("Folder listener \"{}\" remove processed file handler for UUID {}, handler " +
-                                    "result is {}", getDirectoryName(), uuid, item.getFutureResult());
-                        } else {
-                            LOGGER.warn("Folder listener \"{}\" remove processed file handler for UUID {}, handler " +
-                                    "result is {}", getDirectoryName(), uuid, item.getFutureResult());
-                        }
-                        break;
-                    case IS_CANCELED:
-                        LOGGER.debug("Folder listener \"{}\" remove canceled file handler for UUID {}",
-                                getDirectoryName(), uuid);
-                        break;
-                    case IS_FAILED:
-                        LOGGER.warn("Folder listener \"{}\" remove failed file handler for UUID {}", getDirectoryName
-                                (), uuid);
-                        break;
-                    case IS_INTERRUPTED:
-                        LOGGER.debug("Folder listener \"{}\" remove iterrupted file handler for UUID {}",
-                                getDirectoryName(), uuid);
-                        break;
-                    default:
-                        continue;
-                }
-                itemList.remove(i);
+        for (WatchItem item : itemList.pollCompletedItems()) {
+            final ItemStatus status = item.getStatus();
+            final String uuid = item.getFileHandlerCallback().getUUID();
+
+            switch (status) {
+                case WAIT_FOR_FILE:
+                case FILE_CAPTURED:
+                case INPROGRESS:
+                    // Skip
+                    continue;
+                case TIMEOUT_EXPIRED:
+                    LOGGER.warn("Folder listener \"{}\" remove expired file handler for UUID {}", getDirectoryName
+                            (), uuid);
+                    try {
+                        item.getFileHandlerCallback().handleError("Request timeout expired");
+                    } catch (Exception e) {
+                        LOGGER.error("Folder listener \"{}\" caused exception for UUID {}", getDirectoryName(),
+                                uuid, e);
+                    }
+                    break;
+                case IS_DONE:
+                    if (item.getFutureResult()) {
+                        LOGGER.trace("Folder listener \"{}\" remove processed file handler for UUID {}, handler " +
+                                "result is {}", getDirectoryName(), uuid, item.getFutureResult());
+                    } else {
+                        LOGGER.warn("Folder listener \"{}\" remove processed file handler for UUID {}, handler " +
+                                "result is {}", getDirectoryName(), uuid, item.getFutureResult());
+                    }
+                    break;
+                case IS_CANCELED:
+                    LOGGER.debug("Folder listener \"{}\" remove canceled file handler for UUID {}",
+                            getDirectoryName(), uuid);
+                    break;
+                case IS_FAILED:
+                    LOGGER.warn("Folder listener \"{}\" remove failed file handler for UUID {}", getDirectoryName
+                            (), uuid);
+                    break;
+                case IS_INTERRUPTED:
+                    LOGGER.debug("Folder listener \"{}\" remove iterrupted file handler for UUID {}",
+                            getDirectoryName(), uuid);
+                    break;
+                default:
+                    continue;
             }
+            itemList.remove(item);
         }
 
         if (expiredIdleMillis == 0 && itemList.size() == 0) {
@@ -344,19 +390,22 @@ public class FolderListener implements Runnable {
      * @return <b>true</b> if the folder listener has been removed otherwise <b>false</>.
      */
     private boolean removeListener(boolean force) {
-        synchronized (listeners) {
-            if (force || (expiredIdleMillis != 0 && expiredIdleMillis < System.currentTimeMillis())) {
-                for (int i = 0; i < listeners.size(); i++) {
-                    if (listeners.get(i) == this) {
-                        isListen = false;
-                        listeners.remove(i);
-                        LOGGER.debug("Folder listener \"{}\" has been removed from pool", getDirectoryName());
-                        return true;
-                    }
-                }
+        final boolean[] removed = new boolean[1];
+        listeners.computeIfPresent(itemList.getDirectoryName(), (dir, listener) -> {
+            if (listener == this &&
+                    (force || (expiredIdleMillis != 0 && expiredIdleMillis < System.currentTimeMillis()))) {
+                removed[0] = true;
+                return null;
             }
+            return listener;
+        });
+        if (removed[0] || force) {
+            stop();
         }
-        return false;
+        if (removed[0]) {
+            LOGGER.debug("Folder listener \"{}\" has been removed from pool", getDirectoryName());
+        }
+        return removed[0];
     }
 
     /**
@@ -364,54 +413,73 @@ public class FolderListener implements Runnable {
      */
     private String[] getNewFiles() {
         File dir = new File(getDirectoryName());
-        return dir.list((File dir1, String name) -> {
-            if (name.toLowerCase().endsWith(JSON_EXTENSION)) {
-                WatchItem item = itemList.getItem(name);
-                return (item != null && item.getStatus() == ItemStatus.WAIT_FOR_FILE);
-            }
-            return false;
-        });
+        return dir.list((File dir1, String name) -> isNewFile(name));
     }
 
     /**
-     * Waiting for files and process it.
+     * Returns <b>true</b> if the file is the response file and its file handler is waiting for it.
+     *
+     * @param fileName file name.
      */
-    private void pollFile() {
-        try {
-            isListen = true;
-            while (true) {
-                String[] fileList = getNewFiles();
-                if (fileList != null) {
-                    for (String fileName : fileList) {
-                        LOGGER.trace("Folder listener \"{}\" handes the file {}", getDirectoryName(), fileName);
-                        processItem(fileName);
-                    }
-                }
+    private boolean isNewFile(String fileName) {
+        if (fileName.toLowerCase().endsWith(JSON_EXTENSION)) {
+            WatchItem item = itemList.getItem(fileName);
+            return (item != null && item.getStatus() == ItemStatus.WAIT_FOR_FILE);
+        }
+        return false;
+    }
 
-                processStatusItems();
-                if (removeListener(false)) {
-                    LOGGER.debug("Folder listener \"{}\" have no files and will be finished", getDirectoryName());
-                    break;
+    /**
+     * Scans the directory and process all the new files.
+     */
+    private synchronized void processNewFiles() {
+        String[] fileList = getNewFiles();
+        if (fileList != null) {
+            for (String fileName : fileList) {
+                LOGGER.trace("Folder listener \"{}\" handes the file {}", getDirectoryName(), fileName);
+                processItem(fileName);
+            }
+        }
+    }
+
+    /**
+     * Process the files affected by the events of {@link FolderWatcher}. The whole directory is scanned
+     * if events have been lost.
+     *
+     * @param events the list of file events.
+     */
+    synchronized void processEvents(List<WatchEvent<?>> events) {
+        boolean overflow = false;
+        for (WatchEvent<?> event : events) {
+            if (event.kind() == OVERFLOW) {
+                overflow = true;
+            } else {
+                String fileName = event.context().toString();
+                if (isNewFile(fileName)) {
+                    LOGGER.trace("Folder listener \"{}\" handes the file {}", getDirectoryName(), fileName);
+                    processItem(fileName);
                 }
-                Thread.sleep(LISTENER_TIMEOUT_MILLLIS);
             }
-        } catch (InterruptedException e) {
-            removeListener(true);
-            LOGGER.debug("Folder listener \"{}\" has been interrupted", getDirectoryName());
-            Thread.currentThread().interrupt();
-        } catch (Exception e) {
-            removeListener(true);
-            LOGGER.error("Folder listener for \"{}\" closed with error.", getDirectoryName(), e);
-            throw new DatalabException("Folder listener for \"" + getDirectoryName() + "\" closed with error. " + e
-                    .getLocalizedMessage(), e);
+        }
+        if (overflow) {
+            processNewFiles();
         }
     }
 
+    /**
+     * Switches the folder listener to polling when the directory is no longer watched.
+     */
+    void onWatchKeyInvalid() {
+        if (isListen) {
+            LOGGER.warn("Folder listener \"{}\" watch key is no longer valid, switch to polling", getDirectoryName());
+        }
+        watchKey = null;
+    }
+
     private void processItem(String fileName) {
         try {
             WatchItem item = itemList.getItem(fileName);
-            item.setFileName(fileName);
-            if (itemList.processItem(item)) {
+            if (item != null && itemList.processFile(item, fileName)) {
                 LOGGER.debug("Folder listener \"{}\" processes the file {}", getDirectoryName(),
                         fileName);
             }
@@ -421,13 +489,26 @@ public class FolderListener implements Runnable {
         }
     }
 
-    @Override
-    public void run() {
-        if (init()) {
-            pollFile();
-        } else {
-            LOGGER.warn("Folder listener has not been initialized for \"{}\"", getDirectoryName());
+    /**
+     * Runs one cycle of the folder listener: checks the new files if the directory is not watched,
+     * processes the file handlers and removes the folder listener when idle time has expired.
+     */
+    private void run() {
+        try {
+            if (terminated || (!isListen && !init())) {
+                return;
+            }
+            if (watchKey == null || rescanRequired) {
+                rescanRequired = false;
+                processNewFiles();
+            }
+            processStatusItems();
+            if (removeListener(false)) {
+                LOGGER.debug("Folder listener \"{}\" have no files and will be finished", getDirectoryName());
+            }
+        } catch (Exception e) {
             removeListener(true);
+            LOGGER.error("Folder listener for \"{}\" closed with error.", getDirectoryName(), e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.epam.datalab.backendapi.core.response.folderlistener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+/**
+ * Single {@link WatchService} shared by all the folder listeners. The events are dispatched to the folder
+ * listener of the directory by one event loop thread.
+ */
+final class FolderWatcher implements Runnable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FolderWatcher.class);
+
+    /**
+     * Instance of the watcher, created on the first registration.
+     */
+    private static FolderWatcher instance;
+
+    /**
+     * Watch service for the default file system.
+     */
+    private final WatchService watchService;
+    /**
+     * Folder listeners by registered watch keys.
+     */
+    private final Map<WatchKey, FolderListener> listeners = new ConcurrentHashMap<>();
+
+    private FolderWatcher(WatchService watchService) {
+        this.watchService = watchService;
+    }
+
+    /**
+     * Returns the instance of the watcher and starts its event loop if need. Returns <b>null</b> if the
+     * file system does not support watching.
+     */
+    private static synchronized FolderWatcher getInstance() {
+        if (instance == null) {
+            try {
+                instance = new FolderWatcher(FileSystems.getDefault().newWatchService());
+            } catch (IOException | UnsupportedOperationException e) {
+                LOGGER.warn("Watch service is not available, folder listeners will poll the directories", e);
+                return null;
+            }
+            Thread thread = new Thread(instance, FolderWatcher.class.getSimpleName());
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return instance;
+    }
+
+    /**
+     * Registers the directory of the folder listener for the file creation and modification events.
+     * Returns the watch key or <b>null</b> if the directory cannot be watched.
+     *
+     * @param listener the folder listener.
+     */
+    static WatchKey register(FolderListener listener) {
+        FolderWatcher watcher = getInstance();
+        if (watcher == null) {
+            return null;
+        }
+        try {
+            WatchKey key = Paths.get(listener.getDirectoryName()).register(watcher.watchService, ENTRY_CREATE,
+                    ENTRY_MODIFY);
+            watcher.listeners.put(key, listener);
+            return key;
+        } catch (IOException | UnsupportedOperationException | ClosedWatchServiceException e) {
+            LOGGER.warn("Folder listener \"{}\" cannot register watch service and will poll the directory",
+                    listener.getDirectoryName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Cancels the watch key of the folder listener.
+     *
+     * @param key the watch key.
+     */
+    static void cancel(WatchKey key) {
+        if (key != null) {
+            key.cancel();
+            FolderWatcher watcher = instance;
+            if (watcher != null) {
+                watcher.listeners.remove(key);
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                List<WatchEvent<?>> events = key.pollEvents();
+                FolderListener listener = listeners.get(key);
+                if (listener != null) {
+                    dispatch(listener, events);
+                }
+                if (!key.reset()) {
+                    listeners.remove(key);
+                    if (listener != null) {
+                        listener.onWatchKeyInvalid();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            LOGGER.debug("Folder watcher has been interrupted");
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            LOGGER.debug("Folder watcher has been closed");
+        }
+    }
+
+    /**
+     * Passes the events to the folder listener.
+     *
+     * @param listener the folder listener.
+     * @param events   the list of events.
+     */
+    private void dispatch(FolderListener listener, List<WatchEvent<?>> events) {
+        try {
+            listener.processEvents(events);
+        } catch (Exception e) {
+            LOGGER.warn("Folder listener \"{}\" has got exception for process the file events",
+                    listener.getDirectoryName(), e);
+        }
+    }
+}
@@ -29,14 +29,22 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.file.Paths;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Vector;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.PriorityBlockingQueue;
 
 /**
- * List of the file handlers for processing.
+ * List of the file handlers for processing. The file handlers are indexed by UUID, the handlers
+ * waiting for the file are ordered by expiration time and the handlers which file processing has been
+ * finished are queued, so the status check does not walk through the whole list.
  */
 public class WatchItemList {
     private static final Logger LOGGER = LoggerFactory.getLogger(WatchItemList.class);
@@ -52,43 +60,23 @@ public class WatchItemList {
     private final CallbackHandlerDao handlerDao;
 
     /**
-     * List of the file handlers.
+     * File handlers by UUID.
      */
-    private final Vector<WatchItem> list = new Vector<>();
-
+    private final Map<String, WatchItem> items = new ConcurrentHashMap<>();
     /**
-     * UUID of the file handler for search.
+     * File handlers ordered by the time when expired for the file creation. The handlers which have the file
+     * captured, have been removed or replaced stay in the queue until expired and are skipped when polled.
      */
-    private String uuidSearch;
-
+    private final Queue<WatchItem> expirationQueue = new PriorityBlockingQueue<>(11,
+            Comparator.comparingLong(WatchItem::getExpiredTimeMillis));
     /**
-     * File handler for search.
+     * File handlers which have the file captured and wait for the file processing.
      */
-    private final FileHandlerCallback handlerSearch = new FileHandlerCallback() {
-        @Override
-        public String getUUID() {
-            return uuidSearch;
-        }
-
-        @Override
-        public boolean checkUUID(String uuid) {
-            return uuidSearch.equals(uuid);
-        }
-
-        @Override
-        public void handleError(String errorMessage) {
-        }
-
-        @Override
-        public String getUser() {
-            return "DATALAB";
-        }
-
-        @Override
-        public boolean handle(String fileName, byte[] content) throws Exception {
-            return false;
-        }
-    };
+    private final Queue<WatchItem> capturedQueue = new ConcurrentLinkedQueue<>();
+    /**
+     * File handlers which file processing has been finished.
+     */
+    private final Queue<WatchItem> finishedQueue = new ConcurrentLinkedQueue<>();
 
     /**
      * Creates instance of the file handlers for processing.
@@ -126,26 +114,7 @@ public class WatchItemList {
      * @return Instance of the file handler.
      */
     public WatchItem append(FileHandlerCallback fileHandlerCallback, long timeoutMillis, long fileLengthCheckDelay) {
-        if (Objects.nonNull(handlerDao)) {
-            handlerDao.upsert(new PersistentFileHandler(fileHandlerCallback, timeoutMillis, directoryName));
-        }
-        WatchItem item = new WatchItem(fileHandlerCallback, timeoutMillis, fileLengthCheckDelay);
-        synchronized (this) {
-            int index = Collections.binarySearch(list, item);
-            if (index < 0) {
-                index = -index;
-                if (index > list.size()) {
-                    list.add(item);
-                } else {
-                    list.add(index - 1, item);
-                }
-            } else {
-                LOGGER.warn("Handler for UUID {} for folder {} will be replaced. Old item is: {}",
-                        fileHandlerCallback.getUUID(), directoryFullName, get(index));
-                list.set(index, item);
-            }
-        }
-        return item;
+        return append(fileHandlerCallback, timeoutMillis, fileLengthCheckDelay, null);
     }
 
     /**
@@ -161,23 +130,35 @@ public class WatchItemList {
      */
     public WatchItem append(FileHandlerCallback fileHandlerCallback, long timeoutMillis, long fileLengthCheckDelay,
                             String fileName) {
-        WatchItem item = append(fileHandlerCallback, timeoutMillis, fileLengthCheckDelay);
+        if (Objects.nonNull(handlerDao)) {
+            handlerDao.upsert(new PersistentFileHandler(fileHandlerCallback, timeoutMillis, directoryName));
+        }
+        WatchItem item = new WatchItem(fileHandlerCallback, timeoutMillis, fileLengthCheckDelay);
         if (fileName != null) {
             item.setFileName(fileName);
         }
+        WatchItem oldItem = items.put(fileHandlerCallback.getUUID(), item);
+        if (oldItem != null) {
+            LOGGER.warn("Handler for UUID {} for folder {} will be replaced. Old item is: {}",
+                    fileHandlerCallback.getUUID(), directoryFullName, oldItem);
+        }
+        if (fileName != null) {
+            capturedQueue.add(item);
+        } else {
+            expirationQueue.add(item);
+        }
         return item;
     }
 
     /**
      * Removes the file handler from list.
      *
-     * @param index index of the file handler.
+     * @param item the file handler.
      */
-    public void remove(int index) {
-
-        final WatchItem watchItem = list.remove(index);
-        if (Objects.nonNull(handlerDao) && watchItem.getStatus() != ItemStatus.IS_FAILED) {
-            handlerDao.remove(watchItem.getFileHandlerCallback().getId());
+    public void remove(WatchItem item) {
+        if (items.remove(item.getFileHandlerCallback().getUUID(), item) &&
+                Objects.nonNull(handlerDao) && item.getStatus() != ItemStatus.IS_FAILED) {
+            handlerDao.remove(item.getFileHandlerCallback().getId());
         }
     }
 
@@ -185,27 +166,16 @@ public class WatchItemList {
      * Returns the number of the file handlers in list.
      */
     public int size() {
-        return list.size();
+        return items.size();
     }
 
     /**
-     * Returns the file handler.
-     *
-     * @param index index of the file handler.
-     */
-    public WatchItem get(int index) {
-        return list.get(index);
-    }
-
-    /**
-     * Returns the index of the file handler in the list if it is contained in the list,
-     * otherwise returns (-(insertion point) - 1).
+     * Returns the file handler for UUID if it contained in the list, otherwise returns <b>null</b>.
      *
      * @param uuid UUID of the file handler.
      */
-    public int getIndex(String uuid) {
-        uuidSearch = uuid;
-        return Collections.binarySearch(list, new WatchItem(handlerSearch, 0, 0));
+    public WatchItem get(String uuid) {
+        return items.get(uuid);
     }
 
     /**
@@ -213,12 +183,16 @@ public class WatchItemList {
      * otherwise returns <b>null</b>.
      */
     public WatchItem getItem(String fileName) {
-        String uuid = DockerCommands.extractUUID(fileName);
-        int index = getIndex(uuid);
-        if (index < 0) {
-            return null;
-        }
-        return get(index);
+        return get(DockerCommands.extractUUID(fileName));
+    }
+
+    /**
+     * Returns <b>true</b> if the file handler is contained in the list.
+     *
+     * @param item the file handler.
+     */
+    private boolean contains(WatchItem item) {
+        return items.get(item.getFileHandlerCallback().getUUID()) == item;
     }
 
     /**
@@ -228,9 +202,11 @@ public class WatchItemList {
      */
     private void runAsync(WatchItem item) {
         LOGGER.trace("Process file {} for folder {}", item.getFileName(), directoryFullName);
-        item.setFuture(CompletableFuture.supplyAsync(
+        CompletableFuture<Boolean> future = CompletableFuture.supplyAsync(
                 new AsyncFileHandler(item.getFileName(), getDirectoryName(),
-                        item.getFileHandlerCallback(), Duration.milliseconds(item.getFileLengthCheckDelay()))));
+                        item.getFileHandlerCallback(), Duration.milliseconds(item.getFileLengthCheckDelay())));
+        item.setFuture(future);
+        future.whenComplete((result, e) -> finishedQueue.add(item));
     }
 
     /**
@@ -241,9 +217,11 @@ public class WatchItemList {
      * @param item the file handler.
      */
     public boolean processItem(WatchItem item) {
-        if (item.getStatus() == ItemStatus.FILE_CAPTURED) {
-            runAsync(item);
-            return true;
+        synchronized (item) {
+            if (item.getStatus() == ItemStatus.FILE_CAPTURED) {
+                runAsync(item);
+                return true;
+            }
         }
 
         if (item.isExpired()) {
@@ -254,17 +232,31 @@ public class WatchItemList {
     }
 
     /**
-     * Checks all the file handlers and runs the file processing for it if have status
-     * {@link ItemStatus#FILE_CAPTURED}.
+     * Sets the file name to the file handler which is waiting for the file and runs the file processing
+     * asynchronously. Returns <b>true</b> if the file processing has been started, otherwise <b>false</b>.
+     *
+     * @param item     the file handler.
+     * @param fileName file name.
+     */
+    public boolean processFile(WatchItem item, String fileName) {
+        synchronized (item) {
+            if (item.getStatus() != ItemStatus.WAIT_FOR_FILE) {
+                return false;
+            }
+            item.setFileName(fileName);
+        }
+        return processItem(item);
+    }
+
+    /**
+     * Runs the file processing for all the file handlers appended for the existing files.
      */
     public int processItemAll() {
         int count = 0;
-        synchronized (list) {
-            for (int i = 0; i < size(); i++) {
-                WatchItem item = list.get(i);
-                if (item.getStatus() == ItemStatus.FILE_CAPTURED && processItem(item)) {
-                    count++;
-                }
+        WatchItem item;
+        while ((item = capturedQueue.poll()) != null) {
+            if (contains(item) && processItem(item)) {
+                count++;
             }
         }
         if (count > 0) {
@@ -273,4 +265,26 @@ public class WatchItemList {
         return count;
     }
 
+    /**
+     * Returns the file handlers which timeout for the file creation has expired or which file processing
+     * has been finished. The caller is responsible for removing them from the list.
+     */
+    public List<WatchItem> pollCompletedItems() {
+        List<WatchItem> completed = new ArrayList<>();
+        final long now = System.currentTimeMillis();
+        WatchItem item;
+        while ((item = expirationQueue.peek()) != null && item.getExpiredTimeMillis() < now) {
+            expirationQueue.poll();
+            if (contains(item) && item.getStatus() == ItemStatus.TIMEOUT_EXPIRED) {
+                completed.add(item);
+            }
+        }
+        while ((item = finishedQueue.poll()) != null) {
+            if (contains(item)) {
+                completed.add(item);
+            }
+        }
+        return completed;
+    }
+
 }
@@ -0,0 +1,339 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.epam.datalab.backendapi.core.response.handlers.dao;
+
+import com.epam.datalab.backendapi.ProvisioningServiceApplicationConfiguration;
+import com.epam.datalab.backendapi.core.response.handlers.PersistentFileHandler;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.dropwizard.lifecycle.Managed;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Stores the callback handlers in the append-only journal file. The changes are kept in the in-memory
+ * index and written to the journal by the background writer in groups, with one write and one sync per
+ * group. The journal is compacted to the snapshot of the live handlers when it contains too many
+ * outdated records. On startup the handlers are restored by one sequential read of the journal.
+ */
+@Singleton
+@Slf4j
+public class JournalCallbackHandlerDao implements CallbackHandlerDao, Managed {
+
+    static final String JOURNAL_FILE_NAME = "handlers.journal";
+    private static final String JSON_EXTENSION = ".json";
+    private static final long COMMIT_INTERVAL_MILLIS = 100;
+    private static final int COMPACTION_MIN_RECORDS = 1000;
+
+    @Inject
+    private ProvisioningServiceApplicationConfiguration configuration;
+    @Inject
+    private ObjectMapper mapper;
+
+    /**
+     * Live handlers by handler id.
+     */
+    private final Map<String, PersistentFileHandler> handlers = new LinkedHashMap<>();
+    /**
+     * Handler ids by UUID.
+     */
+    private final Map<String, String> handlerIds = new LinkedHashMap<>();
+    /**
+     * Records waiting for the group commit.
+     */
+    private final Queue<JournalRecord> pending = new ConcurrentLinkedQueue<>();
+    private ScheduledExecutorService writer;
+    private FileChannel journal;
+    private boolean loaded;
+    private int journalRecords;
+
+    @Override
+    public void start() {
+        load();
+        writer = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat(getClass().getSimpleName() + "-%d")
+                .setDaemon(true)
+                .build());
+        writer.scheduleWithFixedDelay(this::commit, COMMIT_INTERVAL_MILLIS, COMMIT_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (writer != null) {
+            writer.shutdown();
+            writer.awaitTermination(COMMIT_INTERVAL_MILLIS * 10, TimeUnit.MILLISECONDS);
+        }
+        commit();
+        synchronized (this) {
+            if (journal != null) {
+                journal.close();
+                journal = null;
+            }
+        }
+    }
+
+    @Override
+    public void upsert(PersistentFileHandler handlerCallback) {
+        load();
+        final String uuid = handlerCallback.getHandler().getUUID();
+        final String id = handlerCallback.getHandler().getId();
+        synchronized (handlers) {
+            final String oldId = handlerIds.put(uuid, id);
+            if (oldId != null && !oldId.equals(id)) {
+                handlers.remove(oldId);
+                pending.add(JournalRecord.remove(oldId));
+            }
+            handlers.put(id, handlerCallback);
+            pending.add(JournalRecord.upsert(id, handlerCallback));
+        }
+    }
+
+    @Override
+    public List<PersistentFileHandler> findAll() {
+        load();
+        synchronized (handlers) {
+            return new ArrayList<>(handlers.values());
+        }
+    }
+
+    @Override
+    public void remove(String handlerId) {
+        load();
+        synchronized (handlers) {
+            final PersistentFileHandler handler = handlers.remove(handlerId);
+            if (handler != null) {
+                handlerIds.remove(handler.getHandler().getUUID(), handlerId);
+            }
+            pending.add(JournalRecord.remove(handlerId));
+        }
+    }
+
+    /**
+     * Writes all the pending records to the journal with one write and one sync and compacts the journal
+     * if need.
+     */
+    synchronized void commit() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            JournalRecord record;
+            int count = 0;
+            while ((record = pending.poll()) != null) {
+                buffer.write(mapper.writeValueAsBytes(record));
+                buffer.write('\n');
+                count++;
+            }
+            final FileChannel channel = getJournal();
+            final ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+            journalRecords += count;
+            log.trace("Committed {} callback handler records to journal", count);
+            if (isCompactionRequired()) {
+                compact();
+            }
+        } catch (Exception e) {
+            log.error("Can not write callback handlers journal due to: {}", e.getMessage(), e);
+        }
+    }
+
+    private boolean isCompactionRequired() {
+        synchronized (handlers) {
+            return journalRecords > COMPACTION_MIN_RECORDS && journalRecords > 2 * handlers.size();
+        }
+    }
+
+    /**
+     * Replaces the journal with the snapshot of the live handlers.
+     */
+    private void compact() throws IOException {
+        final List<JournalRecord> snapshot;
+        synchronized (handlers) {
+            snapshot = handlers.entrySet()
+                    .stream()
+                    .map(e -> JournalRecord.upsert(e.getKey(), e.getValue()))
+                    .collect(toList());
+        }
+        final Path tmp = getJournalPath().resolveSibling(JOURNAL_FILE_NAME + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (JournalRecord record : snapshot) {
+                final ByteBuffer bytes = ByteBuffer.wrap((mapper.writeValueAsString(record) + '\n')
+                        .getBytes(StandardCharsets.UTF_8));
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+            }
+            channel.force(true);
+        }
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+        Files.move(tmp, getJournalPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.debug("Callback handlers journal has been compacted from {} to {} records", journalRecords,
+                snapshot.size());
+        journalRecords = snapshot.size();
+    }
+
+    /**
+     * Restores the index from the journal by one sequential read. The handlers stored by
+     * {@link FileSystemCallbackHandlerDao} are imported to the journal.
+     */
+    private synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        final Path journalPath = getJournalPath();
+        if (Files.exists(journalPath)) {
+            try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    replay(line);
+                }
+            } catch (IOException e) {
+                log.error("Can not restore handlers due to: {}", e.getMessage(), e);
+            }
+        }
+        importHandlerFiles();
+        log.debug("Restored {} callback handlers from {} journal records", handlers.size(), journalRecords);
+    }
+
+    private void replay(String line) {
+        if (line.isEmpty()) {
+            return;
+        }
+        journalRecords++;
+        try {
+            final JournalRecord record = mapper.readValue(line, JournalRecord.class);
+            if (record.getHandler() != null) {
+                handlers.put(record.getId(), record.getHandler());
+                handlerIds.put(record.getHandler().getHandler().getUUID(), record.getId());
+            } else {
+                final PersistentFileHandler handler = handlers.remove(record.getId());
+                if (handler != null) {
+                    handlerIds.remove(handler.getHandler().getUUID(), record.getId());
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Can not deserialize callback handler journal record: {}", line, e);
+        }
+    }
+
+    private void importHandlerFiles() {
+        final List<Path> files;
+        try (Stream<Path> pathStream = Files.list(Paths.get(configuration.getHandlerDirectory()))) {
+            files = pathStream.filter(path -> path.toString().endsWith(JSON_EXTENSION)).collect(toList());
+        } catch (IOException e) {
+            log.error("Problem occurred with accessing directory {} due to: {}", configuration.getHandlerDirectory(),
+                    e.getLocalizedMessage(), e);
+            return;
+        }
+        for (Path file : files) {
+            try {
+                upsert(mapper.readValue(file.toFile(), PersistentFileHandler.class));
+                commit();
+                Files.delete(file);
+                log.debug("Callback handler {} has been imported to journal", file);
+            } catch (Exception e) {
+                log.warn("Can not import file handler from file: {}", file, e);
+            }
+        }
+    }
+
+    private FileChannel getJournal() throws IOException {
+        if (journal == null) {
+            journal = FileChannel.open(getJournalPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+        return journal;
+    }
+
+    private Path getJournalPath() {
+        return Paths.get(configuration.getHandlerDirectory(), JOURNAL_FILE_NAME);
+    }
+
+    /**
+     * Record of the journal. The record without handler means removing of the handler.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    static final class JournalRecord {
+        private final String id;
+        private final PersistentFileHandler handler;
+
+        @JsonCreator
+        JournalRecord(@JsonProperty("id") String id, @JsonProperty("handler") PersistentFileHandler handler) {
+            this.id = id;
+            this.handler = handler;
+        }
+
+        static JournalRecord upsert(String id, PersistentFileHandler handler) {
+            return new JournalRecord(id, handler);
+        }
+
+        static JournalRecord remove(String id) {
+            return new JournalRecord(id, null);
+        }
+
+        @JsonProperty
+        public String getId() {
+            return id;
+        }
+
+        @JsonProperty
+        public PersistentFileHandler getHandler() {
+            return handler;
+        }
+    }
+}
@@ -27,6 +27,7 @@ import com.epam.datalab.backendapi.core.commands.CommandExecutor;
 import com.epam.datalab.backendapi.core.commands.ICommandExecutor;
 import com.epam.datalab.backendapi.core.response.handlers.dao.CallbackHandlerDao;
 import com.epam.datalab.backendapi.core.response.handlers.dao.FileSystemCallbackHandlerDao;
+import com.epam.datalab.backendapi.core.response.handlers.dao.JournalCallbackHandlerDao;
 import com.epam.datalab.backendapi.service.BucketService;
 import com.epam.datalab.backendapi.service.CheckInactivityService;
 import com.epam.datalab.backendapi.service.OdahuService;
@@ -76,7 +77,11 @@ public class ProductionModule extends ModuleBase<ProvisioningServiceApplicationC
         bind(MetadataHolder.class).to(DockerWarmuper.class);
         bind(ICommandExecutor.class).to(CommandExecutor.class).asEagerSingleton();
         bind(ObjectMapper.class).toInstance(new ObjectMapper().configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, true));
-        bind(CallbackHandlerDao.class).to(FileSystemCallbackHandlerDao.class);
+        if (configuration.isHandlersJournalEnabled()) {
+            bind(CallbackHandlerDao.class).to(JournalCallbackHandlerDao.class);
+        } else {
+            bind(CallbackHandlerDao.class).to(FileSystemCallbackHandlerDao.class);
+        }
         bind(RestoreCallbackHandlerService.class).to(RestoreCallbackHandlerServiceImpl.class);
         bind(CheckInactivityService.class).to(CheckInactivityServiceImpl.class);
         bind(ProjectService.class).to(ProjectServiceImpl.class);
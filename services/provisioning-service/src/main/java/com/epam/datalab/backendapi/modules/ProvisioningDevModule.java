@@ -30,6 +30,7 @@ import com.epam.datalab.backendapi.core.commands.CommandExecutorMock;
 import com.epam.datalab.backendapi.core.commands.ICommandExecutor;
 import com.epam.datalab.backendapi.core.response.handlers.dao.CallbackHandlerDao;
 import com.epam.datalab.backendapi.core.response.handlers.dao.FileSystemCallbackHandlerDao;
+import com.epam.datalab.backendapi.core.response.handlers.dao.JournalCallbackHandlerDao;
 import com.epam.datalab.backendapi.service.BucketService;
 import com.epam.datalab.backendapi.service.CheckInactivityService;
 import com.epam.datalab.backendapi.service.OdahuService;
@@ -82,7 +83,11 @@ public class ProvisioningDevModule extends ModuleBase<ProvisioningServiceApplica
         bind(MetadataHolder.class).to(DockerWarmuper.class);
         bind(ICommandExecutor.class).toInstance(new CommandExecutorMock(configuration.getCloudProvider()));
         bind(ObjectMapper.class).toInstance(new ObjectMapper().configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, true));
-        bind(CallbackHandlerDao.class).to(FileSystemCallbackHandlerDao.class);
+        if (configuration.isHandlersJournalEnabled()) {
+            bind(CallbackHandlerDao.class).to(JournalCallbackHandlerDao.class);
+        } else {
+            bind(CallbackHandlerDao.class).to(FileSystemCallbackHandlerDao.class);
+        }
         bind(RestoreCallbackHandlerService.class).to(RestoreCallbackHandlerServiceImpl.class);
         bind(CheckInactivityService.class).to(CheckInactivityServiceImpl.class);
         bind(ProjectService.class).to(ProjectServiceImpl.class);
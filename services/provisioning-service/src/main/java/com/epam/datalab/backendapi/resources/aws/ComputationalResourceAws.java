@@ -130,7 +130,8 @@ public class ComputationalResourceAws extends DockerService implements DockerCom
                                     .withConfKeyName(configuration.getAdminKey())
                                     .withActionTerminate(DataEngineType.getDockerImageName(EMR_DATA_ENGINE)),
                             dto
-                    )
+                    ),
+                    getPriority(dto)
             );
         } catch (JsonProcessingException t) {
             throw new DatalabException("Could not terminate computational resources cluster", t);
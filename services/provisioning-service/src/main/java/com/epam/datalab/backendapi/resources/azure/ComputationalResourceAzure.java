@@ -129,7 +129,8 @@ public class ComputationalResourceAzure extends DockerService implements DockerC
                                     .withActionTerminate(DataEngineType.getDockerImageName(DataEngineType
                                             .CLOUD_SERVICE)),
                             dto
-                    )
+                    ),
+                    getPriority(dto)
             );
         } catch (JsonProcessingException t) {
             throw new DatalabException("Could not terminate computational resources cluster", t);
@@ -61,7 +61,8 @@ public class ExploratoryService extends DockerService implements DockerCommands
             runDockerCommand.withVolumeFoAzureAuthFile(configuration.getCloudConfiguration().getAzureAuthFile());
         }
 
-        commandExecutor.executeAsync(username, uuid, commandBuilder.buildCommand(runDockerCommand, dto));
+        commandExecutor.executeAsync(username, uuid, commandBuilder.buildCommand(runDockerCommand, dto),
+                getPriority(dto));
         return uuid;
     }
 
@@ -35,12 +35,11 @@ import com.epam.datalab.dto.status.EnvResource;
 import com.epam.datalab.dto.status.EnvResourceList;
 import com.epam.datalab.exceptions.DatalabException;
 import com.epam.datalab.process.model.ProcessInfo;
+import com.epam.datalab.process.model.ProcessPriority;
 import com.epam.datalab.rest.client.RESTService;
 import com.google.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
 
-import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -91,7 +90,8 @@ public abstract class InfrastructureService implements DockerCommands {
                     runDockerCommand.withVolumeFoAzureAuthFile(configuration.getCloudConfiguration().getAzureAuthFile());
                 }
 
-                commandExecutor.executeAsync(username, uuid, commandBuilder.buildCommand(runDockerCommand, dto));
+                commandExecutor.executeAsync(username, uuid, commandBuilder.buildCommand(runDockerCommand, dto),
+                        ProcessPriority.STATUS_CHECK);
             } else {
                 log.debug("Skipping calling status command. Resource lists are empty");
             }
@@ -107,10 +107,9 @@ public abstract class InfrastructureService implements DockerCommands {
 
         final ProcessInfo processInfo = commandExecutor.executeSync(username, DockerCommands.generateUUID(),
                 String.format(DockerCommands.GET_RUNNING_CONTAINERS_FOR_USER, dto.getEdgeUserName()));
-        final String processInfoStdOut = processInfo.getStdOut();
+        final List<String> runningContainerNames = processInfo.readStdOutLines();
 
-        if (StringUtils.isNoneEmpty(processInfoStdOut)) {
-            final List<String> runningContainerNames = Arrays.asList(processInfoStdOut.split("\n"));
+        if (!runningContainerNames.isEmpty()) {
             log.info("Running containers for users: {}", runningContainerNames);
             final List<EnvResource> hostList = filter(dto.getEdgeUserName(), runningContainerNames, dto
                     .getResourceList()
@@ -128,7 +128,8 @@ public class ComputationalResourceGcp extends DockerService implements DockerCom
                                     .withActionTerminate(DataEngineType.getDockerImageName(DataEngineType
                                             .CLOUD_SERVICE)),
                             dto
-                    )
+                    ),
+                    getPriority(dto)
             );
         } catch (JsonProcessingException t) {
             throw new DatalabException("Could not terminate computational resources cluster", t);
@@ -29,6 +29,7 @@ import com.epam.datalab.dto.ResourceBaseDTO;
 import com.epam.datalab.dto.base.DataEngineType;
 import com.epam.datalab.dto.computational.ComputationalCheckInactivityDTO;
 import com.epam.datalab.dto.exploratory.ExploratoryCheckInactivityAction;
+import com.epam.datalab.process.model.ProcessPriority;
 import com.epam.datalab.rest.contracts.ApiCallbacks;
 import com.google.inject.Singleton;
 import lombok.extern.slf4j.Slf4j;
@@ -115,7 +116,7 @@ public class CheckInactivityServiceImpl extends DockerService implements CheckIn
         try {
             final String command = commandBuilder.buildCommand(dockerCmd, dto);
             log.trace("Docker command: {}", command);
-            commandExecutor.executeAsync(userName, uuid, command);
+            commandExecutor.executeAsync(userName, uuid, command, ProcessPriority.STATUS_CHECK);
         } catch (Exception e) {
             log.error("Exception occured during reuploading key: {} for command {}", e.getLocalizedMessage(),
                     dockerCmd.toCMD(), e);
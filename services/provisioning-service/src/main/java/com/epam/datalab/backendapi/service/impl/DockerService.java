@@ -23,6 +23,8 @@ import com.epam.datalab.backendapi.ProvisioningServiceApplicationConfiguration;
 import com.epam.datalab.backendapi.core.commands.CommandBuilder;
 import com.epam.datalab.backendapi.core.commands.ICommandExecutor;
 import com.epam.datalab.backendapi.core.response.folderlistener.FolderListenerExecutor;
+import com.epam.datalab.dto.ResourceBaseDTO;
+import com.epam.datalab.process.model.ProcessPriority;
 import com.epam.datalab.rest.client.RESTService;
 import com.google.inject.Inject;
 
@@ -39,4 +41,12 @@ public abstract class DockerService {
     @Inject
     protected RESTService selfService;
 
+    /**
+     * Returns the priority of the docker command, the actions requested by the scheduler yield to the users.
+     *
+     * @param dto the request of the action.
+     */
+    protected static ProcessPriority getPriority(ResourceBaseDTO<?> dto) {
+        return dto.isScheduled() ? ProcessPriority.SCHEDULER : ProcessPriority.INTERACTIVE;
+    }
 }
@@ -133,7 +133,8 @@ public class SparkClusterService extends DockerService implements DockerCommands
                 runDockerCommand.withVolumeFoAzureAuthFile(configuration.getCloudConfiguration().getAzureAuthFile());
             }
 
-            commandExecutor.executeAsync(ui.getName(), uuid, commandBuilder.buildCommand(runDockerCommand, dto));
+            commandExecutor.executeAsync(ui.getName(), uuid, commandBuilder.buildCommand(runDockerCommand, dto),
+                    getPriority(dto));
         } catch (JsonProcessingException e) {
             throw new DatalabException("Could not" + action.toString() + "computational resources cluster", e);
         }
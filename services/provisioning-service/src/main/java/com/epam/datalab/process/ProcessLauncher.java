@@ -0,0 +1,293 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.epam.datalab.process;
+
+import com.epam.datalab.process.model.DatalabProcess;
+import com.epam.datalab.process.model.ProcessId;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Launches the OS processes without blocking a thread per process. One pump thread starts the commands
+ * admitted by {@link ProcessScheduler}, reads the available output of all the running processes and
+ * detects their exit. The output lines and the exit code are passed to the {@link Listener}, by default to
+ * {@link DatalabProcess} in the same way as by the blocking launcher.
+ */
+@Slf4j
+public class ProcessLauncher {
+
+    private static final long PUMP_INTERVAL_MILLIS = 50;
+    private static final int BUFFER_SIZE = 8192;
+
+    private final ScheduledExecutorService pump = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                    .setNameFormat(getClass().getSimpleName() + "-%d")
+                    .setDaemon(true)
+                    .build());
+    private final Queue<LaunchRequest> incoming = new ConcurrentLinkedQueue<>();
+    private final List<RunningProcess> running = new ArrayList<>();
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final Listener listener;
+
+    public ProcessLauncher() {
+        this(new DatalabProcessListener());
+    }
+
+    public ProcessLauncher(Listener listener) {
+        this.listener = listener;
+        pump.scheduleWithFixedDelay(this::pump, PUMP_INTERVAL_MILLIS, PUMP_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Launches the command. This method is <b>non-blocking</b>.
+     *
+     * @param id        process id.
+     * @param command   command to run.
+     * @param cancelled returns <b>true</b> if the command has been stopped before the launch.
+     * @param started   receives the process when it has been started.
+     * @param exited    is called when the process has exited or could not be started.
+     */
+    public void launch(ProcessId id, String[] command, BooleanSupplier cancelled, Consumer<Process> started,
+                       Runnable exited) {
+        incoming.add(new LaunchRequest(id, command, cancelled, started, exited));
+        pump.execute(this::pump);
+    }
+
+    private void pump() {
+        try {
+            LaunchRequest request;
+            while ((request = incoming.poll()) != null) {
+                start(request);
+            }
+            boolean pending = false;
+            Iterator<RunningProcess> iterator = running.iterator();
+            while (iterator.hasNext()) {
+                RunningProcess process = iterator.next();
+                if (process.pump()) {
+                    iterator.remove();
+                    process.request.exited.run();
+                } else {
+                    pending |= process.pending;
+                }
+            }
+            if (pending) {
+                pump.execute(this::pump);
+            }
+        } catch (Exception e) {
+            log.error("Process launcher pump failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void start(LaunchRequest request) {
+        if (request.cancelled.getAsBoolean()) {
+            request.exited.run();
+            return;
+        }
+        try {
+            Process process = new ProcessBuilder(request.command).start();
+            running.add(new RunningProcess(request, process));
+            request.started.accept(process);
+        } catch (IOException e) {
+            listener.failed(request.id, "Command launch failed. " + String.join(" ", request.command), e);
+            request.exited.run();
+        }
+    }
+
+    /**
+     * Receives the output and the result of the launched processes.
+     */
+    public interface Listener {
+        /**
+         * Receives the chunk of the standard output lines or <b>null</b> when the output has been closed.
+         */
+        void stdOut(ProcessId id, String lines);
+
+        /**
+         * Receives the chunk of the error output lines or <b>null</b> when the output has been closed.
+         */
+        void stdErr(ProcessId id, String lines);
+
+        void failed(ProcessId id, String message, Exception e);
+
+        void finished(ProcessId id, int exitCode);
+    }
+
+    private static final class DatalabProcessListener implements Listener {
+        @Override
+        public void stdOut(ProcessId id, String lines) {
+            DatalabProcess.getInstance().toStdOut(id, lines);
+        }
+
+        @Override
+        public void stdErr(ProcessId id, String lines) {
+            DatalabProcess.getInstance().toStdErr(id, lines);
+        }
+
+        @Override
+        public void failed(ProcessId id, String message, Exception e) {
+            DatalabProcess.getInstance().toStdErr(id, message, e);
+            DatalabProcess.getInstance().failed(id);
+        }
+
+        @Override
+        public void finished(ProcessId id, int exitCode) {
+            DatalabProcess.getInstance().finish(id, exitCode);
+        }
+    }
+
+    private static final class LaunchRequest {
+        private final ProcessId id;
+        private final String[] command;
+        private final BooleanSupplier cancelled;
+        private final Consumer<Process> started;
+        private final Runnable exited;
+
+        private LaunchRequest(ProcessId id, String[] command, BooleanSupplier cancelled, Consumer<Process> started,
+                              Runnable exited) {
+            this.id = id;
+            this.command = command;
+            this.cancelled = cancelled;
+            this.started = started;
+            this.exited = exited;
+        }
+    }
+
+    private final class RunningProcess {
+        private final LaunchRequest request;
+        private final Process process;
+        private final OutputReader stdOut;
+        private final OutputReader stdErr;
+        /**
+         * The output has not been read completely by the last pump.
+         */
+        private boolean pending;
+
+        private RunningProcess(LaunchRequest request, Process process) {
+            this.request = request;
+            this.process = process;
+            this.stdOut = new OutputReader(process.getInputStream(), line -> listener.stdOut(request.id, line));
+            this.stdErr = new OutputReader(process.getErrorStream(), line -> listener.stdErr(request.id, line));
+        }
+
+        /**
+         * Reads the available output and returns <b>true</b> if the process has exited. The output of the
+         * running process is read by one buffer per pump, so the other processes are not delayed.
+         */
+        private boolean pump() {
+            boolean alive = process.isAlive();
+            try {
+                pending = stdOut.read(!alive) | stdErr.read(!alive);
+            } catch (IOException e) {
+                listener.failed(request.id, "Failed process output reader", e);
+                process.destroy();
+                return true;
+            }
+            if (alive) {
+                return false;
+            }
+            stdOut.close();
+            stdErr.close();
+            listener.finished(request.id, process.exitValue());
+            return true;
+        }
+    }
+
+    /**
+     * Splits the available bytes of the process output to lines without blocking. All the complete lines
+     * read by one buffer are passed to the consumer as one chunk.
+     */
+    private final class OutputReader {
+        private final InputStream stream;
+        private final Consumer<String> consumer;
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        private final StringBuilder chunk = new StringBuilder();
+
+        private OutputReader(InputStream stream, Consumer<String> consumer) {
+            this.stream = stream;
+            this.consumer = consumer;
+        }
+
+        /**
+         * Reads not more than one buffer of the available output or the whole available output if
+         * <b>drain</b> is <b>true</b>. Returns <b>true</b> if more output is available.
+         */
+        private boolean read(boolean drain) throws IOException {
+            boolean more;
+            do {
+                int available = stream.available();
+                int count = available > 0 ? stream.read(buffer, 0, Math.min(available, buffer.length)) : -1;
+                for (int i = 0; i < count; i++) {
+                    if (buffer[i] == '\n') {
+                        appendLine();
+                    } else {
+                        line.write(buffer[i]);
+                    }
+                }
+                emit();
+                more = count > 0 && available > count;
+            } while (drain && more);
+            return more;
+        }
+
+        private void appendLine() {
+            String text = new String(line.toByteArray(), Charset.defaultCharset());
+            line.reset();
+            if (chunk.length() > 0) {
+                chunk.append('\n');
+            }
+            chunk.append(text.endsWith("\r") ? text.substring(0, text.length() - 1) : text);
+        }
+
+        private void emit() {
+            if (chunk.length() > 0) {
+                consumer.accept(chunk.toString());
+                chunk.setLength(0);
+            }
+        }
+
+        private void close() {
+            if (line.size() > 0) {
+                appendLine();
+            }
+            emit();
+            consumer.accept(null);
+            try {
+                stream.close();
+            } catch (IOException e) {
+                log.debug("Can not close process output stream: {}", e.getMessage());
+            }
+        }
+    }
+}
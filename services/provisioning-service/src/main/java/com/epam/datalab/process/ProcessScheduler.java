@@ -0,0 +1,305 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.epam.datalab.process;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.epam.datalab.process.model.ProcessId;
+import com.epam.datalab.process.model.ProcessPriority;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Admission control of the OS processes. The processes wait in the bounded queue of their priority class
+ * until there is the free slot within the limits of processes per box and per user. The queued processes
+ * of the higher class are launched first. Within the class the users share the slots by weighted fair
+ * queuing, so the user with many queued processes does not delay the processes of other users.
+ */
+@Slf4j
+public class ProcessScheduler {
+
+    private static final int DEFAULT_WEIGHT = 1;
+
+    private final Map<ProcessPriority, PriorityClass> classes = new EnumMap<>(ProcessPriority.class);
+    private final Map<String, Integer> runningPerUser = new HashMap<>();
+    private final Map<String, Integer> userWeights = new ConcurrentHashMap<>();
+    private int running = 0;
+    private volatile int maxProcessesPerBox = 50;
+    private volatile int maxProcessesPerUser = 5;
+    private volatile int maxQueueSize = 1000;
+
+    public ProcessScheduler() {
+        for (ProcessPriority priority : ProcessPriority.values()) {
+            classes.put(priority, new PriorityClass());
+        }
+    }
+
+    public void setMaxProcessesPerBox(int maxProcessesPerBox) {
+        this.maxProcessesPerBox = maxProcessesPerBox;
+        admitAndRun();
+    }
+
+    public void setMaxProcessesPerUser(int maxProcessesPerUser) {
+        this.maxProcessesPerUser = maxProcessesPerUser;
+        admitAndRun();
+    }
+
+    /**
+     * Sets the maximum number of the queued processes per priority class.
+     *
+     * @param maxQueueSize the size of queue.
+     */
+    public void setMaxQueueSize(int maxQueueSize) {
+        this.maxQueueSize = maxQueueSize;
+    }
+
+    /**
+     * Sets the weights of users. The user with the weight 2 gets twice as many slots as the user with the
+     * default weight 1 when both have queued processes.
+     *
+     * @param weights weights by user name.
+     */
+    public void setUserWeights(Map<String, Integer> weights) {
+        userWeights.clear();
+        weights.forEach((user, weight) -> {
+            if (weight != null && weight > 0) {
+                userWeights.put(user, weight);
+            }
+        });
+    }
+
+    /**
+     * Queues the process for launching. The task is run when the process is admitted and must not block,
+     * the launched process must be released by {@link #release(String)}. Returns <b>false</b> if the queue
+     * of the priority class is full.
+     *
+     * @param id        process id.
+     * @param priority  priority class.
+     * @param cancelled returns <b>true</b> if the process has been stopped before the launch.
+     * @param task      launches the process.
+     */
+    public boolean submit(ProcessId id, ProcessPriority priority, BooleanSupplier cancelled, Runnable task) {
+        synchronized (this) {
+            PriorityClass priorityClass = classes.get(priority);
+            if (priorityClass.size >= maxQueueSize) {
+                priorityClass.purgeCancelled();
+            }
+            if (priorityClass.size >= maxQueueSize) {
+                priorityClass.rejected.mark();
+                log.warn("Process queue {} is full, rejected command for user {}", priority, id.getUser());
+                return false;
+            }
+            priorityClass.add(new QueuedTask(id, cancelled, task));
+        }
+        admitAndRun();
+        return true;
+    }
+
+    /**
+     * Releases the slot of the finished process and admits the queued processes.
+     *
+     * @param user the name of user.
+     */
+    public void release(String user) {
+        synchronized (this) {
+            running--;
+            runningPerUser.computeIfPresent(user, (u, count) -> count > 1 ? count - 1 : null);
+        }
+        admitAndRun();
+    }
+
+    /**
+     * Registers the gauges of the queue length, the wait time of the oldest queued process and the timers
+     * of wait time for each priority class.
+     *
+     * @param registry the metric registry.
+     */
+    public void registerMetrics(MetricRegistry registry) {
+        classes.forEach((priority, priorityClass) -> {
+            String name = priority.name().toLowerCase();
+            registry.register(MetricRegistry.name(ProcessScheduler.class, name, "queue-length"),
+                    (Gauge<Integer>) () -> getQueueLength(priority));
+            registry.register(MetricRegistry.name(ProcessScheduler.class, name, "oldest-wait-millis"),
+                    (Gauge<Long>) () -> getOldestWaitMillis(priority));
+            registry.register(MetricRegistry.name(ProcessScheduler.class, name, "wait"), priorityClass.wait);
+            registry.register(MetricRegistry.name(ProcessScheduler.class, name, "rejected"), priorityClass.rejected);
+        });
+        registry.register(MetricRegistry.name(ProcessScheduler.class, "running"), (Gauge<Integer>) this::getRunning);
+    }
+
+    public synchronized int getQueueLength(ProcessPriority priority) {
+        return classes.get(priority).size;
+    }
+
+    public synchronized long getOldestWaitMillis(ProcessPriority priority) {
+        long oldest = classes.get(priority).getOldestQueuedTime();
+        return (oldest < 0 ? 0 : System.currentTimeMillis() - oldest);
+    }
+
+    public synchronized int getRunning() {
+        return running;
+    }
+
+    private void admitAndRun() {
+        List<QueuedTask> admitted = new ArrayList<>();
+        synchronized (this) {
+            for (PriorityClass priorityClass : classes.values()) {
+                QueuedTask task;
+                while (running < maxProcessesPerBox && (task = priorityClass.poll()) != null) {
+                    running++;
+                    runningPerUser.merge(task.id.getUser(), 1, Integer::sum);
+                    priorityClass.wait.update(System.currentTimeMillis() - task.queuedTime, TimeUnit.MILLISECONDS);
+                    admitted.add(task);
+                }
+            }
+        }
+        for (QueuedTask task : admitted) {
+            try {
+                task.task.run();
+            } catch (Exception e) {
+                log.error("Can not launch process {}: {}", task.id, e.getMessage(), e);
+                release(task.id.getUser());
+            }
+        }
+    }
+
+    private boolean isUserAllowed(String user) {
+        return runningPerUser.getOrDefault(user, 0) < maxProcessesPerUser;
+    }
+
+    private static final class QueuedTask {
+        private final ProcessId id;
+        private final BooleanSupplier cancelled;
+        private final Runnable task;
+        private final long queuedTime = System.currentTimeMillis();
+
+        private QueuedTask(ProcessId id, BooleanSupplier cancelled, Runnable task) {
+            this.id = id;
+            this.cancelled = cancelled;
+            this.task = task;
+        }
+    }
+
+    /**
+     * Queue of the user within the priority class. The tag is the virtual time when the next process of
+     * the user is due.
+     */
+    private static final class UserQueue {
+        private final Deque<QueuedTask> tasks = new ArrayDeque<>();
+        private double tag;
+
+        private UserQueue(double tag) {
+            this.tag = tag;
+        }
+    }
+
+    /**
+     * Queues of the priority class. The process of the user with the least tag is admitted first, then the
+     * tag of the user is advanced by the reciprocal of the user weight.
+     */
+    private final class PriorityClass {
+        private final Map<String, UserQueue> queues = new LinkedHashMap<>();
+        private final Timer wait = new Timer();
+        private final Meter rejected = new Meter();
+        private double virtualTime = 0;
+        private int size = 0;
+
+        private void add(QueuedTask task) {
+            queues.computeIfAbsent(task.id.getUser(), user -> new UserQueue(virtualTime)).tasks.add(task);
+            size++;
+        }
+
+        private QueuedTask poll() {
+            UserQueue next = null;
+            String nextUser = null;
+            Iterator<Map.Entry<String, UserQueue>> iterator = queues.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, UserQueue> entry = iterator.next();
+                UserQueue queue = entry.getValue();
+                removeCancelled(queue);
+                if (queue.tasks.isEmpty()) {
+                    iterator.remove();
+                } else if ((next == null || queue.tag < next.tag) && isUserAllowed(entry.getKey())) {
+                    next = queue;
+                    nextUser = entry.getKey();
+                }
+            }
+            if (next == null) {
+                return null;
+            }
+            QueuedTask task = next.tasks.poll();
+            size--;
+            virtualTime = next.tag;
+            next.tag += 1.0 / userWeights.getOrDefault(nextUser, DEFAULT_WEIGHT);
+            if (next.tasks.isEmpty()) {
+                queues.remove(nextUser);
+            }
+            return task;
+        }
+
+        private void removeCancelled(UserQueue queue) {
+            while (!queue.tasks.isEmpty() && queue.tasks.peek().cancelled.getAsBoolean()) {
+                log.debug("Process {} has been cancelled before launch", queue.tasks.poll().id);
+                size--;
+            }
+        }
+
+        /**
+         * Removes the cancelled tasks from anywhere in the queues, not only from their heads.
+         */
+        private void purgeCancelled() {
+            Iterator<UserQueue> iterator = queues.values().iterator();
+            while (iterator.hasNext()) {
+                UserQueue queue = iterator.next();
+                int queued = queue.tasks.size();
+                queue.tasks.removeIf(task -> task.cancelled.getAsBoolean());
+                size -= queued - queue.tasks.size();
+                if (queue.tasks.isEmpty()) {
+                    iterator.remove();
+                }
+            }
+        }
+
+        private long getOldestQueuedTime() {
+            long oldest = -1;
+            for (UserQueue queue : queues.values()) {
+                QueuedTask task = queue.tasks.peek();
+                if (task != null && (oldest < 0 || task.queuedTime < oldest)) {
+                    oldest = task.queuedTime;
+                }
+            }
+            return oldest;
+        }
+    }
+}
@@ -22,9 +22,11 @@ package com.epam.datalab.process.builder;
 import com.aegisql.conveyor.Expireable;
 import com.aegisql.conveyor.Testing;
 import com.aegisql.conveyor.TimeoutAction;
+import com.epam.datalab.process.ProcessScheduler;
 import com.epam.datalab.process.model.DatalabProcess;
 import com.epam.datalab.process.model.ProcessId;
 import com.epam.datalab.process.model.ProcessInfo;
+import com.epam.datalab.process.model.ProcessPriority;
 import com.epam.datalab.process.model.ProcessStatus;
 import lombok.extern.slf4j.Slf4j;
 
@@ -56,9 +58,10 @@ public class ProcessInfoBuilder implements Supplier<ProcessInfo>, Testing, Timeo
     private static Function<Process, Integer> pidSupplier = null;
     private final ProcessId processId;
     private final long startTimeStamp = System.currentTimeMillis();
-    private final StringBuilder stdOut = new StringBuilder();
-    private final StringBuilder stdErr = new StringBuilder();
-    private ProcessStatus status = CREATED;
+    private final ProcessOutput stdOut;
+    private final ProcessOutput stdErr;
+    private volatile ProcessStatus status = CREATED;
+    private ProcessPriority priority = ProcessPriority.INTERACTIVE;
     private int exitCode = -1;
     private String[] command = new String[]{"N/A"};
     private Collection<ProcessInfo> rejected = null;
@@ -73,6 +76,11 @@ public class ProcessInfoBuilder implements Supplier<ProcessInfo>, Testing, Timeo
     public ProcessInfoBuilder(ProcessId processId, long ttl) {
         this.processId = processId;
         this.expirationTime = System.currentTimeMillis() + ttl;
+        DatalabProcess datalabProcess = DatalabProcess.getInstance();
+        this.stdOut = new ProcessOutput(datalabProcess.getOutputBufferSize(),
+                () -> datalabProcess.getOutputFile(processId, startTimeStamp, "stdout"));
+        this.stdErr = new ProcessOutput(datalabProcess.getOutputBufferSize(),
+                () -> datalabProcess.getOutputFile(processId, startTimeStamp, "stderr"));
     }
 
     public static void schedule(ProcessInfoBuilder b, String[] command) {
@@ -138,16 +146,18 @@ public class ProcessInfoBuilder implements Supplier<ProcessInfo>, Testing, Timeo
     public static void stdOut(ProcessInfoBuilder b, Object msg) {
         if (msg == null) {
             b.stdOutClosed = true;
+            b.stdOut.close();
         } else {
-            b.stdOut.append(msg).append("\n");
+            b.stdOut.append(msg + "\n");
         }
     }
 
     public static void stdErr(ProcessInfoBuilder b, Object msg) {
         if (msg == null) {
             b.stdErrClosed = true;
+            b.stdErr.close();
         } else {
-            b.stdErr.append(msg).append("\n");
+            b.stdErr.append(msg + "\n");
         }
     }
 
@@ -159,6 +169,10 @@ public class ProcessInfoBuilder implements Supplier<ProcessInfo>, Testing, Timeo
         }
     }
 
+    public static void priority(ProcessInfoBuilder b, ProcessPriority priority) {
+        b.priority = priority;
+    }
+
     public static int getPid(Process process) {
         try {
             if (pidSupplier == null) {
@@ -186,34 +200,54 @@ public class ProcessInfoBuilder implements Supplier<ProcessInfo>, Testing, Timeo
     }
 
     private void launch() {
-        DatalabProcess.getInstance().getUsersExecutorService(processId.getUser()).submit(() -> {
-            status = SCHEDULED;
-            DatalabProcess.getInstance().getExecutorService().execute(() -> {
-                try {
-                    p = new ProcessBuilder(command).start();
-                    pid = getPid(p);
-                    InputStream stdOutStream = p.getInputStream();
-                    DatalabProcess.getInstance().getExecutorService().execute(() -> print(stdOutStream));
-                    InputStream stdErrStream = p.getErrorStream();
-                    DatalabProcess.getInstance().getExecutorService().execute(() -> printError(stdErrStream));
-                    status = RUNNING;
-                    int exit = p.waitFor();
-                    DatalabProcess.getInstance().finish(processId, exit);
-                } catch (IOException e) {
-                    DatalabProcess.getInstance().toStdErr(processId, "Command launch failed. " + get().getCommand(), e);
-                    DatalabProcess.getInstance().failed(processId);
-                } catch (InterruptedException e) {
-                    DatalabProcess.getInstance().toStdErr(processId, "Command interrupted. " + get().getCommand(), e);
-                    DatalabProcess.getInstance().failed(processId);
-                    Thread.currentThread().interrupt();
-                }
-            });
-            try {
-                future.get();
-            } catch (Exception e) {
-                log.error("Exception occurred during getting future result: {}", e.getMessage(), e);
+        status = SCHEDULED;
+        final DatalabProcess datalabProcess = DatalabProcess.getInstance();
+        final ProcessScheduler scheduler = datalabProcess.getProcessScheduler();
+        final Runnable task;
+        if (datalabProcess.isAsyncLaunchEnabled()) {
+            task = () -> datalabProcess.getProcessLauncher().launch(processId, command, () -> status != SCHEDULED,
+                    this::started, () -> scheduler.release(processId.getUser()));
+        } else {
+            task = () -> datalabProcess.getExecutorService().execute(this::launchBlocking);
+        }
+        if (!scheduler.submit(processId, priority, () -> status != SCHEDULED, task)) {
+            status = REJECTED;
+            exitCode = REJECTED.ordinal();
+            stdErr.append("rejected command, the queue of " + priority + " processes is full\n");
+            setReady();
+        }
+    }
+
+    private void started(Process process) {
+        p = process;
+        pid = getPid(process);
+        status = RUNNING;
+    }
+
+    private void launchBlocking() {
+        try {
+            if (status != SCHEDULED) {
+                return;
             }
-        });
+            p = new ProcessBuilder(command).start();
+            pid = getPid(p);
+            InputStream stdOutStream = p.getInputStream();
+            DatalabProcess.getInstance().getExecutorService().execute(() -> print(stdOutStream));
+            InputStream stdErrStream = p.getErrorStream();
+            DatalabProcess.getInstance().getExecutorService().execute(() -> printError(stdErrStream));
+            status = RUNNING;
+            int exit = p.waitFor();
+            DatalabProcess.getInstance().finish(processId, exit);
+        } catch (IOException e) {
+            DatalabProcess.getInstance().toStdErr(processId, "Command launch failed. " + get().getCommand(), e);
+            DatalabProcess.getInstance().failed(processId);
+        } catch (InterruptedException e) {
+            DatalabProcess.getInstance().toStdErr(processId, "Command interrupted. " + get().getCommand(), e);
+            DatalabProcess.getInstance().failed(processId);
+            Thread.currentThread().interrupt();
+        } finally {
+            DatalabProcess.getInstance().getProcessScheduler().release(processId.getUser());
+        }
     }
 
     private void printError(InputStream stdErrStream) {
@@ -253,7 +287,8 @@ public class ProcessInfoBuilder implements Supplier<ProcessInfo>, Testing, Timeo
                 stdOut.toString(),
                 stdErr.toString(),
                 exitCode,
-                startTimeStamp, System.currentTimeMillis(), rejected, pid);
+                startTimeStamp, System.currentTimeMillis(), rejected, pid,
+                stdOut.getSpillFile(), stdErr.getSpillFile());
     }
 
     @Override
@@ -265,6 +300,8 @@ public class ProcessInfoBuilder implements Supplier<ProcessInfo>, Testing, Timeo
         finished = true;
         stdOutClosed = true;
         stdErrClosed = true;
+        stdOut.close();
+        stdErr.close();
     }
 
     @Override
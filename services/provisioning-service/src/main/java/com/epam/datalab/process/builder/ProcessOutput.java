@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.epam.datalab.process.builder;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+/**
+ * Captured output of the process. If the capacity is positive only the last <b>capacity</b> characters
+ * are kept in memory in the ring buffer, otherwise the whole output is kept. If the spill file is set
+ * and the output does not fit to the ring buffer the whole output is written to the file, so the short
+ * outputs do not create the files.
+ */
+@Slf4j
+public class ProcessOutput {
+
+    private final StringBuilder unbounded;
+    private final char[] ring;
+    private int start = 0;
+    private int length = 0;
+    private boolean truncated = false;
+    private boolean closed = false;
+    private Supplier<Path> spillFileSupplier;
+    private Path spillFile;
+    private Writer spill;
+
+    /**
+     * Creates the captured output.
+     *
+     * @param capacity          number of the last characters kept in memory or zero for unbounded output.
+     * @param spillFileSupplier supplier of the file for the whole output or <b>null</b>. It is called when the
+     *                          output does not fit to the ring buffer for the first time.
+     */
+    public ProcessOutput(int capacity, Supplier<Path> spillFileSupplier) {
+        this.ring = (capacity > 0 ? new char[capacity] : null);
+        this.unbounded = (capacity > 0 ? null : new StringBuilder());
+        this.spillFileSupplier = (capacity > 0 ? spillFileSupplier : null);
+    }
+
+    /**
+     * Deletes the output files which have not been modified since the given time.
+     *
+     * @param directory         directory of the output files.
+     * @param expiredTimeMillis time of the last modification of the expired files.
+     */
+    public static void deleteExpiredFiles(Path directory, long expiredTimeMillis) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.log")) {
+            for (Path file : files) {
+                try {
+                    if (Files.getLastModifiedTime(file).toMillis() < expiredTimeMillis) {
+                        Files.deleteIfExists(file);
+                    }
+                } catch (IOException e) {
+                    log.warn("Can not delete process output file {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Can not list process output directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * Appends the text to the output.
+     *
+     * @param text the text.
+     */
+    public void append(CharSequence text) {
+        if (unbounded != null) {
+            unbounded.append(text);
+            return;
+        }
+        if (spill == null && spillFileSupplier != null && !closed && length + text.length() > ring.length) {
+            openSpill();
+        }
+        appendToRing(text);
+        if (spill != null) {
+            try {
+                spill.append(text);
+            } catch (IOException e) {
+                log.warn("Can not write process output file {}: {}", spillFile, e.getMessage());
+                closeSpill();
+                spillFile = null;
+            }
+        }
+    }
+
+    /**
+     * Creates the spill file and writes to it the output kept in memory, which is the whole output so far.
+     */
+    private void openSpill() {
+        final Path file = spillFileSupplier.get();
+        spillFileSupplier = null;
+        if (file == null) {
+            return;
+        }
+        try {
+            spill = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            spillFile = file;
+            spill.append(toString());
+        } catch (IOException e) {
+            log.warn("Can not create process output file {}: {}", file, e.getMessage());
+            closeSpill();
+            spillFile = null;
+        }
+    }
+
+    private void appendToRing(CharSequence text) {
+        final int capacity = ring.length;
+        final int textLength = text.length();
+        final int from = Math.max(0, textLength - capacity);
+        if (from > 0) {
+            truncated = true;
+        }
+        for (int i = from; i < textLength; i++) {
+            if (length < capacity) {
+                ring[(start + length) % capacity] = text.charAt(i);
+                length++;
+            } else {
+                ring[start] = text.charAt(i);
+                start = (start + 1) % capacity;
+                truncated = true;
+            }
+        }
+    }
+
+    /**
+     * Closes the output. The rest of the output is flushed to the spill file.
+     */
+    public void close() {
+        closed = true;
+        closeSpill();
+    }
+
+    private void closeSpill() {
+        if (spill != null) {
+            try {
+                spill.close();
+            } catch (IOException e) {
+                log.warn("Can not close process output file {}: {}", spillFile, e.getMessage());
+            }
+            spill = null;
+        }
+    }
+
+    /**
+     * Returns the file with the whole output or <b>null</b> if the output has not been written to file.
+     */
+    public Path getSpillFile() {
+        return spillFile;
+    }
+
+    /**
+     * Returns <b>true</b> if the beginning of the output has been dropped from memory.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Returns the output kept in memory. If the beginning of the output has been dropped the partial
+     * first line is skipped.
+     */
+    @Override
+    public String toString() {
+        if (unbounded != null) {
+            return unbounded.toString();
+        }
+        final StringBuilder sb = new StringBuilder(length);
+        final int capacity = ring.length;
+        for (int i = 0; i < length; i++) {
+            sb.append(ring[(start + i) % capacity]);
+        }
+        if (truncated) {
+            final int newLine = sb.indexOf("\n");
+            return (newLine < 0 ? sb.toString() : sb.substring(newLine + 1));
+        }
+        return sb.toString();
+    }
+}
@@ -19,21 +19,28 @@
 package com.epam.datalab.process.model;
 
 import com.epam.datalab.process.ProcessConveyor;
+import com.epam.datalab.process.ProcessLauncher;
+import com.epam.datalab.process.ProcessScheduler;
 import com.epam.datalab.process.builder.ProcessInfoBuilder;
+import com.epam.datalab.process.builder.ProcessOutput;
 import com.epam.datalab.util.SecurityUtils;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.dropwizard.util.Duration;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.File;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -41,11 +48,17 @@ import java.util.stream.Collectors;
 public class DatalabProcess {
 
     private final static DatalabProcess INSTANCE = new DatalabProcess();
+    private static final long OUTPUT_CLEANUP_INTERVAL_MINUTES = 60;
     private final ProcessConveyor processConveyor;
+    private ProcessLauncher processLauncher;
+    private final ProcessScheduler processScheduler = new ProcessScheduler();
     private ExecutorService executorService = Executors.newFixedThreadPool(50 * 3);
-    private Map<String, ExecutorService> perUserService = new ConcurrentHashMap<>();
-    private int userMaxparallelism = 5;
     private long expirationTime = TimeUnit.HOURS.toMillis(3);
+    private boolean asyncLaunchEnabled = false;
+    private int outputBufferSize = 0;
+    private String outputDirectory = null;
+    private final AtomicLong outputFileCounter = new AtomicLong();
+    private ScheduledExecutorService outputCleaner;
 
     private DatalabProcess() {
         this.processConveyor = new ProcessConveyor();
@@ -59,28 +72,103 @@ public class DatalabProcess {
         return executorService;
     }
 
+    /**
+     * Returns the launcher of the processes or <b>null</b> if the asynchronous launch is disabled.
+     */
+    public synchronized ProcessLauncher getProcessLauncher() {
+        return processLauncher;
+    }
+
+    public ProcessScheduler getProcessScheduler() {
+        return processScheduler;
+    }
+
+    public boolean isAsyncLaunchEnabled() {
+        return asyncLaunchEnabled;
+    }
+
+    /**
+     * Enables the launch of the processes by {@link ProcessLauncher}. The launcher and its pump thread are
+     * created when the asynchronous launch is enabled for the first time.
+     */
+    public synchronized void setAsyncLaunchEnabled(boolean asyncLaunchEnabled) {
+        this.asyncLaunchEnabled = asyncLaunchEnabled;
+        if (asyncLaunchEnabled && processLauncher == null) {
+            processLauncher = new ProcessLauncher();
+        }
+    }
+
+    public int getOutputBufferSize() {
+        return outputBufferSize;
+    }
+
+    /**
+     * Sets the capture mode of the process output. The output files are deleted when they have not been
+     * modified for the process timeout.
+     *
+     * @param bufferSize number of the last characters of output kept in memory or zero for unbounded output.
+     * @param directory  directory for the files with the whole output or <b>null</b>.
+     */
+    public synchronized void setOutputCapture(int bufferSize, String directory) {
+        this.outputBufferSize = bufferSize;
+        this.outputDirectory = directory;
+        if (directory != null) {
+            new File(directory).mkdirs();
+            if (outputCleaner == null) {
+                outputCleaner = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                        .setNameFormat("ProcessOutputCleaner-%d")
+                        .setDaemon(true)
+                        .build());
+                outputCleaner.scheduleWithFixedDelay(this::deleteExpiredOutputFiles, 0,
+                        OUTPUT_CLEANUP_INTERVAL_MINUTES, TimeUnit.MINUTES);
+            }
+        }
+    }
+
+    private void deleteExpiredOutputFiles() {
+        final String directory = outputDirectory;
+        if (directory != null) {
+            ProcessOutput.deleteExpiredFiles(Paths.get(directory), System.currentTimeMillis() - expirationTime);
+        }
+    }
+
+    /**
+     * Returns the file for the whole output of the process or <b>null</b> if the output is kept in memory only.
+     *
+     * @param id             process id.
+     * @param startTimeStamp time of the process creation.
+     * @param type           type of the output.
+     */
+    public Path getOutputFile(ProcessId id, long startTimeStamp, String type) {
+        if (outputDirectory == null) {
+            return null;
+        }
+        String user = String.valueOf(id.getUser()).replaceAll("[^A-Za-z0-9._-]", "_");
+        return Paths.get(outputDirectory, String.format("%s_%d_%d.%s.log", user, startTimeStamp,
+                outputFileCounter.incrementAndGet(), type));
+    }
+
     public void setMaxProcessesPerBox(int parallelism) {
         this.executorService.shutdown();
         this.executorService = Executors.newFixedThreadPool(3 * parallelism);
+        this.processScheduler.setMaxProcessesPerBox(parallelism);
     }
 
     public void setMaxProcessesPerUser(int parallelism) {
-        this.userMaxparallelism = parallelism;
-        this.perUserService.forEach((k, e) -> e.shutdown());
-        this.perUserService = new ConcurrentHashMap<>();
+        this.processScheduler.setMaxProcessesPerUser(parallelism);
     }
 
-    public ExecutorService getUsersExecutorService(String user) {
-        perUserService.putIfAbsent(user, Executors.newFixedThreadPool(userMaxparallelism));
-        return perUserService.get(user);
+    public CompletableFuture<ProcessInfo> start(ProcessId id, String... command) {
+        return start(id, ProcessPriority.INTERACTIVE, command);
     }
 
-    public CompletableFuture<ProcessInfo> start(ProcessId id, String... command) {
-        log.debug("Run OS command for user {} with UUID {}: {}", id.getUser(), id.getCommand(),
-                SecurityUtils.hideCreds(command));
+    public CompletableFuture<ProcessInfo> start(ProcessId id, ProcessPriority priority, String... command) {
+        log.debug("Run OS command for user {} with UUID {} and priority {}: {}", id.getUser(), id.getCommand(),
+                priority, SecurityUtils.hideCreds(command));
         CompletableFuture<ProcessInfo> future = processConveyor.createBuildFuture(id, () -> new ProcessInfoBuilder(id,
                 expirationTime));
         processConveyor.add(id, future, ProcessStep.FUTURE);
+        processConveyor.add(id, priority, ProcessStep.PRIORITY);
         processConveyor.add(id, command, ProcessStep.START);
         return future;
     }
@@ -19,9 +19,18 @@
 
 package com.epam.datalab.process.model;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
 
 public class ProcessInfo {
 
@@ -34,11 +43,19 @@ public class ProcessInfo {
     private final long startTimeStamp;
     private final long infoTimeStamp;
     private final int pid;
+    private final Path stdOutFile;
+    private final Path stdErrFile;
 
     private final Collection<ProcessInfo> rejectedCommands;
 
     public ProcessInfo(ProcessId id, ProcessStatus status, String[] command, String stdOut, String stdErr, int exitCode,
                        long startTimeStamp, long infoTimeStamp, Collection<ProcessInfo> rejected, int pid) {
+        this(id, status, command, stdOut, stdErr, exitCode, startTimeStamp, infoTimeStamp, rejected, pid, null, null);
+    }
+
+    public ProcessInfo(ProcessId id, ProcessStatus status, String[] command, String stdOut, String stdErr, int exitCode,
+                       long startTimeStamp, long infoTimeStamp, Collection<ProcessInfo> rejected, int pid,
+                       Path stdOutFile, Path stdErrFile) {
         this.id = id;
         this.status = status;
         this.command = command;
@@ -48,6 +65,8 @@ public class ProcessInfo {
         this.startTimeStamp = startTimeStamp;
         this.infoTimeStamp = infoTimeStamp;
         this.pid = pid;
+        this.stdOutFile = stdOutFile;
+        this.stdErrFile = stdErrFile;
 
         if (rejected != null && rejected.size() > 0) {
             Collection<ProcessInfo> r = new ArrayList<>();
@@ -79,6 +98,43 @@ public class ProcessInfo {
         return stdErr;
     }
 
+    /**
+     * Returns the reader of the whole standard output. If the output has not been written to file
+     * the output kept in memory is returned.
+     */
+    public Reader openStdOut() throws IOException {
+        return open(stdOutFile, stdOut);
+    }
+
+    /**
+     * Returns the reader of the whole error output. If the output has not been written to file
+     * the output kept in memory is returned.
+     */
+    public Reader openStdErr() throws IOException {
+        return open(stdErrFile, stdErr);
+    }
+
+    /**
+     * Returns the lines of the whole standard output.
+     */
+    public List<String> readStdOutLines() throws IOException {
+        try (BufferedReader reader = new BufferedReader(openStdOut())) {
+            return reader.lines().collect(Collectors.toList());
+        }
+    }
+
+    public Path getStdOutFile() {
+        return stdOutFile;
+    }
+
+    public Path getStdErrFile() {
+        return stdErrFile;
+    }
+
+    private static Reader open(Path file, String text) throws IOException {
+        return (file != null ? Files.newBufferedReader(file, StandardCharsets.UTF_8) : new StringReader(text));
+    }
+
     public int getExitCode() {
         return exitCode;
     }
@@ -32,6 +32,7 @@ public enum ProcessStep implements SmartLabel<ProcessInfoBuilder> {
     STD_ERR(ProcessInfoBuilder::stdErr),
     FAILED(ProcessInfoBuilder::failed),
     FUTURE(ProcessInfoBuilder::future),
+    PRIORITY(ProcessInfoBuilder::priority),
     ;
     private BiConsumer<ProcessInfoBuilder, Object> consumer;
 
@@ -38,6 +38,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 
@@ -123,7 +124,7 @@ public class DockerWarmuperTest {
         ICommandExecutor result = mock(ICommandExecutor.class);
         try {
             final ProcessInfo pi = mock(ProcessInfo.class);
-            when(pi.getStdOut()).thenReturn("executeResult");
+            when(pi.readStdOutLines()).thenReturn(Collections.singletonList("executeResult"));
             when(result.executeSync(anyString(), anyString(), anyString())).thenReturn(pi);
         } catch (Exception e) {
             e.printStackTrace();
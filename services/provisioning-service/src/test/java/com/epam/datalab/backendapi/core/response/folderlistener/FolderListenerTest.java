@@ -187,4 +187,46 @@ public class FolderListenerTest {
         }
     }
 
+    @Test
+    public void listenWithWatchService() throws InterruptedException, ExecutionException, IOException {
+        Integer uuid = 5;
+        boolean watchServiceEnabled = FolderListener.isWatchServiceEnabled();
+        FolderListener.setWatchServiceEnabled(true);
+        try {
+            handleResult = true;
+            FileHandlerCallback fHandler = new FileHandler(uuid.toString());
+            WatchItem item = FolderListener.listen(getDirectory(), fHandler, timeoutMillis, fileLengthCheckDelay,
+                    null);
+            long expiredTime = System.currentTimeMillis() + maxWaitTimeoutMillis;
+            while (!FolderListener.getListeners().get(0).isListen()) {
+                if (expiredTime < System.currentTimeMillis()) {
+                    throw new InterruptedException("Timeout has been expired");
+                }
+                Thread.sleep(100);
+            }
+            createFile(uuid.toString());
+
+            expiredTime = System.currentTimeMillis() + maxWaitTimeoutMillis;
+            while (item.getFuture() == null) {
+                if (expiredTime < System.currentTimeMillis()) {
+                    throw new InterruptedException("Timeout has been expired");
+                }
+                Thread.sleep(100);
+            }
+            assertEquals(true, item.getFutureResultSync());
+            assertEquals(true, item.getFutureResult());
+
+            FolderListener.terminateAll();
+            expiredTime = System.currentTimeMillis() + maxWaitTimeoutMillis;
+            while (FolderListener.getListeners().size() > 0) {
+                if (expiredTime < System.currentTimeMillis()) {
+                    throw new InterruptedException("Timeout has been expired");
+                }
+                Thread.sleep(100);
+            }
+        } finally {
+            FolderListener.setWatchServiceEnabled(watchServiceEnabled);
+            removeFile(uuid.toString());
+        }
+    }
 }
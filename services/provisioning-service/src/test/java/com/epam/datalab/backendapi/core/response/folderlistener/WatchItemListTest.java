@@ -23,10 +23,12 @@ import com.epam.datalab.backendapi.core.FileHandlerCallback;
 import com.epam.datalab.backendapi.core.response.folderlistener.WatchItem.ItemStatus;
 import org.junit.Test;
 
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 public class WatchItemListTest {
 
@@ -89,11 +91,10 @@ public class WatchItemListTest {
         items.append(fHandler, timeoutMillis, fileLengthCheckDelay);
         assertEquals(1, items.size());
 
-        WatchItem item = items.get(0);
+        WatchItem item = items.get(UUID);
         assertNotNull(item);
-        assertEquals(0, items.getIndex(UUID));
         assertEquals(item, items.getItem(getFileName()));
-        items.remove(0);
+        items.remove(item);
         assertEquals(0, items.size());
     }
 
@@ -103,7 +104,7 @@ public class WatchItemListTest {
         WatchItemList items = new WatchItemList(getDirectory(), null);
         items.append(fHandler, timeoutMillis, fileLengthCheckDelay);
 
-        WatchItem item = items.get(0);
+        WatchItem item = items.get(UUID);
 
         assertEquals(false, items.processItem(item));
 
@@ -119,15 +120,49 @@ public class WatchItemListTest {
         WatchItemList items = new WatchItemList(getDirectory(), null);
         items.append(fHandler, timeoutMillis, fileLengthCheckDelay);
 
-        WatchItem item = items.get(0);
+        WatchItem item = items.get(UUID);
 
         assertEquals(0, items.processItemAll());
 
-        item.setFileName(getFileName());
+        items.append(fHandler, timeoutMillis, fileLengthCheckDelay, getFileName());
+        item = items.get(UUID);
         assertEquals(1, items.processItemAll());
+        assertEquals(0, items.processItemAll());
 
         assertEquals(ItemStatus.INPROGRESS, item.getStatus());
         item.getFutureResultSync();
     }
 
+    @Test
+    public void pollCompletedItems() throws InterruptedException, ExecutionException {
+        WatchItemList items = new WatchItemList(getDirectory(), null);
+        WatchItem item = items.append(fHandler, timeoutMillis, fileLengthCheckDelay);
+
+        assertTrue(items.pollCompletedItems().isEmpty());
+
+        Thread.sleep(timeoutMillis + 100);
+        List<WatchItem> completed = items.pollCompletedItems();
+        assertEquals(1, completed.size());
+        assertEquals(ItemStatus.TIMEOUT_EXPIRED, completed.get(0).getStatus());
+        assertEquals(false, items.processFile(item, getFileName()));
+
+        items.remove(item);
+        assertEquals(0, items.size());
+        assertTrue(items.pollCompletedItems().isEmpty());
+    }
+
+    @Test
+    public void skipStaleItems() throws InterruptedException {
+        WatchItemList items = new WatchItemList(getDirectory(), null);
+        WatchItem removed = items.append(new FileHandler("1"), timeoutMillis, fileLengthCheckDelay);
+        items.append(fHandler, timeoutMillis, fileLengthCheckDelay);
+        WatchItem replaced = items.append(fHandler, timeoutMillis, fileLengthCheckDelay);
+        items.remove(removed);
+
+        Thread.sleep(timeoutMillis + 100);
+        List<WatchItem> completed = items.pollCompletedItems();
+        assertEquals(1, completed.size());
+        assertEquals(replaced, completed.get(0));
+    }
+
 }
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.epam.datalab.backendapi.core.response.handlers.dao;
+
+import com.epam.datalab.backendapi.ProvisioningServiceApplicationConfiguration;
+import com.epam.datalab.backendapi.core.commands.DockerAction;
+import com.epam.datalab.backendapi.core.response.handlers.LibListCallbackHandler;
+import com.epam.datalab.backendapi.core.response.handlers.PersistentFileHandler;
+import com.epam.datalab.rest.client.RESTService;
+import com.fasterxml.jackson.databind.InjectableValues;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JournalCallbackHandlerDaoTest {
+
+    @Spy
+    private ObjectMapper mapper = new ObjectMapper();
+    @Mock
+    private ProvisioningServiceApplicationConfiguration configuration;
+    @InjectMocks
+    private JournalCallbackHandlerDao journalCallbackHandlerDao;
+    @InjectMocks
+    private JournalCallbackHandlerDao restoredCallbackHandlerDao;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setUp() throws IOException {
+        folder.newFolder("opt", "handlers");
+        mapper.setInjectableValues(new InjectableValues.Std().addValue(RESTService.class, null));
+        when(configuration.getHandlerDirectory()).thenReturn(getHandlersFolder());
+    }
+
+    @Test
+    public void upsertAndRemove() throws IOException {
+        journalCallbackHandlerDao.upsert(getHandler("uuid1"));
+        journalCallbackHandlerDao.upsert(getHandler("uuid2"));
+        journalCallbackHandlerDao.remove("LibListCallbackHandler_uuid1");
+
+        final List<PersistentFileHandler> handlers = journalCallbackHandlerDao.findAll();
+        assertEquals(1, handlers.size());
+        assertEquals("uuid2", handlers.get(0).getHandler().getUUID());
+
+        journalCallbackHandlerDao.commit();
+        assertEquals(3, Files.readAllLines(getJournalPath()).size());
+    }
+
+    @Test
+    public void restore() {
+        journalCallbackHandlerDao.upsert(getHandler("uuid1"));
+        journalCallbackHandlerDao.upsert(getHandler("uuid2"));
+        journalCallbackHandlerDao.upsert(getHandler("uuid2"));
+        journalCallbackHandlerDao.remove("LibListCallbackHandler_uuid1");
+        journalCallbackHandlerDao.commit();
+
+        final List<PersistentFileHandler> handlers = restoredCallbackHandlerDao.findAll();
+
+        assertEquals(1, handlers.size());
+        assertEquals("uuid2", handlers.get(0).getHandler().getUUID());
+        assertEquals("/opt/test", handlers.get(0).getDirectory());
+    }
+
+    @Test
+    public void importHandlerFiles() throws IOException {
+        final File handlerFile = new File(getHandlersFolder(), "LibListCallbackHandler_uuid1.json");
+        Files.write(handlerFile.toPath(), mapper.writeValueAsBytes(getHandler("uuid1")));
+
+        final List<PersistentFileHandler> handlers = journalCallbackHandlerDao.findAll();
+
+        assertEquals(1, handlers.size());
+        assertEquals("uuid1", handlers.get(0).getHandler().getUUID());
+        assertFalse(handlerFile.exists());
+        assertTrue(getJournalPath().toFile().exists());
+    }
+
+    private PersistentFileHandler getHandler(String uuid) {
+        return new PersistentFileHandler(new LibListCallbackHandler(null, DockerAction.LIB_LIST, uuid, "test",
+                "das"), 1L, "/opt/test");
+    }
+
+    private Path getJournalPath() {
+        return Paths.get(getHandlersFolder(), JournalCallbackHandlerDao.JOURNAL_FILE_NAME);
+    }
+
+    private String getHandlersFolder() {
+        return folder.getRoot().getAbsolutePath() +
+                File.separator + "opt" + File.separator + "handlers";
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.epam.datalab.process;
+
+import com.epam.datalab.process.model.ProcessId;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ProcessLauncherTest {
+
+    private static final ProcessId ID = new ProcessId("user", "command");
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private final StringBuffer stdOut = new StringBuffer();
+    private final StringBuffer stdErr = new StringBuffer();
+    private final AtomicInteger stdOutClosed = new AtomicInteger();
+    private final AtomicInteger maxStdOutChunk = new AtomicInteger();
+    private final AtomicInteger stdErrClosed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger released = new AtomicInteger();
+    private final CountDownLatch exited = new CountDownLatch(1);
+    private volatile Integer exitCode;
+    private volatile Process started;
+    private ProcessLauncher launcher;
+
+    @Before
+    public void setUp() {
+        launcher = new ProcessLauncher(new ProcessLauncher.Listener() {
+            @Override
+            public void stdOut(ProcessId id, String lines) {
+                if (lines != null) {
+                    maxStdOutChunk.accumulateAndGet(lines.length(), Math::max);
+                }
+                collect(lines, stdOut, stdOutClosed);
+            }
+
+            @Override
+            public void stdErr(ProcessId id, String lines) {
+                collect(lines, stdErr, stdErrClosed);
+            }
+
+            @Override
+            public void failed(ProcessId id, String message, Exception e) {
+                failed.incrementAndGet();
+            }
+
+            @Override
+            public void finished(ProcessId id, int code) {
+                exitCode = code;
+            }
+        });
+    }
+
+    @Test
+    public void launch() throws InterruptedException {
+        launch(false, "sh", "-c", "echo line1; echo line2; echo error >&2; exit 3");
+
+        assertNotNull(started);
+        assertEquals("line1\nline2\n", stdOut.toString());
+        assertEquals("error\n", stdErr.toString());
+        assertEquals(1, stdOutClosed.get());
+        assertEquals(1, stdErrClosed.get());
+        assertEquals(Integer.valueOf(3), exitCode);
+        assertEquals(0, failed.get());
+        assertEquals(1, released.get());
+    }
+
+    @Test
+    public void launchLongOutput() throws InterruptedException {
+        launch(false, "sh", "-c", "i=0; while [ $i -lt 5000 ]; do echo line$i; i=$((i+1)); done; printf last");
+
+        String[] lines = stdOut.toString().split("\n");
+        assertEquals(5001, lines.length);
+        assertEquals("line0", lines[0]);
+        assertEquals("line4999", lines[4999]);
+        assertEquals("last", lines[5000]);
+        assertEquals(Integer.valueOf(0), exitCode);
+        assertEquals(1, released.get());
+    }
+
+    @Test
+    public void launchReadsOneBufferPerPump() throws InterruptedException {
+        launch(false, "sh", "-c", "yes | head -n 100000");
+
+        assertEquals(100000, stdOut.toString().split("\n").length);
+        assertTrue(String.valueOf(maxStdOutChunk.get()), maxStdOutChunk.get() < 8192);
+        assertEquals(Integer.valueOf(0), exitCode);
+    }
+
+    @Test
+    public void launchFailed() throws InterruptedException {
+        launch(false, "/nonexistent/command");
+
+        assertNull(started);
+        assertNull(exitCode);
+        assertEquals(1, failed.get());
+        assertEquals(1, released.get());
+    }
+
+    @Test
+    public void launchCancelled() throws InterruptedException {
+        launch(true, "sh", "-c", "echo line");
+
+        assertNull(started);
+        assertNull(exitCode);
+        assertEquals("", stdOut.toString());
+        assertEquals(0, failed.get());
+        assertEquals(1, released.get());
+    }
+
+    private void launch(boolean cancelled, String... command) throws InterruptedException {
+        launcher.launch(ID, command, () -> cancelled, process -> started = process, () -> {
+            released.incrementAndGet();
+            exited.countDown();
+        });
+        assertTrue(exited.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        Thread.sleep(200);
+    }
+
+    private static void collect(String lines, StringBuffer output, AtomicInteger closed) {
+        if (lines == null) {
+            closed.incrementAndGet();
+        } else {
+            output.append(lines).append('\n');
+        }
+    }
+}
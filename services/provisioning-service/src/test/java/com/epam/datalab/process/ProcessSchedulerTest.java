@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.epam.datalab.process;
+
+import com.epam.datalab.process.model.ProcessId;
+import com.epam.datalab.process.model.ProcessPriority;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ProcessSchedulerTest {
+
+    private final List<String> launched = new ArrayList<>();
+    private ProcessScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = new ProcessScheduler();
+        scheduler.setMaxProcessesPerBox(1);
+        scheduler.setMaxProcessesPerUser(1);
+    }
+
+    @Test
+    public void fairShareBetweenUsers() {
+        submit("blocker", "0", ProcessPriority.INTERACTIVE);
+        submit("user1", "1", ProcessPriority.INTERACTIVE);
+        submit("user1", "2", ProcessPriority.INTERACTIVE);
+        submit("user1", "3", ProcessPriority.INTERACTIVE);
+        submit("user2", "4", ProcessPriority.INTERACTIVE);
+
+        releaseAll("blocker", "user1", "user2", "user1");
+
+        assertEquals(Arrays.asList("0", "1", "4", "2", "3"), launched);
+    }
+
+    @Test
+    public void priorityClasses() {
+        submit("blocker", "0", ProcessPriority.INTERACTIVE);
+        submit("user1", "1", ProcessPriority.STATUS_CHECK);
+        submit("user2", "2", ProcessPriority.SCHEDULER);
+        submit("user3", "3", ProcessPriority.INTERACTIVE);
+
+        releaseAll("blocker", "user3", "user2");
+
+        assertEquals(Arrays.asList("0", "3", "2", "1"), launched);
+        assertEquals(0, scheduler.getQueueLength(ProcessPriority.STATUS_CHECK));
+    }
+
+    @Test
+    public void scheduledStopsDoNotDelayInteractive() {
+        submit("blocker", "0", ProcessPriority.INTERACTIVE);
+        for (int i = 1; i <= 5; i++) {
+            submit("user" + i, "stop" + i, ProcessPriority.SCHEDULER);
+        }
+        submit("user6", "start", ProcessPriority.INTERACTIVE);
+
+        scheduler.release("blocker");
+
+        assertEquals(Arrays.asList("0", "start"), launched);
+        assertEquals(5, scheduler.getQueueLength(ProcessPriority.SCHEDULER));
+    }
+
+    @Test
+    public void rejectWhenQueueIsFull() {
+        scheduler.setMaxQueueSize(1);
+
+        assertTrue(submit("user1", "1", ProcessPriority.SCHEDULER));
+        assertTrue(submit("user2", "2", ProcessPriority.SCHEDULER));
+        assertFalse(submit("user3", "3", ProcessPriority.SCHEDULER));
+        assertTrue(submit("user3", "3", ProcessPriority.INTERACTIVE));
+
+        assertEquals(1, scheduler.getQueueLength(ProcessPriority.SCHEDULER));
+        assertEquals(1, scheduler.getQueueLength(ProcessPriority.INTERACTIVE));
+    }
+
+    @Test
+    public void skipCancelled() {
+        submit("blocker", "0", ProcessPriority.INTERACTIVE);
+        scheduler.submit(new ProcessId("user1", "1"), ProcessPriority.INTERACTIVE, () -> true,
+                () -> launched.add("1"));
+        submit("user2", "2", ProcessPriority.INTERACTIVE);
+
+        scheduler.release("blocker");
+
+        assertEquals(Arrays.asList("0", "2"), launched);
+        assertEquals(1, scheduler.getRunning());
+    }
+
+    @Test
+    public void purgeCancelledWhenQueueIsFull() {
+        scheduler.setMaxQueueSize(2);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        submit("blocker", "0", ProcessPriority.INTERACTIVE);
+        submit("user1", "1", ProcessPriority.INTERACTIVE);
+        scheduler.submit(new ProcessId("user1", "2"), ProcessPriority.INTERACTIVE, cancelled::get,
+                () -> launched.add("2"));
+        assertFalse(submit("user2", "3", ProcessPriority.INTERACTIVE));
+
+        cancelled.set(true);
+
+        assertTrue(submit("user2", "3", ProcessPriority.INTERACTIVE));
+        assertEquals(2, scheduler.getQueueLength(ProcessPriority.INTERACTIVE));
+        releaseAll("blocker", "user1");
+        assertEquals(Arrays.asList("0", "1", "3"), launched);
+    }
+
+    private boolean submit(String user, String command, ProcessPriority priority) {
+        return scheduler.submit(new ProcessId(user, command), priority, () -> false, () -> launched.add(command));
+    }
+
+    private void releaseAll(String... users) {
+        for (String user : users) {
+            scheduler.release(user);
+        }
+    }
+}
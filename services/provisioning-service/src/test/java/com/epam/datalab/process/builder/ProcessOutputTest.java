@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.epam.datalab.process.builder;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ProcessOutputTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void unbounded() {
+        ProcessOutput output = new ProcessOutput(0, null);
+        output.append("line1\n");
+        output.append("line2\n");
+
+        assertEquals("line1\nline2\n", output.toString());
+        assertFalse(output.isTruncated());
+    }
+
+    @Test
+    public void ringBuffer() {
+        ProcessOutput output = new ProcessOutput(10, null);
+        output.append("line1\n");
+        output.append("line2\n");
+        output.append("line3\n");
+
+        assertTrue(output.isTruncated());
+        assertEquals("line3\n", output.toString());
+    }
+
+    @Test
+    public void spillFile() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("process.stdout.log");
+        ProcessOutput output = new ProcessOutput(8, () -> file);
+        output.append("line1\n");
+        assertNull(output.getSpillFile());
+        output.append("line2\n");
+        output.append("line3\n");
+        output.close();
+
+        assertEquals(file, output.getSpillFile());
+        assertEquals("line1\nline2\nline3\n", new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        assertEquals("line3\n", output.toString());
+    }
+
+    @Test
+    public void noSpillFileForShortOutput() {
+        Path file = folder.getRoot().toPath().resolve("process.stdout.log");
+        ProcessOutput output = new ProcessOutput(16, () -> file);
+        output.append("line1\n");
+        output.append("line2\n");
+        output.close();
+
+        assertNull(output.getSpillFile());
+        assertFalse(Files.exists(file));
+        assertEquals("line1\nline2\n", output.toString());
+    }
+
+    @Test
+    public void deleteExpiredFiles() throws IOException {
+        Path expired = folder.newFile("expired.stdout.log").toPath();
+        Path recent = folder.newFile("recent.stdout.log").toPath();
+        Path other = folder.newFile("other.txt").toPath();
+        long now = System.currentTimeMillis();
+        Files.setLastModifiedTime(expired, FileTime.fromMillis(now - 10_000));
+        Files.setLastModifiedTime(other, FileTime.fromMillis(now - 10_000));
+
+        ProcessOutput.deleteExpiredFiles(folder.getRoot().toPath(), now - 5_000);
+
+        assertFalse(Files.exists(expired));
+        assertTrue(Files.exists(recent));
+        assertTrue(Files.exists(other));
+    }
+}
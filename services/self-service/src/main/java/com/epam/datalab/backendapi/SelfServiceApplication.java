@@ -20,6 +20,7 @@
 package com.epam.datalab.backendapi;
 
 import com.epam.datalab.backendapi.conf.SelfServiceApplicationConfiguration;
+import com.epam.datalab.backendapi.dao.AuditWriter;
 import com.epam.datalab.backendapi.dao.IndexCreator;
 import com.epam.datalab.backendapi.domain.ExploratoryLibCache;
 import com.epam.datalab.backendapi.dropwizard.bundles.DatalabKeycloakBundle;
@@ -126,6 +127,7 @@ public class SelfServiceApplication extends Application<SelfServiceApplicationCo
         environment.lifecycle().addServerLifecycleListener(restoreHandlerStartupListener);
         environment.lifecycle().addServerLifecycleListener(this::disableGzipHandlerForGuacamoleServlet);
         environment.lifecycle().manage(injector.getInstance(IndexCreator.class));
+        environment.lifecycle().manage(injector.getInstance(AuditWriter.class));
         environment.lifecycle().manage(injector.getInstance(ExploratoryLibCache.class));
         environment.lifecycle().manage(injector.getInstance(ManagedScheduler.class));
         environment.healthChecks().register(ServiceConsts.MONGO_NAME, injector.getInstance(MongoHealthCheck.class));
@@ -90,9 +90,18 @@ public class SelfServiceApplicationConfiguration extends ServiceConfiguration {
     @JsonProperty
     private int billingPort;
 
+    @JsonProperty
+    private Duration billingSyncTimeout = Duration.minutes(5);
+
     @JsonProperty
     private boolean auditEnabled = false;
 
+    @JsonProperty
+    private String auditSpillFile = "audit.spill";
+
+    @JsonProperty
+    private String auditDeadLetterFile = "audit.rejected";
+
     @NotEmpty
     @JsonProperty
     private String billingConfFile;
@@ -231,10 +240,31 @@ public class SelfServiceApplicationConfiguration extends ServiceConfiguration {
         return billingPort;
     }
 
+    /**
+     * Returns the timeout for retrieve the billing data from endpoint.
+     */
+    public Duration getBillingSyncTimeout() {
+        return billingSyncTimeout;
+    }
+
     public boolean isAuditEnabled() {
         return auditEnabled;
     }
 
+    /**
+     * Returns the file to keep the audit events which can not be written to database.
+     */
+    public String getAuditSpillFile() {
+        return auditSpillFile;
+    }
+
+    /**
+     * Returns the file to keep the audit events which have been rejected by database.
+     */
+    public String getAuditDeadLetterFile() {
+        return auditDeadLetterFile;
+    }
+
     /**
      * Return the default access to DataLab features using roles policy.
      */
@@ -25,11 +25,25 @@ import com.epam.datalab.backendapi.domain.AuditReportLine;
 import com.epam.datalab.backendapi.resources.dto.AuditFilter;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface AuditDAO {
     void save(AuditDTO audit);
 
-    List<AuditPaginationDTO> getAudit(List<String> users, List<String> projects, List<String> resourceNames, List<String> resourceTypes, String dateStart, String dateEnd, int pageNumber, int pageSize);
+    /**
+     * Returns the page of audit events. If the page key returned with the previous page is given the page is read
+     * right after it, otherwise the page is found by its number.
+     *
+     * @param pageKey key of the previous page or <b>null</b>
+     */
+    List<AuditPaginationDTO> getAudit(List<String> users, List<String> projects, List<String> resourceNames, List<String> resourceTypes, String dateStart, String dateEnd, int pageNumber, int pageSize, String pageKey);
 
     List<AuditReportLine> aggregateAuditReport(AuditFilter auditFilter);
+
+    /**
+     * Returns the audit report lines read from the cursor. The stream must be closed.
+     *
+     * @param auditFilter audit filter
+     */
+    Stream<AuditReportLine> streamAuditReport(AuditFilter auditFilter);
 }
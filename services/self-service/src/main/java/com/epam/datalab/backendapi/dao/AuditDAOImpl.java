@@ -24,7 +24,11 @@ import com.epam.datalab.backendapi.domain.AuditPaginationDTO;
 import com.epam.datalab.backendapi.domain.AuditReportLine;
 import com.epam.datalab.backendapi.resources.dto.AuditFilter;
 import com.epam.datalab.exceptions.DatalabException;
-import com.mongodb.client.model.Facet;
+import com.epam.datalab.exceptions.DatalabValidationException;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.Sorts;
 import org.apache.commons.collections4.CollectionUtils;
@@ -42,86 +46,182 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.stream.Stream;
 
 import static com.epam.datalab.backendapi.dao.ComputationalDAO.PROJECT;
-import static com.mongodb.client.model.Aggregates.count;
-import static com.mongodb.client.model.Aggregates.facet;
-import static com.mongodb.client.model.Aggregates.group;
 import static com.mongodb.client.model.Aggregates.limit;
 import static com.mongodb.client.model.Aggregates.match;
 import static com.mongodb.client.model.Aggregates.skip;
 import static com.mongodb.client.model.Aggregates.sort;
+import static com.mongodb.client.model.Filters.eq;
 import static com.mongodb.client.model.Filters.gte;
 import static com.mongodb.client.model.Filters.in;
+import static com.mongodb.client.model.Filters.lt;
 import static com.mongodb.client.model.Filters.lte;
 
+@Singleton
 public class AuditDAOImpl extends BaseDAO implements AuditDAO {
-    private static final String AUDIT_COLLECTION = "audit";
+    static final String AUDIT_COLLECTION = "audit";
     private static final String RESOURCE_NAME_FIELD = "resourceName";
     private static final String RESOURCE_TYPE_FIELD = "type";
-    private static final String TIMESTAMP_FIELD = "timestamp";
-    private static final String COUNT_FIELD = "count";
-    private static final String AUDIT_FACET = "auditFacet";
-    private static final String TOTAL_COUNT_FACET = "totalCountFacet";
-    private static final String RESOURCE_NAME_FACET = "resourceNameFacet";
-    private static final String USER_FACET = "userFacet";
-    private static final String PROJECT_FACET = "projectFacet";
-    private static final String RESOURCE_TYPE_FACET = "typeFacet";
+    static final String TIMESTAMP_FIELD = "timestamp";
+    private static final String PAGE_KEY_DELIMITER = ":";
+    private static final List<String> FILTER_FIELDS = Arrays.asList(USER, PROJECT, RESOURCE_NAME_FIELD, RESOURCE_TYPE_FIELD);
     private static final String DATALAB_ID = "datalabId";
     private static final String ACTION = "action";
 
+    private AuditWriter auditWriter;
+
+    /**
+     * Distinct values of the filtered fields, so the audit page does not group the whole collection.
+     */
+    private final Map<String, Set<String>> filterValues = FILTER_FIELDS.stream()
+            .collect(Collectors.toMap(Function.identity(), field -> ConcurrentHashMap.newKeySet()));
+    private volatile boolean filterValuesLoaded;
+
+    @Inject
+    void setAuditWriter(AuditWriter auditWriter) {
+        this.auditWriter = auditWriter;
+        auditWriter.setWriteListener(audits -> audits.forEach(this::addFilterValues));
+    }
+
+    /**
+     * Queues the audit event for writing in the background, so the caller does not wait for the database. The
+     * filter values of the event are added when it has been written.
+     *
+     * @param audit audit event.
+     */
     @Override
     public void save(AuditDTO audit) {
-        insertOne(AUDIT_COLLECTION, audit);
+        Document document = convertToBson(audit)
+                .append(ID, UUID.randomUUID().toString())
+                .append(TIMESTAMP_FIELD, new Date());
+        auditWriter.write(document);
     }
 
     @Override
     public List<AuditPaginationDTO> getAudit(List<String> users, List<String> projects, List<String> resourceNames, List<String> resourceTypes, String dateStart, String dateEnd,
-                                             int pageNumber, int pageSize) {
-        List<Bson> facets = getFacets(users, projects, resourceNames, resourceTypes, dateStart, dateEnd, pageNumber, pageSize);
-        return StreamSupport.stream(aggregate(AUDIT_COLLECTION, facets).spliterator(), false)
-                .map(this::toAuditPaginationDTO)
-                .collect(Collectors.toList());
+                                             int pageNumber, int pageSize, String pageKey) {
+        List<Bson> matchCriteria = matchCriteria(users, projects, resourceNames, resourceTypes, dateStart, dateEnd);
+        List<Document> auditDocuments = findAuditPage(matchCriteria, pageNumber, pageSize, pageKey);
+        return Collections.singletonList(AuditPaginationDTO.builder()
+                .totalPageCount(countAudit(matchCriteria))
+                .audit(toAuditDTOs(auditDocuments))
+                .nextPageKey(pageSize > 0 && auditDocuments.size() == pageSize ? toPageKey(auditDocuments.get(pageSize - 1)) : null)
+                .userFilter(getFilter(USER))
+                .projectFilter(getFilter(PROJECT))
+                .resourceNameFilter(getFilter(RESOURCE_NAME_FIELD))
+                .resourceTypeFilter(getFilter(RESOURCE_TYPE_FIELD))
+                .build());
     }
 
     public List<AuditReportLine> aggregateAuditReport(AuditFilter filter) {
-        List<Bson> facets = getFacets(filter.getUsers(), filter.getProjects(), filter.getResourceNames(), filter.getResourceTypes(), filter.getDateStart(), filter.getDateEnd(), filter.getPageNumber(), filter.getPageSize());
-        List<Document> auditDocuments  = new ArrayList<>();
-        StreamSupport.stream(aggregate(AUDIT_COLLECTION, facets).spliterator(), false)
-                .map(document -> (ArrayList<Document>)document.get(AUDIT_FACET))
-                .forEach(auditDocuments::addAll);
-        return auditDocuments.stream()
+        List<Bson> matchCriteria = matchCriteria(filter.getUsers(), filter.getProjects(), filter.getResourceNames(),
+                filter.getResourceTypes(), filter.getDateStart(), filter.getDateEnd());
+        return findAuditPage(matchCriteria, filter.getPageNumber(), filter.getPageSize(), null)
+                .stream()
                 .map(this::toAuditReport)
                 .collect(Collectors.toList());
     }
 
-    private List<Bson> getFacets(List<String> users, List<String> projects, List<String> resourceNames, List<String> resourceTypes, String dateStart, String dateEnd,
-                                 int pageNumber, int pageSize){
-        List<Bson> valuesPipeline = new ArrayList<>();
-        List<Bson> countPipeline = new ArrayList<>();
-        List<Bson> matchCriteria = matchCriteria(users, projects, resourceNames, resourceTypes, dateStart, dateEnd);
+    @Override
+    public Stream<AuditReportLine> streamAuditReport(AuditFilter filter) {
+        List<Bson> pipeline = new ArrayList<>();
+        List<Bson> matchCriteria = matchCriteria(filter.getUsers(), filter.getProjects(), filter.getResourceNames(),
+                filter.getResourceTypes(), filter.getDateStart(), filter.getDateEnd());
         if (!matchCriteria.isEmpty()) {
-            Bson match = match(Filters.and(matchCriteria));
-            valuesPipeline.add(match);
-            countPipeline.add(match);
+            pipeline.add(match(Filters.and(matchCriteria)));
+        }
+        pipeline.add(sort(sortCriteria()));
+        if (filter.getPageSize() > 0) {
+            pipeline.addAll(Arrays.asList(skip(filter.getPageSize() * Math.max(0, filter.getPageNumber() - 1)),
+                    limit(filter.getPageSize())));
+        }
+        return cursorStream(aggregate(AUDIT_COLLECTION, pipeline).allowDiskUse(true))
+                .map(this::toAuditReport);
+    }
+
+    /**
+     * Returns the page of audit events ordered by timestamp and id. If the page key of the previous page is given
+     * the page starts right after it, otherwise the events of the previous pages are skipped.
+     */
+    private List<Document> findAuditPage(List<Bson> matchCriteria, int pageNumber, int pageSize, String pageKey) {
+        List<Bson> criteria = new ArrayList<>(matchCriteria);
+        if (StringUtils.isNotEmpty(pageKey)) {
+            criteria.add(afterPageKey(pageKey));
+        }
+        FindIterable<Document> page = find(AUDIT_COLLECTION, criteria.isEmpty() ? new Document() : Filters.and(criteria))
+                .sort(sortCriteria());
+        if (pageSize > 0) {
+            page = page.skip(StringUtils.isNotEmpty(pageKey) ? 0 : pageSize * Math.max(0, pageNumber - 1))
+                    .limit(pageSize);
+        }
+        return page.into(new ArrayList<>());
+    }
+
+    private int countAudit(List<Bson> matchCriteria) {
+        MongoCollection<Document> collection = mongoService.getCollection(AUDIT_COLLECTION);
+        long count = matchCriteria.isEmpty() ? collection.estimatedDocumentCount() :
+                collection.countDocuments(Filters.and(matchCriteria));
+        return (int) count;
+    }
+
+    private Bson afterPageKey(String pageKey) {
+        int delimiter = pageKey.indexOf(PAGE_KEY_DELIMITER);
+        try {
+            Date timestamp = new Date(Long.parseLong(pageKey.substring(0, delimiter)));
+            String id = pageKey.substring(delimiter + 1);
+            return Filters.or(lt(TIMESTAMP_FIELD, timestamp), Filters.and(eq(TIMESTAMP_FIELD, timestamp), lt(ID, id)));
+        } catch (RuntimeException e) {
+            throw new DatalabValidationException(String.format("Wrong audit page key %s", pageKey));
+        }
+    }
+
+    private String toPageKey(Document document) {
+        return document.getDate(TIMESTAMP_FIELD).getTime() + PAGE_KEY_DELIMITER + document.get(ID);
+    }
+
+    /**
+     * Returns the known values of the audit field. The values are read from the audit collection once and then
+     * kept up to date by {@link AuditWriter} for the written audit events.
+     */
+    private Set<String> getFilter(String field) {
+        if (!filterValuesLoaded) {
+            loadFilterValues();
         }
-        countPipeline.add(count());
-        valuesPipeline.add(sortCriteria());
-        valuesPipeline.addAll(Arrays.asList(skip(pageSize * (pageNumber - 1)), limit(pageSize)));
+        return new HashSet<>(filterValues.get(field));
+    }
 
-        List<Bson> userFilter = Collections.singletonList(group(getGroupingFields(USER)));
-        List<Bson> projectFilter = Collections.singletonList(group(getGroupingFields(PROJECT)));
-        List<Bson> resourceNameFilter = Collections.singletonList(group(getGroupingFields(RESOURCE_NAME_FIELD)));
-        List<Bson> resourceTypeFilter = Collections.singletonList(group(getGroupingFields(RESOURCE_TYPE_FIELD)));
+    private synchronized void loadFilterValues() {
+        if (filterValuesLoaded) {
+            return;
+        }
+        for (String field : FILTER_FIELDS) {
+            mongoService.getCollection(AUDIT_COLLECTION)
+                    .distinct(field, String.class)
+                    .forEach((Consumer<String>) value -> addFilterValue(field, value));
+        }
+        filterValuesLoaded = true;
+    }
 
-        return Collections.singletonList(facet(new Facet(AUDIT_FACET, valuesPipeline), new Facet(TOTAL_COUNT_FACET, countPipeline),
-                new Facet(RESOURCE_NAME_FACET, resourceNameFilter), new Facet(USER_FACET, userFilter), new Facet(PROJECT_FACET, projectFilter),
-                new Facet(RESOURCE_TYPE_FACET, resourceTypeFilter)));
+    private void addFilterValues(Document audit) {
+        FILTER_FIELDS.forEach(field -> addFilterValue(field, audit.getString(field)));
+    }
+
+    private void addFilterValue(String field, String value) {
+        if (value != null) {
+            filterValues.get(field).add(value);
+        }
     }
 
     private List<Bson> matchCriteria(List<String> users, List<String> projects, List<String> resourceNames, List<String> resourceTypes, String dateStart, String dateEnd) {
@@ -144,25 +244,12 @@ public class AuditDAOImpl extends BaseDAO implements AuditDAO {
     }
 
     private Bson sortCriteria() {
-        return sort(Sorts.descending(TIMESTAMP_FIELD));
-    }
-
-    private AuditPaginationDTO toAuditPaginationDTO(Document document) {
-        List<Document> countDocuments = (List<Document>) document.get(TOTAL_COUNT_FACET);
-        final int count = countDocuments.isEmpty() ? 0 : countDocuments.get(0).getInteger(COUNT_FIELD);
-        Set<String> userFilter = getFilter(document, USER_FACET, USER);
-        Set<String> projectFilter = getFilter(document, PROJECT_FACET, PROJECT);
-        Set<String> resourceNameFilter = getFilter(document, RESOURCE_NAME_FACET, RESOURCE_NAME_FIELD);
-        Set<String> resourceTypeFilter = getFilter(document, RESOURCE_TYPE_FACET, RESOURCE_TYPE_FIELD);
-        List<AuditDTO> auditDTOs = (List<AuditDTO>) document.get(AUDIT_FACET);
-        return AuditPaginationDTO.builder()
-                .totalPageCount(count)
-                .audit(auditDTOs)
-                .userFilter(userFilter)
-                .resourceNameFilter(resourceNameFilter)
-                .resourceTypeFilter(resourceTypeFilter)
-                .projectFilter(projectFilter)
-                .build();
+        return Sorts.descending(TIMESTAMP_FIELD, ID);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<AuditDTO> toAuditDTOs(List<Document> documents) {
+        return (List<AuditDTO>) (List<?>) documents;
     }
 
     private AuditReportLine toAuditReport(Document doc) {
@@ -177,14 +264,6 @@ public class AuditDAOImpl extends BaseDAO implements AuditDAO {
                 .build();
     }
 
-    private Set<String> getFilter(Document document, String facet, String field) {
-        return ((List<Document>) document.get(facet))
-                .stream()
-                .map(d -> (Document) d.get(ID))
-                .map(d -> d.getString(field))
-                .collect(Collectors.toSet());
-    }
-
     private Instant getInstant(String dateStart) {
         Instant from;
         try {
@@ -0,0 +1,298 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.epam.datalab.backendapi.dao;
+
+import com.epam.datalab.backendapi.conf.SelfServiceApplicationConfiguration;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.InsertManyOptions;
+import io.dropwizard.lifecycle.Managed;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.json.JsonParseException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.epam.datalab.backendapi.dao.AuditDAOImpl.AUDIT_COLLECTION;
+
+/**
+ * Writes the audit events to database in the background. The events are kept in the bounded queue and written with
+ * one insert per batch when the batch is full or by timer. The callers wait for the free space when the queue is
+ * full. The events which can not be written to database, because the queue stays full, the database is unavailable
+ * or the writer is stopped, are appended to the spill file. The spill file is written to database on start and when
+ * the database is available again. The events which are rejected by database are appended to the dead letter file
+ * and are not written again.
+ */
+@Singleton
+@Slf4j
+public class AuditWriter extends BaseDAO implements Managed {
+    private static final int QUEUE_CAPACITY = 10000;
+    private static final int BATCH_SIZE = 500;
+    private static final long FLUSH_INTERVAL_MILLIS = 1000;
+    private static final long OFFER_TIMEOUT_MILLIS = 1000;
+    private static final long RETRY_INTERVAL_MILLIS = 30000;
+    private static final int DUPLICATE_KEY_ERROR_CODE = 11000;
+
+    @Inject
+    private SelfServiceApplicationConfiguration configuration;
+
+    private final BlockingQueue<Document> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final Object spillLock = new Object();
+    private volatile boolean running;
+    private volatile Consumer<List<Document>> writeListener = audits -> {
+    };
+    private ScheduledExecutorService writer;
+    /**
+     * The database is not used until this time after the failed write.
+     */
+    private long retryTime;
+
+    @Override
+    public void start() {
+        writer = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat(getClass().getSimpleName() + "-%d")
+                .setDaemon(true)
+                .build());
+        running = true;
+        writer.scheduleWithFixedDelay(this::flush, 0, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() throws Exception {
+        running = false;
+        if (writer != null) {
+            writer.shutdown();
+            writer.awaitTermination(FLUSH_INTERVAL_MILLIS * 10, TimeUnit.MILLISECONDS);
+        }
+        flush();
+    }
+
+    /**
+     * Sets the listener which is called with the audit events after they have been written to database. The
+     * listener is called by the writer thread.
+     *
+     * @param writeListener listener of written audit events.
+     */
+    void setWriteListener(Consumer<List<Document>> writeListener) {
+        this.writeListener = writeListener;
+    }
+
+    /**
+     * Queues the audit event for writing. This method blocks while the queue is full, but not longer than
+     * {@value #OFFER_TIMEOUT_MILLIS} milliseconds, after that the event is appended to the spill file.
+     *
+     * @param audit audit event document with id and timestamp.
+     */
+    public void write(Document audit) {
+        try {
+            if (running && queue.offer(audit, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (!running) {
+                    spillQueue();
+                } else if (queue.size() >= BATCH_SIZE && flushRequested.compareAndSet(false, true)) {
+                    writer.execute(this::flush);
+                }
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RejectedExecutionException e) {
+            spillQueue();
+            return;
+        }
+        log.warn("Audit event can not be queued and is written to {}", getSpillFile());
+        spill(Collections.singletonList(audit));
+    }
+
+    /**
+     * Writes the queued audit events to database in batches and the spilled events if the database is available.
+     */
+    synchronized void flush() {
+        flushRequested.set(false);
+        try {
+            if (System.currentTimeMillis() >= retryTime) {
+                replaySpill();
+            }
+            List<Document> batch = new ArrayList<>(BATCH_SIZE);
+            while (queue.drainTo(batch, BATCH_SIZE) > 0) {
+                if (System.currentTimeMillis() < retryTime || !insert(batch)) {
+                    spill(batch);
+                }
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        } catch (Exception e) {
+            log.error("Can not write audit events due to: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Inserts the batch of audit events. The events which have been written already by the previous attempt are
+     * skipped by id, the events which are rejected by database are appended to the dead letter file.
+     *
+     * @return <b>true</b> if all the events have been written or rejected.
+     */
+    private boolean insert(List<Document> batch) {
+        try {
+            mongoService.getCollection(AUDIT_COLLECTION).insertMany(batch, new InsertManyOptions().ordered(false));
+            writeListener.accept(batch);
+            return true;
+        } catch (MongoBulkWriteException e) {
+            if (e.getWriteConcernError() == null) {
+                final Set<Integer> rejected = reject(batch, e.getWriteErrors());
+                writeListener.accept(IntStream.range(0, batch.size())
+                        .filter(index -> !rejected.contains(index))
+                        .mapToObj(batch::get)
+                        .collect(Collectors.toList()));
+                return true;
+            }
+            log.warn("Can not write {} audit events to database: {}", batch.size(), e.getMessage());
+        } catch (MongoException e) {
+            log.warn("Can not write {} audit events to database: {}", batch.size(), e.getMessage());
+        }
+        retryTime = System.currentTimeMillis() + RETRY_INTERVAL_MILLIS;
+        return false;
+    }
+
+    /**
+     * Appends the events of batch which have been rejected by database for other reason than the duplicate id to the
+     * dead letter file and returns their indexes.
+     */
+    private Set<Integer> reject(List<Document> batch, List<BulkWriteError> errors) {
+        final List<BulkWriteError> rejectErrors = errors.stream()
+                .filter(error -> error.getCode() != DUPLICATE_KEY_ERROR_CODE)
+                .collect(Collectors.toList());
+        if (rejectErrors.isEmpty()) {
+            return Collections.emptySet();
+        }
+        final Path deadLetterFile = getDeadLetterFile();
+        log.error("{} audit events are rejected by database and written to {}: {}", rejectErrors.size(),
+                deadLetterFile, rejectErrors.get(0).getMessage());
+        append(deadLetterFile, rejectErrors.stream()
+                .map(error -> batch.get(error.getIndex()))
+                .collect(Collectors.toList()));
+        return rejectErrors.stream()
+                .map(BulkWriteError::getIndex)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Appends the queued audit events to the spill file. The events can be queued after the final flush on stop, if
+     * the writer is stopped while they are offered.
+     */
+    private void spillQueue() {
+        final List<Document> audits = new ArrayList<>();
+        queue.drainTo(audits);
+        if (!audits.isEmpty()) {
+            log.warn("{} audit events are queued after stop and written to {}", audits.size(), getSpillFile());
+            spill(audits);
+        }
+    }
+
+    private void spill(List<Document> audits) {
+        append(getSpillFile(), audits);
+    }
+
+    private void append(Path file, List<Document> audits) {
+        synchronized (spillLock) {
+            try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND)) {
+                for (Document audit : audits) {
+                    out.write(audit.toJson());
+                    out.write('\n');
+                }
+            } catch (IOException e) {
+                log.error("Can not write {} audit events to file {}: {}", audits.size(), file, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Writes the spilled audit events to database and removes the spill file if all of them have been written.
+     */
+    private void replaySpill() throws IOException {
+        final Path spillFile = getSpillFile();
+        synchronized (spillLock) {
+            if (!Files.exists(spillFile)) {
+                return;
+            }
+            List<Document> batch = new ArrayList<>(BATCH_SIZE);
+            int count = 0;
+            try (BufferedReader reader = Files.newBufferedReader(spillFile, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+                    try {
+                        batch.add(Document.parse(line));
+                    } catch (JsonParseException e) {
+                        log.warn("Can not parse spilled audit event: {}", line, e);
+                        continue;
+                    }
+                    if (batch.size() == BATCH_SIZE) {
+                        if (!insert(batch)) {
+                            return;
+                        }
+                        count += batch.size();
+                        batch = new ArrayList<>(BATCH_SIZE);
+                    }
+                }
+            }
+            if (!batch.isEmpty() && !insert(batch)) {
+                return;
+            }
+            Files.delete(spillFile);
+            log.info("{} audit events have been written to database from {}", count + batch.size(), spillFile);
+        }
+    }
+
+    private Path getSpillFile() {
+        return Paths.get(configuration.getAuditSpillFile());
+    }
+
+    private Path getDeadLetterFile() {
+        return Paths.get(configuration.getAuditDeadLetterFile());
+    }
+}
@@ -19,13 +19,19 @@
 
 package com.epam.datalab.backendapi.dao;
 
+import com.epam.datalab.backendapi.domain.BillingCostRollup;
+import com.epam.datalab.backendapi.domain.BillingCostRollup.CostLine;
 import com.epam.datalab.backendapi.domain.BillingReportLine;
 import com.epam.datalab.backendapi.resources.dto.BillingFilter;
 import com.epam.datalab.dto.billing.BillingResourceType;
 import com.google.inject.Inject;
 import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.DeleteManyModel;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -34,13 +40,18 @@ import org.bson.conversions.Bson;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import static com.epam.datalab.backendapi.dao.MongoCollections.BILLING;
@@ -55,16 +66,16 @@ import static com.mongodb.client.model.Filters.eq;
 import static com.mongodb.client.model.Filters.gte;
 import static com.mongodb.client.model.Filters.in;
 import static com.mongodb.client.model.Filters.lte;
+import static com.mongodb.client.model.Filters.ne;
 import static com.mongodb.client.model.Filters.regex;
-import static java.time.temporal.TemporalAdjusters.firstDayOfMonth;
-import static java.time.temporal.TemporalAdjusters.lastDayOfMonth;
+import static com.mongodb.client.model.Updates.combine;
+import static com.mongodb.client.model.Updates.set;
 import static java.util.Collections.singletonList;
 
 @Slf4j
 public class BaseBillingDAO extends BaseDAO implements BillingDAO {
     private static final int ONE_HUNDRED = 100;
     private static final String COST_FIELD = "$cost";
-    private static final String TOTAL_FIELD_NAME = "total";
     private static final String PROJECT = "project";
     private static final String APPLICATION = "application";
     private static final String USAGE_DATE = "usageDate";
@@ -80,6 +91,7 @@ public class BaseBillingDAO extends BaseDAO implements BillingDAO {
     private static final String ENDPOINT = "endpoint";
     private static final String SHAPE = "shape";
     private static final String EXPLORATORY = "exploratoryName";
+    private static final String GENERATION = "generation";
 
     @Inject
     protected SettingsDAO settings;
@@ -87,36 +99,27 @@ public class BaseBillingDAO extends BaseDAO implements BillingDAO {
     private UserSettingsDAO userSettingsDAO;
     @Inject
     private ProjectDAO projectDAO;
+    @Inject
+    private BillingCostRollup costRollup;
 
     @Override
     public Double getTotalCost() {
-        return aggregateBillingData(singletonList(group(null, sum(TOTAL_FIELD_NAME, COST_FIELD))));
+        return getCostRollup().getTotalCost();
     }
 
     @Override
     public Double getUserCost(String user) {
-        final List<Bson> pipeline = Arrays.asList(match(eq(USER, user)),
-                group(null, sum(TOTAL_FIELD_NAME, COST_FIELD)));
-        return aggregateBillingData(pipeline);
+        return getCostRollup().getUserCost(user);
     }
 
     @Override
     public Double getOverallProjectCost(String project) {
-        final List<Bson> pipeline = Arrays.asList(match(eq(PROJECT, project)),
-                group(null, sum(TOTAL_FIELD_NAME, COST_FIELD)));
-        return aggregateBillingData(pipeline);
+        return getCostRollup().getProjectCost(project);
     }
 
     @Override
     public Double getMonthlyProjectCost(String project, LocalDate date) {
-        final List<Bson> pipeline = Arrays.asList(match(
-                and(
-                        eq(PROJECT, project),
-                        gte(USAGE_DATE, date.with(firstDayOfMonth()).toString()),
-                        lte(USAGE_DATE, date.with(lastDayOfMonth()).toString()))
-                ),
-                group(null, sum(TOTAL_FIELD_NAME, COST_FIELD)));
-        return aggregateBillingData(pipeline);
+        return getCostRollup().getMonthlyProjectCost(project, YearMonth.from(date));
     }
 
     @Override
@@ -148,35 +151,157 @@ public class BaseBillingDAO extends BaseDAO implements BillingDAO {
     }
 
     public List<BillingReportLine> aggregateBillingData(BillingFilter filter) {
-        List<Bson> pipeline = new ArrayList<>();
-        List<Bson> matchCriteria = matchCriteria(filter);
-        if (!matchCriteria.isEmpty()) {
-            pipeline.add(Aggregates.match(Filters.and(matchCriteria)));
-        }
-        pipeline.add(groupCriteria());
-        pipeline.add(usageDateSort());
-        return StreamSupport.stream(getCollection(BILLING).aggregate(pipeline).spliterator(), false)
+        return StreamSupport.stream(getCollection(BILLING).aggregate(billingDataPipeline(filter)).spliterator(), false)
                 .map(this::toBillingReport)
                 .collect(Collectors.toList());
     }
 
     @Override
-    public void deleteByUsageDate(String application, String usageDate) {
-        deleteMany(BILLING, and(eq(APPLICATION, application), eq(USAGE_DATE, usageDate)));
+    public Stream<BillingReportLine> streamBillingData(BillingFilter filter) {
+        return cursorStream(getCollection(BILLING).aggregate(billingDataPipeline(filter)).allowDiskUse(true))
+                .map(this::toBillingReport);
+    }
+
+    @Override
+    public Optional<BillingReportLine> getBillingPeriod(BillingFilter filter) {
+        List<Bson> pipeline = new ArrayList<>(matchStage(filter));
+        pipeline.add(group(null, min(FROM, "$" + FROM), max(TO, "$" + TO)));
+        return Optional.ofNullable(getCollection(BILLING).aggregate(pipeline).first())
+                .filter(d -> d.getDate(FROM) != null && d.getDate(TO) != null)
+                .map(d -> BillingReportLine.builder()
+                        .usageDateFrom(d.getDate(FROM).toInstant().atZone(ZoneId.systemDefault()).toLocalDate())
+                        .usageDateTo(d.getDate(TO).toInstant().atZone(ZoneId.systemDefault()).toLocalDate())
+                        .build());
+    }
+
+    private List<Bson> billingDataPipeline(BillingFilter filter) {
+        List<Bson> pipeline = new ArrayList<>(matchStage(filter));
+        pipeline.add(groupCriteria());
+        pipeline.add(usageDateSort());
+        return pipeline;
+    }
+
+    private List<Bson> matchStage(BillingFilter filter) {
+        List<Bson> matchCriteria = matchCriteria(filter);
+        return matchCriteria.isEmpty() ? new ArrayList<>() : singletonList(Aggregates.match(Filters.and(matchCriteria)));
+    }
+
+    @Override
+    public void upsertByUsageDate(String application, String usageDate, List<BillingReportLine> billingData) {
+        final Bson condition = and(eq(APPLICATION, application), eq(USAGE_DATE, usageDate));
+        if (upsert(billingData, condition)) {
+            updateCostRollup(() -> costRollup.replace(application, singletonList(usageDate),
+                    () -> aggregateCosts(condition)));
+        }
     }
 
     @Override
-    public void deleteByUsageDateRegex(String application, String usageDate) {
-        deleteMany(BILLING, and(eq(APPLICATION, application), regex(USAGE_DATE, "^" + usageDate)));
+    public void upsertByUsageDateRegex(String application, String usageDate, List<BillingReportLine> billingData) {
+        final Bson condition = and(eq(APPLICATION, application), regex(USAGE_DATE, "^" + usageDate));
+        if (upsert(billingData, condition)) {
+            updateCostRollup(() -> costRollup.replaceByPrefix(application, usageDate,
+                    () -> aggregateCosts(condition)));
+        }
     }
 
     @Override
-    public void save(List<BillingReportLine> billingData) {
-        if (CollectionUtils.isNotEmpty(billingData)) {
-            insertMany(BILLING, new ArrayList<>(billingData));
+    public void upsert(List<BillingReportLine> billingData) {
+        if (upsert(billingData, null)) {
+            updateCostRollup(() -> billingData
+                    .stream()
+                    .collect(Collectors.groupingBy(BillingReportLine::getApplication,
+                            Collectors.mapping(BillingReportLine::getUsageDate, Collectors.toSet())))
+                    .forEach((application, usageDates) -> costRollup.replace(application, usageDates,
+                            () -> aggregateCosts(and(eq(APPLICATION, application), in(USAGE_DATE, usageDates))))));
         }
     }
 
+    /**
+     * Upserts the billing data by one ordered bulk. The lines with the same key are merged with the sum
+     * of costs and the documents are marked with the generation of the upsert. If the condition is set the
+     * documents matched by it and not marked with this generation are removed by the same bulk.
+     *
+     * @param billingData billing data
+     * @param condition   condition for the stale documents or <b>null</b>
+     * @return <b>true</b> if the billing data has been written
+     */
+    private boolean upsert(List<BillingReportLine> billingData, Bson condition) {
+        if (CollectionUtils.isEmpty(billingData)) {
+            return false;
+        }
+        final Map<List<String>, BillingReportLine> lines = new LinkedHashMap<>();
+        billingData.forEach(line -> lines.merge(billingKey(line), line, this::mergeCost));
+        final String generation = UUID.randomUUID().toString();
+        final List<WriteModel<Document>> requests = lines.values()
+                .stream()
+                .map(line -> new UpdateOneModel<Document>(billingKeyCondition(line),
+                        combine(upsertDocument(line), set(GENERATION, generation)), new UpdateOptions().upsert(true)))
+                .collect(Collectors.toCollection(ArrayList::new));
+        if (condition != null) {
+            requests.add(new DeleteManyModel<>(and(condition, ne(GENERATION, generation))));
+        }
+        bulkWrite(BILLING, requests);
+        return true;
+    }
+
+    private BillingCostRollup getCostRollup() {
+        costRollup.load(() -> aggregateCosts(null));
+        return costRollup;
+    }
+
+    /**
+     * Updates the cost rollup after the billing data has been written. If the rollup can not be updated it
+     * is dropped and loaded again on the next access.
+     *
+     * @param update rollup update
+     */
+    private void updateCostRollup(Runnable update) {
+        try {
+            update.run();
+        } catch (Exception e) {
+            log.warn("Can not update billing cost rollup due to: {}", e.getMessage(), e);
+            costRollup.invalidate();
+        }
+    }
+
+    /**
+     * Returns the costs grouped by application, usage date, project and user.
+     *
+     * @param condition condition for the billing data or <b>null</b> for all the billing data
+     */
+    private List<CostLine> aggregateCosts(Bson condition) {
+        final List<Bson> pipeline = new ArrayList<>();
+        if (condition != null) {
+            pipeline.add(match(condition));
+        }
+        pipeline.add(group(getGroupingFields(APPLICATION, USAGE_DATE, PROJECT, USER), sum(COST, COST_FIELD)));
+        try (Stream<Document> costs = cursorStream(getCollection(BILLING).aggregate(pipeline).allowDiskUse(true))) {
+            return costs
+                    .map(this::toCostLine)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private CostLine toCostLine(Document d) {
+        final Document id = (Document) d.get("_id");
+        return new CostLine(id.getString(APPLICATION), id.getString(USAGE_DATE), id.getString(PROJECT),
+                id.getString(USER), Optional.ofNullable(d.getDouble(COST)).orElse(0.0));
+    }
+
+    private List<String> billingKey(BillingReportLine line) {
+        return Arrays.asList(line.getApplication(), line.getUsageDate(), line.getDatalabId(), line.getProduct());
+    }
+
+    private Bson billingKeyCondition(BillingReportLine line) {
+        return and(eq(APPLICATION, line.getApplication()), eq(USAGE_DATE, line.getUsageDate()),
+                eq(DATALAB_ID, line.getDatalabId()), eq(PRODUCT, line.getProduct()));
+    }
+
+    private BillingReportLine mergeCost(BillingReportLine line, BillingReportLine other) {
+        line.setCost(Optional.ofNullable(line.getCost()).orElse(0.0) + Optional.ofNullable(other.getCost()).orElse(0.0));
+        return line;
+    }
+
     private Integer toPercentage(Supplier<Optional<Integer>> allowedBudget, Double totalCost) {
         return allowedBudget.get()
                 .map(userBudget -> (totalCost * ONE_HUNDRED) / userBudget)
@@ -184,12 +309,6 @@ public class BaseBillingDAO extends BaseDAO implements BillingDAO {
                 .orElse(BigDecimal.ZERO.intValue());
     }
 
-    private Double aggregateBillingData(List<Bson> pipeline) {
-        return Optional.ofNullable(aggregate(BILLING, pipeline).first())
-                .map(d -> d.getDouble(TOTAL_FIELD_NAME))
-                .orElse(BigDecimal.ZERO.doubleValue());
-    }
-
     private Bson usageDateSort() {
         return sort(Sorts.descending(USAGE_DATE));
     }
@@ -32,12 +32,15 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.google.inject.Inject;
 import com.mongodb.BasicDBObject;
 import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteResult;
 import com.mongodb.client.AggregateIterable;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoIterable;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
 import com.mongodb.client.result.DeleteResult;
 import com.mongodb.client.result.UpdateResult;
 import org.bson.Document;
@@ -52,6 +55,8 @@ import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.UUID;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -250,6 +255,33 @@ public class BaseDAO {
         }
     }
 
+    /**
+     * Executes the write operations in the collection by one ordered bulk.
+     *
+     * @param collection collection name.
+     * @param requests   write operations.
+     */
+    protected BulkWriteResult bulkWrite(String collection, List<? extends WriteModel<Document>> requests) {
+        try {
+            return mongoService.getCollection(collection)
+                    .bulkWrite(requests, new BulkWriteOptions().ordered(true));
+        } catch (MongoException e) {
+            LOGGER.warn("Bulk write to Mongo DB fails: {}", e.getLocalizedMessage(), e);
+            throw new DatalabException("Bulk write to Mongo DB fails: " + e.getLocalizedMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the update which sets the fields of serialized object and the timestamp and generates
+     * the id of inserted document.
+     *
+     * @param object for upserting to collection.
+     */
+    protected Bson upsertDocument(Object object) {
+        return new Document(SET, convertToBson(object).append(TIMESTAMP, new Date()))
+                .append("$setOnInsert", new Document(ID, generateUUID()));
+    }
+
     /**
      * Removes single document in the collection by condition.
      *
@@ -481,6 +513,18 @@ public class BaseDAO {
         return StreamSupport.stream(iterable.spliterator(), false);
     }
 
+    /**
+     * Returns the stream of documents read by the cursor batch by batch. The stream must be closed
+     * to release the cursor.
+     *
+     * @param iterable documents
+     */
+    protected Stream<Document> cursorStream(MongoIterable<Document> iterable) {
+        final MongoCursor<Document> cursor = iterable.iterator();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED), false)
+                .onClose(cursor::close);
+    }
+
     List<String> statusList(UserInstanceStatus[] statuses) {
         return Arrays.stream(statuses).map(UserInstanceStatus::toString).collect(Collectors.toList());
     }
@@ -24,6 +24,8 @@ import com.epam.datalab.backendapi.resources.dto.BillingFilter;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BillingDAO {
     Double getTotalCost();
@@ -46,9 +48,44 @@ public interface BillingDAO {
 
     List<BillingReportLine> aggregateBillingData(BillingFilter filter);
 
-    void deleteByUsageDate(String application, String usageDate);
-
-    void deleteByUsageDateRegex(String application, String usageDate);
-
-    void save(List<BillingReportLine> billingData);
+    /**
+     * Returns the aggregated billing data read from the cursor. The stream must be closed.
+     *
+     * @param filter billing filter
+     */
+    Stream<BillingReportLine> streamBillingData(BillingFilter filter);
+
+    /**
+     * Returns the line with the first and the last usage date of the billing data.
+     *
+     * @param filter billing filter
+     */
+    Optional<BillingReportLine> getBillingPeriod(BillingFilter filter);
+
+    /**
+     * Upserts the billing data of the usage date and removes the data of the usage date which is absent
+     * in the given lines.
+     *
+     * @param application application (endpoint name)
+     * @param usageDate   usage date
+     * @param billingData billing data of the usage date
+     */
+    void upsertByUsageDate(String application, String usageDate, List<BillingReportLine> billingData);
+
+    /**
+     * Upserts the billing data of the usage date and removes the data of the usage dates started with
+     * the given one which is absent in the given lines.
+     *
+     * @param application application (endpoint name)
+     * @param usageDate   beginning of the usage date
+     * @param billingData billing data of the usage date
+     */
+    void upsertByUsageDateRegex(String application, String usageDate, List<BillingReportLine> billingData);
+
+    /**
+     * Upserts the billing data by application, usage date, DataLab id and product.
+     *
+     * @param billingData billing data
+     */
+    void upsert(List<BillingReportLine> billingData);
 }
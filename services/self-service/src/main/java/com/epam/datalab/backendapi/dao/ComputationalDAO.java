@@ -37,6 +37,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Arrays;
@@ -53,6 +54,7 @@ import static com.epam.datalab.backendapi.dao.ExploratoryDAO.UPTIME;
 import static com.epam.datalab.backendapi.dao.ExploratoryDAO.exploratoryCondition;
 import static com.epam.datalab.backendapi.dao.MongoCollections.USER_INSTANCES;
 import static com.epam.datalab.backendapi.dao.SchedulerJobDAO.SCHEDULER_DATA;
+import static com.epam.datalab.backendapi.dao.SchedulerJobDAO.appendFireTimes;
 import static com.epam.datalab.dto.UserInstanceStatus.TERMINATED;
 import static com.mongodb.client.model.Filters.and;
 import static com.mongodb.client.model.Filters.eq;
@@ -390,7 +392,7 @@ public class ComputationalDAO extends BaseDAO {
     public UpdateResult updateSchedulerDataForComputationalResource(String user, String project, String exploratoryName,
                                                                     String computationalName, SchedulerJobDTO dto) {
         return updateComputationalField(user, project, exploratoryName, computationalName,
-                SCHEDULER_DATA, Objects.isNull(dto) ? null : convertToBson(dto));
+                SCHEDULER_DATA, Objects.isNull(dto) ? null : appendFireTimes(convertToBson(dto), dto, Instant.now()));
     }
 
     public void updateLastActivity(String user, String project, String exploratoryName,
@@ -37,6 +37,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Collections;
@@ -50,6 +51,7 @@ import java.util.stream.Collectors;
 
 import static com.epam.datalab.backendapi.dao.MongoCollections.USER_INSTANCES;
 import static com.epam.datalab.backendapi.dao.SchedulerJobDAO.SCHEDULER_DATA;
+import static com.epam.datalab.backendapi.dao.SchedulerJobDAO.appendFireTimes;
 import static com.mongodb.client.model.Filters.and;
 import static com.mongodb.client.model.Filters.eq;
 import static com.mongodb.client.model.Filters.in;
@@ -384,7 +386,7 @@ public class ExploratoryDAO extends BaseDAO {
                                                                  SchedulerJobDTO dto) {
         return updateOne(USER_INSTANCES,
                 exploratoryCondition(user, exploratoryName, project),
-                set(SCHEDULER_DATA, Objects.isNull(dto) ? null : convertToBson(dto)));
+                set(SCHEDULER_DATA, Objects.isNull(dto) ? null : appendFireTimes(convertToBson(dto), dto, Instant.now())));
     }
 
     /**
@@ -19,23 +19,51 @@
 
 package com.epam.datalab.backendapi.dao;
 
+import com.epam.datalab.backendapi.domain.SchedulerFireTime;
 import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.model.Indexes;
 import io.dropwizard.lifecycle.Managed;
+import org.bson.conversions.Bson;
 
+import java.util.Arrays;
+
+import static com.epam.datalab.backendapi.dao.AuditDAOImpl.AUDIT_COLLECTION;
+import static com.epam.datalab.backendapi.dao.AuditDAOImpl.TIMESTAMP_FIELD;
+import static com.epam.datalab.backendapi.dao.ExploratoryDAO.COMPUTATIONAL_RESOURCES;
 import static com.epam.datalab.backendapi.dao.ExploratoryDAO.EXPLORATORY_NAME;
+import static com.epam.datalab.backendapi.dao.MongoCollections.BILLING;
 import static com.epam.datalab.backendapi.dao.MongoCollections.USER_INSTANCES;
+import static com.epam.datalab.backendapi.dao.SchedulerJobDAO.SCHEDULER_DATA;
 
 /**
  * Creates the indexes for mongo collections.
  */
 public class IndexCreator extends BaseDAO implements Managed {
     private static final String PROJECT_FIELD = "project";
+    private static final String APPLICATION_FIELD = "application";
+    private static final String USAGE_DATE_FIELD = "usageDate";
+    private static final String DATALAB_ID_FIELD = "datalabId";
+    private static final String PRODUCT_FIELD = "product";
 
     @Override
     public void start() {
         mongoService.getCollection(USER_INSTANCES)
                 .createIndex(Indexes.ascending(USER, EXPLORATORY_NAME, PROJECT_FIELD), new IndexOptions().unique(true));
+        Arrays.stream(SchedulerFireTime.values())
+                .map(fireTime -> SCHEDULER_DATA + "." + fireTime.getField())
+                .forEach(field -> {
+                    mongoService.getCollection(USER_INSTANCES).createIndex(Indexes.ascending(field));
+                    mongoService.getCollection(USER_INSTANCES)
+                            .createIndex(Indexes.ascending(COMPUTATIONAL_RESOURCES + "." + field));
+                });
+        mongoService.getCollection(BILLING)
+                .createIndex(Indexes.ascending(APPLICATION_FIELD, USAGE_DATE_FIELD, DATALAB_ID_FIELD, PRODUCT_FIELD));
+        Bson auditOrder = Indexes.descending(TIMESTAMP_FIELD, ID);
+        mongoService.getCollection(AUDIT_COLLECTION).createIndex(auditOrder);
+        mongoService.getCollection(AUDIT_COLLECTION)
+                .createIndex(Indexes.compoundIndex(Indexes.ascending(USER), auditOrder));
+        mongoService.getCollection(AUDIT_COLLECTION)
+                .createIndex(Indexes.compoundIndex(Indexes.ascending(PROJECT_FIELD), auditOrder));
     }
 
     @Override
@@ -19,7 +19,9 @@
 
 package com.epam.datalab.backendapi.dao;
 
+import com.epam.datalab.backendapi.domain.SchedulerFireTime;
 import com.epam.datalab.dto.SchedulerJobDTO;
+import com.epam.datalab.dto.UserInstanceDTO;
 import com.epam.datalab.dto.UserInstanceStatus;
 import com.epam.datalab.dto.base.DataEngineType;
 import com.epam.datalab.model.scheduler.SchedulerJobData;
@@ -31,6 +33,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
@@ -38,6 +42,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -53,6 +58,7 @@ import static com.epam.datalab.dto.base.DataEngineType.fromDockerImageName;
 import static com.mongodb.client.model.Filters.and;
 import static com.mongodb.client.model.Filters.eq;
 import static com.mongodb.client.model.Filters.exists;
+import static com.mongodb.client.model.Filters.gt;
 import static com.mongodb.client.model.Filters.in;
 import static com.mongodb.client.model.Filters.lte;
 import static com.mongodb.client.model.Filters.ne;
@@ -60,6 +66,7 @@ import static com.mongodb.client.model.Filters.or;
 import static com.mongodb.client.model.Projections.excludeId;
 import static com.mongodb.client.model.Projections.fields;
 import static com.mongodb.client.model.Projections.include;
+import static com.mongodb.client.model.Updates.set;
 import static java.util.stream.Collectors.toList;
 
 /**
@@ -75,6 +82,12 @@ public class SchedulerJobDAO extends BaseDAO {
     private static final String LAST_ACTIVITY = "last_activity";
     private static final String CHECK_INACTIVITY_REQUIRED = "check_inactivity_required";
     private static final String CHECK_INACTIVITY_FLAG = SCHEDULER_DATA + "." + CHECK_INACTIVITY_REQUIRED;
+    /**
+     * The scheduler jobs with the fire time missed by more than this period (e.g. due to downtime) are skipped.
+     */
+    private static final long MISFIRE_GRACE_MINUTES = 5L;
+
+    private volatile boolean fireTimesInitialized;
 
 
     public SchedulerJobDAO() {
@@ -144,30 +157,110 @@ public class SchedulerJobDAO extends BaseDAO {
                 .collect(toList());
     }
 
-    public List<SchedulerJobData> getExploratorySchedulerWithStatusAndClusterLastActivityLessThan(UserInstanceStatus status,
-                                                                                                  Date lastActivity) {
+    /**
+     * Finds the exploratory scheduler jobs which have to be started and moves their next start time forward.
+     *
+     * @param now current time.
+     * @return list of scheduler jobs of the stopped exploratories with the start time due.
+     */
+    public List<SchedulerJobData> pollExploratorySchedulersToStart(Date now) {
+        return pollExploratorySchedulers(SchedulerFireTime.START,
+                and(eq(STATUS, UserInstanceStatus.STOPPED.toString()), eq(CHECK_INACTIVITY_FLAG, false)), now);
+    }
+
+    /**
+     * Finds the exploratory scheduler jobs which have to be stopped and moves their next stop time forward.
+     *
+     * @param now                 current time.
+     * @param clusterLastActivity the clusters of the exploratory considering inactivity have to be inactive since
+     *                            this time.
+     * @return list of scheduler jobs of the running exploratories with the stop time due.
+     */
+    public List<SchedulerJobData> pollExploratorySchedulersToStop(Date now, Date clusterLastActivity) {
+        return pollExploratorySchedulers(SchedulerFireTime.STOP,
+                and(eq(STATUS, UserInstanceStatus.RUNNING.toString()), clusterInactivityCondition(clusterLastActivity)),
+                now);
+    }
+
+    /**
+     * Finds the exploratory scheduler jobs which have to be terminated and moves their next terminate time forward.
+     *
+     * @param now current time.
+     * @return list of scheduler jobs of the running or stopped exploratories with the terminate time due.
+     */
+    public List<SchedulerJobData> pollExploratorySchedulersToTerminate(Date now) {
+        return pollExploratorySchedulers(SchedulerFireTime.TERMINATE,
+                and(in(STATUS, UserInstanceStatus.RUNNING.toString(), UserInstanceStatus.STOPPED.toString()),
+                        eq(CHECK_INACTIVITY_FLAG, false)), now);
+    }
+
+    /**
+     * Finds the scheduler jobs of the stopped Spark clusters of the running exploratories which have to be started
+     * and moves their next start time forward.
+     *
+     * @param now current time.
+     * @return list of scheduler jobs.
+     */
+    public List<SchedulerJobData> pollComputationalSchedulersToStart(Date now) {
+        return pollComputationalSchedulers(SchedulerFireTime.START, DataEngineType.SPARK_STANDALONE, now,
+                UserInstanceStatus.STOPPED);
+    }
+
+    /**
+     * Finds the scheduler jobs of the running Spark clusters which have to be stopped and moves their next stop
+     * time forward.
+     *
+     * @param now current time.
+     * @return list of scheduler jobs.
+     */
+    public List<SchedulerJobData> pollComputationalSchedulersToStop(Date now) {
+        return pollComputationalSchedulers(SchedulerFireTime.STOP, DataEngineType.SPARK_STANDALONE, now,
+                UserInstanceStatus.RUNNING);
+    }
+
+    /**
+     * Finds the scheduler jobs of the running or stopped clusters which have to be terminated and moves their next
+     * terminate time forward.
+     *
+     * @param now current time.
+     * @return list of scheduler jobs.
+     */
+    public List<SchedulerJobData> pollComputationalSchedulersToTerminate(Date now) {
+        return pollComputationalSchedulers(SchedulerFireTime.TERMINATE, null, now,
+                UserInstanceStatus.STOPPED, UserInstanceStatus.RUNNING);
+    }
+
+    /**
+     * Returns the running exploratories with the inactivity scheduler. The fields required to check the inactivity
+     * of the exploratory and its clusters are loaded at once.
+     *
+     * @param clusterLastActivity the clusters of the exploratory considering inactivity have to be inactive since
+     *                            this time.
+     * @return list of exploratories.
+     */
+    public List<UserInstanceDTO> getExploratoriesWithInactivityScheduler(Date clusterLastActivity) {
         return stream(find(USER_INSTANCES,
-                and(
-                        eq(STATUS, status.toString()),
-                        schedulerNotNullCondition(),
-                        or(and(eq(CONSIDER_INACTIVITY_FLAG, true),
-                                or(eq(COMPUTATIONAL_RESOURCES, Collections.emptyList()),
-                                        and(ne(COMPUTATIONAL_RESOURCES, Collections.emptyList()),
-                                                Filters.elemMatch(COMPUTATIONAL_RESOURCES,
-                                                        lte(LAST_ACTIVITY, lastActivity))))),
-                                eq(CONSIDER_INACTIVITY_FLAG, false)
-                        )
-                ),
-                fields(excludeId(), include(USER, PROJECT, EXPLORATORY_NAME, SCHEDULER_DATA))))
-                .map(d -> convertFromDocument(d, SchedulerJobData.class))
+                and(eq(STATUS, UserInstanceStatus.RUNNING.toString()), schedulerNotNullCondition(),
+                        eq(CHECK_INACTIVITY_FLAG, true), clusterInactivityCondition(clusterLastActivity)),
+                fields(excludeId(), include(USER, PROJECT, EXPLORATORY_NAME, STATUS, LAST_ACTIVITY, SCHEDULER_DATA,
+                        COMPUTATIONAL_RESOURCES))))
+                .map(d -> convertFromDocument(d, UserInstanceDTO.class))
                 .collect(toList());
     }
 
-    public List<SchedulerJobData> getExploratorySchedulerDataWithOneOfStatus(UserInstanceStatus... statuses) {
-        FindIterable<Document> userInstances = userInstancesWithScheduler(in(STATUS,
-                Arrays.stream(statuses).map(UserInstanceStatus::toString).collect(toList())));
-
-        return stream(userInstances).map(d -> convertFromDocument(d, SchedulerJobData.class))
+    /**
+     * Returns the running exploratories which have the running clusters with the inactivity scheduler.
+     *
+     * @return list of exploratories with their clusters.
+     */
+    public List<UserInstanceDTO> getExploratoriesWithComputationalInactivityScheduler() {
+        return stream(find(USER_INSTANCES,
+                and(eq(STATUS, UserInstanceStatus.RUNNING.toString()),
+                        Filters.elemMatch(COMPUTATIONAL_RESOURCES,
+                                and(eq(STATUS, UserInstanceStatus.RUNNING.toString()),
+                                        eq(CHECK_INACTIVITY_FLAG, true)))),
+                fields(excludeId(), include(USER, PROJECT, EXPLORATORY_NAME, STATUS, COMPUTATIONAL_RESOURCES))))
+                .map(d -> convertFromDocument(d, UserInstanceDTO.class))
                 .collect(toList());
     }
 
@@ -180,13 +273,154 @@ public class SchedulerJobDAO extends BaseDAO {
                 .collect(toList());
     }
 
-    public List<SchedulerJobData> getComputationalSchedulerDataWithOneOfStatus(UserInstanceStatus exploratoryStatus,
-                                                                               UserInstanceStatus... statuses) {
-        return stream(computationalResourcesWithScheduler(exploratoryStatus))
-                .map(doc -> computationalSchedulerData(doc, statuses).map(compResource -> toSchedulerData(doc,
-                        compResource)))
-                .flatMap(Function.identity())
-                .collect(toList());
+    /**
+     * Appends the next fire times of all the scheduler actions to the scheduler data document.
+     *
+     * @param schedulerData scheduler data document.
+     * @param dto           scheduler job data.
+     * @param from          the time to compute the fire times from.
+     * @return the scheduler data document.
+     */
+    static Document appendFireTimes(Document schedulerData, SchedulerJobDTO dto, Instant from) {
+        for (SchedulerFireTime fireTime : SchedulerFireTime.values()) {
+            schedulerData.append(fireTime.getField(), fireTime.next(dto, from).map(Date::from).orElse(null));
+        }
+        return schedulerData;
+    }
+
+    private Bson clusterInactivityCondition(Date clusterLastActivity) {
+        return or(and(eq(CONSIDER_INACTIVITY_FLAG, true),
+                or(eq(COMPUTATIONAL_RESOURCES, Collections.emptyList()),
+                        and(ne(COMPUTATIONAL_RESOURCES, Collections.emptyList()),
+                                Filters.elemMatch(COMPUTATIONAL_RESOURCES,
+                                        lte(LAST_ACTIVITY, clusterLastActivity))))),
+                eq(CONSIDER_INACTIVITY_FLAG, false));
+    }
+
+    /**
+     * Returns the exploratory scheduler jobs matching the condition with the fire time in the misfire grace period
+     * and moves the fire time of all the due exploratory scheduler jobs to the next one. The fire time is moved for
+     * the jobs not matching the condition as well, because the action is not applicable to them at this time.
+     */
+    private List<SchedulerJobData> pollExploratorySchedulers(SchedulerFireTime fireTime, Bson condition, Date now) {
+        initFireTimes();
+        final String field = SCHEDULER_DATA + "." + fireTime.getField();
+        try {
+            return stream(find(USER_INSTANCES,
+                    and(condition, schedulerNotNullCondition(), gt(field, misfireTime(now)), lte(field, now)),
+                    fields(excludeId(), include(USER, PROJECT, EXPLORATORY_NAME, SCHEDULER_DATA))))
+                    .map(d -> convertFromDocument(d, SchedulerJobData.class))
+                    .collect(toList());
+        } finally {
+            stream(find(USER_INSTANCES, lte(field, now), fields(include(SCHEDULER_DATA))))
+                    .forEach(d -> {
+                        final Document schedulerData = (Document) d.get(SCHEDULER_DATA);
+                        updateOne(USER_INSTANCES,
+                                and(eq(ID, d.get(ID)), eq(field, getFireTime(schedulerData, fireTime))),
+                                set(field, nextFireTime(schedulerData, fireTime, now)));
+                    });
+        }
+    }
+
+    /**
+     * Returns the scheduler jobs of the clusters of the running exploratories with one of the statuses and the fire
+     * time in the misfire grace period and moves the fire time of all the due computational scheduler jobs to the
+     * next one.
+     */
+    @SuppressWarnings("unchecked")
+    private List<SchedulerJobData> pollComputationalSchedulers(SchedulerFireTime fireTime,
+                                                               DataEngineType dataEngineType, Date now,
+                                                               UserInstanceStatus... statuses) {
+        initFireTimes();
+        final String field = SCHEDULER_DATA + "." + fireTime.getField();
+        final Date misfireTime = misfireTime(now);
+        try {
+            return stream(find(USER_INSTANCES,
+                    and(eq(STATUS, UserInstanceStatus.RUNNING.toString()),
+                            Filters.elemMatch(COMPUTATIONAL_RESOURCES, and(gt(field, misfireTime), lte(field, now)))),
+                    fields(excludeId(), include(USER, PROJECT, EXPLORATORY_NAME, COMPUTATIONAL_RESOURCES))))
+                    .flatMap(doc -> computationalSchedulerData(doc, statuses)
+                            .filter(c -> Objects.isNull(dataEngineType) ||
+                                    fromDockerImageName(c.getString(IMAGE)) == dataEngineType)
+                            .filter(c -> isDue((Document) c.get(SCHEDULER_DATA), fireTime, misfireTime, now))
+                            .map(c -> toSchedulerData(doc, c)))
+                    .collect(toList());
+        } finally {
+            stream(find(USER_INSTANCES, Filters.elemMatch(COMPUTATIONAL_RESOURCES, lte(field, now)),
+                    fields(include(COMPUTATIONAL_RESOURCES))))
+                    .forEach(doc -> ((List<Document>) doc.get(COMPUTATIONAL_RESOURCES))
+                            .stream()
+                            .filter(c -> c.get(SCHEDULER_DATA) instanceof Document)
+                            .filter(c -> isDue((Document) c.get(SCHEDULER_DATA), fireTime, null, now))
+                            .forEach(c -> {
+                                final Document schedulerData = (Document) c.get(SCHEDULER_DATA);
+                                updateOne(USER_INSTANCES,
+                                        and(eq(ID, doc.get(ID)), Filters.elemMatch(COMPUTATIONAL_RESOURCES,
+                                                and(eq(COMPUTATIONAL_NAME, c.getString(COMPUTATIONAL_NAME)),
+                                                        eq(field, getFireTime(schedulerData, fireTime))))),
+                                        set(COMPUTATIONAL_RESOURCES + FIELD_SET_DELIMETER + field,
+                                                nextFireTime(schedulerData, fireTime, now)));
+                            }));
+        }
+    }
+
+    /**
+     * Computes the fire times of the scheduler jobs stored without them. It is done once on the first poll.
+     */
+    @SuppressWarnings("unchecked")
+    private void initFireTimes() {
+        if (fireTimesInitialized) {
+            return;
+        }
+        synchronized (this) {
+            if (fireTimesInitialized) {
+                return;
+            }
+            final Instant now = Instant.now();
+            final String startField = SchedulerFireTime.START.getField();
+            stream(find(USER_INSTANCES, and(schedulerNotNullCondition(), exists(SCHEDULER_DATA + "." + startField,
+                    false)), fields(include(SCHEDULER_DATA))))
+                    .forEach(d -> updateOne(USER_INSTANCES, eq(ID, d.get(ID)),
+                            set(SCHEDULER_DATA, withFireTimes((Document) d.get(SCHEDULER_DATA), now))));
+            stream(find(USER_INSTANCES, Filters.elemMatch(COMPUTATIONAL_RESOURCES,
+                    and(schedulerNotNullCondition(), exists(SCHEDULER_DATA + "." + startField, false))),
+                    fields(include(COMPUTATIONAL_RESOURCES))))
+                    .forEach(doc -> ((List<Document>) doc.get(COMPUTATIONAL_RESOURCES))
+                            .stream()
+                            .filter(c -> c.get(SCHEDULER_DATA) instanceof Document)
+                            .filter(c -> !((Document) c.get(SCHEDULER_DATA)).containsKey(startField))
+                            .forEach(c -> updateOne(USER_INSTANCES,
+                                    and(eq(ID, doc.get(ID)), Filters.elemMatch(COMPUTATIONAL_RESOURCES,
+                                            eq(COMPUTATIONAL_NAME, c.getString(COMPUTATIONAL_NAME)))),
+                                    set(COMPUTATIONAL_RESOURCES + FIELD_SET_DELIMETER + SCHEDULER_DATA,
+                                            withFireTimes((Document) c.get(SCHEDULER_DATA), now)))));
+            fireTimesInitialized = true;
+        }
+    }
+
+    private Document withFireTimes(Document schedulerData, Instant from) {
+        return appendFireTimes(schedulerData, convertFromDocument(schedulerData, SchedulerJobDTO.class), from);
+    }
+
+    private Date nextFireTime(Document schedulerData, SchedulerFireTime fireTime, Date now) {
+        final Instant nextMinute = now.toInstant().truncatedTo(ChronoUnit.MINUTES).plus(1, ChronoUnit.MINUTES);
+        return fireTime.next(convertFromDocument(schedulerData, SchedulerJobDTO.class), nextMinute)
+                .map(Date::from)
+                .orElse(null);
+    }
+
+    private static boolean isDue(Document schedulerData, SchedulerFireTime fireTime, Date misfireTime, Date now) {
+        final Date fireDate = getFireTime(schedulerData, fireTime);
+        return Objects.nonNull(fireDate) && !fireDate.after(now)
+                && (Objects.isNull(misfireTime) || fireDate.after(misfireTime));
+    }
+
+    private static Date getFireTime(Document schedulerData, SchedulerFireTime fireTime) {
+        return schedulerData.getDate(fireTime.getField());
+    }
+
+    private static Date misfireTime(Date now) {
+        return new Date(now.getTime() - TimeUnit.MINUTES.toMillis(MISFIRE_GRACE_MINUTES));
     }
 
     private FindIterable<Document> computationalResourcesWithScheduler(UserInstanceStatus exploratoryStatus) {
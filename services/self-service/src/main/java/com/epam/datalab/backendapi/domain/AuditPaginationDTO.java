@@ -32,6 +32,8 @@ public class AuditPaginationDTO {
     @JsonProperty("page_count")
     private final int totalPageCount;
     private final List<AuditDTO> audit;
+    @JsonProperty("next_page_key")
+    private final String nextPageKey;
     @JsonProperty("user_filter")
     private final Set<String> userFilter;
     @JsonProperty("project_filter")
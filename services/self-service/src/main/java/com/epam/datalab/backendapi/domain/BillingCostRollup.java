@@ -0,0 +1,271 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.epam.datalab.backendapi.domain;
+
+import com.google.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Rollup of the billing costs for the budget checks. The costs are kept by the slices of application and
+ * usage date and summed up to the total cost, the cost per project, per project and month and per user.
+ * The sums are read without aggregation of the billing data. When the billing data of some usage dates
+ * are updated only the slices of these dates are replaced. The rollup is loaded on the first access and
+ * after it has been invalidated. The cost lines are read from database without holding the lock of the
+ * rollup, the sums are kept as decimals, so the replaced slices do not leave the rounding errors.
+ */
+@Slf4j
+@Singleton
+public class BillingCostRollup {
+    private static final int MONTH_LENGTH = "yyyy-MM".length();
+
+    /**
+     * Cost lines by application and usage date.
+     */
+    private final Map<String, NavigableMap<String, List<CostLine>>> slices = new HashMap<>();
+    private final Map<String, BigDecimal> projectCosts = new HashMap<>();
+    private final Map<List<String>, BigDecimal> projectMonthlyCosts = new HashMap<>();
+    private final Map<String, BigDecimal> userCosts = new HashMap<>();
+    private final Object loadLock = new Object();
+    private BigDecimal totalCost = BigDecimal.ZERO;
+    private boolean loaded;
+    /**
+     * Number of the changes of the billing data. The cost lines read before the last change are not applied.
+     */
+    private long version;
+
+    /**
+     * Loads the rollup if it has not been loaded yet. The cost lines are read again if the billing data have
+     * been changed while they have been read.
+     *
+     * @param loader returns the cost lines of all the billing data.
+     */
+    public void load(Supplier<? extends Iterable<CostLine>> loader) {
+        synchronized (loadLock) {
+            long loadVersion;
+            do {
+                synchronized (this) {
+                    if (loaded) {
+                        return;
+                    }
+                    loadVersion = version;
+                }
+            } while (!setLoaded(toList(loader.get()), loadVersion));
+        }
+    }
+
+    /**
+     * Drops the rollup. It is loaded again on the next access.
+     */
+    public synchronized void invalidate() {
+        version++;
+        clear();
+        loaded = false;
+    }
+
+    /**
+     * Replaces the slices of the application and the given usage dates. This method does nothing if the
+     * rollup has not been loaded.
+     *
+     * @param application application (endpoint name)
+     * @param usageDates  usage dates
+     * @param loader      returns the cost lines of the application and usage dates.
+     */
+    public void replace(String application, Collection<String> usageDates,
+                        Supplier<? extends Iterable<CostLine>> loader) {
+        final long replaceVersion = nextVersion();
+        if (replaceVersion < 0) {
+            return;
+        }
+        final List<CostLine> lines = toList(loader.get());
+        synchronized (this) {
+            if (isChanged(replaceVersion)) {
+                return;
+            }
+            final NavigableMap<String, List<CostLine>> applicationSlices = getSlices(application);
+            usageDates.forEach(usageDate -> remove(applicationSlices.remove(usageDate)));
+            lines.forEach(this::add);
+        }
+    }
+
+    /**
+     * Replaces the slices of the application and the usage dates started with the given prefix. This
+     * method does nothing if the rollup has not been loaded.
+     *
+     * @param application     application (endpoint name)
+     * @param usageDatePrefix beginning of the usage date
+     * @param loader          returns the cost lines of the application and usage dates.
+     */
+    public void replaceByPrefix(String application, String usageDatePrefix,
+                                Supplier<? extends Iterable<CostLine>> loader) {
+        final long replaceVersion = nextVersion();
+        if (replaceVersion < 0) {
+            return;
+        }
+        final List<CostLine> lines = toList(loader.get());
+        synchronized (this) {
+            if (isChanged(replaceVersion)) {
+                return;
+            }
+            final NavigableMap<String, List<CostLine>> prefixSlices = getSlices(application)
+                    .subMap(usageDatePrefix, true, usageDatePrefix + Character.MAX_VALUE, true);
+            prefixSlices.values().forEach(this::remove);
+            prefixSlices.clear();
+            lines.forEach(this::add);
+        }
+    }
+
+    public synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    public synchronized double getTotalCost() {
+        return totalCost.doubleValue();
+    }
+
+    public synchronized double getProjectCost(String project) {
+        return projectCosts.getOrDefault(project, BigDecimal.ZERO).doubleValue();
+    }
+
+    public synchronized double getMonthlyProjectCost(String project, YearMonth month) {
+        return projectMonthlyCosts.getOrDefault(Arrays.asList(project, month.toString()), BigDecimal.ZERO)
+                .doubleValue();
+    }
+
+    public synchronized double getUserCost(String user) {
+        return userCosts.getOrDefault(user, BigDecimal.ZERO).doubleValue();
+    }
+
+    /**
+     * Fills the rollup with the loaded cost lines and returns <b>true</b> or returns <b>false</b> if the
+     * billing data have been changed since the version the lines have been read for.
+     */
+    private synchronized boolean setLoaded(List<CostLine> lines, long loadVersion) {
+        if (version != loadVersion) {
+            log.debug("Billing data have been changed while billing cost rollup was loaded");
+            return false;
+        }
+        clear();
+        lines.forEach(this::add);
+        loaded = true;
+        log.debug("Billing cost rollup has been loaded for {} applications", slices.size());
+        return true;
+    }
+
+    /**
+     * Counts the change of the billing data and returns its version or <b>-1</b> if the rollup has not been
+     * loaded.
+     */
+    private synchronized long nextVersion() {
+        version++;
+        return loaded ? version : -1;
+    }
+
+    /**
+     * Returns <b>true</b> if the cost lines read for the given version can not be applied. The rollup is
+     * invalidated if the billing data have been changed concurrently, since the order of the changes is unknown.
+     */
+    private boolean isChanged(long replaceVersion) {
+        if (!loaded) {
+            return true;
+        }
+        if (version != replaceVersion) {
+            log.debug("Billing data have been changed concurrently, billing cost rollup is invalidated");
+            invalidate();
+            return true;
+        }
+        return false;
+    }
+
+    private void clear() {
+        slices.clear();
+        projectCosts.clear();
+        projectMonthlyCosts.clear();
+        userCosts.clear();
+        totalCost = BigDecimal.ZERO;
+    }
+
+    private NavigableMap<String, List<CostLine>> getSlices(String application) {
+        return slices.computeIfAbsent(application, a -> new TreeMap<>());
+    }
+
+    private void add(CostLine line) {
+        getSlices(line.application)
+                .computeIfAbsent(line.usageDate, d -> new ArrayList<>())
+                .add(line);
+        addCost(line, line.cost);
+    }
+
+    private void remove(List<CostLine> slice) {
+        if (slice != null) {
+            slice.forEach(line -> addCost(line, line.cost.negate()));
+        }
+    }
+
+    private void addCost(CostLine line, BigDecimal cost) {
+        totalCost = totalCost.add(cost);
+        if (line.project != null) {
+            projectCosts.merge(line.project, cost, BigDecimal::add);
+            if (line.usageDate.length() >= MONTH_LENGTH) {
+                projectMonthlyCosts.merge(Arrays.asList(line.project, line.usageDate.substring(0, MONTH_LENGTH)),
+                        cost, BigDecimal::add);
+            }
+        }
+        if (line.user != null) {
+            userCosts.merge(line.user, cost, BigDecimal::add);
+        }
+    }
+
+    private static List<CostLine> toList(Iterable<CostLine> lines) {
+        final List<CostLine> list = new ArrayList<>();
+        lines.forEach(list::add);
+        return list;
+    }
+
+    /**
+     * Cost of the project and user for the application and usage date.
+     */
+    public static class CostLine {
+        private final String application;
+        private final String usageDate;
+        private final String project;
+        private final String user;
+        private final BigDecimal cost;
+
+        public CostLine(String application, String usageDate, String project, String user, double cost) {
+            this.application = String.valueOf(application);
+            this.usageDate = String.valueOf(usageDate);
+            this.project = project;
+            this.user = user;
+            this.cost = BigDecimal.valueOf(cost);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.epam.datalab.backendapi.domain;
+
+import com.epam.datalab.dto.SchedulerJobDTO;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Scheduler actions fired at the time computed from the scheduler job data. The next fire time of each action
+ * is stored with the scheduler data in the field {@link #getField()}, so the scheduler jobs which have to be
+ * fired can be found by index instead of checking every scheduler on each tick.
+ */
+public enum SchedulerFireTime {
+    START("next_start") {
+        @Override
+        public Optional<Instant> next(SchedulerJobDTO dto, Instant from) {
+            return nextRepeated(dto, dto.getStartDaysRepeat(), dto.getStartTime(), from);
+        }
+    },
+    STOP("next_stop") {
+        @Override
+        public Optional<Instant> next(SchedulerJobDTO dto, Instant from) {
+            return nextRepeated(dto, dto.getStopDaysRepeat(), dto.getEndTime(), from);
+        }
+    },
+    TERMINATE("next_terminate") {
+        @Override
+        public Optional<Instant> next(SchedulerJobDTO dto, Instant from) {
+            final LocalDateTime terminateDateTime = dto.getTerminateDateTime();
+            if (Objects.isNull(terminateDateTime)) {
+                return Optional.empty();
+            }
+            final ZoneOffset offset = offset(dto);
+            final LocalDateTime fireTime = terminateDateTime.truncatedTo(ChronoUnit.MINUTES);
+            return !fireTime.isBefore(localDateTime(from, offset)) && isActive(dto, fireTime.toLocalDate()) ?
+                    Optional.of(fireTime.toInstant(offset)) : Optional.empty();
+        }
+    };
+
+    private static final int DAYS_IN_WEEK = 7;
+
+    private final String field;
+
+    SchedulerFireTime(String field) {
+        this.field = field;
+    }
+
+    /**
+     * Returns the name of the field with the next fire time inside of the scheduler data.
+     */
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * Computes the first fire time of the action which is not before the given instant.
+     *
+     * @param dto  scheduler job data.
+     * @param from the instant to search the fire time from (inclusive, the precision is one minute).
+     * @return the fire time or empty if the action will not be fired anymore.
+     */
+    public abstract Optional<Instant> next(SchedulerJobDTO dto, Instant from);
+
+    private static Optional<Instant> nextRepeated(SchedulerJobDTO dto, List<DayOfWeek> daysRepeat, LocalTime time,
+                                                  Instant from) {
+        if (Objects.isNull(time) || Objects.isNull(daysRepeat) || daysRepeat.isEmpty()) {
+            return Optional.empty();
+        }
+        final ZoneOffset offset = offset(dto);
+        final LocalDateTime fromDateTime = localDateTime(from, offset);
+        final LocalTime fireTime = time.truncatedTo(ChronoUnit.MINUTES);
+        LocalDate date = fromDateTime.toLocalDate();
+        if (Objects.nonNull(dto.getBeginDate()) && date.isBefore(dto.getBeginDate())) {
+            date = dto.getBeginDate();
+        }
+        for (int i = 0; i <= DAYS_IN_WEEK; i++, date = date.plusDays(1)) {
+            if (Objects.nonNull(dto.getFinishDate()) && date.isAfter(dto.getFinishDate())) {
+                return Optional.empty();
+            }
+            final LocalDateTime candidate = date.atTime(fireTime);
+            if (daysRepeat.contains(date.getDayOfWeek()) && !candidate.isBefore(fromDateTime)) {
+                return Optional.of(candidate.toInstant(offset));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static boolean isActive(SchedulerJobDTO dto, LocalDate date) {
+        return (Objects.isNull(dto.getBeginDate()) || !date.isBefore(dto.getBeginDate()))
+                && (Objects.isNull(dto.getFinishDate()) || !date.isAfter(dto.getFinishDate()));
+    }
+
+    private static LocalDateTime localDateTime(Instant instant, ZoneOffset offset) {
+        return LocalDateTime.ofInstant(instant.truncatedTo(ChronoUnit.MINUTES), offset);
+    }
+
+    private static ZoneOffset offset(SchedulerJobDTO dto) {
+        return Optional.ofNullable(dto.getTimeZoneOffset()).orElse(ZoneOffset.UTC);
+    }
+}
@@ -40,88 +40,109 @@ import org.apache.commons.lang3.StringUtils;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
+import java.util.Arrays;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.IntStream;
 
 @Slf4j
 public class AuditInterceptor implements MethodInterceptor {
+    private static final int NO_PARAMETER = -1;
+
     @Inject
     private AuditService auditService;
     @Inject
     private SelfServiceApplicationConfiguration configuration;
 
+    /**
+     * Audit metadata of the intercepted methods. The annotations are reflected once per method.
+     */
+    private final Map<Method, AuditedMethod> auditedMethods = new ConcurrentHashMap<>();
+
     @Override
     public Object invoke(MethodInvocation mi) throws Throwable {
         if (configuration.isAuditEnabled()) {
-            Method method = mi.getMethod();
-            final Parameter[] parameters = mi.getMethod().getParameters();
-            final String user = getUserInfo(mi, parameters);
-            final AuditActionEnum action = getAuditAction(method);
-            final AuditResourceTypeEnum resourceType = getResourceType(method);
-            final String project = getProject(mi, parameters);
-            final String resourceName = getResourceName(mi, parameters);
-            final String auditInfo = getInfo(mi, parameters);
+            final AuditedMethod auditedMethod = auditedMethods.computeIfAbsent(mi.getMethod(), AuditedMethod::new);
+            final Object[] arguments = mi.getArguments();
 
             AuditDTO auditCreateDTO = AuditDTO.builder()
-                    .user(user)
-                    .action(action)
-                    .type(resourceType)
-                    .project(project)
-                    .resourceName(resourceName)
-                    .info(auditInfo)
+                    .user(auditedMethod.getUser(arguments))
+                    .action(auditedMethod.getAction())
+                    .type(auditedMethod.getType())
+                    .project(auditedMethod.getProject(arguments))
+                    .resourceName(auditedMethod.getResourceName(arguments))
+                    .info(auditedMethod.getInfo(arguments))
                     .build();
             auditService.save(auditCreateDTO);
         }
         return mi.proceed();
     }
 
-    private String getUserInfo(MethodInvocation mi, Parameter[] parameters) {
-        return IntStream.range(0, parameters.length)
-                .filter(i -> Objects.nonNull(parameters[i].getAnnotation(User.class)))
-                .mapToObj(i -> ((UserInfo) mi.getArguments()[i]).getName())
-                .findAny()
-                .orElseThrow(() -> new DatalabException("UserInfo parameter wanted!"));
-    }
+    private static final class AuditedMethod {
+        private final Audit audit;
+        private final int userIndex;
+        private final int projectIndex;
+        private final int resourceNameIndex;
+        private final int infoIndex;
 
-    private AuditActionEnum getAuditAction(Method method) {
-        Annotation[] declaredAnnotations = method.getDeclaredAnnotations();
-        return IntStream.range(0, method.getDeclaredAnnotations().length)
-                .filter(i -> declaredAnnotations[i] instanceof Audit)
-                .mapToObj(i -> ((Audit) declaredAnnotations[i]).action())
-                .findAny()
-                .orElseThrow(() -> new DatalabException("'Audit' annotation wanted!"));
-    }
+        private AuditedMethod(Method method) {
+            final Parameter[] parameters = method.getParameters();
+            this.audit = Arrays.stream(method.getDeclaredAnnotations())
+                    .filter(a -> a instanceof Audit)
+                    .map(a -> (Audit) a)
+                    .findAny()
+                    .orElse(null);
+            this.userIndex = parameterIndex(parameters, User.class);
+            this.projectIndex = parameterIndex(parameters, Project.class);
+            this.resourceNameIndex = parameterIndex(parameters, ResourceName.class);
+            this.infoIndex = parameterIndex(parameters, Info.class);
+        }
 
-    private AuditResourceTypeEnum getResourceType(Method method) {
-        Annotation[] declaredAnnotations = method.getDeclaredAnnotations();
-        return IntStream.range(0, method.getDeclaredAnnotations().length)
-                .filter(i -> declaredAnnotations[i] instanceof Audit)
-                .mapToObj(i -> ((Audit) declaredAnnotations[i]).type())
-                .findAny()
-                .orElseThrow(() -> new DatalabException("'Audit' annotation wanted!"));
-    }
+        private String getUser(Object[] arguments) {
+            if (userIndex == NO_PARAMETER) {
+                throw new DatalabException("UserInfo parameter wanted!");
+            }
+            return ((UserInfo) arguments[userIndex]).getName();
+        }
 
-    private String getProject(MethodInvocation mi, Parameter[] parameters) {
-        return IntStream.range(0, parameters.length)
-                .filter(i -> Objects.nonNull(parameters[i].getAnnotation(Project.class)))
-                .mapToObj(i -> (String) mi.getArguments()[i])
-                .findAny()
-                .orElse(StringUtils.EMPTY);
-    }
+        private AuditActionEnum getAction() {
+            return getAudit().action();
+        }
 
-    private String getResourceName(MethodInvocation mi, Parameter[] parameters) {
-        return IntStream.range(0, parameters.length)
-                .filter(i -> Objects.nonNull(parameters[i].getAnnotation(ResourceName.class)))
-                .mapToObj(i -> (String) mi.getArguments()[i])
-                .findAny()
-                .orElse(StringUtils.EMPTY);
-    }
+        private AuditResourceTypeEnum getType() {
+            return getAudit().type();
+        }
 
-    private String getInfo(MethodInvocation mi, Parameter[] parameters) {
-        return IntStream.range(0, parameters.length)
-                .filter(i -> Objects.nonNull(parameters[i].getAnnotation(Info.class)) && Objects.nonNull(mi.getArguments()[i]))
-                .mapToObj(i -> (String) mi.getArguments()[i])
-                .findAny()
-                .orElse(StringUtils.EMPTY);
+        private Audit getAudit() {
+            if (Objects.isNull(audit)) {
+                throw new DatalabException("'Audit' annotation wanted!");
+            }
+            return audit;
+        }
+
+        private String getProject(Object[] arguments) {
+            return getString(projectIndex, arguments);
+        }
+
+        private String getResourceName(Object[] arguments) {
+            return getString(resourceNameIndex, arguments);
+        }
+
+        private String getInfo(Object[] arguments) {
+            return getString(infoIndex, arguments);
+        }
+
+        private static String getString(int index, Object[] arguments) {
+            return index != NO_PARAMETER && Objects.nonNull(arguments[index]) ? (String) arguments[index] :
+                    StringUtils.EMPTY;
+        }
+
+        private static int parameterIndex(Parameter[] parameters, Class<? extends Annotation> annotation) {
+            return IntStream.range(0, parameters.length)
+                    .filter(i -> Objects.nonNull(parameters[i].getAnnotation(annotation)))
+                    .findFirst()
+                    .orElse(NO_PARAMETER);
+        }
     }
 }
@@ -40,6 +40,11 @@ import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 @Path("/audit")
 public class AuditResource {
@@ -67,9 +72,10 @@ public class AuditResource {
                              @QueryParam("date-start") String dateStart,
                              @QueryParam("date-end") String dateEnd,
                              @QueryParam("page-number") int pageNumber,
-                             @QueryParam("page-size") int pageSize) {
+                             @QueryParam("page-size") int pageSize,
+                             @QueryParam("page-key") String pageKey) {
         return Response
-                .ok(auditService.getAudit(users, projects, resourceNames, resourceTypes, dateStart, dateEnd, pageNumber, pageSize))
+                .ok(auditService.getAudit(users, projects, resourceNames, resourceTypes, dateStart, dateEnd, pageNumber, pageSize, pageKey))
                 .build();
     }
 
@@ -84,7 +90,12 @@ public class AuditResource {
     @Path("/report/download")
     @Produces(MediaType.APPLICATION_OCTET_STREAM)
     public Response downloadAuditReport(@Auth UserInfo userInfo, AuditFilter filter) {
-        return Response.ok(auditService.downloadAuditReport(filter))
+        final StreamingOutput report = output -> {
+            final Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            auditService.downloadAuditReport(filter, writer);
+            writer.flush();
+        };
+        return Response.ok(report)
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"audit-report.csv\"")
                 .build();
     }
@@ -36,6 +36,11 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 @Path("/billing")
 @Consumes(MediaType.APPLICATION_JSON)
@@ -66,7 +71,12 @@ public class BillingResource {
     @Path("/report/download")
     @Produces(MediaType.APPLICATION_OCTET_STREAM)
     public Response downloadBillingReport(@Auth UserInfo userInfo, @Valid @NotNull ExportBillingFilter filter) {
-        return Response.ok(billingService.downloadReport(userInfo, filter, filter.getLocale()))
+        final StreamingOutput report = output -> {
+            final Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            billingService.downloadReport(userInfo, filter, filter.getLocale(), writer);
+            writer.flush();
+        };
+        return Response.ok(report)
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"billing-report.csv\"")
                 .build();
     }
@@ -26,6 +26,8 @@ import com.epam.datalab.backendapi.domain.AuditReport;
 import com.epam.datalab.backendapi.resources.dto.AuditFilter;
 import com.epam.datalab.model.StringList;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.List;
 
 public interface AuditService {
@@ -33,10 +35,10 @@ public interface AuditService {
 
     void save(String user, AuditCreateDTO audit);
 
-    List<AuditPaginationDTO> getAudit(List<String> users, List<String> projects, List<String> resourceNames, List<String> resourceTypes, String dateStart, String dateEnd, int pageNumber, int pageSize);
+    List<AuditPaginationDTO> getAudit(List<String> users, List<String> projects, List<String> resourceNames, List<String> resourceTypes, String dateStart, String dateEnd, int pageNumber, int pageSize, String pageKey);
 
     AuditReport getAuditReport(AuditFilter filter);
 
-    String downloadAuditReport(AuditFilter filter);
+    void downloadAuditReport(AuditFilter filter, Writer writer) throws IOException;
 
 }
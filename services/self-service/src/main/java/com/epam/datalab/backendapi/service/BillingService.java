@@ -25,12 +25,14 @@ import com.epam.datalab.backendapi.resources.dto.BillingFilter;
 import com.epam.datalab.backendapi.resources.dto.ExportBillingFilter;
 import com.epam.datalab.backendapi.resources.dto.QuotaUsageDTO;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.List;
 
 public interface BillingService {
     BillingReport getBillingReport(UserInfo userInfo, BillingFilter filter);
 
-	String downloadReport(UserInfo userInfo, ExportBillingFilter filter, String locale);
+	void downloadReport(UserInfo userInfo, ExportBillingFilter filter, String locale, Writer writer) throws IOException;
 
     BillingReport getExploratoryBillingData(String project, String endpoint, String exploratoryName, List<String> compNames);
 
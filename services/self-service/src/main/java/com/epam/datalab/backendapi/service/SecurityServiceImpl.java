@@ -29,15 +29,21 @@ import com.google.inject.Inject;
 import org.keycloak.representations.AccessTokenResponse;
 
 public class SecurityServiceImpl implements SecurityService {
+    private static final String SERVICE_ACCOUNT_PRINCIPAL = "service-account";
+    private static final String OFFLINE_PRINCIPAL_PREFIX = "offline:";
+
     private final KeycloakService keycloakService;
     private final SecurityDAO securityDAO;
     private final AuditService auditService;
+    private final TokenCache tokenCache;
 
     @Inject
-    public SecurityServiceImpl(KeycloakService keycloakService, SecurityDAO securityDAO, AuditService auditService) {
+    public SecurityServiceImpl(KeycloakService keycloakService, SecurityDAO securityDAO, AuditService auditService,
+                               TokenCache tokenCache) {
         this.keycloakService = keycloakService;
         this.securityDAO = securityDAO;
         this.auditService = auditService;
+        this.tokenCache = tokenCache;
     }
 
     @Override
@@ -45,6 +51,7 @@ public class SecurityServiceImpl implements SecurityService {
         final AccessTokenResponse token = keycloakService.getToken(code);
         final String username = KeycloakUtil.parseToken(token.getToken()).getPreferredUsername();
         securityDAO.saveUser(username, token);
+        tokenCache.invalidate(OFFLINE_PRINCIPAL_PREFIX + username);
         UserInfo userInfo = new UserInfo(username, token.getToken());
         userInfo.setRefreshToken(token.getRefreshToken());
         saveLogInAudit(username);
@@ -53,20 +60,26 @@ public class SecurityServiceImpl implements SecurityService {
 
     @Override
     public UserInfo getUserInfoOffline(String username) {
-        return securityDAO.getTokenResponse(username)
-                .map(AccessTokenResponse::getRefreshToken)
-                .map(keycloakService::refreshToken)
-                .map(accessTokenResponse -> new UserInfo(KeycloakUtil.parseToken(accessTokenResponse.getToken()).getPreferredUsername(),
-                        accessTokenResponse.getToken()))
-                .orElseThrow(() -> new DatalabException("Can not find token for user " + username));
+        final AccessTokenResponse accessTokenResponse = tokenCache.get(OFFLINE_PRINCIPAL_PREFIX + username,
+                () -> refreshOfflineToken(username));
+        return new UserInfo(KeycloakUtil.parseToken(accessTokenResponse.getToken()).getPreferredUsername(),
+                accessTokenResponse.getToken());
     }
 
     @Override
     public UserInfo getServiceAccountInfo(String username) {
-        AccessTokenResponse accessTokenResponse = keycloakService.generateServiceAccountToken();
+        AccessTokenResponse accessTokenResponse = tokenCache.get(SERVICE_ACCOUNT_PRINCIPAL,
+                keycloakService::generateServiceAccountToken);
         return new UserInfo(username, accessTokenResponse.getToken());
     }
 
+    private AccessTokenResponse refreshOfflineToken(String username) {
+        return securityDAO.getTokenResponse(username)
+                .map(AccessTokenResponse::getRefreshToken)
+                .map(keycloakService::refreshToken)
+                .orElseThrow(() -> new DatalabException("Can not find token for user " + username));
+    }
+
     private void saveLogInAudit(String username) {
         AuditDTO auditDTO = AuditDTO.builder()
                 .user(username)
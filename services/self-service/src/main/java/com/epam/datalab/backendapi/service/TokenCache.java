@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.epam.datalab.backendapi.service;
+
+import com.epam.datalab.backendapi.util.KeycloakUtil;
+import com.epam.datalab.exceptions.DatalabException;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import org.keycloak.representations.AccessTokenResponse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Cache of the access tokens by principal. The expiration time of token is decoded from the JWT. The
+ * token is refreshed in the background before it expires while it is in use, and the concurrent requests
+ * for the token which is absent or expired wait for the single refresh.
+ */
+@Slf4j
+@Singleton
+public class TokenCache {
+    private static final long REFRESH_MARGIN_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final long EXPIRATION_SKEW_MILLIS = TimeUnit.SECONDS.toMillis(5);
+    private static final long IDLE_TIMEOUT_MILLIS = TimeUnit.HOURS.toMillis(2);
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                    .setNameFormat(getClass().getSimpleName() + "-%d")
+                    .setDaemon(true)
+                    .build());
+
+    /**
+     * Returns the cached token of the principal or requests the new one if the token is absent or expired.
+     *
+     * @param principal principal of token
+     * @param loader    requests the new token of the principal
+     */
+    public AccessTokenResponse get(String principal, Supplier<AccessTokenResponse> loader) {
+        return entries.computeIfAbsent(principal, p -> new Entry(p, loader)).get();
+    }
+
+    /**
+     * Removes the token of the principal from the cache.
+     *
+     * @param principal principal of token
+     */
+    public void invalidate(String principal) {
+        entries.remove(principal);
+    }
+
+    private static long getExpirationTime(AccessTokenResponse response) {
+        try {
+            final long exp = KeycloakUtil.parseToken(response.getToken()).getExp();
+            return TimeUnit.SECONDS.toMillis(exp);
+        } catch (Exception e) {
+            log.debug("Can not decode token expiration time, expires_in is used: {}", e.getMessage());
+            return System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(response.getExpiresIn());
+        }
+    }
+
+    private final class Entry {
+        private final String principal;
+        private final Supplier<AccessTokenResponse> loader;
+        private volatile long accessTimeMillis;
+        private AccessTokenResponse token;
+        private long expirationTimeMillis;
+        private CompletableFuture<AccessTokenResponse> refresh;
+
+        private Entry(String principal, Supplier<AccessTokenResponse> loader) {
+            this.principal = principal;
+            this.loader = loader;
+        }
+
+        private AccessTokenResponse get() {
+            accessTimeMillis = System.currentTimeMillis();
+            final CompletableFuture<AccessTokenResponse> future;
+            final boolean owner;
+            synchronized (this) {
+                if (token != null && accessTimeMillis < expirationTimeMillis - EXPIRATION_SKEW_MILLIS) {
+                    return token;
+                }
+                owner = (refresh == null);
+                if (owner) {
+                    refresh = new CompletableFuture<>();
+                }
+                future = refresh;
+            }
+            if (owner) {
+                load(future);
+            }
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new DatalabException("Can not get token for " + principal + " due to: " + e.getMessage(), e);
+            }
+        }
+
+        private void refreshInBackground() {
+            if (entries.get(principal) != this) {
+                return;
+            }
+            if (System.currentTimeMillis() - accessTimeMillis > IDLE_TIMEOUT_MILLIS) {
+                log.debug("Token of {} has not been used for a long time and is removed from cache", principal);
+                entries.remove(principal, this);
+                return;
+            }
+            final CompletableFuture<AccessTokenResponse> future;
+            synchronized (this) {
+                if (refresh != null) {
+                    return;
+                }
+                future = refresh = new CompletableFuture<>();
+            }
+            load(future);
+        }
+
+        private void load(CompletableFuture<AccessTokenResponse> future) {
+            try {
+                final AccessTokenResponse response = loader.get();
+                final long expirationTime = getExpirationTime(response);
+                synchronized (this) {
+                    token = response;
+                    expirationTimeMillis = expirationTime;
+                    refresh = null;
+                }
+                scheduleRefresh(expirationTime);
+                future.complete(response);
+            } catch (Exception e) {
+                log.warn("Can not refresh token of {} due to: {}", principal, e.getMessage());
+                synchronized (this) {
+                    refresh = null;
+                }
+                future.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * Schedules the refresh before the expiration of token, but not earlier than in the middle of the
+         * token lifetime.
+         */
+        private void scheduleRefresh(long expirationTime) {
+            final long lifetime = expirationTime - System.currentTimeMillis();
+            if (lifetime > 0) {
+                refresher.schedule(this::refreshInBackground, Math.max(lifetime - REFRESH_MARGIN_MILLIS,
+                        lifetime / 2), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+}
@@ -26,8 +26,12 @@ import com.epam.datalab.backendapi.service.AuditService;
 import com.epam.datalab.backendapi.util.AuditUtils;
 import com.google.inject.Inject;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static com.epam.datalab.backendapi.domain.AuditActionEnum.FOLLOW_LINK;
 
@@ -58,8 +62,8 @@ public class AuditServiceImpl implements AuditService {
 
     @Override
     public List<AuditPaginationDTO> getAudit(List<String> users, List<String> projects, List<String> resourceNames, List<String> resourceTypes,
-                                             String dateStart, String dateEnd, int pageNumber, int pageSize) {
-        return auditDAO.getAudit(users, projects, resourceNames, resourceTypes, dateStart, dateEnd, pageNumber, pageSize);
+                                             String dateStart, String dateEnd, int pageNumber, int pageSize, String pageKey) {
+        return auditDAO.getAudit(users, projects, resourceNames, resourceTypes, dateStart, dateEnd, pageNumber, pageSize, pageKey);
     }
 
     @Override
@@ -75,14 +79,17 @@ public class AuditServiceImpl implements AuditService {
                 .build();
     }
 
-    public String downloadAuditReport(AuditFilter filter) {
-        List<AuditReportLine> auditReportLines = auditDAO.aggregateAuditReport(filter);
+    @Override
+    public void downloadAuditReport(AuditFilter filter, Writer writer) throws IOException {
         final LocalDate dateFrom = LocalDate.parse(filter.getDateStart());
         final LocalDate dateTo = LocalDate.parse(filter.getDateEnd());
-        StringBuilder reportHead = new StringBuilder(AuditUtils.getFirstLine(dateFrom, dateTo,  filter.getLocale()));
-        reportHead.append(AuditUtils.getHeader());
-        auditReportLines.forEach(r -> reportHead.append(AuditUtils.printLine(r)));
-
-        return reportHead.toString();
+        writer.write(AuditUtils.getFirstLine(dateFrom, dateTo, filter.getLocale()));
+        writer.write(AuditUtils.getHeader());
+        try (Stream<AuditReportLine> auditReportLines = auditDAO.streamAuditReport(filter)) {
+            final Iterator<AuditReportLine> iterator = auditReportLines.iterator();
+            while (iterator.hasNext()) {
+                writer.write(AuditUtils.printLine(iterator.next()));
+            }
+        }
     }
 }
@@ -38,12 +38,15 @@ import com.epam.datalab.backendapi.service.ProjectService;
 import com.epam.datalab.backendapi.util.BillingUtils;
 import com.epam.datalab.cloud.CloudProvider;
 import com.epam.datalab.constants.ServiceConsts;
+import com.epam.datalab.dto.UserInstanceDTO;
 import com.epam.datalab.dto.UserInstanceStatus;
 import com.epam.datalab.dto.billing.BillingData;
 import com.epam.datalab.dto.billing.BillingResourceType;
+import com.epam.datalab.dto.computational.UserComputationalResource;
 import com.epam.datalab.exceptions.DatalabException;
 import com.epam.datalab.rest.client.RESTService;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
 import lombok.AllArgsConstructor;
@@ -53,11 +56,19 @@ import org.apache.commons.collections4.CollectionUtils;
 import org.apache.http.client.utils.URIBuilder;
 
 import javax.ws.rs.core.GenericType;
+import java.io.IOException;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -96,12 +107,10 @@ public class BillingServiceImpl implements BillingService {
     @Override
     public BillingReport getBillingReport(UserInfo user, BillingFilter filter) {
         setUserFilter(user, filter);
-        List<BillingReportLine> billingReportLines = billingDAO.aggregateBillingData(filter)
-                .stream()
-                .peek(this::appendStatuses)
-                .peek(this::appendShapes)
-                .filter(bd -> CollectionUtils.isEmpty(filter.getStatuses()) || filter.getStatuses().contains(bd.getStatus()))
-                .peek(bd -> { if (bd.getShape() != null && bd.getShape().contains("null")) bd.setShape(null);})
+        final List<BillingReportLine> aggregatedLines = billingDAO.aggregateBillingData(filter);
+        final Map<String, ProjectDTO> projects = getEdgeProjects(aggregatedLines);
+        final Map<List<String>, UserInstanceDTO> userInstances = getUserInstances(getInstanceProjects(aggregatedLines));
+        List<BillingReportLine> billingReportLines = toReportLines(aggregatedLines.stream(), filter, projects, userInstances)
                 .collect(Collectors.toList());
         
         final LocalDate min = billingReportLines.stream().min(Comparator.comparing(BillingReportLine::getUsageDateFrom)).map(BillingReportLine::getUsageDateFrom).orElse(null);
@@ -121,15 +130,41 @@ public class BillingServiceImpl implements BillingService {
     }
 
     @Override
-    public String downloadReport(UserInfo user, ExportBillingFilter filter, String locale) {
-        BillingReport report = getBillingReport(user, filter);
-        boolean isReportComplete = report.isReportHeaderCompletable();
-        StringBuilder reportHead = new StringBuilder(BillingUtils.getFirstLine(report.getSbn(), report.getUsageDateFrom(), report.getUsageDateTo(), locale));
-        String stringOfAdjustedHeader = BillingUtils.getHeader(isReportComplete);
-        reportHead.append(stringOfAdjustedHeader);
-        report.getReportLines().forEach(r -> reportHead.append(BillingUtils.printLine(r, isReportComplete)));
-        reportHead.append(BillingUtils.getTotal(report.getTotalCost(), report.getCurrency(), stringOfAdjustedHeader));
-        return reportHead.toString();
+    public void downloadReport(UserInfo user, ExportBillingFilter filter, String locale, Writer writer) throws IOException {
+        setUserFilter(user, filter);
+        final boolean isReportComplete = hasUserBillingRole(user);
+        final Map<String, ProjectDTO> projects = getProjects();
+        final List<String> projectNames = CollectionUtils.isNotEmpty(filter.getProjects()) ?
+                filter.getProjects() : new ArrayList<>(projects.keySet());
+        final Map<List<String>, UserInstanceDTO> userInstances = getUserInstances(projectNames);
+        final Optional<BillingReportLine> period = billingDAO.getBillingPeriod(filter);
+
+        writer.write(BillingUtils.getFirstLine(configuration.getServiceBaseName(),
+                period.map(BillingReportLine::getUsageDateFrom).orElse(null),
+                period.map(BillingReportLine::getUsageDateTo).orElse(null), locale));
+        final String stringOfAdjustedHeader = BillingUtils.getHeader(isReportComplete);
+        writer.write(stringOfAdjustedHeader);
+
+        double sum = 0;
+        String currency = null;
+        boolean isSingleCurrency = true;
+        boolean isEmpty = true;
+        try (Stream<BillingReportLine> lines = toReportLines(billingDAO.streamBillingData(filter), filter, projects, userInstances)) {
+            final Iterator<BillingReportLine> iterator = lines.iterator();
+            while (iterator.hasNext()) {
+                final BillingReportLine line = iterator.next();
+                sum += line.getCost();
+                if (isEmpty) {
+                    currency = line.getCurrency();
+                    isEmpty = false;
+                } else if (!Objects.equals(currency, line.getCurrency())) {
+                    isSingleCurrency = false;
+                }
+                writer.write(BillingUtils.printLine(line, isReportComplete));
+            }
+        }
+        writer.write(BillingUtils.getTotal(BigDecimal.valueOf(sum).setScale(2, BigDecimal.ROUND_HALF_UP).doubleValue(),
+                isSingleCurrency ? currency : null, stringOfAdjustedHeader));
     }
 
     @Override
@@ -160,14 +195,17 @@ public class BillingServiceImpl implements BillingService {
             throw new DatalabException("Cannot update billing info. There are no endpoints");
         }
 
-        Map<EndpointDTO, List<BillingData>> billingDataMap = endpoints
-                .stream()
-                .collect(Collectors.toMap(e -> e, e -> getBillingData(userInfo, e)));
+        final Map<EndpointDTO, List<BillingData>> billingDataMap = getBillingData(userInfo, endpoints);
+        if (billingDataMap.values().stream().allMatch(List::isEmpty)) {
+            log.info("There is no billing information from endpoints");
+            return;
+        }
+        final Map<String, BillingReportLine> billableResources = getBillableResources(endpoints);
 
         billingDataMap.forEach((endpointDTO, billingData) -> {
             log.info("Updating billing information for endpoint {}. Billing data {}", endpointDTO.getName(), billingData);
             if (!billingData.isEmpty()) {
-                updateBillingData(endpointDTO, billingData, endpoints);
+                updateBillingData(endpointDTO, billingData, billableResources);
                 log.info("Updating billing information for endpoint {}. Billing data {} success", endpointDTO.getName(), billingData);
             }
         });
@@ -243,10 +281,10 @@ public class BillingServiceImpl implements BillingService {
                 .flatMap(endpoint -> BillingUtils.edgeBillingDataStream(projectName, serviceBaseName, endpoint.getName()));
     }
 
-    private void updateBillingData(EndpointDTO endpointDTO, List<BillingData> billingData, List<EndpointDTO> endpoints) {
+    private void updateBillingData(EndpointDTO endpointDTO, List<BillingData> billingData,
+                                   Map<String, BillingReportLine> billableResources) {
         final String endpointName = endpointDTO.getName();
         final CloudProvider cloudProvider = endpointDTO.getCloudProvider();
-        final Map<String, BillingReportLine> billableResources = getBillableResources(endpoints);
         final Stream<BillingReportLine> billingReportLineStream = billingData
                 .stream()
                 .peek(bd -> bd.setApplication(endpointName))
@@ -272,25 +310,58 @@ public class BillingServiceImpl implements BillingService {
     }
 
     private void updateGcpBillingData(String endpointName, Map<String, List<BillingReportLine>> billingData) {
-        log.info("!!!TEST OUT!!! BillingReportLine: {}", billingData);
-        log.info("!!!TEST OUT!!! endpointName: {}", endpointName);
-
-
-        billingData.forEach((usageDate, billingReportLines) -> {
-            billingDAO.deleteByUsageDateRegex(endpointName, usageDate);
-            billingDAO.save(billingReportLines);
-        });
+        billingData.forEach((usageDate, billingReportLines) ->
+                billingDAO.upsertByUsageDateRegex(endpointName, usageDate, billingReportLines));
     }
 
     private void updateAwsBillingData(String endpointName, Map<String, List<BillingReportLine>> billingData) {
-        billingData.forEach((usageDate, billingReportLines) -> {
-            billingDAO.deleteByUsageDate(endpointName, usageDate);
-            billingDAO.save(billingReportLines);
-        });
+        billingData.forEach((usageDate, billingReportLines) ->
+                billingDAO.upsertByUsageDate(endpointName, usageDate, billingReportLines));
     }
 
     private void updateAzureBillingData(List<BillingReportLine> billingReportLines) {
-        billingDAO.save(billingReportLines);
+        billingDAO.upsert(billingReportLines);
+    }
+
+    /**
+     * Retrieves the billing data from all the endpoints concurrently. The endpoint which has not responded
+     * within the billing sync timeout is skipped until the next sync.
+     * @param userInfo user info
+     * @param endpoints endpoints
+     * @return billing data by endpoint
+     */
+    private Map<EndpointDTO, List<BillingData>> getBillingData(UserInfo userInfo, List<EndpointDTO> endpoints) {
+        final ExecutorService executor = Executors.newFixedThreadPool(endpoints.size(), new ThreadFactoryBuilder()
+                .setNameFormat("billing-sync-%d")
+                .setDaemon(true)
+                .build());
+        try {
+            final Map<EndpointDTO, Future<List<BillingData>>> futures = new LinkedHashMap<>();
+            endpoints.forEach(e -> futures.put(e, executor.submit(() -> getBillingData(userInfo, e))));
+            final long deadline = System.nanoTime() + configuration.getBillingSyncTimeout().toNanoseconds();
+            final Map<EndpointDTO, List<BillingData>> billingData = new LinkedHashMap<>();
+            futures.forEach((endpointDTO, future) ->
+                    billingData.put(endpointDTO, getBillingData(endpointDTO, future, deadline - System.nanoTime())));
+            return billingData;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<BillingData> getBillingData(EndpointDTO endpointDTO, Future<List<BillingData>> future, long timeoutNanos) {
+        try {
+            return future.get(Math.max(0, timeoutNanos), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.error("Cannot retrieve billing information for {} within {}.", endpointDTO.getName(),
+                    configuration.getBillingSyncTimeout());
+            future.cancel(true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+        } catch (ExecutionException e) {
+            log.error("Cannot retrieve billing information for {} . Reason {}.", endpointDTO.getName(), e.getMessage(), e);
+        }
+        return Collections.emptyList();
     }
 
     private List<BillingData> getBillingData(UserInfo userInfo, EndpointDTO endpointDTO) {
@@ -320,23 +391,96 @@ public class BillingServiceImpl implements BillingService {
                 .toString();
     }
 
-    private void appendStatuses(BillingReportLine br) {
+    /**
+     * Appends statuses and shapes to the lines of report and filters them by statuses
+     * @param billingReportLines lines of billing report
+     * @param filter billing filter
+     * @param projects projects by name
+     * @param userInstances user instances by user, project and exploratory name
+     * @return lines of report
+     */
+    private Stream<BillingReportLine> toReportLines(Stream<BillingReportLine> billingReportLines, BillingFilter filter,
+                                                    Map<String, ProjectDTO> projects,
+                                                    Map<List<String>, UserInstanceDTO> userInstances) {
+        return billingReportLines
+                .peek(bd -> appendStatuses(bd, projects, userInstances))
+                .peek(bd -> appendShapes(bd, userInstances))
+                .filter(bd -> CollectionUtils.isEmpty(filter.getStatuses()) || filter.getStatuses().contains(bd.getStatus()))
+                .peek(bd -> { if (bd.getShape() != null && bd.getShape().contains("null")) bd.setShape(null);});
+    }
+
+    /**
+     * Fetches the projects of the edge lines of report by one query
+     * @param billingReportLines lines of billing report
+     * @return projects by name
+     */
+    private Map<String, ProjectDTO> getEdgeProjects(List<BillingReportLine> billingReportLines) {
+        if (billingReportLines.stream().noneMatch(bd -> BillingResourceType.EDGE == bd.getResourceType())) {
+            return Collections.emptyMap();
+        }
+        return getProjects();
+    }
+
+    private Map<String, ProjectDTO> getProjects() {
+        return projectService.getProjects()
+                .stream()
+                .collect(Collectors.toMap(ProjectDTO::getName, p -> p, (p1, p2) -> p1));
+    }
+
+    private List<String> getInstanceProjects(List<BillingReportLine> billingReportLines) {
+        return billingReportLines
+                .stream()
+                .filter(bd -> BillingResourceType.EXPLORATORY == bd.getResourceType() ||
+                        BillingResourceType.COMPUTATIONAL == bd.getResourceType())
+                .map(BillingReportLine::getProject)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Fetches the user instances with computational resources of the projects by one query
+     * @param projectNames names of projects
+     * @return user instances by user, project and exploratory name
+     */
+    private Map<List<String>, UserInstanceDTO> getUserInstances(List<String> projectNames) {
+        if (projectNames.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return exploratoryDAO.fetchExploratoryFieldsForProjectWithComp(projectNames)
+                .stream()
+                .collect(Collectors.toMap(ui -> userInstanceKey(ui.getUser(), ui.getProject(), ui.getExploratoryName()),
+                        ui -> ui, (ui1, ui2) -> ui1));
+    }
+
+    private List<String> userInstanceKey(String user, String project, String exploratoryName) {
+        return Arrays.asList(user, project, exploratoryName);
+    }
+
+    private Optional<UserComputationalResource> getComputationalResource(BillingReportLine br,
+                                                                         Map<List<String>, UserInstanceDTO> userInstances) {
+        return Optional.ofNullable(userInstances.get(userInstanceKey(br.getUser(), br.getProject(), br.getExploratoryName())))
+                .flatMap(ui -> ui.getResources()
+                        .stream()
+                        .filter(cr -> cr.getComputationalName().equals(br.getResourceName()))
+                        .findAny());
+    }
+
+    private void appendStatuses(BillingReportLine br, Map<String, ProjectDTO> projects,
+                                Map<List<String>, UserInstanceDTO> userInstances) {
         BillingResourceType resourceType = br.getResourceType();
         if (BillingResourceType.EDGE == resourceType) {
-            projectService.get(br.getProject()).getEndpoints()
-                    .stream()
-                    .filter(e -> e.getName().equals(br.getResourceName()))
-                    .findAny()
+            Optional.ofNullable(projects.get(br.getProject()))
+                    .flatMap(p -> p.getEndpoints()
+                            .stream()
+                            .filter(e -> e.getName().equals(br.getResourceName()))
+                            .findAny())
                     .ifPresent(e -> br.setStatus(e.getStatus()));
         } else if (BillingResourceType.EXPLORATORY == resourceType) {
-            exploratoryService.getUserInstance(br.getUser(), br.getProject(), br.getResourceName())
+            Optional.ofNullable(userInstances.get(userInstanceKey(br.getUser(), br.getProject(), br.getResourceName())))
                     .ifPresent(ui -> br.setStatus(UserInstanceStatus.of(ui.getStatus())));
         } else if (BillingResourceType.COMPUTATIONAL == resourceType) {
-            exploratoryService.getUserInstance(br.getUser(), br.getProject(), br.getExploratoryName(), true)
-                    .flatMap(ui -> ui.getResources()
-                            .stream()
-                            .filter(cr -> cr.getComputationalName().equals(br.getResourceName()))
-                            .findAny())
+            getComputationalResource(br, userInstances)
                     .ifPresent(cr -> br.setStatus(UserInstanceStatus.of(cr.getStatus())));
         }
     }
@@ -344,17 +488,14 @@ public class BillingServiceImpl implements BillingService {
     /**
      * Appends shapes for computational resources
      * @param br Billing report info for certain resource
+     * @param userInstances user instances by user, project and exploratory name
      */
-    private void appendShapes(BillingReportLine br) {
+    private void appendShapes(BillingReportLine br, Map<List<String>, UserInstanceDTO> userInstances) {
         BillingResourceType resourceType = br.getResourceType();
         if (BillingResourceType.COMPUTATIONAL == resourceType) {
             String shape = "Master: 1 x %s Slave: %s x %s";
             int numberOfMasterNodes = 1;
-            exploratoryService.getUserInstance(br.getUser(), br.getProject(), br.getExploratoryName(), true)
-                    .flatMap(ui -> ui.getResources()
-                            .stream()
-                            .filter(cr -> cr.getComputationalName().equals(br.getResourceName()))
-                            .findAny())
+            getComputationalResource(br, userInstances)
                     .ifPresent(cr -> br.setShape(
                             String.format(shape, cr.getMasterNodeShape(), cr.getTotalInstanceCount() - numberOfMasterNodes, cr.getSlaveNodeShape())
                     ));
@@ -175,6 +175,7 @@ public class ComputationalServiceImpl implements ComputationalService {
             final DataEngineType dataEngineType = compResource.getDataEngineType();
             EndpointDTO endpointDTO = endpointService.get(userInstanceDTO.getEndpoint());
             ComputationalTerminateDTO dto = requestBuilder.newComputationalTerminate(resourceCreator, userInstanceDTO, compResource, endpointDTO);
+            dto.setScheduled(userInfo.isScheduled());
 
             final String provisioningUrl = Optional.ofNullable(DATA_ENGINE_TYPE_TERMINATE_URLS.get(dataEngineType))
                     .orElseThrow(UnsupportedOperationException::new);
@@ -239,10 +240,10 @@ public class ComputationalServiceImpl implements ComputationalService {
             log.debug("{} spark cluster {} for userInstance {}", STOPPING.toString(), compName, expName);
             updateComputationalStatus(resourceCreator, project, expName, compName, STOPPING);
             EndpointDTO endpointDTO = endpointService.get(userInstance.getEndpoint());
+            ComputationalStopDTO dto = requestBuilder.newComputationalStop(resourceCreator, userInstance, compName, endpointDTO);
+            dto.setScheduled(userInfo.isScheduled());
             final String uuid = provisioningService.post(endpointDTO.getUrl() + ComputationalAPI.COMPUTATIONAL_STOP_SPARK,
-                    userInfo.getAccessToken(),
-                    requestBuilder.newComputationalStop(resourceCreator, userInstance, compName, endpointDTO),
-                    String.class);
+                    userInfo.getAccessToken(), dto, String.class);
             requestId.put(resourceCreator, uuid);
         } else {
             throw new IllegalStateException(String.format(DATAENGINE_NOT_PRESENT_FORMAT, requiredStatus.toString(), compName, expName));
@@ -259,10 +260,10 @@ public class ComputationalServiceImpl implements ComputationalService {
             log.debug("{} spark cluster {} for userInstance {}", STARTING.toString(), compName, expName);
             updateComputationalStatus(userInfo.getName(), project, expName, compName, STARTING);
             EndpointDTO endpointDTO = endpointService.get(userInstance.getEndpoint());
+            ComputationalStartDTO dto = requestBuilder.newComputationalStart(userInfo, userInstance, compName, endpointDTO);
+            dto.setScheduled(userInfo.isScheduled());
             final String uuid = provisioningService.post(endpointDTO.getUrl() + ComputationalAPI.COMPUTATIONAL_START_SPARK,
-                    userInfo.getAccessToken(),
-                    requestBuilder.newComputationalStart(userInfo, userInstance, compName, endpointDTO),
-                    String.class);
+                    userInfo.getAccessToken(), dto, String.class);
             requestId.put(userInfo.getName(), uuid);
         } else {
             throw new IllegalStateException(String.format(DATAENGINE_NOT_PRESENT_FORMAT, requiredStatus.toString(), compName, expName));
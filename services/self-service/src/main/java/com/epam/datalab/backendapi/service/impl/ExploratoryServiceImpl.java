@@ -345,6 +345,7 @@ public class ExploratoryServiceImpl implements ExploratoryService {
         } else {
             dto = requestBuilder.newExploratoryStart(userInfo, userInstance, endpointDTO, gitCredsDAO.findGitCreds(userInfo.getName()));
         }
+        dto.setScheduled(userInfo.isScheduled());
         return dto;
     }
 
@@ -42,6 +42,7 @@ import com.epam.datalab.exceptions.ResourceInappropriateStateException;
 import com.epam.datalab.exceptions.ResourceNotFoundException;
 import com.epam.datalab.model.scheduler.SchedulerJobData;
 import com.epam.datalab.rest.client.RESTService;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.name.Named;
@@ -55,10 +56,19 @@ import java.time.LocalTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -85,6 +95,13 @@ public class SchedulerJobServiceImpl implements SchedulerJobService {
     private static final String SCHEDULER_NOT_FOUND_MSG = "Scheduler job data not found for user %s with exploratory %s";
     private static final String AUDIT_MESSAGE = "Scheduled action, requested for notebook %s";
     private static final long ALLOWED_INACTIVITY_MINUTES = 1L;
+    private static final int DISPATCH_THREADS = 8;
+
+    private final ExecutorService dispatcher = Executors.newFixedThreadPool(DISPATCH_THREADS,
+            new ThreadFactoryBuilder()
+                    .setNameFormat("scheduler-job-%d")
+                    .setDaemon(true)
+                    .build());
 
     @Inject
     private SchedulerJobDAO schedulerJobDAO;
@@ -158,40 +175,41 @@ public class SchedulerJobServiceImpl implements SchedulerJobService {
 
     @Override
     public void stopComputationalByScheduler() {
-        getComputationalSchedulersForStopping(OffsetDateTime.now(), true)
-                .forEach(this::stopComputational);
+        final List<SchedulerJobData> jobs = new ArrayList<>(schedulerJobDAO.pollComputationalSchedulersToStop(new Date()));
+        jobs.addAll(getComputationalSchedulersForInactivity());
+        dispatch(distinct(jobs), this::stopComputational);
     }
 
     @Override
     public void stopExploratoryByScheduler() {
-        getExploratorySchedulersForStopping(OffsetDateTime.now(), true)
-                .forEach(this::stopExploratory);
+        final Date clusterMaxInactivityAllowedDate =
+                from(LocalDateTime.now().minusMinutes(ALLOWED_INACTIVITY_MINUTES).atZone(systemDefault()).toInstant());
+        final List<SchedulerJobData> jobs = new ArrayList<>(
+                schedulerJobDAO.pollExploratorySchedulersToStop(new Date(), clusterMaxInactivityAllowedDate));
+        jobs.addAll(getExploratorySchedulersForInactivity(clusterMaxInactivityAllowedDate));
+        dispatch(distinct(jobs), this::stopExploratory);
     }
 
     @Override
     public void startExploratoryByScheduler() {
-        getExploratorySchedulersForStarting(OffsetDateTime.now())
-                .forEach(this::startExploratory);
+        dispatch(schedulerJobDAO.pollExploratorySchedulersToStart(new Date()), this::startExploratory);
     }
 
     @Override
     public void startComputationalByScheduler() {
-        getComputationalSchedulersForStarting(OffsetDateTime.now())
-                .forEach(job -> startSpark(job.getUser(), job.getExploratoryName(), job.getComputationalName(),
+        dispatch(schedulerJobDAO.pollComputationalSchedulersToStart(new Date()),
+                job -> startSpark(job.getUser(), job.getExploratoryName(), job.getComputationalName(),
                         job.getProject()));
     }
 
     @Override
     public void terminateExploratoryByScheduler() {
-        getExploratorySchedulersForTerminating(OffsetDateTime.now())
-                .forEach(this::terminateExploratory);
-
+        dispatch(schedulerJobDAO.pollExploratorySchedulersToTerminate(new Date()), this::terminateExploratory);
     }
 
     @Override
     public void terminateComputationalByScheduler() {
-        getComputationalSchedulersForTerminating(OffsetDateTime.now()).forEach(this::terminateComputational);
-
+        dispatch(schedulerJobDAO.pollComputationalSchedulersToTerminate(new Date()), this::terminateComputational);
     }
 
     @Override
@@ -226,14 +244,14 @@ public class SchedulerJobServiceImpl implements SchedulerJobService {
         final String compName = job.getComputationalName();
         final String user = job.getUser();
         log.debug("Stopping exploratory {} computational {} for user {} by scheduler", expName, compName, user);
-        computationalService.stopSparkCluster(securityService.getServiceAccountInfo(user), user, project, expName, compName, String.format(AUDIT_MESSAGE, expName));
+        computationalService.stopSparkCluster(getSchedulerInfo(securityService.getServiceAccountInfo(user)), user, project, expName, compName, String.format(AUDIT_MESSAGE, expName));
     }
 
     private void terminateComputational(SchedulerJobData job) {
         final String user = job.getUser();
         final String expName = job.getExploratoryName();
         final String compName = job.getComputationalName();
-        final UserInfo userInfo = securityService.getServiceAccountInfo(user);
+        final UserInfo userInfo = getSchedulerInfo(securityService.getServiceAccountInfo(user));
         log.debug("Terminating exploratory {} computational {} for user {} by scheduler", expName, compName, user);
         computationalService.terminateComputational(userInfo, user, job.getProject(), expName, compName, String.format(AUDIT_MESSAGE, expName));
     }
@@ -243,21 +261,7 @@ public class SchedulerJobServiceImpl implements SchedulerJobService {
         final String user = job.getUser();
         final String project = job.getProject();
         log.debug("Stopping exploratory {} for user {} by scheduler", expName, user);
-        exploratoryService.stop(securityService.getServiceAccountInfo(user), user, project, expName, String.format(AUDIT_MESSAGE, expName));
-    }
-
-    private List<SchedulerJobData> getExploratorySchedulersForTerminating(OffsetDateTime now) {
-        return schedulerJobDAO.getExploratorySchedulerDataWithOneOfStatus(RUNNING, STOPPED)
-                .stream()
-                .filter(canSchedulerForTerminatingBeApplied(now))
-                .collect(Collectors.toList());
-    }
-
-    private List<SchedulerJobData> getComputationalSchedulersForTerminating(OffsetDateTime now) {
-        return schedulerJobDAO.getComputationalSchedulerDataWithOneOfStatus(RUNNING, STOPPED, RUNNING)
-                .stream()
-                .filter(canSchedulerForTerminatingBeApplied(now))
-                .collect(Collectors.toList());
+        exploratoryService.stop(getSchedulerInfo(securityService.getServiceAccountInfo(user)), user, project, expName, String.format(AUDIT_MESSAGE, expName));
     }
 
     private void startExploratory(SchedulerJobData schedulerJobData) {
@@ -265,7 +269,7 @@ public class SchedulerJobServiceImpl implements SchedulerJobService {
         final String exploratoryName = schedulerJobData.getExploratoryName();
         final String project = schedulerJobData.getProject();
         log.debug("Starting exploratory {} for user {} by scheduler", exploratoryName, user);
-        exploratoryService.start(securityService.getServiceAccountInfo(user), exploratoryName, project, String.format(AUDIT_MESSAGE, exploratoryName));
+        exploratoryService.start(getSchedulerInfo(securityService.getServiceAccountInfo(user)), exploratoryName, project, String.format(AUDIT_MESSAGE, exploratoryName));
         if (schedulerJobData.getJobDTO().isSyncStartRequired()) {
             log.trace("Starting computational for exploratory {} for user {} by scheduler", exploratoryName, user);
             final DataEngineType sparkCluster = DataEngineType.SPARK_STANDALONE;
@@ -284,12 +288,17 @@ public class SchedulerJobServiceImpl implements SchedulerJobService {
         final String project = job.getProject();
         final String expName = job.getExploratoryName();
         log.debug("Terminating exploratory {} for user {} by scheduler", expName, user);
-        exploratoryService.terminate(securityService.getUserInfoOffline(user), user, project, expName, String.format(AUDIT_MESSAGE, expName));
+        exploratoryService.terminate(getSchedulerInfo(securityService.getUserInfoOffline(user)), user, project, expName, String.format(AUDIT_MESSAGE, expName));
     }
 
     private void startSpark(String user, String expName, String compName, String project) {
         log.debug("Starting exploratory {} computational {} for user {} by scheduler", expName, compName, user);
-        computationalService.startSparkCluster(securityService.getServiceAccountInfo(user), expName, compName, project, String.format(AUDIT_MESSAGE, expName));
+        computationalService.startSparkCluster(getSchedulerInfo(securityService.getServiceAccountInfo(user)), expName, compName, project, String.format(AUDIT_MESSAGE, expName));
+    }
+
+    private UserInfo getSchedulerInfo(UserInfo userInfo) {
+        userInfo.setScheduled(true);
+        return userInfo;
     }
 
     private boolean shouldClusterBeStarted(DataEngineType sparkCluster, UserComputationalResource compResource) {
@@ -323,112 +332,57 @@ public class SchedulerJobServiceImpl implements SchedulerJobService {
     private List<SchedulerJobData> getExploratorySchedulersForStopping(OffsetDateTime currentDateTime) {
         return schedulerJobDAO.getExploratorySchedulerDataWithStatus(RUNNING)
                 .stream()
-                .filter(canSchedulerForStoppingBeApplied(currentDateTime, true))
+                .filter(canSchedulerForStoppingBeApplied(currentDateTime))
                 .collect(Collectors.toList());
     }
 
-    private List<SchedulerJobData> getExploratorySchedulersForStopping(OffsetDateTime currentDateTime,
-                                                                       boolean checkInactivity) {
-        final Date clusterMaxInactivityAllowedDate =
-                from(LocalDateTime.now().minusMinutes(ALLOWED_INACTIVITY_MINUTES).atZone(systemDefault()).toInstant());
-        return schedulerJobDAO.getExploratorySchedulerWithStatusAndClusterLastActivityLessThan(RUNNING,
-                clusterMaxInactivityAllowedDate)
-                .stream()
-                .filter(canSchedulerForStoppingBeApplied(currentDateTime, false)
-                        .or(schedulerJobData -> checkInactivity && exploratoryInactivityCondition(schedulerJobData)))
-                .collect(Collectors.toList());
-    }
-
-    private List<SchedulerJobData> getExploratorySchedulersForStarting(OffsetDateTime currentDateTime) {
-        return schedulerJobDAO.getExploratorySchedulerDataWithStatus(STOPPED)
-                .stream()
-                .filter(canSchedulerForStartingBeApplied(currentDateTime))
-                .collect(Collectors.toList());
-    }
-
-    private List<SchedulerJobData> getComputationalSchedulersForStarting(OffsetDateTime currentDateTime) {
+    private List<SchedulerJobData> getComputationalSchedulersForStopping(OffsetDateTime currentDateTime) {
         return schedulerJobDAO
-                .getComputationalSchedulerDataWithOneOfStatus(RUNNING, DataEngineType.SPARK_STANDALONE, STOPPED)
+                .getComputationalSchedulerDataWithOneOfStatus(RUNNING, DataEngineType.SPARK_STANDALONE, RUNNING)
                 .stream()
-                .filter(canSchedulerForStartingBeApplied(currentDateTime))
+                .filter(canSchedulerForStoppingBeApplied(currentDateTime))
                 .collect(Collectors.toList());
     }
 
-    private Predicate<SchedulerJobData> canSchedulerForStoppingBeApplied(OffsetDateTime currentDateTime, boolean usingOffset) {
+    private Predicate<SchedulerJobData> canSchedulerForStoppingBeApplied(OffsetDateTime currentDateTime) {
         return schedulerJobData -> shouldSchedulerBeExecuted(schedulerJobData.getJobDTO(),
                 currentDateTime, schedulerJobData.getJobDTO().getStopDaysRepeat(),
-                schedulerJobData.getJobDTO().getEndTime(), usingOffset);
+                schedulerJobData.getJobDTO().getEndTime());
     }
 
-    private Predicate<SchedulerJobData> canSchedulerForStartingBeApplied(OffsetDateTime currentDateTime) {
-        return schedulerJobData -> shouldSchedulerBeExecuted(schedulerJobData.getJobDTO(),
-                currentDateTime, schedulerJobData.getJobDTO().getStartDaysRepeat(),
-                schedulerJobData.getJobDTO().getStartTime(), false);
-    }
-
-    private Predicate<SchedulerJobData> canSchedulerForTerminatingBeApplied(OffsetDateTime currentDateTime) {
-        return schedulerJobData -> shouldBeTerminated(currentDateTime, schedulerJobData);
-    }
-
-    private boolean shouldBeTerminated(OffsetDateTime currentDateTime, SchedulerJobData schedulerJobData) {
-        final SchedulerJobDTO jobDTO = schedulerJobData.getJobDTO();
-        final ZoneOffset timeZoneOffset = jobDTO.getTimeZoneOffset();
-        final LocalDateTime convertedCurrentTime = localDateTimeAtZone(currentDateTime, timeZoneOffset);
-        final LocalDateTime terminateDateTime = jobDTO.getTerminateDateTime();
-        return Objects.nonNull(terminateDateTime) && isSchedulerActive(jobDTO, convertedCurrentTime) &&
-                convertedCurrentTime.equals(terminateDateTime.atOffset(timeZoneOffset).toLocalDateTime());
-    }
-
-    private List<SchedulerJobData> getComputationalSchedulersForStopping(OffsetDateTime currentDateTime) {
-        return schedulerJobDAO
-                .getComputationalSchedulerDataWithOneOfStatus(RUNNING, DataEngineType.SPARK_STANDALONE, RUNNING)
+    private List<SchedulerJobData> getExploratorySchedulersForInactivity(Date clusterMaxInactivityAllowedDate) {
+        return schedulerJobDAO.getExploratoriesWithInactivityScheduler(clusterMaxInactivityAllowedDate)
                 .stream()
-                .filter(canSchedulerForStoppingBeApplied(currentDateTime, true))
+                .filter(this::exploratoryInactivityExceed)
+                .map(e -> new SchedulerJobData(e.getUser(), e.getExploratoryName(), null, e.getProject(),
+                        e.getSchedulerData()))
                 .collect(Collectors.toList());
     }
 
-    private List<SchedulerJobData> getComputationalSchedulersForStopping(OffsetDateTime currentDateTime,
-                                                                         boolean checkInactivity) {
-        return schedulerJobDAO
-                .getComputationalSchedulerDataWithOneOfStatus(RUNNING, DataEngineType.SPARK_STANDALONE, RUNNING)
+    private List<SchedulerJobData> getComputationalSchedulersForInactivity() {
+        final String sparkImage = getDockerImageName(DataEngineType.SPARK_STANDALONE);
+        return schedulerJobDAO.getExploratoriesWithComputationalInactivityScheduler()
                 .stream()
-                .filter(canSchedulerForStoppingBeApplied(currentDateTime, false)
-                        .or(schedulerJobData -> checkInactivity && computationalInactivityCondition(schedulerJobData)))
+                .flatMap(e -> e.getResources()
+                        .stream()
+                        .filter(c -> Objects.nonNull(c.getSchedulerData()) &&
+                                c.getSchedulerData().isCheckInactivityRequired() &&
+                                sparkImage.equals(c.getImageName()))
+                        .filter(c -> inactivityCondition(c.getSchedulerData().getMaxInactivity(), c.getStatus(),
+                                c.getLastActivity()))
+                        .map(c -> new SchedulerJobData(e.getUser(), e.getExploratoryName(), c.getComputationalName(),
+                                e.getProject(), c.getSchedulerData())))
                 .collect(Collectors.toList());
     }
 
-    private boolean computationalInactivityCondition(SchedulerJobData jobData) {
-        final SchedulerJobDTO schedulerData = jobData.getJobDTO();
-        return schedulerData.isCheckInactivityRequired() && computationalInactivityExceed(jobData, schedulerData);
-    }
-
-    private boolean computationalInactivityExceed(SchedulerJobData schedulerJobData, SchedulerJobDTO schedulerData) {
-        final String projectName = schedulerJobData.getProject();
-        final String explName = schedulerJobData.getExploratoryName();
-        final String compName = schedulerJobData.getComputationalName();
-        final String user = schedulerJobData.getUser();
-        final UserComputationalResource c = computationalDAO.fetchComputationalFields(user, projectName, explName, compName);
-        final Long maxInactivity = schedulerData.getMaxInactivity();
-        return inactivityCondition(maxInactivity, c.getStatus(), c.getLastActivity());
-    }
-
-    private boolean exploratoryInactivityCondition(SchedulerJobData jobData) {
-        final SchedulerJobDTO schedulerData = jobData.getJobDTO();
-        return schedulerData.isCheckInactivityRequired() && exploratoryInactivityExceed(jobData, schedulerData);
-    }
-
-    private boolean exploratoryInactivityExceed(SchedulerJobData schedulerJobData, SchedulerJobDTO schedulerData) {
-        final String project = schedulerJobData.getProject();
-        final String expName = schedulerJobData.getExploratoryName();
-        final String user = schedulerJobData.getUser();
-        final UserInstanceDTO userInstanceDTO = exploratoryDAO.fetchExploratoryFields(user, project, expName, true);
+    private boolean exploratoryInactivityExceed(UserInstanceDTO userInstanceDTO) {
         final boolean canBeStopped = userInstanceDTO.getResources()
                 .stream()
                 .map(UserComputationalResource::getStatus)
                 .map(UserInstanceStatus::of)
                 .noneMatch(status -> status.in(TERMINATING, CONFIGURING, CREATING, CREATING));
-        return canBeStopped && inactivityCondition(schedulerData.getMaxInactivity(), userInstanceDTO.getStatus(),
-                userInstanceDTO.getLastActivity());
+        return canBeStopped && inactivityCondition(userInstanceDTO.getSchedulerData().getMaxInactivity(),
+                userInstanceDTO.getStatus(), userInstanceDTO.getLastActivity());
     }
 
     private boolean inactivityCondition(Long maxInactivity, String status, LocalDateTime lastActivity) {
@@ -438,6 +392,36 @@ public class SchedulerJobServiceImpl implements SchedulerJobService {
                         .orElse(Boolean.FALSE);
     }
 
+    /**
+     * Runs the action for all the scheduler jobs in parallel and waits for the completion. The failure of the action
+     * for one job does not affect the other jobs.
+     */
+    private void dispatch(List<SchedulerJobData> jobs, Consumer<SchedulerJobData> action) {
+        final List<Future<?>> futures = jobs.stream()
+                .map(job -> dispatcher.submit(() -> action.accept(job)))
+                .collect(Collectors.toList());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get();
+            } catch (ExecutionException e) {
+                final SchedulerJobData job = jobs.get(i);
+                log.error("Scheduled action for exploratory {} of user {} failed: {}", job.getExploratoryName(),
+                        job.getUser(), e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Waiting for scheduled actions has been interrupted");
+                return;
+            }
+        }
+    }
+
+    private List<SchedulerJobData> distinct(List<SchedulerJobData> jobs) {
+        return new ArrayList<>(jobs.stream()
+                .collect(Collectors.toMap(j -> Arrays.asList(j.getUser(), j.getProject(), j.getExploratoryName(),
+                        j.getComputationalName()), Function.identity(), (j1, j2) -> j1, LinkedHashMap::new))
+                .values());
+    }
+
     private void populateDefaultSchedulerValues(SchedulerJobDTO dto) {
         if (Objects.isNull(dto.getBeginDate()) || StringUtils.isBlank(dto.getBeginDate().toString())) {
             dto.setBeginDate(LocalDate.now());
@@ -469,17 +453,16 @@ public class SchedulerJobServiceImpl implements SchedulerJobService {
     }
 
     private boolean shouldSchedulerBeExecuted(SchedulerJobDTO dto, OffsetDateTime dateTime, List<DayOfWeek> daysRepeat,
-                                              LocalTime time, boolean usingOffset) {
+                                              LocalTime time) {
         ZoneOffset timeZoneOffset = dto.getTimeZoneOffset();
         LocalDateTime convertedDateTime = localDateTimeAtZone(dateTime, timeZoneOffset);
         return isSchedulerActive(dto, convertedDateTime)
                 && daysRepeat.contains(convertedDateTime.toLocalDate().getDayOfWeek())
-                && timeFilter(time, convertedDateTime.toLocalTime(), timeZoneOffset, usingOffset);
+                && timeFilter(time, convertedDateTime.toLocalTime(), timeZoneOffset);
     }
 
-    private boolean timeFilter(LocalTime time, LocalTime convertedDateTime, ZoneOffset timeZoneOffset, boolean usingOffset) {
-        return usingOffset ? (time.isBefore(convertedDateTime) && time.isAfter(LocalDateTime.now(timeZoneOffset).toLocalTime())) :
-                convertedDateTime.equals(time);
+    private boolean timeFilter(LocalTime time, LocalTime convertedDateTime, ZoneOffset timeZoneOffset) {
+        return time.isBefore(convertedDateTime) && time.isAfter(LocalDateTime.now(timeZoneOffset).toLocalTime());
     }
 
     private boolean isSchedulerActive(SchedulerJobDTO dto, LocalDateTime convertedDateTime) {
@@ -28,9 +28,13 @@ import {ErrorUtils} from '../util';
 export class AuditService {
   constructor(private applicationServiceFacade: ApplicationServiceFacade) { }
 
-  public getAuditData(filterData, page, itemsPrPage) {
+  public getAuditData(filterData, page, itemsPrPage, pageKey?: string) {
     let queryString = `?page-number=${page}&page-size=${itemsPrPage}`;
 
+    if (pageKey) {
+      queryString += `&page-key=${encodeURIComponent(pageKey)}`;
+    }
+
     if (filterData.projects.length) {
       queryString += `&projects=${filterData.projects.join(',')}`;
     }
@@ -54,6 +54,7 @@ export class AuditGridComponent implements OnInit {
   public lastItem: number;
   public allItems: number;
   private copiedFilterAuditData: FilterAuditModel;
+  private nextPageKey: string;
   public isNavigationDisabled: boolean;
   public isFilterSelected: boolean;
 
@@ -67,7 +68,7 @@ export class AuditGridComponent implements OnInit {
 
   ngOnInit() {}
 
-  public buildAuditGrid(filter?: boolean): void {
+  public buildAuditGrid(filter?: boolean, pageKey?: string): void {
     if (!this.showItemsPrPage) {
       if (window.localStorage.getItem('audit_per_page')) {
         this.showItemsPrPage = +window.localStorage.getItem('audit_per_page');
@@ -76,16 +77,17 @@ export class AuditGridComponent implements OnInit {
       }
       this.lastItem = this.showItemsPrPage;
     }
-   this.getAuditData(filter);
+   this.getAuditData(filter, pageKey);
   }
 
-  public getAuditData(filter?: boolean): void {
+  public getAuditData(filter?: boolean, pageKey?: string): void {
     const page = filter ? 1 : Math.ceil(this.lastItem / this.showItemsPrPage);
     this.copiedFilterAuditData = JSON.parse(JSON.stringify(this.filterAuditData));
-    this.auditService.getAuditData(this.filterAuditData, page, this.showItemsPrPage).subscribe(auditData => {
+    this.auditService.getAuditData(this.filterAuditData, page, this.showItemsPrPage, pageKey).subscribe(auditData => {
       if (filter) this.changePage('first');
       this.auditData = auditData[0].audit;
       this.allItems = auditData[0]['page_count'];
+      this.nextPageKey = auditData[0]['next_page_key'];
       this.filterConfiguration = new FilterAuditModel(
         auditData[0].user_filter.filter(v => v),
         auditData[0].resource_name_filter.filter(v => v),
@@ -166,8 +168,9 @@ export class AuditGridComponent implements OnInit {
   }
 
   public loadItemsForPage(action: string): void {
+    const pageKey = action === 'next' ? this.nextPageKey : null;
     this.changePage(action);
-    this.buildAuditGrid();
+    this.buildAuditGrid(false, pageKey);
   }
 
   public resetFilterConfigurations(): void {
@@ -0,0 +1,259 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.epam.datalab.backendapi.dao;
+
+import com.epam.datalab.backendapi.conf.SelfServiceApplicationConfiguration;
+import com.epam.datalab.mongo.MongoService;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AuditWriterTest {
+    private static final int DUPLICATE_KEY_ERROR_CODE = 11000;
+    private static final int VALIDATION_ERROR_CODE = 121;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    private SelfServiceApplicationConfiguration configuration;
+    @Mock
+    private MongoService mongoService;
+    @Mock
+    private MongoCollection<Document> collection;
+    @Captor
+    private ArgumentCaptor<List<Document>> batchCaptor;
+
+    @InjectMocks
+    private AuditWriter auditWriter;
+    @InjectMocks
+    private AuditWriter restartedAuditWriter;
+
+    private File spillFile;
+    private File deadLetterFile;
+
+    @Before
+    public void setUp() {
+        spillFile = new File(folder.getRoot(), "audit.spill");
+        deadLetterFile = new File(folder.getRoot(), "audit.rejected");
+        when(configuration.getAuditSpillFile()).thenReturn(spillFile.getPath());
+        when(configuration.getAuditDeadLetterFile()).thenReturn(deadLetterFile.getPath());
+        when(mongoService.getCollection(AuditDAOImpl.AUDIT_COLLECTION)).thenReturn(collection);
+    }
+
+    @Test
+    public void flushFullBatch() throws Exception {
+        auditWriter.start();
+        try {
+            TimeUnit.MILLISECONDS.sleep(100);
+            writeAudits(0, 500);
+
+            verify(collection, timeout(500)).insertMany(batchCaptor.capture(), any(InsertManyOptions.class));
+            assertEquals(audits(0, 500), batchCaptor.getValue());
+        } finally {
+            auditWriter.stop();
+        }
+    }
+
+    @Test
+    public void spillAndReplay() throws Exception {
+        doThrow(new MongoException("Database is unavailable"))
+                .when(collection).insertMany(anyListOf(Document.class), any(InsertManyOptions.class));
+        auditWriter.start();
+        writeAudits(0, 3);
+        auditWriter.stop();
+
+        assertEquals(audits(0, 3), readAudits(spillFile));
+
+        doNothing().when(collection).insertMany(anyListOf(Document.class), any(InsertManyOptions.class));
+        restartedAuditWriter.flush();
+
+        verify(collection, times(2)).insertMany(batchCaptor.capture(), any(InsertManyOptions.class));
+        assertEquals(audits(0, 3), batchCaptor.getValue());
+        assertFalse(spillFile.exists());
+    }
+
+    @Test
+    public void replayWrittenAudits() throws Exception {
+        spill(audits(0, 3));
+        doThrow(bulkWriteException(DUPLICATE_KEY_ERROR_CODE, 0, 1, 2))
+                .when(collection).insertMany(anyListOf(Document.class), any(InsertManyOptions.class));
+
+        auditWriter.flush();
+
+        verify(collection).insertMany(batchCaptor.capture(), any(InsertManyOptions.class));
+        assertEquals(audits(0, 3), batchCaptor.getValue());
+        assertFalse(spillFile.exists());
+        assertFalse(deadLetterFile.exists());
+    }
+
+    @Test
+    public void rejectInvalidAudits() throws Exception {
+        spill(audits(0, 3));
+        doThrow(bulkWriteException(VALIDATION_ERROR_CODE, 1))
+                .doNothing()
+                .when(collection).insertMany(anyListOf(Document.class), any(InsertManyOptions.class));
+
+        auditWriter.flush();
+
+        assertFalse(spillFile.exists());
+        assertEquals(audits(1, 1), readAudits(deadLetterFile));
+
+        auditWriter.start();
+        try {
+            writeAudits(3, 1);
+            auditWriter.flush();
+        } finally {
+            auditWriter.stop();
+        }
+
+        verify(collection, times(2)).insertMany(batchCaptor.capture(), any(InsertManyOptions.class));
+        assertEquals(audits(3, 1), batchCaptor.getValue());
+        assertFalse(spillFile.exists());
+    }
+
+    @Test
+    public void notifyWrittenAudits() throws Exception {
+        final List<Document> written = new ArrayList<>();
+        auditWriter.setWriteListener(written::addAll);
+        spill(audits(0, 3));
+        doThrow(bulkWriteException(VALIDATION_ERROR_CODE, 1))
+                .when(collection).insertMany(anyListOf(Document.class), any(InsertManyOptions.class));
+
+        auditWriter.flush();
+
+        assertEquals(Arrays.asList(audits(0, 1).get(0), audits(2, 1).get(0)), written);
+    }
+
+    @Test
+    public void flushOnStop() throws Exception {
+        auditWriter.start();
+        writeAudits(0, 3);
+        auditWriter.stop();
+
+        verify(collection, atLeastOnce()).insertMany(batchCaptor.capture(), any(InsertManyOptions.class));
+        final List<Document> written = batchCaptor.getAllValues().stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+        assertEquals(audits(0, 3), written);
+        assertFalse(spillFile.exists());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void writeConcurrentlyWithStop() throws Exception {
+        final List<Document> written = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> written.addAll((List<Document>) invocation.getArguments()[0]))
+                .when(collection).insertMany(anyListOf(Document.class), any(InsertManyOptions.class));
+        final int threads = 4;
+        final int count = 2000;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        auditWriter.start();
+        for (int i = 0; i < threads; i++) {
+            final int first = i * count;
+            executor.execute(() -> writeAudits(first, count));
+        }
+        TimeUnit.MILLISECONDS.sleep(10);
+        auditWriter.stop();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        if (spillFile.exists()) {
+            written.addAll(readAudits(spillFile));
+        }
+        assertEquals(threads * count, written.size());
+        assertEquals(new HashSet<>(audits(0, threads * count)), new HashSet<>(written));
+    }
+
+    private void writeAudits(int first, int count) {
+        audits(first, count).forEach(auditWriter::write);
+    }
+
+    private List<Document> audits(int first, int count) {
+        final List<Document> audits = new ArrayList<>(count);
+        for (int i = first; i < first + count; i++) {
+            audits.add(new Document("_id", "audit" + i).append("user", "test"));
+        }
+        return audits;
+    }
+
+    private void spill(List<Document> audits) throws IOException {
+        Files.write(spillFile.toPath(), audits.stream().map(Document::toJson).collect(Collectors.toList()),
+                StandardCharsets.UTF_8);
+    }
+
+    private List<Document> readAudits(File file) throws IOException {
+        return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).stream()
+                .map(Document::parse)
+                .collect(Collectors.toList());
+    }
+
+    private MongoBulkWriteException bulkWriteException(int code, Integer... indexes) {
+        final List<BulkWriteError> errors = Arrays.stream(indexes)
+                .map(index -> new BulkWriteError(code, "write error", new BsonDocument(), index))
+                .collect(Collectors.toList());
+        return new MongoBulkWriteException(BulkWriteResult.unacknowledged(), errors, null, new ServerAddress());
+    }
+}
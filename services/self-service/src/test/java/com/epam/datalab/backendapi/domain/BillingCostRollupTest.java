@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.epam.datalab.backendapi.domain;
+
+import com.epam.datalab.backendapi.domain.BillingCostRollup.CostLine;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BillingCostRollupTest {
+    private static final double DELTA = 1e-9;
+
+    private BillingCostRollup rollup;
+
+    @Before
+    public void setUp() {
+        rollup = new BillingCostRollup();
+        rollup.load(() -> Arrays.asList(
+                new CostLine("aws", "2020-05-30", "project1", "user1", 1.5),
+                new CostLine("aws", "2020-05-31", "project1", "user2", 2.0),
+                new CostLine("aws", "2020-06-01", "project2", "user1", 3.0),
+                new CostLine("gcp", "2020-06-01", "project1", null, 4.0)));
+    }
+
+    @Test
+    public void load() {
+        assertTrue(rollup.isLoaded());
+        assertEquals(10.5, rollup.getTotalCost(), DELTA);
+        assertEquals(7.5, rollup.getProjectCost("project1"), DELTA);
+        assertEquals(3.5, rollup.getMonthlyProjectCost("project1", YearMonth.of(2020, 5)), DELTA);
+        assertEquals(4.0, rollup.getMonthlyProjectCost("project1", YearMonth.of(2020, 6)), DELTA);
+        assertEquals(4.5, rollup.getUserCost("user1"), DELTA);
+        assertEquals(0.0, rollup.getUserCost("user3"), DELTA);
+    }
+
+    @Test
+    public void replace() {
+        rollup.replace("aws", Collections.singletonList("2020-05-31"), () -> Arrays.asList(
+                new CostLine("aws", "2020-05-31", "project1", "user2", 2.5),
+                new CostLine("aws", "2020-05-31", "project2", "user3", 1.0)));
+
+        assertEquals(12.0, rollup.getTotalCost(), DELTA);
+        assertEquals(8.0, rollup.getProjectCost("project1"), DELTA);
+        assertEquals(4.0, rollup.getProjectCost("project2"), DELTA);
+        assertEquals(2.5, rollup.getUserCost("user2"), DELTA);
+        assertEquals(1.0, rollup.getUserCost("user3"), DELTA);
+    }
+
+    @Test
+    public void replaceByPrefix() {
+        rollup.replaceByPrefix("aws", "2020-05", () -> Collections.singletonList(
+                new CostLine("aws", "2020-05-01", "project1", "user1", 1.0)));
+
+        assertEquals(8.0, rollup.getTotalCost(), DELTA);
+        assertEquals(1.0, rollup.getMonthlyProjectCost("project1", YearMonth.of(2020, 5)), DELTA);
+        assertEquals(0.0, rollup.getUserCost("user2"), DELTA);
+        assertEquals(4.0, rollup.getUserCost("user1"), DELTA);
+    }
+
+    @Test
+    public void invalidate() {
+        rollup.invalidate();
+        rollup.replace("aws", Collections.singletonList("2020-05-31"), () -> {
+            throw new IllegalStateException("Not loaded rollup must not be updated");
+        });
+
+        assertFalse(rollup.isLoaded());
+        rollup.load(() -> Collections.singletonList(new CostLine("aws", "2020-05-31", "project1", "user1", 1.0)));
+        assertEquals(1.0, rollup.getTotalCost(), DELTA);
+    }
+
+    @Test
+    public void readWhileReplacing() {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            rollup.replace("aws", Collections.singletonList("2020-05-31"), () -> {
+                try {
+                    assertEquals(10.5, executor.submit(rollup::getTotalCost).get(1, TimeUnit.SECONDS), DELTA);
+                } catch (InterruptedException | ExecutionException | TimeoutException e) {
+                    throw new IllegalStateException("Rollup is locked while the cost lines are read", e);
+                }
+                return Collections.emptyList();
+            });
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(8.5, rollup.getTotalCost(), DELTA);
+    }
+
+    @Test
+    public void invalidateOnConcurrentReplace() {
+        rollup.replace("aws", Collections.singletonList("2020-05-31"), () -> {
+            rollup.replace("gcp", Collections.singletonList("2020-06-01"), Collections::emptyList);
+            return Collections.emptyList();
+        });
+
+        assertFalse(rollup.isLoaded());
+    }
+
+    @Test
+    public void reloadOnConcurrentChange() {
+        rollup.invalidate();
+        final int[] loads = new int[1];
+        rollup.load(() -> {
+            if (loads[0]++ == 0) {
+                rollup.replace("aws", Collections.singletonList("2020-05-31"), () -> {
+                    throw new IllegalStateException("Not loaded rollup must not be updated");
+                });
+            }
+            return Collections.singletonList(new CostLine("aws", "2020-05-31", "project1", "user1", 1.0));
+        });
+
+        assertEquals(2, loads[0]);
+        assertTrue(rollup.isLoaded());
+        assertEquals(1.0, rollup.getTotalCost(), DELTA);
+    }
+
+    @Test
+    public void keepExactSums() {
+        for (int i = 0; i < 1000; i++) {
+            final double cost = 0.1 * (i % 7) + 0.01;
+            rollup.replace("aws", Collections.singletonList("2020-05-31"), () -> Collections.singletonList(
+                    new CostLine("aws", "2020-05-31", "project1", "user2", cost)));
+        }
+        rollup.replace("aws", Collections.singletonList("2020-05-31"), () -> Collections.singletonList(
+                new CostLine("aws", "2020-05-31", "project1", "user2", 2.0)));
+
+        assertEquals(10.5, rollup.getTotalCost(), 0.0);
+        assertEquals(7.5, rollup.getProjectCost("project1"), 0.0);
+        assertEquals(2.0, rollup.getUserCost("user2"), 0.0);
+    }
+}
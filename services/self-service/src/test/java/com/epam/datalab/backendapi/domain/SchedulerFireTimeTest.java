@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.epam.datalab.backendapi.domain;
+
+import com.epam.datalab.dto.SchedulerJobDTO;
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class SchedulerFireTimeTest {
+
+    private static final LocalTime TEN_O_CLOCK = LocalTime.of(10, 0);
+
+    @Test
+    public void nextStartAtTheSameMinute() {
+        final SchedulerJobDTO dto = getSchedulerJobDTO(Arrays.asList(DayOfWeek.values()));
+
+        assertEquals(Optional.of(Instant.parse("2020-01-01T10:00:00Z")),
+                SchedulerFireTime.START.next(dto, Instant.parse("2020-01-01T10:00:30Z")));
+    }
+
+    @Test
+    public void nextStartOnTheNextDay() {
+        final SchedulerJobDTO dto = getSchedulerJobDTO(Arrays.asList(DayOfWeek.values()));
+
+        assertEquals(Optional.of(Instant.parse("2020-01-02T10:00:00Z")),
+                SchedulerFireTime.START.next(dto, Instant.parse("2020-01-01T10:01:00Z")));
+    }
+
+    @Test
+    public void nextStartOnTheRepeatDay() {
+        final SchedulerJobDTO dto = getSchedulerJobDTO(Collections.singletonList(DayOfWeek.MONDAY));
+
+        assertEquals(Optional.of(Instant.parse("2020-01-06T10:00:00Z")),
+                SchedulerFireTime.START.next(dto, Instant.parse("2020-01-01T09:00:00Z")));
+    }
+
+    @Test
+    public void nextStartWithTimeZoneOffset() {
+        final SchedulerJobDTO dto = getSchedulerJobDTO(Arrays.asList(DayOfWeek.values()));
+        dto.setTimeZoneOffset(ZoneOffset.ofHours(2));
+
+        assertEquals(Optional.of(Instant.parse("2020-01-01T08:00:00Z")),
+                SchedulerFireTime.START.next(dto, Instant.parse("2019-12-31T23:30:00Z")));
+    }
+
+    @Test
+    public void nextStartFromBeginDate() {
+        final SchedulerJobDTO dto = getSchedulerJobDTO(Arrays.asList(DayOfWeek.values()));
+        dto.setBeginDate(LocalDate.of(2020, 2, 1));
+
+        assertEquals(Optional.of(Instant.parse("2020-02-01T10:00:00Z")),
+                SchedulerFireTime.START.next(dto, Instant.parse("2020-01-01T09:00:00Z")));
+    }
+
+    @Test
+    public void nextStartAfterFinishDate() {
+        final SchedulerJobDTO dto = getSchedulerJobDTO(Collections.singletonList(DayOfWeek.MONDAY));
+        dto.setFinishDate(LocalDate.of(2020, 1, 5));
+
+        assertFalse(SchedulerFireTime.START.next(dto, Instant.parse("2020-01-01T09:00:00Z")).isPresent());
+    }
+
+    @Test
+    public void nextStopWithoutStopDays() {
+        final SchedulerJobDTO dto = getSchedulerJobDTO(Arrays.asList(DayOfWeek.values()));
+
+        assertFalse(SchedulerFireTime.STOP.next(dto, Instant.parse("2020-01-01T09:00:00Z")).isPresent());
+    }
+
+    @Test
+    public void nextStop() {
+        final SchedulerJobDTO dto = getSchedulerJobDTO(Collections.emptyList());
+        dto.setEndTime(LocalTime.of(20, 0));
+        dto.setStopDaysRepeat(Collections.singletonList(DayOfWeek.FRIDAY));
+
+        assertEquals(Optional.of(Instant.parse("2020-01-03T20:00:00Z")),
+                SchedulerFireTime.STOP.next(dto, Instant.parse("2020-01-01T21:00:00Z")));
+    }
+
+    @Test
+    public void nextTerminate() {
+        final SchedulerJobDTO dto = getSchedulerJobDTO(Collections.emptyList());
+        dto.setTerminateDateTime(LocalDateTime.of(2020, 1, 10, 12, 0));
+        dto.setTimeZoneOffset(ZoneOffset.ofHours(-1));
+
+        assertEquals(Optional.of(Instant.parse("2020-01-10T13:00:00Z")),
+                SchedulerFireTime.TERMINATE.next(dto, Instant.parse("2020-01-01T00:00:00Z")));
+        assertFalse(SchedulerFireTime.TERMINATE.next(dto, Instant.parse("2020-01-10T13:01:00Z")).isPresent());
+    }
+
+    @Test
+    public void nextTerminateAfterFinishDate() {
+        final SchedulerJobDTO dto = getSchedulerJobDTO(Collections.emptyList());
+        dto.setTerminateDateTime(LocalDateTime.of(2020, 1, 10, 12, 0));
+        dto.setFinishDate(LocalDate.of(2020, 1, 9));
+
+        assertFalse(SchedulerFireTime.TERMINATE.next(dto, Instant.parse("2020-01-01T00:00:00Z")).isPresent());
+    }
+
+    private SchedulerJobDTO getSchedulerJobDTO(List<DayOfWeek> startDays) {
+        final SchedulerJobDTO dto = new SchedulerJobDTO();
+        dto.setBeginDate(LocalDate.of(2019, 1, 1));
+        dto.setStartTime(TEN_O_CLOCK);
+        dto.setStartDaysRepeat(startDays);
+        dto.setTimeZoneOffset(ZoneOffset.UTC);
+        return dto;
+    }
+}
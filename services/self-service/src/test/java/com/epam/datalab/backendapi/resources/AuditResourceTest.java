@@ -35,6 +35,8 @@ import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.StringJoiner;
 
@@ -83,8 +85,11 @@ public class AuditResourceTest extends TestBase {
     }
 
     @Test
-    public void downloadAuditReport() {
-        when(auditService.downloadAuditReport(getAuditFilter())).thenReturn(getAuditReport());
+    public void downloadAuditReport() throws IOException {
+        doAnswer(invocation -> {
+            ((Writer) invocation.getArguments()[1]).write(getAuditReport());
+            return null;
+        }).when(auditService).downloadAuditReport(any(AuditFilter.class), any(Writer.class));
         final Response response = resources.getJerseyTest()
                 .target("/audit/report/download")
                 .request()
@@ -95,7 +100,7 @@ public class AuditResourceTest extends TestBase {
         assertEquals(getAuditReport(), response.readEntity(String.class));
         assertEquals(MediaType.APPLICATION_OCTET_STREAM, response.getHeaderString(HttpHeaders.CONTENT_TYPE));
 
-        verify(auditService).downloadAuditReport(refEq(getAuditFilter()));
+        verify(auditService).downloadAuditReport(refEq(getAuditFilter()), any(Writer.class));
         verifyNoMoreInteractions(auditService);
     }
 
@@ -29,13 +29,18 @@ import org.junit.runner.RunWith;
 import org.keycloak.representations.AccessTokenResponse;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -54,6 +59,8 @@ public class SecurityServiceImplTest {
     private SecurityDAO securityDAO;
     @Mock
     private AuditService auditService;
+    @Spy
+    private TokenCache tokenCache = new TokenCache();
 
     @InjectMocks
     private SecurityServiceImpl securityService;
@@ -70,6 +77,7 @@ public class SecurityServiceImplTest {
         assertEquals("UserInfo should be equal", getUserInfoWithRefreshToken(), actualUserInfo);
         verify(keycloakService).getToken(CODE);
         verify(securityDAO).saveUser(USERNAME, tokenResponse);
+        verify(tokenCache).invalidate("offline:" + USERNAME);
         verify(auditService).save(getAuditDTO());
         verifyNoMoreInteractions(keycloakService, securityDAO, auditService);
     }
@@ -91,6 +99,27 @@ public class SecurityServiceImplTest {
         verifyNoMoreInteractions(securityDAO, keycloakService);
     }
 
+    @Test
+    public void getUserInfoOfflineAfterLogIn() {
+        final String token = getToken(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1));
+        AccessTokenResponse tokenResponseFromDB = mock(AccessTokenResponse.class);
+        when(tokenResponseFromDB.getRefreshToken()).thenReturn(REFRESH_TOKEN);
+        when(securityDAO.getTokenResponse(anyString())).thenReturn(Optional.of(tokenResponseFromDB));
+        AccessTokenResponse tokenResponse = mock(AccessTokenResponse.class);
+        when(tokenResponse.getToken()).thenReturn(token);
+        when(tokenResponse.getRefreshToken()).thenReturn(REFRESH_TOKEN);
+        when(keycloakService.refreshToken(anyString())).thenReturn(tokenResponse);
+        when(keycloakService.getToken(anyString())).thenReturn(tokenResponse);
+
+        securityService.getUserInfoOffline(USERNAME);
+        securityService.getUserInfoOffline(USERNAME);
+        securityService.getUserInfo(CODE);
+        securityService.getUserInfoOffline(USERNAME);
+
+        verify(securityDAO, times(2)).getTokenResponse(USERNAME);
+        verify(keycloakService, times(2)).refreshToken(REFRESH_TOKEN);
+    }
+
     @Test(expected = DatalabException.class)
     public void getUserInfoOfflineWithException() {
         when(securityDAO.getTokenResponse(anyString())).thenReturn(Optional.empty());
@@ -114,6 +143,29 @@ public class SecurityServiceImplTest {
         verifyNoMoreInteractions(keycloakService);
     }
 
+    @Test
+    public void getServiceAccountInfoFromCache() {
+        final String token = getToken(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1));
+        AccessTokenResponse tokenResponse = mock(AccessTokenResponse.class);
+        when(tokenResponse.getToken()).thenReturn(token);
+        when(keycloakService.generateServiceAccountToken()).thenReturn(tokenResponse);
+
+        securityService.getServiceAccountInfo(USERNAME);
+        UserInfo actualUserInfo = securityService.getServiceAccountInfo("admin");
+
+        assertEquals("UserInfo should be equal", new UserInfo("admin", token), actualUserInfo);
+        verify(keycloakService, times(1)).generateServiceAccountToken();
+        verifyNoMoreInteractions(keycloakService);
+    }
+
+
+    private String getToken(long expirationTimeMillis) {
+        final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        final String payload = String.format("{\"exp\":%d,\"preferred_username\":\"%s\"}",
+                TimeUnit.MILLISECONDS.toSeconds(expirationTimeMillis), USERNAME);
+        return encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8)) + "." +
+                encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + ".";
+    }
 
     private UserInfo getUserInfo() {
         return new UserInfo(USERNAME, TOKEN);
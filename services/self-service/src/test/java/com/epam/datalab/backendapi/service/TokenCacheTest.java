@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.epam.datalab.backendapi.service;
+
+import com.epam.datalab.exceptions.DatalabException;
+import org.junit.Test;
+import org.keycloak.representations.AccessTokenResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+
+public class TokenCacheTest {
+    private static final String PRINCIPAL = "service-account";
+
+    private final TokenCache tokenCache = new TokenCache();
+
+    @Test
+    public void getCachedToken() {
+        final TokenEndpoint endpoint = new TokenEndpoint(TimeUnit.HOURS.toMillis(1));
+
+        final AccessTokenResponse token = tokenCache.get(PRINCIPAL, endpoint);
+
+        assertEquals(token, tokenCache.get(PRINCIPAL, endpoint));
+        assertEquals(1, endpoint.requests.get());
+    }
+
+    @Test
+    public void getExpiredToken() {
+        final TokenEndpoint endpoint = new TokenEndpoint(-TimeUnit.MINUTES.toMillis(1));
+
+        final AccessTokenResponse token = tokenCache.get(PRINCIPAL, endpoint);
+
+        assertNotEquals(token, tokenCache.get(PRINCIPAL, endpoint));
+        assertEquals(2, endpoint.requests.get());
+    }
+
+    @Test
+    public void getTokenConcurrently() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final TokenEndpoint endpoint = new TokenEndpoint(TimeUnit.HOURS.toMillis(1), release);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<AccessTokenResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> tokenCache.get(PRINCIPAL, endpoint)));
+            }
+            TimeUnit.MILLISECONDS.sleep(100);
+            release.countDown();
+
+            final AccessTokenResponse token = futures.get(0).get();
+            for (Future<AccessTokenResponse> future : futures) {
+                assertEquals(token, future.get());
+            }
+            assertEquals(1, endpoint.requests.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void refreshTokenInBackground() throws InterruptedException {
+        final TokenEndpoint endpoint = new TokenEndpoint(TimeUnit.SECONDS.toMillis(4));
+
+        tokenCache.get(PRINCIPAL, endpoint);
+
+        final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (endpoint.requests.get() < 2 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        assertEquals(2, endpoint.requests.get());
+        final AccessTokenResponse token = tokenCache.get(PRINCIPAL, endpoint);
+        assertEquals(endpoint.last, token);
+    }
+
+    @Test
+    public void getTokenAfterFailure() {
+        final TokenEndpoint endpoint = new TokenEndpoint(TimeUnit.HOURS.toMillis(1));
+        endpoint.failures.set(1);
+
+        try {
+            tokenCache.get(PRINCIPAL, endpoint);
+            fail("Exception is expected");
+        } catch (DatalabException e) {
+            assertEquals("can not get token", e.getMessage());
+        }
+
+        final AccessTokenResponse token = tokenCache.get(PRINCIPAL, endpoint);
+
+        assertEquals(endpoint.last, token);
+        assertEquals(2, endpoint.requests.get());
+    }
+
+    /**
+     * Stub token endpoint which issues the tokens with the given lifetime.
+     */
+    private static class TokenEndpoint implements Supplier<AccessTokenResponse> {
+        private final long lifetimeMillis;
+        private final CountDownLatch release;
+        private final AtomicInteger requests = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private volatile AccessTokenResponse last;
+
+        private TokenEndpoint(long lifetimeMillis) {
+            this(lifetimeMillis, new CountDownLatch(0));
+        }
+
+        private TokenEndpoint(long lifetimeMillis, CountDownLatch release) {
+            this.lifetimeMillis = lifetimeMillis;
+            this.release = release;
+        }
+
+        @Override
+        public AccessTokenResponse get() {
+            final int request = requests.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failures.getAndDecrement() > 0) {
+                throw new DatalabException("can not get token");
+            }
+            final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+            final String payload = String.format("{\"exp\":%d,\"jti\":\"%d\"}",
+                    TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() + lifetimeMillis), request);
+            final AccessTokenResponse response = new AccessTokenResponse();
+            response.setToken(encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8)) + "." +
+                    encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + ".");
+            last = response;
+            return response;
+        }
+    }
+}
@@ -29,6 +29,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -80,20 +82,22 @@ public class AuditServiceImplTest {
         String dateEnd = "";
         int pageNumber = 1;
         int pageSize = 10;
+        String pageKey = "1600000000000:id";
 
-        auditService.getAudit(users, projects, resourceNames, resourceTypes, dateStart, dateEnd, pageNumber, pageSize);
+        auditService.getAudit(users, projects, resourceNames, resourceTypes, dateStart, dateEnd, pageNumber, pageSize, pageKey);
 
-        verify(auditDAO).getAudit(refEq(users), refEq(projects), refEq(resourceNames), refEq(resourceTypes), eq(dateStart), eq(dateEnd), eq(pageNumber), eq(pageSize));
+        verify(auditDAO).getAudit(refEq(users), refEq(projects), refEq(resourceNames), refEq(resourceTypes), eq(dateStart), eq(dateEnd), eq(pageNumber), eq(pageSize), eq(pageKey));
     }
 
     @Test
-    public void downloadAuditReport() {
-        when(auditDAO.aggregateAuditReport(any(AuditFilter.class))).thenReturn(getAuditReportLines());
+    public void downloadAuditReport() throws IOException {
+        when(auditDAO.streamAuditReport(any(AuditFilter.class))).thenReturn(getAuditReportLines().stream());
 
-        String actualAuditReport = auditService.downloadAuditReport(getAuditFilter());
-        assertEquals("reports should be equal", prepareAuditReport(), actualAuditReport);
+        StringWriter writer = new StringWriter();
+        auditService.downloadAuditReport(getAuditFilter(), writer);
+        assertEquals("reports should be equal", prepareAuditReport(), writer.toString());
 
-        verify(auditDAO).aggregateAuditReport(getAuditFilter());
+        verify(auditDAO).streamAuditReport(getAuditFilter());
     }
 
     @Test
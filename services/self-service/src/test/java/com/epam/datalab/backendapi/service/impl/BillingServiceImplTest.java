@@ -22,6 +22,7 @@ package com.epam.datalab.backendapi.service.impl;
 import com.epam.datalab.auth.UserInfo;
 import com.epam.datalab.backendapi.conf.SelfServiceApplicationConfiguration;
 import com.epam.datalab.backendapi.dao.BillingDAO;
+import com.epam.datalab.backendapi.dao.ExploratoryDAO;
 import com.epam.datalab.backendapi.dao.ImageExploratoryDAO;
 import com.epam.datalab.backendapi.dao.ProjectDAO;
 import com.epam.datalab.backendapi.domain.BillingReport;
@@ -48,6 +49,7 @@ import com.epam.datalab.dto.computational.UserComputationalResource;
 import com.epam.datalab.dto.exploratory.ImageStatus;
 import com.epam.datalab.exceptions.DatalabException;
 import com.epam.datalab.rest.client.RESTService;
+import io.dropwizard.util.Duration;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
@@ -55,12 +57,13 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import javax.ws.rs.core.GenericType;
+import java.io.IOException;
+import java.io.StringWriter;
 import java.time.LocalDate;
 import java.util.*;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
-import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Matchers.anySet;
 import static org.mockito.Matchers.anyString;
@@ -127,6 +130,8 @@ public class BillingServiceImplTest extends TestBase {
     private ExploratoryService exploratoryService;
     @Mock
     private ImageExploratoryDAO imageExploratoryDAO;
+    @Mock
+    private ExploratoryDAO exploratoryDAO;
 
     @InjectMocks
     private BillingServiceImpl billingService;
@@ -134,18 +139,18 @@ public class BillingServiceImplTest extends TestBase {
     @Test
     public void getBillingReport() {
         when(billingDAO.aggregateBillingData(any(BillingFilter.class))).thenReturn(getBillingReportLineWithCost());
-        when(projectService.get(anyString())).thenReturn(getProjectDTO(Boolean.FALSE));
+        when(projectService.getProjects()).thenReturn(Collections.singletonList(getProjectDTO(Boolean.FALSE)));
         when(configuration.getServiceBaseName()).thenReturn(SERVICE_BASE_NAME);
-        when(exploratoryService.getUserInstance(anyString(), anyString(), anyString())).thenReturn(Optional.of(getUserInstanceDTO()));
-        when(exploratoryService.getUserInstance(anyString(), anyString(), anyString(), anyBoolean())).thenReturn(Optional.of(getUserInstanceDTOWithCompute()));
+        when(exploratoryDAO.fetchExploratoryFieldsForProjectWithComp(anyListOf(String.class)))
+                .thenReturn(Collections.singletonList(getUserInstanceDTOWithCompute()));
 
         BillingReport actualBillingReport = billingService.getBillingReport(getUserInfo(), new BillingFilter());
 
         assertEquals("reports should be equal", getExpectedBillingReport(), actualBillingReport);
         verify(billingDAO).aggregateBillingData(new BillingFilter());
-        verify(projectService).get(PROJECT);
-        verify(exploratoryService).getUserInstance(USER, PROJECT, EXPLORATORY_NAME);
-        verify(exploratoryService,times(2)).getUserInstance(USER, PROJECT, EXPLORATORY_NAME, Boolean.TRUE);
+        verify(projectService).getProjects();
+        verify(exploratoryDAO).fetchExploratoryFieldsForProjectWithComp(Collections.singletonList(PROJECT));
+        verifyNoMoreInteractions(projectService, exploratoryService, exploratoryDAO);
         verifyNoMoreInteractions(billingDAO);
     }
 
@@ -162,26 +167,26 @@ public class BillingServiceImplTest extends TestBase {
     }
 
     @Test
-    public void downloadReport() {
-        when(billingDAO.aggregateBillingData(any(BillingFilter.class))).thenReturn(getBillingReportLineWithCost());
-        when(projectService.get(anyString())).thenReturn(getProjectDTO(Boolean.FALSE));
+    public void downloadReport() throws IOException {
+        when(billingDAO.streamBillingData(any(BillingFilter.class))).thenReturn(getBillingReportLineWithCost().stream());
+        when(billingDAO.getBillingPeriod(any(BillingFilter.class))).thenReturn(Optional.of(BillingReportLine.builder()
+                .usageDateFrom(LocalDate.parse("2020-01-01"))
+                .usageDateTo(LocalDate.parse("2020-05-01"))
+                .build()));
+        when(projectService.getProjects()).thenReturn(Collections.singletonList(getProjectDTO(Boolean.FALSE)));
         when(configuration.getServiceBaseName()).thenReturn(SERVICE_BASE_NAME);
-        when(exploratoryService.getUserInstance(anyString(), anyString(), anyString())).thenReturn(Optional.of(getUserInstanceDTO()));
-        when(exploratoryService.getUserInstance(anyString(), anyString(), anyString(), anyBoolean())).thenReturn(Optional.of(getUserInstanceDTOWithCompute()));
-
-        String actualBillingReport = billingService.downloadReport(getUserInfo(), new ExportBillingFilter(), "en-US");
-        char[] chars1 = getDownloadReport().toCharArray();
-        char[] chars2 = actualBillingReport.toCharArray();
-        for (int i = 0; i < getDownloadReport().length(); i++) {
-            if (chars1[i] != chars2[i])
-                System.out.println(chars1[i] + " = " + chars2[i] + "  i = " + i);
-        }
-
-        assertEquals("reports should be equal", getDownloadReport(), actualBillingReport);
-        verify(billingDAO).aggregateBillingData(new ExportBillingFilter());
-        verify(projectService).get(PROJECT);
-        verify(exploratoryService).getUserInstance(USER, PROJECT, EXPLORATORY_NAME);
-        verify(exploratoryService,times(2)).getUserInstance(USER, PROJECT, EXPLORATORY_NAME, Boolean.TRUE);
+        when(exploratoryDAO.fetchExploratoryFieldsForProjectWithComp(anyListOf(String.class)))
+                .thenReturn(Collections.singletonList(getUserInstanceDTOWithCompute()));
+
+        StringWriter writer = new StringWriter();
+        billingService.downloadReport(getUserInfo(), new ExportBillingFilter(), "en-US", writer);
+
+        assertEquals("reports should be equal", getDownloadReport(), writer.toString());
+        verify(billingDAO).getBillingPeriod(new ExportBillingFilter());
+        verify(billingDAO).streamBillingData(new ExportBillingFilter());
+        verify(projectService).getProjects();
+        verify(exploratoryDAO).fetchExploratoryFieldsForProjectWithComp(Collections.singletonList(PROJECT));
+        verifyNoMoreInteractions(projectService, exploratoryService, exploratoryDAO);
         verifyNoMoreInteractions(billingDAO);
     }
 
@@ -211,6 +216,7 @@ public class BillingServiceImplTest extends TestBase {
     public void updateGCPRemoteBillingData() {
         when(configuration.getServiceBaseName()).thenReturn(SERVICE_BASE_NAME);
         when(configuration.getBillingPort()).thenReturn(BILLING_PORT);
+        when(configuration.getBillingSyncTimeout()).thenReturn(Duration.minutes(1));
         when(configuration.getMaxSparkInstanceCount()).thenReturn(2);
         when(endpointService.getEndpoints()).thenReturn(getGCPEndpointDTO());
         when(provisioningService.get(anyString(), anyString(), any(GenericType.class))).thenReturn(getBillingData());
@@ -226,8 +232,7 @@ public class BillingServiceImplTest extends TestBase {
         verify(projectService).getProjects();
         verify(exploratoryService).findAll(new HashSet<>(getProjectDTOs()));
         verify(imageExploratoryDAO).getImagesForProject(PROJECT);
-        verify(billingDAO).deleteByUsageDateRegex(ENDPOINT, USAGE_DATE_FORMATTED);
-        verify(billingDAO).save(getBillingReportLine());
+        verify(billingDAO).upsertByUsageDateRegex(ENDPOINT, USAGE_DATE_FORMATTED, getBillingReportLine());
         verifyNoMoreInteractions(endpointService, provisioningService, billingDAO, projectService, exploratoryService, imageExploratoryDAO);
     }
 
@@ -235,6 +240,7 @@ public class BillingServiceImplTest extends TestBase {
     public void updateAWSRemoteBillingData() {
         when(configuration.getServiceBaseName()).thenReturn(SERVICE_BASE_NAME);
         when(configuration.getBillingPort()).thenReturn(BILLING_PORT);
+        when(configuration.getBillingSyncTimeout()).thenReturn(Duration.minutes(1));
         when(configuration.getMaxSparkInstanceCount()).thenReturn(2);
         when(endpointService.getEndpoints()).thenReturn(getAWSEndpointDTO());
         when(provisioningService.get(anyString(), anyString(), any(GenericType.class))).thenReturn(getBillingData());
@@ -250,8 +256,7 @@ public class BillingServiceImplTest extends TestBase {
         verify(projectService).getProjects();
         verify(exploratoryService).findAll(new HashSet<>(getProjectDTOs()));
         verify(imageExploratoryDAO).getImagesForProject(PROJECT);
-        verify(billingDAO).deleteByUsageDate(ENDPOINT, USAGE_DATE);
-        verify(billingDAO).save(getBillingReportLine());
+        verify(billingDAO).upsertByUsageDate(ENDPOINT, USAGE_DATE, getBillingReportLine());
         verifyNoMoreInteractions(endpointService, provisioningService, billingDAO, projectService, exploratoryService, imageExploratoryDAO);
     }
 
@@ -259,6 +264,7 @@ public class BillingServiceImplTest extends TestBase {
     public void updateAzureRemoteBillingData() {
         when(configuration.getServiceBaseName()).thenReturn(SERVICE_BASE_NAME);
         when(configuration.getBillingPort()).thenReturn(BILLING_PORT);
+        when(configuration.getBillingSyncTimeout()).thenReturn(Duration.minutes(1));
         when(configuration.getMaxSparkInstanceCount()).thenReturn(2);
         when(endpointService.getEndpoints()).thenReturn(getAzureEndpointDTO());
         when(provisioningService.get(anyString(), anyString(), any(GenericType.class))).thenReturn(getBillingData());
@@ -274,7 +280,7 @@ public class BillingServiceImplTest extends TestBase {
         verify(projectService).getProjects();
         verify(exploratoryService).findAll(new HashSet<>(getProjectDTOs()));
         verify(imageExploratoryDAO).getImagesForProject(PROJECT);
-        verify(billingDAO).save(getBillingReportLine());
+        verify(billingDAO).upsert(getBillingReportLine());
         verifyNoMoreInteractions(endpointService, provisioningService, billingDAO, projectService, exploratoryService, imageExploratoryDAO);
     }
 
@@ -288,6 +294,7 @@ public class BillingServiceImplTest extends TestBase {
     @Test
     public void updateRemoteBillingDataWithException2() {
         when(configuration.getBillingPort()).thenReturn(BILLING_PORT);
+        when(configuration.getBillingSyncTimeout()).thenReturn(Duration.minutes(1));
         when(endpointService.getEndpoints()).thenReturn(getAWSEndpointDTO());
         when(provisioningService.get(anyString(), anyString(), any(GenericType.class))).thenThrow(new DatalabException("Exception message"));
 
@@ -301,6 +308,7 @@ public class BillingServiceImplTest extends TestBase {
 
     @Test
     public void updateRemoteBillingDataWithException3() {
+        when(configuration.getBillingSyncTimeout()).thenReturn(Duration.minutes(1));
         when(endpointService.getEndpoints()).thenReturn(getEndpointDTOWithWrongUrl());
 
         billingService.updateRemoteBillingData(getUserInfo());
@@ -714,11 +722,6 @@ public class BillingServiceImplTest extends TestBase {
                         .withResources(Collections.singletonList(getCompute())));
     }
 
-    private UserInstanceDTO getUserInstanceDTO() {
-        return new UserInstanceDTO().withExploratoryId(EXPLORATORY_ID).withUser(USER).withProject(PROJECT).withExploratoryName(EXPLORATORY_NAME).withEndpoint(ENDPOINT)
-                .withStatus("failed");
-    }
-
     private UserInstanceDTO getUserInstanceDTOWithCompute() {
         return new UserInstanceDTO().withExploratoryId(EXPLORATORY_ID).withUser(USER).withProject(PROJECT).withExploratoryName(EXPLORATORY_NAME).withEndpoint(ENDPOINT)
                 .withStatus("failed").withResources(Collections.singletonList(getCompute()));
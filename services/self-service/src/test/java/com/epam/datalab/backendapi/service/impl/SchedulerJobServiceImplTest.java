@@ -32,6 +32,7 @@ import com.epam.datalab.dto.UserInstanceStatus;
 import com.epam.datalab.dto.aws.computational.AwsComputationalResource;
 import com.epam.datalab.dto.base.DataEngineType;
 import com.epam.datalab.dto.computational.UserComputationalResource;
+import com.epam.datalab.exceptions.DatalabException;
 import com.epam.datalab.exceptions.ResourceInappropriateStateException;
 import com.epam.datalab.exceptions.ResourceNotFoundException;
 import com.epam.datalab.model.scheduler.SchedulerJobData;
@@ -55,7 +56,6 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import static com.epam.datalab.dto.UserInstanceStatus.RUNNING;
 import static com.epam.datalab.dto.UserInstanceStatus.STARTING;
@@ -404,120 +404,42 @@ public class SchedulerJobServiceImplTest {
 
     @Test
     public void testStartComputationalByScheduler() {
-        when(schedulerJobDAO.getComputationalSchedulerDataWithOneOfStatus(any(UserInstanceStatus.class),
-                any(DataEngineType.class), anyVararg())).thenReturn(singletonList(getSchedulerJobData(LocalDate.now(),
-                LocalDate.now().plusDays(1), Arrays.asList(DayOfWeek.values()), Arrays.asList(DayOfWeek.values()),
-                LocalDateTime.of(LocalDate.now(),
-                        LocalTime.now().truncatedTo(ChronoUnit.MINUTES)), false, USER,
-                LocalTime.now().truncatedTo(ChronoUnit.MINUTES))));
+        when(schedulerJobDAO.pollComputationalSchedulersToStart(any(Date.class)))
+                .thenReturn(singletonList(getDueSchedulerJobData(false)));
         when(securityService.getServiceAccountInfo(anyString())).thenReturn(getUserInfo());
 
         schedulerJobService.startComputationalByScheduler();
 
         verify(securityService).getServiceAccountInfo(USER);
-        verify(schedulerJobDAO)
-                .getComputationalSchedulerDataWithOneOfStatus(RUNNING, DataEngineType.SPARK_STANDALONE, STOPPED);
-        verify(computationalService).startSparkCluster(refEq(getUserInfo()), eq(EXPLORATORY_NAME),
+        verify(schedulerJobDAO).pollComputationalSchedulersToStart(any(Date.class));
+        verify(computationalService).startSparkCluster(refEq(getSchedulerUserInfo()), eq(EXPLORATORY_NAME),
                 eq(COMPUTATIONAL_NAME), eq(PROJECT), eq(String.format(AUDIT_MESSAGE, EXPLORATORY_NAME)));
         verifyNoMoreInteractions(securityService, schedulerJobDAO, computationalService);
     }
 
     @Test
     public void testStartComputationalBySchedulerWhenSchedulerIsNotConfigured() {
-        when(schedulerJobDAO.getComputationalSchedulerDataWithOneOfStatus(any(UserInstanceStatus.class),
-                any(DataEngineType.class), anyVararg())).thenReturn(Collections.emptyList());
+        when(schedulerJobDAO.pollComputationalSchedulersToStart(any(Date.class))).thenReturn(Collections.emptyList());
 
         schedulerJobService.startComputationalByScheduler();
 
-        verify(schedulerJobDAO).getComputationalSchedulerDataWithOneOfStatus(RUNNING, DataEngineType.SPARK_STANDALONE,
-                STOPPED);
+        verify(schedulerJobDAO).pollComputationalSchedulersToStart(any(Date.class));
         verifyNoMoreInteractions(schedulerJobDAO);
         verifyZeroInteractions(securityService, computationalService);
     }
 
-    @Test
-    public void testStartComputationalBySchedulerWhenSchedulerFinishDateBeforeNow() {
-        final LocalDate beginDate = LocalDate.now().plusDays(1);
-        final LocalDate endDate = LocalDate.now();
-        final List<DayOfWeek> startDays = Arrays.asList(DayOfWeek.values());
-        final List<DayOfWeek> stopDays = Arrays.asList(DayOfWeek.values());
-        final LocalDateTime terminateDateTime = LocalDateTime.of(LocalDate.now(),
-                LocalTime.now().truncatedTo(ChronoUnit.MINUTES));
-        final SchedulerJobData schedulerJobData = getSchedulerJobData(beginDate, endDate, startDays, stopDays,
-                terminateDateTime, false, USER, LocalTime.now().truncatedTo(ChronoUnit.MINUTES));
-        when(schedulerJobDAO.getComputationalSchedulerDataWithOneOfStatus(any(UserInstanceStatus.class),
-                any(DataEngineType.class), anyVararg())).thenReturn(singletonList(schedulerJobData));
-        when(securityService.getUserInfoOffline(anyString())).thenReturn(getUserInfo());
-
-        schedulerJobService.startComputationalByScheduler();
-
-        verify(schedulerJobDAO)
-                .getComputationalSchedulerDataWithOneOfStatus(RUNNING, DataEngineType.SPARK_STANDALONE, STOPPED);
-        verifyNoMoreInteractions(securityService, schedulerJobDAO, computationalService);
-    }
-
-    @Test
-    public void testStartComputationalBySchedulerWhenSchedulerStartDateAfterNow() {
-        final LocalDate beginDate = LocalDate.now().plusDays(1);
-        final LocalDate finishDate = LocalDate.now();
-        final List<DayOfWeek> startDays = Arrays.asList(DayOfWeek.values());
-        final List<DayOfWeek> stopDays = Arrays.asList(DayOfWeek.values());
-        final LocalDateTime terminateDateTime = LocalDateTime.of(LocalDate.now(),
-                LocalTime.now().truncatedTo(ChronoUnit.MINUTES));
-        final SchedulerJobData schedulerJobData = getSchedulerJobData(
-                beginDate, finishDate, startDays, stopDays, terminateDateTime, false, USER,
-                LocalTime.now().truncatedTo(ChronoUnit.MINUTES));
-        when(schedulerJobDAO.getComputationalSchedulerDataWithOneOfStatus(any(UserInstanceStatus.class),
-                any(DataEngineType.class), anyVararg())).thenReturn(singletonList(schedulerJobData));
-        when(securityService.getUserInfoOffline(anyString())).thenReturn(getUserInfo());
-
-        schedulerJobService.startComputationalByScheduler();
-
-        verify(schedulerJobDAO)
-                .getComputationalSchedulerDataWithOneOfStatus(RUNNING, DataEngineType.SPARK_STANDALONE, STOPPED);
-        verifyNoMoreInteractions(securityService, schedulerJobDAO, computationalService);
-    }
-
-    @Test
-    public void testStartComputationalBySchedulerWhenStartDayIsNotCurrentDay() {
-        final List<DayOfWeek> stopDays = Arrays.stream(DayOfWeek.values()).collect(Collectors.toList());
-        final List<DayOfWeek> startDays = Arrays.stream(DayOfWeek.values()).collect(Collectors.toList());
-        startDays.remove(LocalDate.now().getDayOfWeek());
-        final LocalDate beginDate = LocalDate.now();
-        final SchedulerJobData schedulerJobData = getSchedulerJobData(
-                beginDate, LocalDate.now().minusDays(1), startDays, stopDays,
-                LocalDateTime.of(LocalDate.now(),
-                        LocalTime.now().truncatedTo(ChronoUnit.MINUTES)), false, USER,
-                LocalTime.now().truncatedTo(ChronoUnit.MINUTES)
-        );
-        when(schedulerJobDAO.getComputationalSchedulerDataWithOneOfStatus(any(UserInstanceStatus.class),
-                any(DataEngineType.class), anyVararg())).thenReturn(singletonList(schedulerJobData));
-        when(securityService.getUserInfoOffline(anyString())).thenReturn(getUserInfo());
-
-        schedulerJobService.startComputationalByScheduler();
-
-        verify(schedulerJobDAO)
-                .getComputationalSchedulerDataWithOneOfStatus(RUNNING, DataEngineType.SPARK_STANDALONE, STOPPED);
-        verifyNoMoreInteractions(securityService, schedulerJobDAO, computationalService);
-    }
-
-
     @Test
     public void testStopComputationalByScheduler() {
         UserInfo userInfo = getUserInfo();
-        when(schedulerJobDAO.getComputationalSchedulerDataWithOneOfStatus(any(UserInstanceStatus.class),
-                any(DataEngineType.class), anyVararg())).thenReturn(singletonList(getSchedulerJobData(LocalDate.now(),
-                LocalDate.now().plusDays(1), Arrays.asList(DayOfWeek.values()), Arrays.asList(DayOfWeek.values()),
-                LocalDateTime.of(LocalDate.now(),
-                        LocalTime.now().truncatedTo(ChronoUnit.MINUTES)), false, USER,
-                LocalTime.now().truncatedTo(ChronoUnit.MINUTES))));
+        when(schedulerJobDAO.pollComputationalSchedulersToStop(any(Date.class)))
+                .thenReturn(singletonList(getDueSchedulerJobData(false)));
         when(securityService.getServiceAccountInfo(anyString())).thenReturn(userInfo);
 
         schedulerJobService.stopComputationalByScheduler();
 
         verify(securityService).getServiceAccountInfo(USER);
-        verify(schedulerJobDAO)
-                .getComputationalSchedulerDataWithOneOfStatus(RUNNING, DataEngineType.SPARK_STANDALONE, RUNNING);
+        verify(schedulerJobDAO).pollComputationalSchedulersToStop(any(Date.class));
+        verify(schedulerJobDAO).getExploratoriesWithComputationalInactivityScheduler();
         verify(computationalService).stopSparkCluster(refEq(userInfo), eq(userInfo.getName()), eq(PROJECT),
                 eq(EXPLORATORY_NAME), eq(COMPUTATIONAL_NAME), eq(String.format(AUDIT_MESSAGE, EXPLORATORY_NAME)));
         verifyNoMoreInteractions(securityService, schedulerJobDAO, computationalService);
@@ -525,209 +447,126 @@ public class SchedulerJobServiceImplTest {
 
     @Test
     public void testStopComputationalBySchedulerWhenSchedulerIsNotConfigured() {
-        when(schedulerJobDAO.getComputationalSchedulerDataWithOneOfStatus(any(UserInstanceStatus.class),
-                any(DataEngineType.class), anyVararg())).thenReturn(Collections.emptyList());
+        when(schedulerJobDAO.pollComputationalSchedulersToStop(any(Date.class))).thenReturn(Collections.emptyList());
+        when(schedulerJobDAO.getExploratoriesWithComputationalInactivityScheduler())
+                .thenReturn(Collections.emptyList());
 
         schedulerJobService.stopComputationalByScheduler();
 
-        verify(schedulerJobDAO)
-                .getComputationalSchedulerDataWithOneOfStatus(RUNNING, DataEngineType.SPARK_STANDALONE, RUNNING);
+        verify(schedulerJobDAO).pollComputationalSchedulersToStop(any(Date.class));
+        verify(schedulerJobDAO).getExploratoriesWithComputationalInactivityScheduler();
         verifyNoMoreInteractions(schedulerJobDAO);
-        verifyZeroInteractions(securityService, computationalService);
-    }
-
-    @Test
-    public void testStopComputationalBySchedulerWhenSchedulerFinishDateBeforeNow() {
-        final LocalDate beginDate = LocalDate.now().plusDays(1);
-        final LocalDate endDate = LocalDate.now();
-        final List<DayOfWeek> startDays = Arrays.asList(DayOfWeek.values());
-        final List<DayOfWeek> stopDays = Arrays.asList(DayOfWeek.values());
-        final LocalDateTime terminateDateTime = LocalDateTime.of(LocalDate.now(),
-                LocalTime.now().truncatedTo(ChronoUnit.MINUTES));
-        final SchedulerJobData schedulerJobData = getSchedulerJobData(beginDate, endDate, startDays, stopDays,
-                terminateDateTime, false, USER, LocalTime.now().truncatedTo(ChronoUnit.MINUTES));
-        when(schedulerJobDAO.getComputationalSchedulerDataWithOneOfStatus(any(UserInstanceStatus.class),
-                any(DataEngineType.class), anyVararg())).thenReturn(singletonList(schedulerJobData));
-        when(securityService.getUserInfoOffline(anyString())).thenReturn(getUserInfo());
-
-        schedulerJobService.stopComputationalByScheduler();
-
-        verify(schedulerJobDAO)
-                .getComputationalSchedulerDataWithOneOfStatus(RUNNING, DataEngineType.SPARK_STANDALONE, RUNNING);
-        verifyNoMoreInteractions(securityService, schedulerJobDAO, computationalService);
+        verifyZeroInteractions(securityService, computationalService, computationalDAO);
     }
 
     @Test
-    public void testStopComputationalBySchedulerWhenSchedulerStartDateAfterNow() {
-        final LocalDate beginDate = LocalDate.now().plusDays(1);
-        final LocalDate finishDate = LocalDate.now();
-        final List<DayOfWeek> startDays = Arrays.asList(DayOfWeek.values());
-        final List<DayOfWeek> stopDays = Arrays.asList(DayOfWeek.values());
-        final LocalDateTime terminateDateTime = LocalDateTime.of(LocalDate.now(),
-                LocalTime.now().truncatedTo(ChronoUnit.MINUTES));
-        final SchedulerJobData schedulerJobData = getSchedulerJobData(
-                beginDate, finishDate, startDays, stopDays, terminateDateTime, false, USER,
-                LocalTime.now().truncatedTo(ChronoUnit.MINUTES));
-        when(schedulerJobDAO.getComputationalSchedulerDataWithOneOfStatus(any(UserInstanceStatus.class),
-                any(DataEngineType.class), anyVararg())).thenReturn(singletonList(schedulerJobData));
-        when(securityService.getUserInfoOffline(anyString())).thenReturn(getUserInfo());
-
-        schedulerJobService.stopComputationalByScheduler();
-
-        verify(schedulerJobDAO)
-                .getComputationalSchedulerDataWithOneOfStatus(RUNNING, DataEngineType.SPARK_STANDALONE, RUNNING);
-        verifyNoMoreInteractions(securityService, schedulerJobDAO, computationalService);
-    }
-
-    @Test
-    public void testStopComputationalBySchedulerWhenStopDayIsNotCurrentDay() {
-        final List<DayOfWeek> stopDays = Arrays.stream(DayOfWeek.values()).collect(Collectors.toList());
-        stopDays.remove(LocalDate.now().getDayOfWeek());
-        final SchedulerJobData schedulerJobData = getSchedulerJobData(
-                LocalDate.now(), LocalDate.now().minusDays(1), Arrays.asList(DayOfWeek.values()), stopDays,
-                LocalDateTime.of(LocalDate.now(),
-                        LocalTime.now().truncatedTo(ChronoUnit.MINUTES)), false, USER,
-                LocalTime.now().truncatedTo(ChronoUnit.MINUTES)
-        );
-        when(schedulerJobDAO.getComputationalSchedulerDataWithOneOfStatus(any(UserInstanceStatus.class),
-                any(DataEngineType.class), anyVararg())).thenReturn(singletonList(schedulerJobData));
-        when(securityService.getUserInfoOffline(anyString())).thenReturn(getUserInfo());
+    public void testStopComputationalBySchedulerWhenInactivityExceeded() {
+        UserInfo userInfo = getUserInfo();
+        final UserInstanceDTO userInstanceDTO = getUserInstanceDTO();
+        userInstanceDTO.setResources(Arrays.asList(
+                getInactiveComputationalResource(COMPUTATIONAL_NAME, LocalDateTime.now().minusHours(2)),
+                getInactiveComputationalResource("activeCompName", LocalDateTime.now())));
+        when(schedulerJobDAO.getExploratoriesWithComputationalInactivityScheduler())
+                .thenReturn(singletonList(userInstanceDTO));
+        when(securityService.getServiceAccountInfo(anyString())).thenReturn(userInfo);
 
         schedulerJobService.stopComputationalByScheduler();
 
-        verify(schedulerJobDAO)
-                .getComputationalSchedulerDataWithOneOfStatus(RUNNING, DataEngineType.SPARK_STANDALONE, RUNNING);
+        verify(securityService).getServiceAccountInfo(USER);
+        verify(schedulerJobDAO).pollComputationalSchedulersToStop(any(Date.class));
+        verify(schedulerJobDAO).getExploratoriesWithComputationalInactivityScheduler();
+        verify(computationalService).stopSparkCluster(refEq(userInfo), eq(userInfo.getName()), eq(PROJECT),
+                eq(EXPLORATORY_NAME), eq(COMPUTATIONAL_NAME), eq(String.format(AUDIT_MESSAGE, EXPLORATORY_NAME)));
         verifyNoMoreInteractions(securityService, schedulerJobDAO, computationalService);
+        verifyZeroInteractions(computationalDAO);
     }
 
-
     @Test
     public void testStopExploratoryByScheduler() {
         UserInfo userInfo = getUserInfo();
-        when(schedulerJobDAO.getExploratorySchedulerWithStatusAndClusterLastActivityLessThan(any(UserInstanceStatus.class), any(Date.class))).
-                thenReturn(singletonList(getSchedulerJobData(LocalDate.now(), LocalDate.now().plusDays(1),
-                        Arrays.asList(DayOfWeek.values()), Arrays.asList(DayOfWeek.values()),
-                        LocalDateTime.of(LocalDate.now(),
-                                LocalTime.now().truncatedTo(ChronoUnit.MINUTES)), false, USER,
-                        LocalTime.now().truncatedTo(ChronoUnit.MINUTES))));
+        when(schedulerJobDAO.pollExploratorySchedulersToStop(any(Date.class), any(Date.class)))
+                .thenReturn(singletonList(getDueSchedulerJobData(false)));
         when(securityService.getServiceAccountInfo(anyString())).thenReturn(userInfo);
 
         schedulerJobService.stopExploratoryByScheduler();
 
         verify(securityService).getServiceAccountInfo(USER);
-        verify(schedulerJobDAO).getExploratorySchedulerWithStatusAndClusterLastActivityLessThan(eq(RUNNING),
-                any(Date.class));
+        verify(schedulerJobDAO).pollExploratorySchedulersToStop(any(Date.class), any(Date.class));
+        verify(schedulerJobDAO).getExploratoriesWithInactivityScheduler(any(Date.class));
         verify(exploratoryService).stop(refEq(userInfo), eq(USER), eq(PROJECT), eq(EXPLORATORY_NAME), eq(String.format(AUDIT_MESSAGE, EXPLORATORY_NAME)));
         verifyNoMoreInteractions(securityService, schedulerJobDAO, exploratoryService);
     }
 
     @Test
     public void testStopExploratoryBySchedulerWhenSchedulerIsNotConfigured() {
-        when(schedulerJobDAO.getExploratorySchedulerWithStatusAndClusterLastActivityLessThan(any(UserInstanceStatus.class), any(Date.class)))
+        when(schedulerJobDAO.pollExploratorySchedulersToStop(any(Date.class), any(Date.class)))
+                .thenReturn(Collections.emptyList());
+        when(schedulerJobDAO.getExploratoriesWithInactivityScheduler(any(Date.class)))
                 .thenReturn(Collections.emptyList());
 
         schedulerJobService.stopExploratoryByScheduler();
 
-        verify(schedulerJobDAO).getExploratorySchedulerWithStatusAndClusterLastActivityLessThan(eq(RUNNING),
-                any(Date.class));
+        verify(schedulerJobDAO).pollExploratorySchedulersToStop(any(Date.class), any(Date.class));
+        verify(schedulerJobDAO).getExploratoriesWithInactivityScheduler(any(Date.class));
         verifyNoMoreInteractions(schedulerJobDAO);
-        verifyZeroInteractions(securityService, exploratoryService);
-    }
-
-    @Test
-    public void testStopExploratoryBySchedulerWhenSchedulerFinishDateBeforeNow() {
-        final LocalDate finishDate = LocalDate.now().minusDays(1);
-        final List<DayOfWeek> stopDays = Arrays.asList(DayOfWeek.values());
-        final SchedulerJobData schedulerJobData = getSchedulerJobData(LocalDate.now(), finishDate,
-                Arrays.asList(DayOfWeek.values()), stopDays, LocalDateTime.of(LocalDate.now(),
-                        LocalTime.now().truncatedTo(ChronoUnit.MINUTES)), false, USER,
-                LocalTime.now().truncatedTo(ChronoUnit.MINUTES)
-        );
-        when(schedulerJobDAO.getExploratorySchedulerWithStatusAndClusterLastActivityLessThan(any(UserInstanceStatus.class), any(Date.class))).thenReturn(singletonList(schedulerJobData));
-        when(securityService.getUserInfoOffline(anyString())).thenReturn(getUserInfo());
-
-        schedulerJobService.stopExploratoryByScheduler();
-
-        verify(schedulerJobDAO).getExploratorySchedulerWithStatusAndClusterLastActivityLessThan(eq(RUNNING),
-                any(Date.class));
-        verifyNoMoreInteractions(securityService, schedulerJobDAO, exploratoryService);
+        verifyZeroInteractions(securityService, exploratoryService, exploratoryDAO);
     }
 
     @Test
-    public void testStopExploratoryBySchedulerWhenSchedulerStartDateAfterNow() {
-        final LocalDate now = LocalDate.now();
-        final List<DayOfWeek> stopDays = Arrays.asList(DayOfWeek.values());
-        final List<DayOfWeek> startDays = Arrays.asList(DayOfWeek.values());
-        final LocalDate beginDate = now.plusDays(1);
-        final LocalDateTime terminateDateTime = LocalDateTime.of(now, LocalTime.now().truncatedTo(ChronoUnit.MINUTES));
-        final SchedulerJobData schedulerJobData = getSchedulerJobData(beginDate, now, startDays, stopDays,
-                terminateDateTime, false, USER, LocalTime.now().truncatedTo(ChronoUnit.MINUTES)
-        );
-        when(schedulerJobDAO.getExploratorySchedulerWithStatusAndClusterLastActivityLessThan(any(UserInstanceStatus.class), any(Date.class)))
-                .thenReturn(singletonList(schedulerJobData));
-        when(securityService.getUserInfoOffline(anyString())).thenReturn(getUserInfo());
+    public void testStopExploratoryBySchedulerWhenInactivityExceeded() {
+        UserInfo userInfo = getUserInfo();
+        final UserInstanceDTO inactive = getInactiveUserInstanceDTO(LocalDateTime.now().minusHours(2));
+        final UserInstanceDTO active = getInactiveUserInstanceDTO(LocalDateTime.now()).withExploratoryName("active");
+        when(schedulerJobDAO.getExploratoriesWithInactivityScheduler(any(Date.class)))
+                .thenReturn(Arrays.asList(inactive, active));
+        when(securityService.getServiceAccountInfo(anyString())).thenReturn(userInfo);
 
         schedulerJobService.stopExploratoryByScheduler();
 
-        verify(schedulerJobDAO).getExploratorySchedulerWithStatusAndClusterLastActivityLessThan(eq(RUNNING),
-                any(Date.class));
+        verify(securityService).getServiceAccountInfo(USER);
+        verify(schedulerJobDAO).pollExploratorySchedulersToStop(any(Date.class), any(Date.class));
+        verify(schedulerJobDAO).getExploratoriesWithInactivityScheduler(any(Date.class));
+        verify(exploratoryService).stop(refEq(userInfo), eq(USER), eq(PROJECT), eq(EXPLORATORY_NAME), eq(String.format(AUDIT_MESSAGE, EXPLORATORY_NAME)));
         verifyNoMoreInteractions(securityService, schedulerJobDAO, exploratoryService);
+        verifyZeroInteractions(exploratoryDAO);
     }
 
     @Test
-    public void testStopExploratoryBySchedulerWhenStopDayIsNotCurrentDay() {
-        final List<DayOfWeek> stopDays = Arrays.stream((DayOfWeek.values())).collect(Collectors.toList());
-        stopDays.remove(LocalDate.now().getDayOfWeek());
-        final SchedulerJobData schedulerJobData = getSchedulerJobData(
-                LocalDate.now(), LocalDate.now().minusDays(1), Arrays.asList(DayOfWeek.values()), stopDays,
-                LocalDateTime.of(LocalDate.now(),
-                        LocalTime.now().truncatedTo(ChronoUnit.MINUTES)), false, USER,
-                LocalTime.now().truncatedTo(ChronoUnit.MINUTES)
-        );
-        when(schedulerJobDAO.getExploratorySchedulerWithStatusAndClusterLastActivityLessThan(any(UserInstanceStatus.class), any(Date.class))).thenReturn(singletonList(schedulerJobData));
-        when(securityService.getUserInfoOffline(anyString())).thenReturn(getUserInfo());
+    public void testStopExploratoryBySchedulerWhenClusterIsCreating() {
+        final UserInstanceDTO userInstanceDTO = getInactiveUserInstanceDTO(LocalDateTime.now().minusHours(2));
+        final UserComputationalResource computationalResource = new UserComputationalResource();
+        computationalResource.setStatus("creating");
+        userInstanceDTO.setResources(singletonList(computationalResource));
+        when(schedulerJobDAO.getExploratoriesWithInactivityScheduler(any(Date.class)))
+                .thenReturn(singletonList(userInstanceDTO));
 
         schedulerJobService.stopExploratoryByScheduler();
 
-        verify(schedulerJobDAO).getExploratorySchedulerWithStatusAndClusterLastActivityLessThan(eq(RUNNING),
-                any(Date.class));
-        verifyNoMoreInteractions(securityService, schedulerJobDAO, exploratoryService);
+        verify(schedulerJobDAO).pollExploratorySchedulersToStop(any(Date.class), any(Date.class));
+        verify(schedulerJobDAO).getExploratoriesWithInactivityScheduler(any(Date.class));
+        verifyNoMoreInteractions(schedulerJobDAO);
+        verifyZeroInteractions(securityService, exploratoryService);
     }
 
-
     @Test
     public void testStartExploratoryByScheduler() {
-        final LocalDate finishDate = LocalDate.now().plusDays(1);
-        final List<DayOfWeek> stopDays = Arrays.asList(DayOfWeek.values());
-        when(schedulerJobDAO.getExploratorySchedulerDataWithStatus(any(UserInstanceStatus.class)))
-                .thenReturn(singletonList(getSchedulerJobData(LocalDate.now(), finishDate,
-                        Arrays.asList(DayOfWeek.values()), stopDays, LocalDateTime.of(LocalDate.now(),
-                                LocalTime.now().truncatedTo(ChronoUnit.MINUTES)), false, USER,
-                        LocalTime.now().truncatedTo(ChronoUnit.MINUTES)
-                )));
+        when(schedulerJobDAO.pollExploratorySchedulersToStart(any(Date.class)))
+                .thenReturn(singletonList(getDueSchedulerJobData(false)));
         when(securityService.getServiceAccountInfo(anyString())).thenReturn(getUserInfo());
 
         schedulerJobService.startExploratoryByScheduler();
 
         verify(securityService).getServiceAccountInfo(USER);
-        verify(schedulerJobDAO).getExploratorySchedulerDataWithStatus(STOPPED);
-        verify(exploratoryService).start(refEq(getUserInfo()), eq(EXPLORATORY_NAME), eq(PROJECT), eq(String.format(AUDIT_MESSAGE, EXPLORATORY_NAME)));
+        verify(schedulerJobDAO).pollExploratorySchedulersToStart(any(Date.class));
+        verify(exploratoryService).start(refEq(getSchedulerUserInfo()), eq(EXPLORATORY_NAME), eq(PROJECT), eq(String.format(AUDIT_MESSAGE, EXPLORATORY_NAME)));
         verifyNoMoreInteractions(securityService, schedulerJobDAO, exploratoryService);
-        verify(exploratoryService).start(refEq(getUserInfo()), eq(EXPLORATORY_NAME), eq(PROJECT), eq(String.format(AUDIT_MESSAGE, EXPLORATORY_NAME)));
-        verifyNoMoreInteractions(schedulerJobDAO, exploratoryService);
         verifyZeroInteractions(computationalService, computationalDAO);
     }
 
     @Test
     public void testStartExploratoryBySchedulerWithSyncComputationalStart() {
-        final LocalDate finishDate = LocalDate.now().plusDays(1);
-        final List<DayOfWeek> stopDays = Arrays.asList(DayOfWeek.values());
-        when(schedulerJobDAO.getExploratorySchedulerDataWithStatus(any(UserInstanceStatus.class)))
-                .thenReturn(singletonList(getSchedulerJobData(LocalDate.now(), finishDate,
-                        Arrays.asList(DayOfWeek.values()), stopDays, LocalDateTime.of(LocalDate.now(),
-                                LocalTime.now().truncatedTo(ChronoUnit.MINUTES)), true, USER,
-                        LocalTime.now().truncatedTo(ChronoUnit.MINUTES)
-                )));
+        when(schedulerJobDAO.pollExploratorySchedulersToStart(any(Date.class)))
+                .thenReturn(singletonList(getDueSchedulerJobData(true)));
         when(securityService.getServiceAccountInfo(anyString())).thenReturn(getUserInfo());
         when(computationalDAO.findComputationalResourcesWithStatus(anyString(), anyString(),
                 anyString(), any(UserInstanceStatus.class))).thenReturn(singletonList(getComputationalResource(
@@ -736,10 +575,10 @@ public class SchedulerJobServiceImplTest {
         schedulerJobService.startExploratoryByScheduler();
 
         verify(securityService, times(2)).getServiceAccountInfo(USER);
-        verify(schedulerJobDAO).getExploratorySchedulerDataWithStatus(STOPPED);
-        verify(exploratoryService).start(refEq(getUserInfo()), eq(EXPLORATORY_NAME), eq(PROJECT), eq(String.format(AUDIT_MESSAGE, EXPLORATORY_NAME)));
+        verify(schedulerJobDAO).pollExploratorySchedulersToStart(any(Date.class));
+        verify(exploratoryService).start(refEq(getSchedulerUserInfo()), eq(EXPLORATORY_NAME), eq(PROJECT), eq(String.format(AUDIT_MESSAGE, EXPLORATORY_NAME)));
         verify(computationalDAO).findComputationalResourcesWithStatus(USER, PROJECT, EXPLORATORY_NAME, STOPPED);
-        verify(computationalService).startSparkCluster(refEq(getUserInfo()), eq(EXPLORATORY_NAME), eq(COMPUTATIONAL_NAME),
+        verify(computationalService).startSparkCluster(refEq(getSchedulerUserInfo()), eq(EXPLORATORY_NAME), eq(COMPUTATIONAL_NAME),
                 eq(PROJECT), eq(String.format(AUDIT_MESSAGE, EXPLORATORY_NAME)));
         verifyNoMoreInteractions(securityService, schedulerJobDAO, exploratoryService, computationalService,
                 computationalDAO);
@@ -747,14 +586,8 @@ public class SchedulerJobServiceImplTest {
 
     @Test
     public void testStartExploratoryBySchedulerWithSyncComputationalStartDataEngine() {
-        final LocalDate finishDate = LocalDate.now().plusDays(1);
-        final List<DayOfWeek> stopDays = Arrays.asList(DayOfWeek.values());
-        when(schedulerJobDAO.getExploratorySchedulerDataWithStatus(any(UserInstanceStatus.class)))
-                .thenReturn(singletonList(getSchedulerJobData(LocalDate.now(), finishDate,
-                        Arrays.asList(DayOfWeek.values()), stopDays, LocalDateTime.of(LocalDate.now(),
-                                LocalTime.now().truncatedTo(ChronoUnit.MINUTES)), true, USER,
-                        LocalTime.now().truncatedTo(ChronoUnit.MINUTES)
-                )));
+        when(schedulerJobDAO.pollExploratorySchedulersToStart(any(Date.class)))
+                .thenReturn(singletonList(getDueSchedulerJobData(true)));
         when(securityService.getServiceAccountInfo(anyString())).thenReturn(getUserInfo());
         when(computationalDAO.findComputationalResourcesWithStatus(anyString(), anyString(),
                 anyString(), any(UserInstanceStatus.class))).thenReturn(singletonList(getComputationalResource(
@@ -763,8 +596,8 @@ public class SchedulerJobServiceImplTest {
         schedulerJobService.startExploratoryByScheduler();
 
         verify(securityService).getServiceAccountInfo(USER);
-        verify(schedulerJobDAO).getExploratorySchedulerDataWithStatus(STOPPED);
-        verify(exploratoryService).start(refEq(getUserInfo()), eq(EXPLORATORY_NAME), eq(PROJECT), eq(String.format(AUDIT_MESSAGE, EXPLORATORY_NAME)));
+        verify(schedulerJobDAO).pollExploratorySchedulersToStart(any(Date.class));
+        verify(exploratoryService).start(refEq(getSchedulerUserInfo()), eq(EXPLORATORY_NAME), eq(PROJECT), eq(String.format(AUDIT_MESSAGE, EXPLORATORY_NAME)));
         verify(computationalDAO).findComputationalResourcesWithStatus(USER, PROJECT, EXPLORATORY_NAME, STOPPED);
         verifyNoMoreInteractions(securityService, schedulerJobDAO, exploratoryService, computationalDAO);
         verifyZeroInteractions(computationalService);
@@ -772,14 +605,8 @@ public class SchedulerJobServiceImplTest {
 
     @Test
     public void testStartExploratoryBySchedulerWithSyncComputationalStartOnExploratoryButNotOnComputational() {
-        final LocalDate finishDate = LocalDate.now().plusDays(1);
-        final List<DayOfWeek> stopDays = Arrays.asList(DayOfWeek.values());
-        when(schedulerJobDAO.getExploratorySchedulerDataWithStatus(any(UserInstanceStatus.class)))
-                .thenReturn(singletonList(getSchedulerJobData(LocalDate.now(), finishDate,
-                        Arrays.asList(DayOfWeek.values()), stopDays, LocalDateTime.of(LocalDate.now(),
-                                LocalTime.now().truncatedTo(ChronoUnit.MINUTES)), true, USER,
-                        LocalTime.now().truncatedTo(ChronoUnit.MINUTES)
-                )));
+        when(schedulerJobDAO.pollExploratorySchedulersToStart(any(Date.class)))
+                .thenReturn(singletonList(getDueSchedulerJobData(true)));
         when(securityService.getServiceAccountInfo(anyString())).thenReturn(getUserInfo());
         when(computationalDAO.findComputationalResourcesWithStatus(anyString(), anyString(),
                 anyString(), any(UserInstanceStatus.class))).thenReturn(singletonList(getComputationalResource(
@@ -788,8 +615,8 @@ public class SchedulerJobServiceImplTest {
         schedulerJobService.startExploratoryByScheduler();
 
         verify(securityService).getServiceAccountInfo(USER);
-        verify(schedulerJobDAO).getExploratorySchedulerDataWithStatus(STOPPED);
-        verify(exploratoryService).start(refEq(getUserInfo()), eq(EXPLORATORY_NAME), eq(PROJECT), eq(String.format(AUDIT_MESSAGE, EXPLORATORY_NAME)));
+        verify(schedulerJobDAO).pollExploratorySchedulersToStart(any(Date.class));
+        verify(exploratoryService).start(refEq(getSchedulerUserInfo()), eq(EXPLORATORY_NAME), eq(PROJECT), eq(String.format(AUDIT_MESSAGE, EXPLORATORY_NAME)));
         verify(computationalDAO).findComputationalResourcesWithStatus(USER, PROJECT, EXPLORATORY_NAME, STOPPED);
         verifyNoMoreInteractions(securityService, schedulerJobDAO, exploratoryService, computationalDAO);
         verifyZeroInteractions(computationalService);
@@ -797,91 +624,46 @@ public class SchedulerJobServiceImplTest {
 
     @Test
     public void testStartExploratoryBySchedulerWhenSchedulerIsNotConfigured() {
-        when(schedulerJobDAO.getExploratorySchedulerDataWithStatus(any(UserInstanceStatus.class))).thenReturn(Collections.emptyList());
+        when(schedulerJobDAO.pollExploratorySchedulersToStart(any(Date.class))).thenReturn(Collections.emptyList());
 
         schedulerJobService.startExploratoryByScheduler();
 
-        verify(schedulerJobDAO).getExploratorySchedulerDataWithStatus(STOPPED);
+        verify(schedulerJobDAO).pollExploratorySchedulersToStart(any(Date.class));
         verifyNoMoreInteractions(schedulerJobDAO);
         verifyZeroInteractions(securityService, exploratoryService, computationalService, computationalDAO);
     }
 
     @Test
-    public void testStartExploratoryBySchedulerWhenSchedulerFinishDateBeforeNow() {
-        final LocalDate finishDate = LocalDate.now().minusDays(1);
-        final List<DayOfWeek> stopDays = Arrays.asList(DayOfWeek.values());
-        final SchedulerJobData schedulerJobData = getSchedulerJobData(LocalDate.now(), finishDate,
-                Arrays.asList(DayOfWeek.values()), stopDays, LocalDateTime.of(LocalDate.now(),
-                        LocalTime.now().truncatedTo(ChronoUnit.MINUTES)), false, USER,
-                LocalTime.now().truncatedTo(ChronoUnit.MINUTES)
-        );
-        when(schedulerJobDAO.getExploratorySchedulerDataWithStatus(any(UserInstanceStatus.class))).thenReturn(singletonList(schedulerJobData));
-        when(securityService.getUserInfoOffline(anyString())).thenReturn(getUserInfo());
-
-        schedulerJobService.startExploratoryByScheduler();
-
-        verify(schedulerJobDAO).getExploratorySchedulerDataWithStatus(STOPPED);
-        verifyZeroInteractions(securityService, exploratoryService, computationalService, computationalDAO);
-    }
-
-    @Test
-    public void testStartExploratoryBySchedulerWhenSchedulerStartDateAfterNow() {
-        final LocalDate finishDate = LocalDate.now();
-        final List<DayOfWeek> stopDays = Arrays.asList(DayOfWeek.values());
-        final LocalDate beginDate = LocalDate.now().plusDays(1);
-        final List<DayOfWeek> startDays = Arrays.asList(DayOfWeek.values());
-        final LocalDateTime terminateDateTime = LocalDateTime.of(LocalDate.now(),
-                LocalTime.now().truncatedTo(ChronoUnit.MINUTES));
-        final SchedulerJobData schedulerJobData = getSchedulerJobData(beginDate, finishDate, startDays, stopDays,
-                terminateDateTime, false, USER, LocalTime.now().truncatedTo(ChronoUnit.MINUTES));
-        when(schedulerJobDAO.getExploratorySchedulerDataWithStatus(any(UserInstanceStatus.class))).thenReturn(singletonList(schedulerJobData));
-        when(securityService.getUserInfoOffline(anyString())).thenReturn(getUserInfo());
-
-        schedulerJobService.startExploratoryByScheduler();
-
-        verify(schedulerJobDAO).getExploratorySchedulerDataWithStatus(STOPPED);
-        verifyZeroInteractions(securityService, exploratoryService, computationalService, computationalDAO);
-    }
-
-    @Test
-    public void testStartExploratoryBySchedulerWhenStartDayIsNotCurrentDay() {
-        final List<DayOfWeek> stopDays = Arrays.stream((DayOfWeek.values())).collect(Collectors.toList());
-        final List<DayOfWeek> startDays = Arrays.stream(DayOfWeek.values()).collect(Collectors.toList());
-        startDays.remove(LocalDate.now().getDayOfWeek());
-        final SchedulerJobData schedulerJobData = getSchedulerJobData(
-                LocalDate.now(), LocalDate.now().minusDays(1), startDays, stopDays, LocalDateTime.of(LocalDate.now(),
-                        LocalTime.now().truncatedTo(ChronoUnit.MINUTES)), false, USER,
-                LocalTime.now().truncatedTo(ChronoUnit.MINUTES));
-        when(schedulerJobDAO.getExploratorySchedulerDataWithStatus(any(UserInstanceStatus.class))).thenReturn(singletonList(schedulerJobData));
-        when(securityService.getUserInfoOffline(anyString())).thenReturn(getUserInfo());
+    public void testStartExploratoryBySchedulerWhenOneOfActionsFails() {
+        final SchedulerJobData failed = new SchedulerJobData("failedUser", "failedExplName", null, PROJECT,
+                getDueSchedulerJobData(false).getJobDTO());
+        when(schedulerJobDAO.pollExploratorySchedulersToStart(any(Date.class)))
+                .thenReturn(Arrays.asList(failed, getDueSchedulerJobData(false)));
+        when(securityService.getServiceAccountInfo(anyString())).thenReturn(getUserInfo());
+        doThrow(new DatalabException("Exception message")).when(exploratoryService)
+                .start(any(UserInfo.class), eq("failedExplName"), anyString(), anyString());
 
         schedulerJobService.startExploratoryByScheduler();
 
-        verify(schedulerJobDAO).getExploratorySchedulerDataWithStatus(STOPPED);
-        verifyZeroInteractions(securityService, exploratoryService, computationalService, computationalDAO);
+        verify(securityService).getServiceAccountInfo("failedUser");
+        verify(securityService).getServiceAccountInfo(USER);
+        verify(schedulerJobDAO).pollExploratorySchedulersToStart(any(Date.class));
+        verify(exploratoryService).start(refEq(getSchedulerUserInfo()), eq("failedExplName"), eq(PROJECT), eq(String.format(AUDIT_MESSAGE, "failedExplName")));
+        verify(exploratoryService).start(refEq(getSchedulerUserInfo()), eq(EXPLORATORY_NAME), eq(PROJECT), eq(String.format(AUDIT_MESSAGE, EXPLORATORY_NAME)));
+        verifyNoMoreInteractions(securityService, schedulerJobDAO, exploratoryService);
     }
 
-
     @Test
     public void testTerminateComputationalByScheduler() {
-        final List<DayOfWeek> stopDays = Arrays.asList(DayOfWeek.values());
-        final List<DayOfWeek> startDays = Arrays.asList(DayOfWeek.values());
-        final LocalDateTime terminateDateTime = LocalDateTime.of(LocalDate.now(),
-                LocalTime.now().truncatedTo(ChronoUnit.MINUTES));
-        final LocalDate finishDate = LocalDate.now().plusDays(1);
-        final SchedulerJobData schedulerJobData = getSchedulerJobData(LocalDate.now(), finishDate, startDays, stopDays
-                , terminateDateTime, false, USER, LocalTime.now().truncatedTo(ChronoUnit.MINUTES)
-        );
-        when(schedulerJobDAO.getComputationalSchedulerDataWithOneOfStatus(any(UserInstanceStatus.class),
-                anyVararg())).thenReturn(singletonList(schedulerJobData));
+        when(schedulerJobDAO.pollComputationalSchedulersToTerminate(any(Date.class)))
+                .thenReturn(singletonList(getDueSchedulerJobData(false)));
         UserInfo userInfo = getUserInfo();
         when(securityService.getServiceAccountInfo(anyString())).thenReturn(userInfo);
 
         schedulerJobService.terminateComputationalByScheduler();
 
         verify(securityService).getServiceAccountInfo(USER);
-        verify(schedulerJobDAO)
-                .getComputationalSchedulerDataWithOneOfStatus(RUNNING, STOPPED, RUNNING);
+        verify(schedulerJobDAO).pollComputationalSchedulersToTerminate(any(Date.class));
         verify(computationalService).terminateComputational(refEq(userInfo), eq(userInfo.getName()), eq(PROJECT), eq(EXPLORATORY_NAME), eq(COMPUTATIONAL_NAME),
                 eq(String.format(AUDIT_MESSAGE, EXPLORATORY_NAME)));
         verifyNoMoreInteractions(securityService, schedulerJobDAO, computationalService);
@@ -889,164 +671,42 @@ public class SchedulerJobServiceImplTest {
 
     @Test
     public void testTerminateComputationalBySchedulerWhenSchedulerIsNotConfigured() {
-        when(schedulerJobDAO.getComputationalSchedulerDataWithOneOfStatus(any(UserInstanceStatus.class),
-                any(DataEngineType.class), anyVararg())).thenReturn(Collections.emptyList());
+        when(schedulerJobDAO.pollComputationalSchedulersToTerminate(any(Date.class)))
+                .thenReturn(Collections.emptyList());
 
         schedulerJobService.terminateComputationalByScheduler();
 
-        verify(schedulerJobDAO).getComputationalSchedulerDataWithOneOfStatus(RUNNING, STOPPED, RUNNING);
+        verify(schedulerJobDAO).pollComputationalSchedulersToTerminate(any(Date.class));
         verifyNoMoreInteractions(schedulerJobDAO);
         verifyZeroInteractions(securityService, computationalService);
     }
 
-    @Test
-    public void testTerminateComputationalBySchedulerWhenSchedulerFinishDateBeforeNow() {
-        final SchedulerJobData schedulerJobData = getSchedulerJobData(
-                LocalDate.now(), LocalDate.now().minusDays(1), Arrays.asList(DayOfWeek.values()),
-                Arrays.asList(DayOfWeek.values()), LocalDateTime.of(LocalDate.now(),
-                        LocalTime.now().truncatedTo(ChronoUnit.MINUTES)), false, USER,
-                LocalTime.now().truncatedTo(ChronoUnit.MINUTES)
-        );
-        when(schedulerJobDAO.getComputationalSchedulerDataWithOneOfStatus(any(UserInstanceStatus.class),
-                any(DataEngineType.class), anyVararg())).thenReturn(singletonList(schedulerJobData));
-        when(securityService.getUserInfoOffline(anyString())).thenReturn(getUserInfo());
-
-        schedulerJobService.terminateComputationalByScheduler();
-
-        verify(schedulerJobDAO).getComputationalSchedulerDataWithOneOfStatus(RUNNING, STOPPED, RUNNING);
-        verifyNoMoreInteractions(securityService, schedulerJobDAO, computationalService);
-    }
-
-    @Test
-    public void testTerminateComputationalBySchedulerWhenSchedulerStartDateAfterNow() {
-        final LocalDate beginDate = LocalDate.now().plusDays(1);
-        final LocalDate finishDate = LocalDate.now();
-        final List<DayOfWeek> startDays = Arrays.asList(DayOfWeek.values());
-        final List<DayOfWeek> stopDays = Arrays.asList(DayOfWeek.values());
-        final LocalDateTime terminateDateTime = LocalDateTime.of(LocalDate.now(),
-                LocalTime.now().truncatedTo(ChronoUnit.MINUTES));
-        final SchedulerJobData schedulerJobData = getSchedulerJobData(beginDate, finishDate, startDays, stopDays,
-                terminateDateTime, false, USER, LocalTime.now().truncatedTo(ChronoUnit.MINUTES));
-        when(schedulerJobDAO.getComputationalSchedulerDataWithOneOfStatus(any(UserInstanceStatus.class),
-                any(DataEngineType.class), anyVararg())).thenReturn(singletonList(schedulerJobData));
-        when(securityService.getUserInfoOffline(anyString())).thenReturn(getUserInfo());
-
-        schedulerJobService.terminateComputationalByScheduler();
-
-        verify(schedulerJobDAO).getComputationalSchedulerDataWithOneOfStatus(RUNNING, STOPPED, RUNNING);
-        verifyNoMoreInteractions(securityService, schedulerJobDAO, computationalService);
-    }
-
-    @Test
-    public void testTerminateComputationalBySchedulerWhenTerminateDateNotCurrent() {
-        final List<DayOfWeek> stopDays = Arrays.stream(DayOfWeek.values()).collect(Collectors.toList());
-        stopDays.remove(LocalDate.now().getDayOfWeek());
-        final LocalDateTime terminateDateTime = LocalDateTime.of(LocalDate.now(),
-                LocalTime.now().truncatedTo(ChronoUnit.MINUTES)).plusDays(1);
-        final SchedulerJobData schedulerJobData = getSchedulerJobData(
-                LocalDate.now(), LocalDate.now().minusDays(1), Arrays.asList(DayOfWeek.values()), stopDays,
-                terminateDateTime, false, USER, LocalTime.now().truncatedTo(ChronoUnit.MINUTES)
-        );
-        when(schedulerJobDAO.getComputationalSchedulerDataWithOneOfStatus(any(UserInstanceStatus.class),
-                any(DataEngineType.class), anyVararg())).thenReturn(singletonList(schedulerJobData));
-        when(securityService.getUserInfoOffline(anyString())).thenReturn(getUserInfo());
-
-        schedulerJobService.terminateComputationalByScheduler();
-
-        verify(schedulerJobDAO)
-                .getComputationalSchedulerDataWithOneOfStatus(RUNNING, STOPPED, RUNNING);
-        verifyNoMoreInteractions(securityService, schedulerJobDAO, computationalService);
-    }
-
     @Test
     public void testTerminateExploratoryByScheduler() {
-        final List<DayOfWeek> stopDays = Arrays.asList(DayOfWeek.values());
-        final List<DayOfWeek> startDays = Arrays.asList(DayOfWeek.values());
-        final LocalDateTime terminateDateTime = LocalDateTime.of(LocalDate.now(),
-                LocalTime.now().truncatedTo(ChronoUnit.MINUTES));
-        final LocalDate finishDate = LocalDate.now().plusDays(1);
-        final SchedulerJobData schedulerJobData = getSchedulerJobData(LocalDate.now(), finishDate, startDays, stopDays
-                , terminateDateTime, false, USER, LocalTime.now().truncatedTo(ChronoUnit.MINUTES)
-        );
-        when(schedulerJobDAO.getExploratorySchedulerDataWithOneOfStatus(anyVararg())).thenReturn(singletonList(schedulerJobData));
+        when(schedulerJobDAO.pollExploratorySchedulersToTerminate(any(Date.class)))
+                .thenReturn(singletonList(getDueSchedulerJobData(false)));
         when(securityService.getUserInfoOffline(anyString())).thenReturn(getUserInfo());
 
         schedulerJobService.terminateExploratoryByScheduler();
 
         verify(securityService).getUserInfoOffline(USER);
-        verify(schedulerJobDAO).getExploratorySchedulerDataWithOneOfStatus(RUNNING, STOPPED);
-        verify(exploratoryService).terminate(refEq(getUserInfo()), eq(USER), eq(PROJECT), eq(EXPLORATORY_NAME), eq(String.format(AUDIT_MESSAGE, EXPLORATORY_NAME)));
+        verify(schedulerJobDAO).pollExploratorySchedulersToTerminate(any(Date.class));
+        verify(exploratoryService).terminate(refEq(getSchedulerUserInfo()), eq(USER), eq(PROJECT), eq(EXPLORATORY_NAME), eq(String.format(AUDIT_MESSAGE, EXPLORATORY_NAME)));
         verifyNoMoreInteractions(securityService, schedulerJobDAO, computationalService, exploratoryService);
     }
 
     @Test
     public void testTerminateExploratoryBySchedulerWhenSchedulerIsNotConfigured() {
-        when(schedulerJobDAO.getComputationalSchedulerDataWithOneOfStatus(any(UserInstanceStatus.class),
-                any(DataEngineType.class), anyVararg())).thenReturn(Collections.emptyList());
+        when(schedulerJobDAO.pollExploratorySchedulersToTerminate(any(Date.class)))
+                .thenReturn(Collections.emptyList());
 
         schedulerJobService.terminateExploratoryByScheduler();
 
-        verify(schedulerJobDAO).getExploratorySchedulerDataWithOneOfStatus(RUNNING, STOPPED);
+        verify(schedulerJobDAO).pollExploratorySchedulersToTerminate(any(Date.class));
         verifyNoMoreInteractions(schedulerJobDAO);
         verifyZeroInteractions(securityService, exploratoryService, computationalService);
     }
 
-    @Test
-    public void testTerminateExploratoryBySchedulerWhenSchedulerFinishDateBeforeNow() {
-        final SchedulerJobData schedulerJobData = getSchedulerJobData(
-                LocalDate.now(), LocalDate.now().minusDays(1), Arrays.asList(DayOfWeek.values()),
-                Arrays.asList(DayOfWeek.values()), LocalDateTime.of(LocalDate.now(),
-                        LocalTime.now().truncatedTo(ChronoUnit.MINUTES)), false, USER,
-                LocalTime.now().truncatedTo(ChronoUnit.MINUTES)
-        );
-        when(schedulerJobDAO.getExploratorySchedulerDataWithOneOfStatus(anyVararg())).thenReturn(singletonList(schedulerJobData));
-        when(securityService.getUserInfoOffline(anyString())).thenReturn(getUserInfo());
-
-        schedulerJobService.terminateExploratoryByScheduler();
-
-        verify(schedulerJobDAO).getExploratorySchedulerDataWithOneOfStatus(RUNNING, STOPPED);
-        verifyNoMoreInteractions(securityService, schedulerJobDAO, exploratoryService, computationalService);
-    }
-
-    @Test
-    public void testTerminateExploratoryBySchedulerWhenSchedulerStartDateAfterNow() {
-        final LocalDate beginDate = LocalDate.now().plusDays(1);
-        final LocalDate finishDate = LocalDate.now();
-        final List<DayOfWeek> startDays = Arrays.asList(DayOfWeek.values());
-        final List<DayOfWeek> stopDays = Arrays.asList(DayOfWeek.values());
-        final LocalDateTime terminateDateTime = LocalDateTime.of(LocalDate.now(),
-                LocalTime.now().truncatedTo(ChronoUnit.MINUTES));
-        final SchedulerJobData schedulerJobData = getSchedulerJobData(
-                beginDate, finishDate, startDays, stopDays, terminateDateTime, false, USER,
-                LocalTime.now().truncatedTo(ChronoUnit.MINUTES));
-        when(schedulerJobDAO.getExploratorySchedulerDataWithOneOfStatus(anyVararg())).thenReturn(singletonList(schedulerJobData));
-        when(securityService.getUserInfoOffline(anyString())).thenReturn(getUserInfo());
-
-        schedulerJobService.terminateExploratoryByScheduler();
-
-        verify(schedulerJobDAO).getExploratorySchedulerDataWithOneOfStatus(RUNNING, STOPPED);
-        verifyNoMoreInteractions(securityService, schedulerJobDAO, exploratoryService, computationalService);
-    }
-
-    @Test
-    public void testTerminateExploratoryBySchedulerWhenTerminateDateNotCurrent() {
-        final List<DayOfWeek> stopDays = Arrays.stream(DayOfWeek.values()).collect(Collectors.toList());
-        stopDays.remove(LocalDate.now().getDayOfWeek());
-        final LocalDateTime terminateDateTime = LocalDateTime.of(LocalDate.now(),
-                LocalTime.now().truncatedTo(ChronoUnit.MINUTES)).plusDays(1);
-        final SchedulerJobData schedulerJobData = getSchedulerJobData(
-                LocalDate.now(), LocalDate.now().minusDays(1), Arrays.asList(DayOfWeek.values()), stopDays,
-                terminateDateTime, false, USER, LocalTime.now().truncatedTo(ChronoUnit.MINUTES)
-        );
-        when(schedulerJobDAO.getExploratorySchedulerDataWithOneOfStatus(anyVararg())).thenReturn(singletonList(schedulerJobData));
-        when(securityService.getUserInfoOffline(anyString())).thenReturn(getUserInfo());
-
-        schedulerJobService.terminateExploratoryByScheduler();
-
-        verify(schedulerJobDAO).getExploratorySchedulerDataWithOneOfStatus(RUNNING, STOPPED);
-        verifyNoMoreInteractions(securityService, schedulerJobDAO, computationalService, exploratoryService);
-    }
-
     @Test
     public void testGetActiveSchedulers() {
         final int minutesOffset = 123;
@@ -1082,10 +742,53 @@ public class SchedulerJobServiceImplTest {
                 schedulerFinishDate, startDays, stopDays, syncStartRequired, terminateDateTime, endTime));
     }
 
+    private SchedulerJobData getDueSchedulerJobData(boolean syncStartRequired) {
+        return getSchedulerJobData(LocalDate.now(), LocalDate.now().plusDays(1), Arrays.asList(DayOfWeek.values()),
+                Arrays.asList(DayOfWeek.values()), LocalDateTime.of(LocalDate.now(),
+                        LocalTime.now().truncatedTo(ChronoUnit.MINUTES)), syncStartRequired, USER,
+                LocalTime.now().truncatedTo(ChronoUnit.MINUTES));
+    }
+
+    private SchedulerJobDTO getInactivitySchedulerJobDTO() {
+        final SchedulerJobDTO schedulerJobDTO = new SchedulerJobDTO();
+        schedulerJobDTO.setMaxInactivity(60L);
+        schedulerJobDTO.setCheckInactivityRequired(true);
+        return schedulerJobDTO;
+    }
+
+    private UserInstanceDTO getInactiveUserInstanceDTO(LocalDateTime lastActivity) {
+        final UserInstanceDTO userInstanceDTO = new UserInstanceDTO()
+                .withUser(USER)
+                .withExploratoryName(EXPLORATORY_NAME)
+                .withStatus("running")
+                .withResources(Collections.emptyList())
+                .withProject(PROJECT);
+        userInstanceDTO.setSchedulerData(getInactivitySchedulerJobDTO());
+        userInstanceDTO.setLastActivity(lastActivity);
+        return userInstanceDTO;
+    }
+
+    private AwsComputationalResource getInactiveComputationalResource(String computationalName,
+                                                                      LocalDateTime lastActivity) {
+        return AwsComputationalResource.builder()
+                .computationalName(computationalName)
+                .imageName(DataEngineType.getDockerImageName(DataEngineType.SPARK_STANDALONE))
+                .status("running")
+                .lastActivity(lastActivity)
+                .schedulerJobData(getInactivitySchedulerJobDTO())
+                .build();
+    }
+
     private UserInfo getUserInfo() {
         return new UserInfo(USER, "token");
     }
 
+    private UserInfo getSchedulerUserInfo() {
+        UserInfo userInfo = getUserInfo();
+        userInfo.setScheduled(true);
+        return userInfo;
+    }
+
     private SchedulerJobDTO getSchedulerJobDTO(LocalDate beginDate, LocalDate finishDate, List<DayOfWeek> startDays,
                                                List<DayOfWeek> stopDays, boolean syncStartRequired,
                                                LocalDateTime terminateDateTime, LocalTime endTime) {